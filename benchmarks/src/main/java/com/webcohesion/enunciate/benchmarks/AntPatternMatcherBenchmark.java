@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import com.webcohesion.enunciate.util.AntPatternMatcher;
+import com.webcohesion.enunciate.util.AntPatternSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches class names against include/exclude patterns, the way the API element filters do.
+ *
+ * @author Ryan Heaton
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntPatternMatcherBenchmark {
+
+  private static final String[] PATTERNS = {"com.example.**", "com.example.*.model.*", "**.internal.**", "org.*.api.*Resource", "com.example.legacy.**.*Bean"};
+  private static final String[] PATHS = {"com.example.Person", "com.example.people.model.Person", "com.example.internal.util.Strings", "org.acme.api.PersonResource", "net.other.Thing", "com.example.legacy.v1.dto.PersonBean"};
+
+  private final AntPatternMatcher matcher = new AntPatternMatcher();
+  private final AntPatternSet patternSet = new AntPatternSet(Arrays.asList(PATTERNS));
+
+  @Setup
+  public void setUp() {
+    this.matcher.setPathSeparator(".");
+  }
+
+  @Benchmark
+  public void match(Blackhole blackhole) {
+    for (String pattern : PATTERNS) {
+      for (String path : PATHS) {
+        blackhole.consume(this.matcher.match(pattern, path));
+      }
+    }
+  }
+
+  @Benchmark
+  public void matchCompiled(Blackhole blackhole) {
+    for (String path : PATHS) {
+      blackhole.consume(this.patternSet.matches(path));
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import com.webcohesion.enunciate.Enunciate;
+import com.webcohesion.enunciate.EnunciateLogger;
+import com.webcohesion.enunciate.module.EnunciateModule;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Utilities for setting up the benchmarks.
+ *
+ * @author Ryan Heaton
+ */
+public class BenchmarkSupport {
+
+  /**
+   * The modules that provide the API model.
+   */
+  public static final List<String> PROVIDER_MODULES = Arrays.asList("jaxb", "jackson", "jackson1", "jaxrs", "jaxws", "spring-web");
+
+  private BenchmarkSupport() {
+  }
+
+  /**
+   * The directory of the example API that is used for the end-to-end benchmark.
+   *
+   * @return The directory of the example API.
+   */
+  public static File getExampleDir() throws IOException {
+    String dir = System.getProperty("enunciate.benchmarks.example.dir");
+    if (dir == null) {
+      Properties properties = new Properties();
+      InputStream in = BenchmarkSupport.class.getResourceAsStream("benchmarks.properties");
+      try {
+        properties.load(in);
+      }
+      finally {
+        in.close();
+      }
+      dir = properties.getProperty("api.example.dir");
+    }
+    return new File(dir);
+  }
+
+  /**
+   * Create an instance of Enunciate for the API at the specified source directory.
+   *
+   * @param sourceDir The source directory.
+   * @param buildDir  The build directory.
+   * @param modules   The names of the modules to run, or null to run all the modules on the classpath.
+   * @return The instance of Enunciate.
+   */
+  public static Enunciate createEnunciate(File sourceDir, File buildDir, Collection<String> modules) {
+    Enunciate enunciate = new Enunciate();
+    enunciate.setLogger(new QuietLogger());
+    enunciate.loadDiscoveredModules();
+    if (modules != null) {
+      List<EnunciateModule> selected = new ArrayList<EnunciateModule>();
+      for (EnunciateModule module : enunciate.getModules()) {
+        if (modules.contains(module.getName())) {
+          selected.add(module);
+        }
+      }
+      enunciate.setModules(selected);
+    }
+    enunciate.addSourceDir(sourceDir);
+    enunciate.setSourcepath(new ArrayList<File>(Arrays.asList(sourceDir)));
+    enunciate.setClasspath(getClasspath());
+    enunciate.setBuildDir(buildDir);
+    return enunciate;
+  }
+
+  /**
+   * The classpath of this JVM, which is used as the classpath of the API.
+   *
+   * @return The classpath.
+   */
+  public static List<File> getClasspath() {
+    List<File> classpath = new ArrayList<File>();
+    for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      if (!entry.isEmpty()) {
+        classpath.add(new File(entry));
+      }
+    }
+    return classpath;
+  }
+
+  /**
+   * Create a new temporary directory.
+   *
+   * @param prefix The prefix.
+   * @return The directory.
+   */
+  public static File createTempDir(String prefix) throws IOException {
+    File dir = File.createTempFile(prefix, "");
+    if (!dir.delete() || !dir.mkdirs()) {
+      throw new IOException("Unable to create temporary directory " + dir);
+    }
+    return dir;
+  }
+
+  /**
+   * Delete the specified file or directory.
+   *
+   * @param file The file or directory.
+   */
+  public static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * A logger that only logs warnings and errors, so the benchmarks aren't measuring console output.
+   */
+  public static class QuietLogger implements EnunciateLogger {
+
+    @Override
+    public void debug(String message, Object... formatArgs) {
+    }
+
+    @Override
+    public void info(String message, Object... formatArgs) {
+    }
+
+    @Override
+    public void warn(String message, Object... formatArgs) {
+      System.err.println("[WARN] " + String.format(message, formatArgs));
+    }
+
+    @Override
+    public void error(String message, Object... formatArgs) {
+      System.err.println("[ERROR] " + String.format(message, formatArgs));
+    }
+  }
+}
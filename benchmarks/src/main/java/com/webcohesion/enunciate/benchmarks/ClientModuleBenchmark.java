@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each generating module on its own (with the modules that provide the API model) against a synthetic API, so a
+ * regression in the templates or the model of a single module is visible.
+ *
+ * @author Ryan Heaton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ClientModuleBenchmark {
+
+  @Param({"java-xml-client", "java-json-client", "csharp-xml-client", "c-xml-client", "obj-c-xml-client", "php-xml-client", "php-json-client", "ruby-json-client", "javascript-client", "gwt-json-overlay", "idl", "swagger", "docs"})
+  public String module;
+
+  @Param({"500"})
+  public int typeCount;
+
+  private File sourceDir;
+  private File buildDir;
+  private List<String> modules;
+
+  @Setup(Level.Trial)
+  public void generateApi() throws IOException {
+    this.sourceDir = BenchmarkSupport.createTempDir("enunciate-synthetic-src");
+    SyntheticApi.generate(this.sourceDir, this.typeCount);
+    this.modules = new ArrayList<String>(BenchmarkSupport.PROVIDER_MODULES);
+    this.modules.add(this.module);
+  }
+
+  @Setup(Level.Invocation)
+  public void createBuildDir() throws IOException {
+    this.buildDir = BenchmarkSupport.createTempDir("enunciate-module-build");
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteBuildDir() {
+    BenchmarkSupport.delete(this.buildDir);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteApi() {
+    BenchmarkSupport.delete(this.sourceDir);
+  }
+
+  @Benchmark
+  public void generate() {
+    BenchmarkSupport.createEnunciate(this.sourceDir, this.buildDir, this.modules).run();
+  }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import com.webcohesion.enunciate.javac.decorations.AnnotationMirrorDecoration;
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.decorations.ElementDecoration;
+import com.webcohesion.enunciate.javac.decorations.ElementDecorator;
+import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecoration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorates the elements of a synthetic API (each type and its members), the way the modules do when they walk the
+ * API model.
+ *
+ * @author Ryan Heaton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementDecoratorBenchmark {
+
+  @Param({"true", "false"})
+  public boolean decorationCache;
+
+  private File sourceDir;
+  private ProcessingEnvironment processingEnvironment;
+  private final List<Element> elements = new ArrayList<Element>();
+  private DecoratedProcessingEnvironment env;
+
+  @Setup(Level.Trial)
+  public void compileApi() throws IOException {
+    this.sourceDir = BenchmarkSupport.createTempDir("enunciate-synthetic-src");
+    File packageDir = SyntheticApi.generate(this.sourceDir, 100);
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    Iterable<? extends JavaFileObject> sources = fileManager.getJavaFileObjects(packageDir.listFiles());
+    List<String> options = Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path"));
+    JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, sources);
+    task.setProcessors(Collections.singletonList(new CaptureProcessor()));
+    if (!task.call()) {
+      throw new IllegalStateException("Unable to compile the synthetic API.");
+    }
+    fileManager.close();
+  }
+
+  @Setup(Level.Iteration)
+  public void createEnvironment() {
+    this.env = new DecoratedProcessingEnvironment(this.processingEnvironment, new ArrayList<ElementDecoration>(), new ArrayList<TypeMirrorDecoration>(), new ArrayList<AnnotationMirrorDecoration>());
+    this.env.setDecorationCacheEnabled(this.decorationCache);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteApi() {
+    BenchmarkSupport.delete(this.sourceDir);
+  }
+
+  @Benchmark
+  public void decorate(Blackhole blackhole) {
+    for (Element element : this.elements) {
+      blackhole.consume(ElementDecorator.decorate(element, this.env));
+    }
+  }
+
+  /**
+   * Captures the processing environment and the elements of the API.
+   */
+  @SupportedAnnotationTypes("*")
+  private class CaptureProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (!roundEnv.processingOver()) {
+        processingEnvironment = this.processingEnv;
+        for (Element element : roundEnv.getRootElements()) {
+          elements.add(element);
+          elements.addAll(element.getEnclosedElements());
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import com.webcohesion.enunciate.Enunciate;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Enunciate end-to-end against the "full-api-edge-cases" example, with the example's configuration.
+ *
+ * @author Ryan Heaton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExampleApiBenchmark {
+
+  private File exampleDir;
+  private File buildDir;
+
+  @Setup(Level.Trial)
+  public void findExample() throws IOException {
+    this.exampleDir = BenchmarkSupport.getExampleDir();
+    if (!new File(this.exampleDir, "src/main/java").isDirectory()) {
+      throw new IllegalStateException("Example API not found at " + this.exampleDir + ". Set the 'enunciate.benchmarks.example.dir' system property.");
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void createBuildDir() throws IOException {
+    this.buildDir = BenchmarkSupport.createTempDir("enunciate-example-build");
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteBuildDir() {
+    BenchmarkSupport.delete(this.buildDir);
+  }
+
+  @Benchmark
+  public void fullApiEdgeCases() {
+    Enunciate enunciate = BenchmarkSupport.createEnunciate(new File(this.exampleDir, "src/main/java"), this.buildDir, null);
+    enunciate.loadConfiguration(new File(this.exampleDir, "enunciate.xml"));
+    enunciate.run();
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import com.webcohesion.enunciate.facets.Facet;
+import com.webcohesion.enunciate.facets.FacetFilter;
+import com.webcohesion.enunciate.facets.FacetSet;
+import com.webcohesion.enunciate.facets.HasFacets;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates facet filters against items with a handful of facets each.
+ *
+ * @author Ryan Heaton
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FacetFilterBenchmark {
+
+  private final List<HasFacets> items = new ArrayList<HasFacets>();
+  private final List<HasFacets> indexedItems = new ArrayList<HasFacets>();
+  private FacetFilter filter;
+
+  @Setup
+  public void setUp() {
+    this.filter = new FacetFilter(new TreeSet<String>(Arrays.asList("public", "partner", "beta")), new TreeSet<String>(Arrays.asList("internal", "deprecated")));
+    String[] names = {"public", "partner", "beta", "internal", "deprecated", "admin", "reporting", "billing"};
+    for (int i = 0; i < 64; i++) {
+      final Set<Facet> facets = new TreeSet<Facet>();
+      for (int j = 0; j < names.length; j++) {
+        if (((i >> (j % 6)) & 1) == 1) {
+          facets.add(new Facet(names[j]));
+        }
+      }
+      this.items.add(new HasFacets() {
+        @Override
+        public Set<Facet> getFacets() {
+          return facets;
+        }
+      });
+      final Set<Facet> indexedFacets = new FacetSet(facets);
+      this.indexedItems.add(new HasFacets() {
+        @Override
+        public Set<Facet> getFacets() {
+          return indexedFacets;
+        }
+      });
+    }
+  }
+
+  @Benchmark
+  public void accept(Blackhole blackhole) {
+    for (HasFacets item : this.items) {
+      blackhole.consume(this.filter.accept(item));
+    }
+  }
+
+  @Benchmark
+  public void acceptIndexed(Blackhole blackhole) {
+    for (HasFacets item : this.indexedItems) {
+      blackhole.consume(this.filter.accept(item));
+    }
+  }
+}
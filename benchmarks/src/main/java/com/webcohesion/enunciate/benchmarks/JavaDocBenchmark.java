@@ -0,0 +1,69 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import com.webcohesion.enunciate.javac.javadoc.DefaultJavaDocTagHandler;
+import com.webcohesion.enunciate.javac.javadoc.JavaDoc;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocTagHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses JavaDoc comments.
+ *
+ * @author Ryan Heaton
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaDocBenchmark {
+
+  private static final String SHORT_COMMENT = "The name of the person.\n\n@return The name of the person.";
+
+  private static final String LONG_COMMENT = "Reads a {@link com.example.Person person} from the directory, along with the\n" +
+    "{@link com.example.Address#getStreet() street} of each of their addresses. The person is looked up\n" +
+    "by their id; see {@link #findPeople(String, int) findPeople} for a search by name.\n" +
+    "<p>\n" +
+    "The directory is read with {@code READ_COMMITTED} isolation, and the result is cached for\n" +
+    "{@value #CACHE_SECONDS} seconds.\n" +
+    "\n" +
+    "@param id The id of the person.\n" +
+    "@param depth How deep to read the\n" +
+    "  graph of the person's relationships.\n" +
+    "@param includeAddresses Whether to include addresses.\n" +
+    "@return The person.\n" +
+    "@throws com.example.PersonNotFoundException If the person wasn't found.\n" +
+    "@throws java.lang.IllegalArgumentException If the depth is negative.\n" +
+    "@since 1.2\n" +
+    "@see com.example.Directory\n" +
+    "@deprecated Use {@link #readPerson(String)} instead.";
+
+  private final JavaDocTagHandler tagHandler = new DefaultJavaDocTagHandler();
+
+  @Benchmark
+  public JavaDoc parseShort() {
+    return new JavaDoc(SHORT_COMMENT, this.tagHandler);
+  }
+
+  @Benchmark
+  public JavaDoc parseLong() {
+    return new JavaDoc(LONG_COMMENT, this.tagHandler);
+  }
+}
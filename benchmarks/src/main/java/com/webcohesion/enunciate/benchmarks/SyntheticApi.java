@@ -0,0 +1,192 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Generates a synthetic API of a given size: a set of JAXB data types that reference each other and a set of JAX-RS
+ * resources that consume and produce them, all with JavaDoc.
+ *
+ * @author Ryan Heaton
+ */
+public class SyntheticApi {
+
+  public static final String PACKAGE = "com.webcohesion.enunciate.benchmarks.synthetic";
+  private static final int TYPES_PER_RESOURCE = 10;
+
+  private SyntheticApi() {
+  }
+
+  /**
+   * Generate the sources for a synthetic API.
+   *
+   * @param sourceDir The directory to which to write the sources.
+   * @param typeCount The number of data types.
+   * @return The package directory of the generated sources.
+   */
+  public static File generate(File sourceDir, int typeCount) throws IOException {
+    File packageDir = new File(sourceDir, PACKAGE.replace('.', File.separatorChar));
+    if (!packageDir.exists() && !packageDir.mkdirs()) {
+      throw new IOException("Unable to create " + packageDir);
+    }
+
+    for (int i = 0; i < typeCount; i++) {
+      writeType(packageDir, i);
+    }
+
+    for (int i = 0; i < typeCount; i += TYPES_PER_RESOURCE) {
+      writeResource(packageDir, i, Math.min(typeCount, i + TYPES_PER_RESOURCE));
+    }
+
+    return packageDir;
+  }
+
+  private static void writeType(File packageDir, int index) throws IOException {
+    String name = "Type" + index;
+    PrintWriter out = new PrintWriter(new File(packageDir, name + ".java"), "utf-8");
+    try {
+      out.println("package " + PACKAGE + ";");
+      out.println();
+      out.println("import javax.xml.bind.annotation.*;");
+      out.println("import java.util.List;");
+      out.println();
+      out.println("/**");
+      out.println(" * Synthetic data type number " + index + ", with a {@link java.lang.String name} and some references.");
+      out.println(" *");
+      out.println(" * @author Synthetic");
+      out.println(" * @since 1." + index);
+      out.println(" */");
+      out.println("@XmlRootElement");
+      out.println("public class " + name + (index > 0 && index % 3 == 0 ? " extends Type" + (index - 1) : "") + " {");
+      out.println();
+      out.println("  private String name" + index + ";");
+      out.println("  private int count" + index + ";");
+      if (index > 0) {
+        out.println("  private Type" + (index - 1) + " previous" + index + ";");
+        out.println("  private List<Type" + (index / 2) + "> related" + index + ";");
+      }
+      out.println();
+      out.println("  /**");
+      out.println("   * The name of the type.");
+      out.println("   *");
+      out.println("   * @return The name of the type.");
+      out.println("   */");
+      out.println("  public String getName" + index + "() {");
+      out.println("    return name" + index + ";");
+      out.println("  }");
+      out.println();
+      out.println("  public void setName" + index + "(String name) {");
+      out.println("    this.name" + index + " = name;");
+      out.println("  }");
+      out.println();
+      out.println("  /**");
+      out.println("   * The count.");
+      out.println("   *");
+      out.println("   * @return The count.");
+      out.println("   */");
+      out.println("  @XmlAttribute");
+      out.println("  public int getCount" + index + "() {");
+      out.println("    return count" + index + ";");
+      out.println("  }");
+      out.println();
+      out.println("  public void setCount" + index + "(int count) {");
+      out.println("    this.count" + index + " = count;");
+      out.println("  }");
+      if (index > 0) {
+        out.println();
+        out.println("  /**");
+        out.println("   * The previous type.");
+        out.println("   *");
+        out.println("   * @return The previous type.");
+        out.println("   */");
+        out.println("  public Type" + (index - 1) + " getPrevious" + index + "() {");
+        out.println("    return previous" + index + ";");
+        out.println("  }");
+        out.println();
+        out.println("  public void setPrevious" + index + "(Type" + (index - 1) + " previous) {");
+        out.println("    this.previous" + index + " = previous;");
+        out.println("  }");
+        out.println();
+        out.println("  /**");
+        out.println("   * The related types.");
+        out.println("   *");
+        out.println("   * @return The related types.");
+        out.println("   */");
+        out.println("  public List<Type" + (index / 2) + "> getRelated" + index + "() {");
+        out.println("    return related" + index + ";");
+        out.println("  }");
+        out.println();
+        out.println("  public void setRelated" + index + "(List<Type" + (index / 2) + "> related) {");
+        out.println("    this.related" + index + " = related;");
+        out.println("  }");
+      }
+      out.println("}");
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private static void writeResource(File packageDir, int fromType, int toType) throws IOException {
+    String name = "Resource" + fromType;
+    PrintWriter out = new PrintWriter(new File(packageDir, name + ".java"), "utf-8");
+    try {
+      out.println("package " + PACKAGE + ";");
+      out.println();
+      out.println("import javax.ws.rs.*;");
+      out.println();
+      out.println("/**");
+      out.println(" * Synthetic resource for types " + fromType + " through " + (toType - 1) + ".");
+      out.println(" */");
+      out.println("@Path(\"/resource" + fromType + "\")");
+      out.println("@Produces({\"application/xml\", \"application/json\"})");
+      out.println("@Consumes({\"application/xml\", \"application/json\"})");
+      out.println("public class " + name + " {");
+      for (int i = fromType; i < toType; i++) {
+        out.println();
+        out.println("  /**");
+        out.println("   * Read a type " + i + ".");
+        out.println("   *");
+        out.println("   * @param id The id of the type.");
+        out.println("   * @return The type.");
+        out.println("   */");
+        out.println("  @GET");
+        out.println("  @Path(\"/type" + i + "/{id}\")");
+        out.println("  public Type" + i + " readType" + i + "(@PathParam(\"id\") String id, @QueryParam(\"depth\") int depth) {");
+        out.println("    return null;");
+        out.println("  }");
+        out.println();
+        out.println("  /**");
+        out.println("   * Write a type " + i + ".");
+        out.println("   *");
+        out.println("   * @param id The id of the type.");
+        out.println("   * @param type The type.");
+        out.println("   */");
+        out.println("  @PUT");
+        out.println("  @Path(\"/type" + i + "/{id}\")");
+        out.println("  public void writeType" + i + "(@PathParam(\"id\") String id, Type" + i + " type) {");
+        out.println("  }");
+      }
+      out.println("}");
+    }
+    finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Enunciate end-to-end against synthetic APIs of increasing size. The "model" benchmark runs only the modules that
+ * provide the API model (scanning, compiling and building the model); the "full" benchmark also runs the generating
+ * modules, so the difference between the two is the time spent generating artifacts.
+ *
+ * @author Ryan Heaton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SyntheticApiBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int typeCount;
+
+  private File sourceDir;
+  private File buildDir;
+
+  @Setup(Level.Trial)
+  public void generateApi() throws IOException {
+    this.sourceDir = BenchmarkSupport.createTempDir("enunciate-synthetic-src");
+    SyntheticApi.generate(this.sourceDir, this.typeCount);
+  }
+
+  @Setup(Level.Invocation)
+  public void createBuildDir() throws IOException {
+    this.buildDir = BenchmarkSupport.createTempDir("enunciate-synthetic-build");
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteBuildDir() {
+    BenchmarkSupport.delete(this.buildDir);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteApi() {
+    BenchmarkSupport.delete(this.sourceDir);
+  }
+
+  @Benchmark
+  public void model() {
+    BenchmarkSupport.createEnunciate(this.sourceDir, this.buildDir, BenchmarkSupport.PROVIDER_MODULES).run();
+  }
+
+  @Benchmark
+  public void full() {
+    BenchmarkSupport.createEnunciate(this.sourceDir, this.buildDir, null).run();
+  }
+}
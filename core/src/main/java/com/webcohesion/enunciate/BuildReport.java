@@ -0,0 +1,302 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import java.io.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings and counts gathered over the course of an Enunciate build. Timings are grouped by phase (e.g. the scan of
+ * the classpath, the Java compiler, each module, each artifact export, each template) and accumulated by name within a
+ * phase. The report can be written as JSON and summarized through the logger.
+ *
+ * @author Ryan Heaton
+ */
+public class BuildReport {
+
+  public static final String FILE_NAME = "enunciate-build-report.json";
+
+  public static final String SCAN_PHASE = "scan";
+  public static final String COMPILE_PHASE = "compile";
+  public static final String MODULE_PHASE = "module";
+  public static final String EXPORT_PHASE = "export";
+  public static final String TEMPLATE_PHASE = "template";
+
+  public static final String API_ELEMENTS_COUNTER = "api-elements";
+  public static final String TYPES_COUNTER = "types";
+  public static final String RESOURCES_COUNTER = "resources";
+  public static final String SERVICES_COUNTER = "services";
+  public static final String FILES_WRITTEN_COUNTER = "files-written";
+  public static final String BYTES_WRITTEN_COUNTER = "bytes-written";
+
+  private final long started = System.currentTimeMillis();
+  private final long startedNanos = System.nanoTime();
+  private final ConcurrentMap<String, Timing> timings = new ConcurrentHashMap<String, Timing>();
+  private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+
+  /**
+   * Start timing something.
+   *
+   * @param phase The phase.
+   * @param name  The name of what's being timed within the phase.
+   * @return The timer, which must be stopped.
+   */
+  public Timer start(String phase, String name) {
+    return new Timer(getTiming(phase, name));
+  }
+
+  /**
+   * Increment a counter.
+   *
+   * @param counter The counter.
+   * @param amount  The amount by which to increment the counter.
+   */
+  public void increment(String counter, long amount) {
+    AtomicLong value = this.counters.get(counter);
+    if (value == null) {
+      value = new AtomicLong();
+      AtomicLong existing = this.counters.putIfAbsent(counter, value);
+      if (existing != null) {
+        value = existing;
+      }
+    }
+    value.addAndGet(amount);
+  }
+
+  /**
+   * The value of a counter.
+   *
+   * @param counter The counter.
+   * @return The value of the counter.
+   */
+  public long getCount(String counter) {
+    AtomicLong value = this.counters.get(counter);
+    return value == null ? 0 : value.get();
+  }
+
+  /**
+   * The timings, sorted by phase and name.
+   *
+   * @return The timings.
+   */
+  public List<Timing> getTimings() {
+    List<Timing> timings = new ArrayList<Timing>(this.timings.values());
+    Collections.sort(timings);
+    return timings;
+  }
+
+  /**
+   * The total elapsed time of the build so far.
+   *
+   * @return The total elapsed time of the build so far, in milliseconds.
+   */
+  public long getElapsedMillis() {
+    return (System.nanoTime() - this.startedNanos) / 1000000;
+  }
+
+  protected Timing getTiming(String phase, String name) {
+    String key = phase + '|' + name;
+    Timing timing = this.timings.get(key);
+    if (timing == null) {
+      timing = new Timing(phase, name);
+      Timing existing = this.timings.putIfAbsent(key, timing);
+      if (existing != null) {
+        timing = existing;
+      }
+    }
+    return timing;
+  }
+
+  /**
+   * Write the report as JSON to the specified file.
+   *
+   * @param file The file.
+   */
+  public void writeJson(File file) throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+
+    Writer out = new OutputStreamWriter(new FileOutputStream(file), "utf-8");
+    try {
+      writeJson(out);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Write the report as JSON.
+   *
+   * @param out The writer.
+   */
+  public void writeJson(Writer out) throws IOException {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    out.write("{\n");
+    out.write("  \"started\": \"" + format.format(new Date(this.started)) + "\",\n");
+    out.write("  \"totalMillis\": " + getElapsedMillis() + ",\n");
+    out.write("  \"timings\": [");
+    Iterator<Timing> timings = getTimings().iterator();
+    while (timings.hasNext()) {
+      Timing timing = timings.next();
+      out.write("\n    {\"phase\": \"" + escape(timing.getPhase()) + "\", \"name\": \"" + escape(timing.getName()) + "\", \"count\": " + timing.getCount() + ", \"totalMillis\": " + timing.getTotalMillis() + ", \"maxMillis\": " + timing.getMaxMillis() + "}");
+      if (timings.hasNext()) {
+        out.write(",");
+      }
+    }
+    out.write("\n  ],\n");
+    out.write("  \"counters\": {");
+    Iterator<Map.Entry<String, AtomicLong>> counters = new TreeMap<String, AtomicLong>(this.counters).entrySet().iterator();
+    while (counters.hasNext()) {
+      Map.Entry<String, AtomicLong> counter = counters.next();
+      out.write("\n    \"" + escape(counter.getKey()) + "\": " + counter.getValue().get());
+      if (counters.hasNext()) {
+        out.write(",");
+      }
+    }
+    out.write("\n  }\n");
+    out.write("}\n");
+  }
+
+  /**
+   * Log a summary of the report: a table of the timings followed by the counters.
+   *
+   * @param logger The logger.
+   */
+  public void logSummary(EnunciateLogger logger) {
+    logger.info("Build summary (%s ms total):", getElapsedMillis());
+    logger.info("  %-10s %-50s %8s %12s %10s", "phase", "name", "count", "total (ms)", "max (ms)");
+    for (Timing timing : getTimings()) {
+      logger.info("  %-10s %-50s %8s %12s %10s", timing.getPhase(), timing.getName(), timing.getCount(), timing.getTotalMillis(), timing.getMaxMillis());
+    }
+    for (Map.Entry<String, AtomicLong> counter : new TreeMap<String, AtomicLong>(this.counters).entrySet()) {
+      logger.info("  %-61s %8s", counter.getKey(), counter.getValue().get());
+    }
+  }
+
+  private static String escape(String value) {
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (char ch : value.toCharArray()) {
+      switch (ch) {
+        case '"':
+          escaped.append("\\\"");
+          break;
+        case '\\':
+          escaped.append("\\\\");
+          break;
+        case '\n':
+          escaped.append("\\n");
+          break;
+        case '\r':
+          escaped.append("\\r");
+          break;
+        case '\t':
+          escaped.append("\\t");
+          break;
+        default:
+          if (ch < 0x20) {
+            escaped.append(String.format("\\u%04x", (int) ch));
+          }
+          else {
+            escaped.append(ch);
+          }
+      }
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * The accumulated timing of something within a phase.
+   */
+  public static final class Timing implements Comparable<Timing> {
+
+    private final String phase;
+    private final String name;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private Timing(String phase, String name) {
+      this.phase = phase;
+      this.name = name;
+    }
+
+    public String getPhase() {
+      return phase;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getTotalMillis() {
+      return totalNanos.get() / 1000000;
+    }
+
+    public long getMaxMillis() {
+      return maxNanos.get() / 1000000;
+    }
+
+    void record(long nanos) {
+      this.count.incrementAndGet();
+      this.totalNanos.addAndGet(nanos);
+      long max = this.maxNanos.get();
+      while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+        max = this.maxNanos.get();
+      }
+    }
+
+    @Override
+    public int compareTo(Timing other) {
+      int comparison = this.phase.compareTo(other.phase);
+      return comparison == 0 ? this.name.compareTo(other.name) : comparison;
+    }
+  }
+
+  /**
+   * A running timer.
+   */
+  public static final class Timer {
+
+    private final Timing timing;
+    private final long started = System.nanoTime();
+    private boolean stopped = false;
+
+    private Timer(Timing timing) {
+      this.timing = timing;
+    }
+
+    /**
+     * Stop the timer and record the elapsed time.
+     */
+    public void stop() {
+      if (!this.stopped) {
+        this.stopped = true;
+        this.timing.record(System.nanoTime() - this.started);
+      }
+    }
+  }
+}
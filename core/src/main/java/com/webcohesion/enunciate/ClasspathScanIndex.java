@@ -0,0 +1,456 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.annotation.Annotation;
+import org.reflections.vfs.Vfs;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Index of the classes and source files found on the scan path, used to avoid re-reading jars that haven't changed since
+ * the last build. Each jar is identified by its path, size and modification time. The index records the class-level
+ * metadata (name, superclass, interfaces and class annotations) of each class in the jar, which is replayed to the
+ * {@link EnunciateReflectionsScanner} so that type detection and the include/exclude filters are applied to cached jars
+ * exactly as they are to scanned jars. Directories are always rescanned.
+ *
+ * @author Ryan Heaton
+ */
+public class ClasspathScanIndex {
+
+  public static final String FILE_NAME = "classpath-scan.index";
+  private static final int VERSION = 1;
+
+  private final File indexFile;
+  private final EnunciateLogger logger;
+  private final Map<String, Entry> previous = new HashMap<String, Entry>();
+  private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+  private final AtomicInteger hits = new AtomicInteger(0);
+  private final AtomicInteger misses = new AtomicInteger(0);
+
+  /**
+   * Loads the scan index from the specified file.
+   *
+   * @param indexFile The file the index is persisted to, or null if the index isn't to be persisted.
+   * @param logger    The logger.
+   */
+  public ClasspathScanIndex(File indexFile, EnunciateLogger logger) {
+    this.indexFile = indexFile;
+    this.logger = logger;
+    load();
+  }
+
+  private void load() {
+    if (this.indexFile == null || !this.indexFile.exists()) {
+      return;
+    }
+
+    try {
+      InputStream file = new FileInputStream(this.indexFile);
+      DataInputStream in;
+      try {
+        in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(file)));
+      }
+      catch (IOException e) {
+        file.close();
+        throw e;
+      }
+
+      try {
+        if (in.readInt() != VERSION) {
+          this.logger.debug("Ignoring classpath scan index %s because it was written by a different version.", this.indexFile);
+          return;
+        }
+
+        int entryCount = in.readInt();
+        for (int i = 0; i < entryCount; i++) {
+          Entry entry = Entry.read(in);
+          this.previous.put(entry.path, entry);
+        }
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException e) {
+      this.logger.warn("Unable to read classpath scan index %s: %s", this.indexFile, e.getMessage());
+      this.previous.clear();
+    }
+  }
+
+  /**
+   * Scan the specified URLs, reading only the jars that have changed since the last build.
+   *
+   * @param urls     The URLs to scan.
+   * @param executor The executor to use to scan the URLs in parallel, or null to scan them serially.
+   * @return The scanned entries, in the order of the URLs.
+   */
+  public List<Entry> scan(List<URL> urls, ExecutorService executor) {
+    List<Entry> entries = new ArrayList<Entry>(urls.size());
+    if (executor == null) {
+      for (URL url : urls) {
+        entries.add(findEntry(url));
+      }
+      return entries;
+    }
+
+    List<Future<Entry>> futures = new ArrayList<Future<Entry>>(urls.size());
+    for (final URL url : urls) {
+      futures.add(executor.submit(new Callable<Entry>() {
+        @Override
+        public Entry call() throws Exception {
+          return findEntry(url);
+        }
+      }));
+    }
+
+    for (Future<Entry> future : futures) {
+      try {
+        entries.add(future.get());
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new EnunciateException(e);
+      }
+      catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new EnunciateException(cause);
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Find the entry for the specified URL, scanning the URL if it isn't an unchanged jar.
+   *
+   * @param url The URL.
+   * @return The entry.
+   */
+  protected Entry findEntry(URL url) {
+    File file = toFile(url);
+    if (file != null && file.isFile()) {
+      String path = file.getAbsolutePath();
+      long size = file.length();
+      long lastModified = file.lastModified();
+      Entry entry = this.previous.get(path);
+      if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+        this.hits.incrementAndGet();
+        this.current.put(path, entry);
+        return entry;
+      }
+
+      this.misses.incrementAndGet();
+      entry = scanURL(url, path, size, lastModified);
+      this.current.put(path, entry);
+      return entry;
+    }
+
+    return scanURL(url, url.toString(), -1, -1);
+  }
+
+  /**
+   * Scan the classes and source files at the specified URL.
+   *
+   * @param url          The URL.
+   * @param path         The path identifying the entry.
+   * @param size         The size of the jar, or -1 if it's not a jar.
+   * @param lastModified The modification time of the jar, or -1 if it's not a jar.
+   * @return The entry.
+   */
+  protected Entry scanURL(URL url, String path, long size, long lastModified) {
+    List<ScannedClass> classes = new ArrayList<ScannedClass>();
+    List<String> sourceFiles = new ArrayList<String>();
+
+    Vfs.Dir dir;
+    try {
+      dir = Vfs.fromURL(url);
+    }
+    catch (Exception e) {
+      this.logger.warn("Unable to scan %s: %s", url, e.getMessage());
+      return new Entry(path, size, lastModified, classes, sourceFiles);
+    }
+
+    try {
+      for (Vfs.File file : dir.getFiles()) {
+        String relativePath = file.getRelativePath();
+        if (relativePath.endsWith(".class")) {
+          try {
+            classes.add(ScannedClass.read(file));
+          }
+          catch (Exception e) {
+            this.logger.debug("Unable to scan %s in %s: %s", relativePath, url, e.getMessage());
+          }
+        }
+        else if (relativePath.endsWith(".java")) {
+          sourceFiles.add(relativePath);
+        }
+      }
+    }
+    finally {
+      dir.close();
+    }
+
+    return new Entry(path, size, lastModified, classes, sourceFiles);
+  }
+
+  private static File toFile(URL url) {
+    if (!"file".equalsIgnoreCase(url.getProtocol())) {
+      return null;
+    }
+
+    try {
+      return new File(url.toURI());
+    }
+    catch (URISyntaxException e) {
+      return new File(url.getPath());
+    }
+    catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The number of jars that were served from the index.
+   *
+   * @return The number of jars that were served from the index.
+   */
+  public int getHitCount() {
+    return this.hits.get();
+  }
+
+  /**
+   * The number of jars that had to be (re)scanned.
+   *
+   * @return The number of jars that had to be (re)scanned.
+   */
+  public int getMissCount() {
+    return this.misses.get();
+  }
+
+  /**
+   * Persists the jars scanned by this build.
+   */
+  public void store() throws IOException {
+    if (this.indexFile == null) {
+      return;
+    }
+
+    File parent = this.indexFile.getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(this.indexFile))));
+    try {
+      out.writeInt(VERSION);
+      out.writeInt(this.current.size());
+      for (Entry entry : this.current.values()) {
+        entry.write(out);
+      }
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * The scanned contents of a single URL of the scan path.
+   */
+  public static final class Entry {
+
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final List<ScannedClass> classes;
+    private final List<String> sourceFiles;
+
+    private Entry(String path, long size, long lastModified, List<ScannedClass> classes, List<String> sourceFiles) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.classes = classes;
+      this.sourceFiles = sourceFiles;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public List<ScannedClass> getClasses() {
+      return classes;
+    }
+
+    public List<String> getSourceFiles() {
+      return sourceFiles;
+    }
+
+    /**
+     * Replay the contents of this entry to the specified scanner.
+     *
+     * @param scanner The scanner.
+     */
+    public void replay(EnunciateReflectionsScanner scanner) {
+      for (ScannedClass scannedClass : this.classes) {
+        scanner.scan(scannedClass.toClassFile());
+      }
+
+      for (String sourceFile : this.sourceFiles) {
+        scanner.scanSourceFile(sourceFile);
+      }
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeUTF(this.path);
+      out.writeLong(this.size);
+      out.writeLong(this.lastModified);
+      out.writeInt(this.classes.size());
+      for (ScannedClass scannedClass : this.classes) {
+        scannedClass.write(out);
+      }
+      writeStrings(out, this.sourceFiles.toArray(new String[this.sourceFiles.size()]));
+    }
+
+    static Entry read(DataInputStream in) throws IOException {
+      String path = in.readUTF();
+      long size = in.readLong();
+      long lastModified = in.readLong();
+      int classCount = in.readInt();
+      List<ScannedClass> classes = new ArrayList<ScannedClass>(classCount);
+      for (int i = 0; i < classCount; i++) {
+        classes.add(ScannedClass.read(in));
+      }
+      List<String> sourceFiles = Arrays.asList(readStrings(in));
+      return new Entry(path, size, lastModified, classes, sourceFiles);
+    }
+  }
+
+  /**
+   * The class-level metadata of a scanned class.
+   */
+  public static final class ScannedClass {
+
+    private final String name;
+    private final String superclassName;
+    private final int accessFlags;
+    private final String[] interfaceNames;
+    private final String[] annotationNames;
+
+    private ScannedClass(String name, String superclassName, int accessFlags, String[] interfaceNames, String[] annotationNames) {
+      this.name = name;
+      this.superclassName = superclassName;
+      this.accessFlags = accessFlags;
+      this.interfaceNames = interfaceNames;
+      this.annotationNames = annotationNames;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Rebuild a class file that carries the metadata of this class, for the purpose of replaying it to a scanner.
+     *
+     * @return The class file.
+     */
+    public ClassFile toClassFile() {
+      ClassFile classFile = new ClassFile((this.accessFlags & AccessFlag.INTERFACE) != 0, this.name, this.superclassName);
+      classFile.setAccessFlags(this.accessFlags);
+      classFile.setInterfaces(this.interfaceNames);
+      if (this.annotationNames.length > 0) {
+        ConstPool constPool = classFile.getConstPool();
+        AnnotationsAttribute annotations = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+        for (String annotationName : this.annotationNames) {
+          annotations.addAnnotation(new Annotation(annotationName, constPool));
+        }
+        classFile.addAttribute(annotations);
+      }
+      return classFile;
+    }
+
+    static ScannedClass read(Vfs.File file) throws IOException {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(file.openInputStream()));
+      ClassFile classFile;
+      try {
+        classFile = new ClassFile(in);
+      }
+      finally {
+        in.close();
+      }
+
+      List<String> annotationNames = new ArrayList<String>();
+      addAnnotationNames((AnnotationsAttribute) classFile.getAttribute(AnnotationsAttribute.visibleTag), annotationNames);
+      addAnnotationNames((AnnotationsAttribute) classFile.getAttribute(AnnotationsAttribute.invisibleTag), annotationNames);
+      return new ScannedClass(classFile.getName(), classFile.getSuperclass(), classFile.getAccessFlags(), classFile.getInterfaces(), annotationNames.toArray(new String[annotationNames.size()]));
+    }
+
+    private static void addAnnotationNames(AnnotationsAttribute attribute, List<String> annotationNames) {
+      if (attribute != null) {
+        for (Annotation annotation : attribute.getAnnotations()) {
+          annotationNames.add(annotation.getTypeName());
+        }
+      }
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeUTF(this.name);
+      out.writeUTF(this.superclassName == null ? "" : this.superclassName);
+      out.writeInt(this.accessFlags);
+      writeStrings(out, this.interfaceNames);
+      writeStrings(out, this.annotationNames);
+    }
+
+    static ScannedClass read(DataInputStream in) throws IOException {
+      String name = in.readUTF();
+      String superclassName = in.readUTF();
+      int accessFlags = in.readInt();
+      String[] interfaceNames = readStrings(in);
+      String[] annotationNames = readStrings(in);
+      return new ScannedClass(name, superclassName.isEmpty() ? null : superclassName, accessFlags, interfaceNames, annotationNames);
+    }
+  }
+
+  static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+    out.writeInt(values.length);
+    for (String value : values) {
+      out.writeUTF(value);
+    }
+  }
+
+  static String[] readStrings(DataInputStream in) throws IOException {
+    String[] values = new String[in.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = in.readUTF();
+    }
+    return values;
+  }
+}
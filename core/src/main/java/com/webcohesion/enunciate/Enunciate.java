@@ -17,12 +17,21 @@ package com.webcohesion.enunciate;
 
 import com.sun.tools.javac.api.JavacTool;
 import com.webcohesion.enunciate.api.ApiRegistry;
+import com.webcohesion.enunciate.api.datatype.Namespace;
+import com.webcohesion.enunciate.api.datatype.Syntax;
+import com.webcohesion.enunciate.api.resources.ResourceApi;
+import com.webcohesion.enunciate.api.resources.ResourceGroup;
+import com.webcohesion.enunciate.api.services.ServiceApi;
+import com.webcohesion.enunciate.api.services.ServiceGroup;
 import com.webcohesion.enunciate.artifacts.Artifact;
 import com.webcohesion.enunciate.io.InvokeEnunciateModule;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocIndex;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocIndexer;
 import com.webcohesion.enunciate.module.ApiRegistryAwareModule;
 import com.webcohesion.enunciate.module.DependencySpec;
 import com.webcohesion.enunciate.module.DependingModuleAwareModule;
 import com.webcohesion.enunciate.module.EnunciateModule;
+import com.webcohesion.enunciate.util.ArchiveWriter;
 import org.apache.commons.configuration.ConfigurationException;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.alg.CycleDetector;
@@ -30,6 +39,7 @@ import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.traverse.TopologicalOrderIterator;
 import org.reflections.Reflections;
+import org.reflections.adapters.JavassistAdapter;
 import org.reflections.util.ConfigurationBuilder;
 import rx.Observable;
 import rx.Scheduler;
@@ -43,8 +53,8 @@ import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 
 /**
@@ -62,6 +72,7 @@ public class Enunciate implements Runnable {
   private List<File> sourcepath = null;
   // so sad that we can't multi-thread the modules; the Javac implementation is not thread safe. You get errors like "java.lang.AssertionError: Filling jar"...
   private ExecutorService executorService = null; // Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+  private int extraThreadCount = 0;
   private EnunciateLogger logger = new EnunciateConsoleLogger();
   private final EnunciateConfiguration configuration = new EnunciateConfiguration();
   private File buildDir;
@@ -69,6 +80,9 @@ public class Enunciate implements Runnable {
   private final Set<Artifact> artifacts = new TreeSet<Artifact>();
   private final Map<String, File> exports = new HashMap<String, File>();
   private final ApiRegistry apiRegistry = new ApiRegistry();
+  private BuildReport buildReport = new BuildReport();
+  private boolean apiCountsReported = false;
+  private List<JavaDocIndex> javaDocIndexes = Collections.emptyList();
 
   public List<EnunciateModule> getModules() {
     return modules;
@@ -171,7 +185,18 @@ public class Enunciate implements Runnable {
     return this;
   }
 
+  /**
+   * The number of extra threads Enunciate has been configured to use. Modules may use this to bound the work they do in parallel
+   * once the Java compiler model has been read (e.g. rendering one file per type).
+   *
+   * @return The number of extra threads, or 0 if Enunciate is to run on a single thread.
+   */
+  public int getExtraThreadCount() {
+    return extraThreadCount;
+  }
+
   public Enunciate setExtraThreadCount(int extraThreadCount) {
+    this.extraThreadCount = Math.max(0, extraThreadCount);
     if (extraThreadCount < 1) {
       this.executorService = null;
     }
@@ -182,6 +207,21 @@ public class Enunciate implements Runnable {
     return this;
   }
 
+  /**
+   * Whether the counts of the types, resources and services of the API are recorded in the build report. Counting them
+   * walks the whole API registry, so they're only recorded if requested.
+   *
+   * @return Whether the counts of the API are recorded in the build report.
+   */
+  public boolean isApiCountsReported() {
+    return apiCountsReported;
+  }
+
+  public Enunciate setApiCountsReported(boolean apiCountsReported) {
+    this.apiCountsReported = apiCountsReported;
+    return this;
+  }
+
   public EnunciateLogger getLogger() {
     return logger;
   }
@@ -306,6 +346,24 @@ public class Enunciate implements Runnable {
     return apiRegistry;
   }
 
+  /**
+   * The indexes of the doc comments of the source jars on the sourcepath for the current (or last) build.
+   *
+   * @return The javadoc indexes.
+   */
+  public List<JavaDocIndex> getJavaDocIndexes() {
+    return javaDocIndexes;
+  }
+
+  /**
+   * The report of the timings and counts of the current (or last) build.
+   *
+   * @return The build report.
+   */
+  public BuildReport getBuildReport() {
+    return buildReport;
+  }
+
   /**
    * Creates a temporary directory.
    *
@@ -426,45 +484,23 @@ public class Enunciate implements Runnable {
       toFile.getParentFile().mkdirs();
     }
 
-    boolean anyFiles = false;
-
-    byte[] buffer = new byte[2 * 1024]; //buffer of 2K should be fine.
-    ZipOutputStream zipout = new ZipOutputStream(new FileOutputStream(toFile));
+    Map<String, File> entries = new LinkedHashMap<String, File>();
     for (File dir : dirs) {
-
       URI baseURI = dir.toURI();
       getLogger().debug("Adding contents of directory %s to zip file %s...", dir, toFile);
       ArrayList<File> files = new ArrayList<File>();
       buildFileList(files, dir);
       for (File file : files) {
-        ZipEntry entry = new ZipEntry(baseURI.relativize(file.toURI()).getPath());
-        getLogger().debug("Adding entry %s...", entry.getName());
-        zipout.putNextEntry(entry);
-
-        if (!file.isDirectory()) {
-          anyFiles = true;
-          FileInputStream in = new FileInputStream(file);
-          int len;
-          while ((len = in.read(buffer)) > 0) {
-            zipout.write(buffer, 0, len);
-          }
-          in.close();
+        String name = baseURI.relativize(file.toURI()).getPath();
+        if (entries.put(name, file) != null) {
+          throw new ZipException("duplicate entry: " + name);
         }
-
-        // Complete the entry
-        zipout.closeEntry();
       }
     }
 
-    if (!anyFiles) {
-      ZipEntry entry = new ZipEntry("README.txt");
-      zipout.putNextEntry(entry);
-      zipout.write("Empty zip file".getBytes());
-      zipout.closeEntry();
-    }
-
-    zipout.close();
-
+    ArchiveWriter writer = new ArchiveWriter(this.configuration.getZipCompressionLevel(), Runtime.getRuntime().availableProcessors(), getLogger());
+    boolean anyFiles = writer.write(toFile, entries);
+    getLogger().debug("Zipped %s (%s entries compressed, %s entries copied from the previous archive).", toFile, writer.getCompressedCount(), writer.getReusedCount());
     return anyFiles;
   }
 
@@ -538,6 +574,8 @@ public class Enunciate implements Runnable {
   @Override
   public void run() {
     if (this.modules != null && !this.modules.isEmpty()) {
+      this.buildReport = new BuildReport();
+
       //scan for any included types.
       List<File> classpath = this.classpath == null ? new ArrayList<File>() : this.classpath;
       List<File> sourcepath = this.sourcepath == null ? new ArrayList<File>() : this.sourcepath;
@@ -561,7 +599,9 @@ public class Enunciate implements Runnable {
         }
       }
 
+      BuildReport.Timer scanTimer = this.buildReport.start(BuildReport.SCAN_PHASE, "reflections");
       Reflections reflections = loadApiReflections(scanpath);
+      scanTimer.stop();
       Set<String> scannedEntries = reflections.getStore().get(EnunciateReflectionsScanner.class.getSimpleName()).keySet();
       Set<String> includedTypes = new HashSet<String>();
       Set<String> scannedSourceFiles = new HashSet<String>();
@@ -636,6 +676,29 @@ public class Enunciate implements Runnable {
         sourceFiles.add(Enunciate.class.getResource("/com/webcohesion/enunciate/Nothing.java"));
       }
 
+      List<String> compilerArgs = getCompilerArgs();
+      String encoding = findEncoding(compilerArgs);
+
+      List<File> compilerSourcepath = sourcepath;
+      this.javaDocIndexes = Collections.emptyList();
+      if (getConfiguration().isSourcepathIndexed()) {
+        //the source jars aren't handed to the compiler; the doc comments of their classes are looked up in an index.
+        compilerSourcepath = new ArrayList<File>();
+        List<File> sourceJars = new ArrayList<File>();
+        for (File entry : sourcepath) {
+          if (entry.isFile()) {
+            sourceJars.add(entry);
+          }
+          else {
+            compilerSourcepath.add(entry);
+          }
+        }
+
+        BuildReport.Timer indexTimer = this.buildReport.start(BuildReport.SCAN_PHASE, "javadoc-index");
+        this.javaDocIndexes = loadJavaDocIndexes(sourceJars, encoding);
+        indexTimer.stop();
+      }
+
       //invoke the processor.
       List<String> options = new ArrayList<String>();
 
@@ -649,17 +712,15 @@ public class Enunciate implements Runnable {
       getLogger().debug("Compiler classpath: %s", new EnunciateLogger.ListWriter(classpath));
       options.addAll(Arrays.asList("-classpath", cp));
 
-      String sp = writeClasspath(sourcepath);
-      getLogger().debug("Compiler sourcepath: %s", new EnunciateLogger.ListWriter(sourcepath));
+      String sp = writeClasspath(compilerSourcepath);
+      getLogger().debug("Compiler sourcepath: %s", new EnunciateLogger.ListWriter(compilerSourcepath));
       options.addAll(Arrays.asList("-sourcepath", sp));
 
-      List<String> compilerArgs = getCompilerArgs();
       getLogger().debug("Compiler args: %s", compilerArgs);
       options.addAll(compilerArgs);
 
       getLogger().debug("Compiler sources: %s", new EnunciateLogger.ListWriter(sourceFiles));
       List<JavaFileObject> sources = new ArrayList<JavaFileObject>(sourceFiles.size());
-      String encoding = findEncoding(compilerArgs);
       for (URL sourceFile : sourceFiles) {
         sources.add(new URLFileObject(sourceFile, encoding));
       }
@@ -670,7 +731,10 @@ public class Enunciate implements Runnable {
       JavaCompiler.CompilationTask task = compiler.getTask(compilerOutput, null, diagnostics, options, null, sources);
       EnunciateAnnotationProcessor processor = new EnunciateAnnotationProcessor(this, includedTypes);
       task.setProcessors(Collections.singletonList(processor));
+      //note that the modules are invoked by the annotation processor, so the module timings are included in the javac timing.
+      BuildReport.Timer compileTimer = this.buildReport.start(BuildReport.COMPILE_PHASE, "javac");
       Boolean javacSuccess = task.call();
+      compileTimer.stop();
       if (!javacSuccess || !processor.processed) {
         String outputText = compilerOutput.toString();
         try {
@@ -743,12 +807,16 @@ public class Enunciate implements Runnable {
         if (export != null) {
           File dest = export.getValue();
           getLogger().debug("Exporting artifact %s to %s.", export.getKey(), dest);
+          BuildReport.Timer exportTimer = this.buildReport.start(BuildReport.EXPORT_PHASE, export.getKey());
           try {
             artifact.exportTo(dest, this);
           }
           catch (IOException e) {
             throw new RuntimeException(e);
           }
+          finally {
+            exportTimer.stop();
+          }
           exportedArtifacts.add(export.getKey());
         }
       }
@@ -758,12 +826,63 @@ public class Enunciate implements Runnable {
           getLogger().warn("Unknown artifact '%s'.  Artifact will not be exported.", export);
         }
       }
+
+      writeBuildReport();
     }
     else {
       this.logger.warn("No Enunciate modules have been loaded. No work was done.");
     }
   }
 
+  /**
+   * Write the build report to the build directory and log its summary.
+   */
+  protected void writeBuildReport() {
+    if (this.buildDir != null) {
+      File reportFile = new File(this.buildDir, BuildReport.FILE_NAME);
+      try {
+        this.buildReport.writeJson(reportFile);
+        getLogger().debug("Build report written to %s.", reportFile);
+      }
+      catch (IOException e) {
+        getLogger().warn("Unable to write build report to %s: %s", reportFile, e.getMessage());
+      }
+    }
+
+    this.buildReport.logSummary(getLogger());
+  }
+
+  /**
+   * Record the counts of the API in the build report. The types, resources and services are only counted if the
+   * {@link #isApiCountsReported() API counts are requested}.
+   *
+   * @param context The context.
+   */
+  protected void recordApiCounts(EnunciateContext context) {
+    this.buildReport.increment(BuildReport.API_ELEMENTS_COUNTER, context.getApiElements() == null ? 0 : context.getApiElements().size());
+    if (!this.apiCountsReported) {
+      return;
+    }
+
+    for (Syntax syntax : this.apiRegistry.getSyntaxes()) {
+      for (Namespace namespace : syntax.getNamespaces()) {
+        this.buildReport.increment(BuildReport.TYPES_COUNTER, namespace.getTypes().size());
+      }
+    }
+
+    for (ResourceApi resourceApi : this.apiRegistry.getResourceApis()) {
+      for (ResourceGroup resourceGroup : resourceApi.getResourceGroups()) {
+        this.buildReport.increment(BuildReport.RESOURCES_COUNTER, resourceGroup.getResources().size());
+      }
+    }
+
+    for (ServiceApi serviceApi : this.apiRegistry.getServiceApis()) {
+      for (ServiceGroup serviceGroup : serviceApi.getServiceGroups()) {
+        this.buildReport.increment(BuildReport.SERVICES_COUNTER, serviceGroup.getServices().size());
+      }
+    }
+  }
+
   private String findEncoding(List<String> compilerArgs) {
     for (int i = 0; i < compilerArgs.size(); i++) {
       String arg = compilerArgs.get(i);
@@ -802,15 +921,143 @@ public class Enunciate implements Runnable {
   }
 
   protected Reflections loadApiReflections(List<URL> classpath) {
+    EnunciateReflectionsScanner scanner = new EnunciateReflectionsScanner(this, getModules());
+
     ConfigurationBuilder reflectionSpec = new ConfigurationBuilder()
-      .setUrls(classpath)
-      .setScanners(new EnunciateReflectionsScanner(this, getModules()));
+      .setMetadataAdapter(new JavassistAdapter())
+      .setScanners(scanner);
+    Reflections reflections = new IndexedReflections(reflectionSpec);
+
+    ClasspathScanIndex index = new ClasspathScanIndex(getClasspathScanIndexFile(), getLogger());
+    ExecutorService executor = this.executorService;
+    boolean shutdownExecutor = false;
+    if (executor == null) {
+      //the jars are scanned in parallel even if no extra threads have been configured for the modules.
+      executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+      shutdownExecutor = true;
+    }
+
+    try {
+      for (ClasspathScanIndex.Entry entry : index.scan(classpath, executor)) {
+        entry.replay(scanner);
+      }
+    }
+    finally {
+      if (shutdownExecutor) {
+        executor.shutdown();
+      }
+    }
 
-    if (this.executorService != null) {
-      reflectionSpec = reflectionSpec.setExecutorService(this.executorService);
+    getLogger().debug("Classpath scan: %s jars unchanged, %s jars scanned.", index.getHitCount(), index.getMissCount());
+
+    try {
+      index.store();
+    }
+    catch (IOException e) {
+      getLogger().warn("Unable to write classpath scan index: %s", e.getMessage());
     }
 
-    return new Reflections(reflectionSpec);
+    return reflections;
+  }
+
+  /**
+   * Load the javadoc indexes of the specified source jars, indexing the jars that haven't been indexed (or have changed
+   * since they were indexed). The index of a jar is stored next to it so that it can be shared by other builds; if that
+   * location isn't writable, it's stored in the build directory.
+   *
+   * @param sourceJars The source jars.
+   * @param encoding   The encoding of the source files.
+   * @return The javadoc indexes.
+   */
+  protected List<JavaDocIndex> loadJavaDocIndexes(List<File> sourceJars, String encoding) {
+    List<JavaDocIndex> indexes = new ArrayList<JavaDocIndex>(sourceJars.size());
+    int built = 0;
+    for (File sourceJar : sourceJars) {
+      File indexFile = new File(sourceJar.getPath() + JavaDocIndex.FILE_EXTENSION);
+      File cachedIndexFile = getJavaDocIndexCacheFile(sourceJar);
+      JavaDocIndex index = openJavaDocIndex(indexFile, sourceJar);
+      if (index == null && cachedIndexFile != null) {
+        index = openJavaDocIndex(cachedIndexFile, sourceJar);
+      }
+
+      if (index == null) {
+        Map<String, String> docComments;
+        try {
+          docComments = JavaDocIndexer.extract(sourceJar, encoding);
+        }
+        catch (IOException e) {
+          getLogger().warn("Unable to index the javadoc of %s: %s", sourceJar, e.getMessage());
+          continue;
+        }
+
+        index = writeJavaDocIndex(docComments, sourceJar, indexFile);
+        if (index == null && cachedIndexFile != null) {
+          index = writeJavaDocIndex(docComments, sourceJar, cachedIndexFile);
+        }
+
+        if (index == null) {
+          getLogger().warn("Unable to write the javadoc index of %s; its documentation won't be available.", sourceJar);
+          continue;
+        }
+        built++;
+      }
+
+      indexes.add(index);
+    }
+
+    getLogger().debug("Javadoc indexes: %s reused, %s built.", indexes.size() - built, built);
+    return indexes;
+  }
+
+  private JavaDocIndex openJavaDocIndex(File indexFile, File sourceJar) {
+    if (!indexFile.exists()) {
+      return null;
+    }
+
+    try {
+      JavaDocIndex index = JavaDocIndex.open(indexFile);
+      return index.isCurrent(sourceJar) ? index : null;
+    }
+    catch (IOException e) {
+      getLogger().debug("Unable to read javadoc index %s: %s", indexFile, e.getMessage());
+      return null;
+    }
+  }
+
+  private JavaDocIndex writeJavaDocIndex(Map<String, String> docComments, File sourceJar, File indexFile) {
+    try {
+      JavaDocIndex.write(docComments, sourceJar, indexFile);
+      return JavaDocIndex.open(indexFile);
+    }
+    catch (IOException e) {
+      getLogger().debug("Unable to write javadoc index %s: %s", indexFile, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * The file in the build directory to which the javadoc index of a source jar is stored if it can't be stored next
+   * to the jar.
+   *
+   * @param sourceJar The source jar.
+   * @return The javadoc index file, or null if there's no build directory.
+   */
+  protected File getJavaDocIndexCacheFile(File sourceJar) {
+    if (this.buildDir == null) {
+      return null;
+    }
+
+    String name = sourceJar.getName() + '-' + Integer.toHexString(sourceJar.getAbsolutePath().hashCode()) + JavaDocIndex.FILE_EXTENSION;
+    return new File(new File(new File(this.buildDir, ".cache"), "javadoc"), name);
+  }
+
+  /**
+   * The file to which the classpath scan index is stored.
+   *
+   * @return The classpath scan index file, or null if there's no build directory.
+   */
+  protected File getClasspathScanIndexFile() {
+    return this.buildDir == null ? null : new File(new File(this.buildDir, ".cache"), ClasspathScanIndex.FILE_NAME);
   }
 
   public void visitFiles(File dir, FileFilter filter, FileVisitor visitor) {
@@ -910,7 +1157,7 @@ public class Enunciate implements Runnable {
       Set<DefaultEdge> dependencies = graph.incomingEdgesOf(module);
       if (dependencies == null || dependencies.isEmpty()) {
         //no dependencies on this module; plug in directly to the source.
-        moduleWork = source.doOnEach(new InvokeEnunciateModule(modules.get(module))).cache();
+        moduleWork = source.doOnEach(new InvokeEnunciateModule(modules.get(module), this.buildReport)).cache();
       }
       else {
         Observable<EnunciateContext> dependencyWork = source;
@@ -924,7 +1171,7 @@ public class Enunciate implements Runnable {
         }
 
         //zip up all the dependencies.
-        moduleWork = dependencyWork.last().doOnEach(new InvokeEnunciateModule(modules.get(module))).cache();
+        moduleWork = dependencyWork.last().doOnEach(new InvokeEnunciateModule(modules.get(module), this.buildReport)).cache();
       }
 
       moduleWorkset.put(module, moduleWork);
@@ -943,6 +1190,22 @@ public class Enunciate implements Runnable {
     return Observable.merge(leafModules);
   }
 
+  /**
+   * Reflections that doesn't scan any urls itself; it just configures the scanner and holds the results that are
+   * replayed to the scanner from the classpath scan index.
+   */
+  private static class IndexedReflections extends Reflections {
+
+    private IndexedReflections(ConfigurationBuilder configuration) {
+      super(configuration);
+    }
+
+    @Override
+    protected void scan() {
+      //no-op: the urls are scanned through the classpath scan index.
+    }
+  }
+
   /**
    * A file filter for java files.
    */
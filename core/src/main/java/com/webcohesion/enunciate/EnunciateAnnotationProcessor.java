@@ -62,6 +62,8 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
     ArrayList<TypeMirrorDecoration> typeMirrorDecorations = new ArrayList<TypeMirrorDecoration>();
     ArrayList<AnnotationMirrorDecoration> annotationMirrorDecorations = new ArrayList<AnnotationMirrorDecoration>();
     DecoratedProcessingEnvironment processingEnvironment = new DecoratedProcessingEnvironment(processingEnv, elementDecorations, typeMirrorDecorations, annotationMirrorDecorations);
+    processingEnvironment.setDecorationCacheEnabled(this.enunciate.getConfiguration().isDecorationCacheEnabled());
+    processingEnvironment.setJavaDocIndexes(this.enunciate.getJavaDocIndexes());
 
     //construct a context.
     this.context = new EnunciateContext(processingEnvironment, this.enunciate.getLogger(), this.enunciate.getApiRegistry(), this.enunciate.getConfiguration(), this.enunciate.getIncludePatterns(), this.enunciate.getExcludePatterns());
@@ -83,6 +85,9 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
     if (!roundEnv.processingOver()) { // (heatonra) I still don't understand why this check is needed. But if I don't do the check, the processing happens twice.
 
+      //each round starts with fresh decorations (and all the element decorations of the modules will have been established).
+      this.context.getProcessingEnvironment().clearDecorationCache();
+
       //find all the processing elements and set them on the context.
       Set<Element> apiElements = new HashSet<Element>();
       Set<Element> localApiElements = new HashSet<Element>();
@@ -120,6 +125,7 @@ public class EnunciateAnnotationProcessor extends AbstractProcessor {
 
       //fire off (and block on) the engine.
       engine.toList().toBlocking().single();
+      this.enunciate.recordApiCounts(this.context);
 
       this.processed = true;
     }
@@ -27,6 +27,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.zip.Deflater;
 
 /**
  * @author Ryan Heaton
@@ -296,6 +297,34 @@ public class EnunciateConfiguration {
     return facetExcludes;
   }
 
+  /**
+   * Whether each Java element is to be decorated only once, i.e. whether decorated elements are cached.
+   *
+   * @return Whether decorated elements are cached.
+   */
+  public boolean isDecorationCacheEnabled() {
+    return !this.source.getBoolean("[@disableDecorationCache]", false);
+  }
+
+  /**
+   * Whether the source jars on the sourcepath are indexed for their doc comments instead of being handed to the compiler.
+   *
+   * @return Whether the source jars on the sourcepath are indexed.
+   */
+  public boolean isSourcepathIndexed() {
+    return !this.source.getBoolean("[@disableSourcepathIndex]", false);
+  }
+
+  /**
+   * The compression level of the archives written by Enunciate (see {@link Deflater}), where 0 means the
+   * entries are stored without compression.
+   *
+   * @return The compression level of the archives.
+   */
+  public int getZipCompressionLevel() {
+    return this.source.getInt("[@zipCompressionLevel]", Deflater.DEFAULT_COMPRESSION);
+  }
+
   public Map<String, String> getAnnotationStyles() {
     if (this.annotationStyles == null) {
       this.annotationStyles = loadAnnotationStyles();
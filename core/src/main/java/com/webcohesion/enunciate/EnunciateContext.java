@@ -16,18 +16,17 @@
 package com.webcohesion.enunciate;
 
 import com.webcohesion.enunciate.api.ApiRegistry;
+import com.webcohesion.enunciate.facets.Facet;
 import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
 import com.webcohesion.enunciate.javac.decorations.DecoratedRoundEnvironment;
-import com.webcohesion.enunciate.util.AntPatternInclude;
-import com.webcohesion.enunciate.util.AntPatternMatcher;
-import com.webcohesion.enunciate.util.StringEqualsInclude;
-import org.reflections.util.FilterBuilder;
+import com.webcohesion.enunciate.util.AntPatternSet;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Encapsulation of the output of the Enunciate engine.
@@ -44,9 +43,11 @@ public class EnunciateContext {
   private Set<Element> apiElements;
   private Set<Element> localApiElements;
   private DecoratedRoundEnvironment roundEnvironment;
-  private final FilterBuilder includeFilter;
-  private final FilterBuilder excludeFilter;
-  private final Map<String, List<FilterBuilder>> facetFilter;
+  private final AntPatternSet includeFilter;
+  private final AntPatternSet excludeFilter;
+  private final Map<String, AntPatternSet> facetFilter;
+  private final ConcurrentMap<String, Set<String>> configuredFacets = new ConcurrentHashMap<String, Set<String>>();
+  private final ConcurrentMap<String, Set<Facet>> annotationFacets = new ConcurrentHashMap<String, Set<Facet>>();
 
   public EnunciateContext(DecoratedProcessingEnvironment processingEnvironment, EnunciateLogger logger, ApiRegistry registry, EnunciateConfiguration configuration, Set<String> includes, Set<String> excludes) {
     this.processingEnvironment = processingEnvironment;
@@ -130,7 +131,7 @@ public class EnunciateContext {
       }
     }
 
-    return this.includeFilter.apply(className);
+    return this.includeFilter.matches(className);
   }
 
   public boolean isExcluded(Element next) {
@@ -149,51 +150,60 @@ public class EnunciateContext {
       return true;
     }
 
-    boolean filteredIn = this.includeFilter != null && this.includeFilter.apply(className);
-    boolean filteredOut = this.excludeFilter != null && this.excludeFilter.apply(className);
+    boolean filteredIn = this.includeFilter != null && this.includeFilter.matches(className);
+    boolean filteredOut = this.excludeFilter != null && this.excludeFilter.matches(className);
     return !filteredIn && filteredOut;
   }
 
   public Set<String> getConfiguredFacets(String fqn) {
-    TreeSet<String> facets = new TreeSet<String>();
-    for (Map.Entry<String, List<FilterBuilder>> facetPatterns : this.facetFilter.entrySet()) {
-      for (FilterBuilder filterBuilder : facetPatterns.getValue()) {
-        if (filterBuilder.apply(fqn)) {
-          facets.add(facetPatterns.getKey());
+    Set<String> facets = this.configuredFacets.get(fqn);
+    if (facets == null) {
+      TreeSet<String> matched = new TreeSet<String>();
+      for (Map.Entry<String, AntPatternSet> facetPatterns : this.facetFilter.entrySet()) {
+        if (facetPatterns.getValue().matches(fqn)) {
+          matched.add(facetPatterns.getKey());
         }
       }
+      facets = Collections.unmodifiableSet(matched);
+      this.configuredFacets.put(fqn, facets);
     }
     return facets;
   }
 
-  private FilterBuilder buildFilter(Set<String> includes) {
-    FilterBuilder includeFilter = null;
+  /**
+   * The facets declared on annotation types, by the qualified name of the annotation type.
+   *
+   * @return The facets declared on annotation types.
+   */
+  public ConcurrentMap<String, Set<Facet>> getAnnotationFacets() {
+    return annotationFacets;
+  }
+
+  private AntPatternSet buildFilter(Set<String> includes) {
+    AntPatternSet includeFilter = null;
     if (includes != null && !includes.isEmpty()) {
-      includeFilter = new FilterBuilder();
-      for (String include : includes) {
-        if (AntPatternMatcher.isValidPattern(include)) {
-          includeFilter = includeFilter.add(new AntPatternInclude(include));
-        }
-        else {
-          includeFilter = includeFilter.add(new StringEqualsInclude(include));
-        }
-      }
+      includeFilter = new AntPatternSet(includes);
     }
     return includeFilter;
   }
 
-  protected HashMap<String, List<FilterBuilder>> buildFacetFilter(Map<String, String> facetPatterns) {
-    HashMap<String, List<FilterBuilder>> filters = new HashMap<String, List<FilterBuilder>>();
+  protected HashMap<String, AntPatternSet> buildFacetFilter(Map<String, String> facetPatterns) {
+    HashMap<String, Set<String>> patternsByFacet = new HashMap<String, Set<String>>();
     if (facetPatterns != null) {
       for (Map.Entry<String, String> facetPattern : facetPatterns.entrySet()) {
-        List<FilterBuilder> patternMatchers = filters.get(facetPattern.getValue());
-        if (patternMatchers == null) {
-          patternMatchers = new ArrayList<FilterBuilder>();
-          filters.put(facetPattern.getValue(), patternMatchers);
+        Set<String> patterns = patternsByFacet.get(facetPattern.getValue());
+        if (patterns == null) {
+          patterns = new LinkedHashSet<String>();
+          patternsByFacet.put(facetPattern.getValue(), patterns);
         }
-        patternMatchers.add(buildFilter(Collections.singleton(facetPattern.getKey())));
+        patterns.add(facetPattern.getKey());
       }
     }
+
+    HashMap<String, AntPatternSet> filters = new HashMap<String, AntPatternSet>();
+    for (Map.Entry<String, Set<String>> facet : patternsByFacet.entrySet()) {
+      filters.put(facet.getKey(), new AntPatternSet(facet.getValue()));
+    }
     return filters;
   }
 
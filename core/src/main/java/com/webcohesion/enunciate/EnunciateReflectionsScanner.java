@@ -20,7 +20,6 @@ import com.webcohesion.enunciate.module.TypeDetectingModule;
 import com.webcohesion.enunciate.util.*;
 import org.reflections.adapters.MetadataAdapter;
 import org.reflections.scanners.AbstractScanner;
-import org.reflections.util.FilterBuilder;
 import org.reflections.vfs.Vfs;
 
 import java.util.ArrayList;
@@ -33,8 +32,8 @@ import java.util.Set;
 @SuppressWarnings ( "unchecked" )
 public class EnunciateReflectionsScanner extends AbstractScanner {
 
-  private final FilterBuilder includeFilter;
-  private final FilterBuilder excludeFilter;
+  private final AntPatternSet includeFilter;
+  private final AntPatternSet excludeFilter;
   private final List<TypeDetectingModule> detectingModules;
 
   public EnunciateReflectionsScanner(Enunciate enunciate, List<EnunciateModule> modules) {
@@ -45,36 +44,10 @@ public class EnunciateReflectionsScanner extends AbstractScanner {
       }
     }
 
-    FilterBuilder includeFilter = null;
     Set<String> includes = enunciate.getIncludePatterns();
-    if (includes != null && !includes.isEmpty()) {
-      includeFilter = new FilterBuilder();
-      for (String include : includes) {
-        if (AntPatternMatcher.isValidPattern(include)) {
-          includeFilter = includeFilter.add(new AntPatternInclude(include));
-        }
-        else {
-          includeFilter = includeFilter.add(new StringEqualsInclude(include));
-        }
-      }
-    }
-
-    FilterBuilder excludeFilter = null;
+    this.includeFilter = includes == null || includes.isEmpty() ? null : new AntPatternSet(includes);
     Set<String> excludes = enunciate.getExcludePatterns();
-    if (excludes != null && !excludes.isEmpty()) {
-      excludeFilter = new FilterBuilder();
-      for (String exclude : excludes) {
-        if (AntPatternMatcher.isValidPattern(exclude)) {
-          excludeFilter = excludeFilter.add(new AntPatternInclude(exclude));
-        }
-        else {
-          excludeFilter = excludeFilter.add(new StringEqualsInclude(exclude));
-        }
-      }
-    }
-
-    this.includeFilter = includeFilter;
-    this.excludeFilter = excludeFilter;
+    this.excludeFilter = excludes == null || excludes.isEmpty() ? null : new AntPatternSet(excludes);
   }
 
   public boolean acceptsInput(String file) {
@@ -84,7 +57,7 @@ public class EnunciateReflectionsScanner extends AbstractScanner {
   @Override
   public Object scan(Vfs.File file, Object classObject) {
     if (file.getName().endsWith(".java")) {
-      getStore().put(file.getRelativePath(), file.getRelativePath());
+      scanSourceFile(file.getRelativePath());
       return classObject;
     }
     else {
@@ -92,6 +65,15 @@ public class EnunciateReflectionsScanner extends AbstractScanner {
     }
   }
 
+  /**
+   * Record a java source file found on the scan path.
+   *
+   * @param relativePath The path of the source file relative to the root of its jar or directory.
+   */
+  public void scanSourceFile(String relativePath) {
+    getStore().put(relativePath, relativePath);
+  }
+
   public void scan(Object type) {
     boolean detected = false;
 
@@ -106,13 +88,13 @@ public class EnunciateReflectionsScanner extends AbstractScanner {
 
     String className = metadata.getClassName(type);
 
-    boolean filteredIn = this.includeFilter != null && this.includeFilter.apply(className);
+    boolean filteredIn = this.includeFilter != null && this.includeFilter.matches(className);
     if (filteredIn) {
       //if it's explicitly included, add it.
       getStore().put(className, className);
     }
     else {
-      boolean filteredOut = this.excludeFilter != null && this.excludeFilter.apply(className);
+      boolean filteredOut = this.excludeFilter != null && this.excludeFilter.matches(className);
       if (detected && !filteredOut) {
         //else if it's detected and not explicitly excluded, add it.
         getStore().put(className, className);
@@ -0,0 +1,147 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.artifacts;
+
+import com.webcohesion.enunciate.Enunciate;
+
+import java.io.*;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A binary index of the metadata the Enunciate runtime (i.e. enunciate-rt-util) needs at startup, e.g. the JAX-RS
+ * resource and provider classes, the JAXB context classes and the namespace prefixes. Modules contribute named sections
+ * to the single index of the build, so the runtime reads one resource instead of scanning the classpath for each list.<br/>
+ * <br/>
+ * The format is: the magic number, the format version, the number of sections, and then for each section its name,
+ * its number of entries and its entries (all strings are written in modified UTF-8, per {@link DataOutput#writeUTF(String)}).
+ * The runtime reader must be kept in sync with this format.
+ *
+ * @author Ryan Heaton
+ */
+public class RuntimeIndexArtifact extends BaseArtifact {
+
+  public static final String NAME = "enunciate-runtime.index";
+  public static final int MAGIC = 0x454E5249; //"ENRI"
+  public static final int VERSION = 1;
+
+  private final Map<String, Section> sections = new LinkedHashMap<String, Section>();
+  private final Date created = new Date();
+
+  public RuntimeIndexArtifact() {
+    super("enunciate", NAME);
+    setBelongsOnServerSideClasspath(true);
+  }
+
+  /**
+   * Get the runtime index of the specified build, adding it to the artifacts of the build if needed.
+   *
+   * @param enunciate The build.
+   * @return The runtime index.
+   */
+  public static RuntimeIndexArtifact get(Enunciate enunciate) {
+    synchronized (enunciate) {
+      Artifact artifact = enunciate.findArtifact(NAME);
+      if (artifact instanceof RuntimeIndexArtifact) {
+        return (RuntimeIndexArtifact) artifact;
+      }
+
+      RuntimeIndexArtifact index = new RuntimeIndexArtifact();
+      enunciate.addArtifact(index);
+      return index;
+    }
+  }
+
+  /**
+   * Add a section to the index. The entries of the section are read when the index is exported.
+   *
+   * @param name    The name of the section.
+   * @param section The section.
+   */
+  public void addSection(String name, Section section) {
+    synchronized (this.sections) {
+      this.sections.put(name, section);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public String getDescription() {
+    return "A binary index of the metadata needed by the Enunciate runtime.";
+  }
+
+  @Override
+  public boolean isPublic() {
+    return false;
+  }
+
+  @Override
+  public Date getCreated() {
+    return this.created;
+  }
+
+  @Override
+  public void exportTo(File fileOrDirectory, Enunciate enunciate) throws IOException {
+    Map<String, Collection<String>> entries = new LinkedHashMap<String, Collection<String>>();
+    synchronized (this.sections) {
+      for (Map.Entry<String, Section> section : this.sections.entrySet()) {
+        entries.put(section.getKey(), section.getValue().getEntries());
+      }
+    }
+
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileOrDirectory.isDirectory() ? new File(fileOrDirectory, getName()) : fileOrDirectory)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      for (Map.Entry<String, Collection<String>> section : entries.entrySet()) {
+        out.writeUTF(section.getKey());
+        out.writeInt(section.getValue().size());
+        for (String entry : section.getValue()) {
+          out.writeUTF(entry);
+        }
+      }
+      out.flush();
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  @Override
+  public long getSize() {
+    return -1;
+  }
+
+  /**
+   * A section of the index.
+   */
+  public interface Section {
+
+    /**
+     * The entries of the section.
+     *
+     * @return The entries of the section.
+     */
+    Collection<String> getEntries();
+  }
+}
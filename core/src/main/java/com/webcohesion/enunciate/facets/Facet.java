@@ -22,9 +22,11 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Used to declare a "facet" for the sake of grouping resources and APIs together for simpler browsing.
@@ -33,7 +35,16 @@ import java.util.TreeSet;
  */
 public class Facet implements Comparable<Facet> {
 
+  /**
+   * The maximum number of facet names that are assigned an index. The indexes are shared by every build in the process
+   * (e.g. a long-lived build daemon), so the table is bounded; facets named after it's full aren't indexed.
+   */
+  public static final int MAX_INDEXES = 4096;
+
+  private static final ConcurrentMap<String, Integer> INDEXES = new ConcurrentHashMap<String, Integer>();
+
   private final String name;
+  private final int index;
 
   public Facet(com.webcohesion.enunciate.metadata.Facet facet) {
     this(facet.value());
@@ -44,6 +55,33 @@ public class Facet implements Comparable<Facet> {
       throw new NullPointerException();
     }
     this.name = name;
+    this.index = indexOf(name);
+  }
+
+  /**
+   * The index of the facet with the specified name. Facet names are interned on first use and each is assigned its
+   * own index, so sets of facets can be represented (and compared) as bit sets. At most {@link #MAX_INDEXES} names are
+   * indexed.
+   *
+   * @param name The name of the facet.
+   * @return The index of the facet, or -1 if the facet isn't indexed.
+   */
+  public static int indexOf(String name) {
+    Integer index = INDEXES.get(name);
+    if (index == null) {
+      synchronized (INDEXES) {
+        index = INDEXES.get(name);
+        if (index == null) {
+          if (INDEXES.size() >= MAX_INDEXES) {
+            return -1;
+          }
+
+          index = INDEXES.size();
+          INDEXES.put(name, index);
+        }
+      }
+    }
+    return index;
   }
 
   /**
@@ -54,35 +92,15 @@ public class Facet implements Comparable<Facet> {
    * @return The facets gathered on the declaration.
    */
   public static Set<Facet> gatherFacets(Element declaration, EnunciateContext context) {
-    Set<Facet> bucket = new TreeSet<Facet>();
+    FacetSet bucket = new FacetSet();
     if (declaration != null) {
-      com.webcohesion.enunciate.metadata.Facet facet = declaration.getAnnotation(com.webcohesion.enunciate.metadata.Facet.class);
-      if (facet != null) {
-        bucket.add(new Facet(facet));
-      }
-
-      Facets facets = declaration.getAnnotation(Facets.class);
-      if (facets != null) {
-        for (com.webcohesion.enunciate.metadata.Facet f : facets.value()) {
-          bucket.add(new Facet(f));
-        }
-      }
+      gatherDeclaredFacets(declaration, bucket);
 
       List<? extends AnnotationMirror> annotationMirrors = declaration.getAnnotationMirrors();
       for (AnnotationMirror annotationMirror : annotationMirrors) {
         DeclaredType annotationType = annotationMirror.getAnnotationType();
         if (annotationType != null) {
-          Element annotationDeclaration = annotationType.asElement();
-          facet = annotationDeclaration.getAnnotation(com.webcohesion.enunciate.metadata.Facet.class);
-          if (facet != null) {
-            bucket.add(new Facet(facet));
-          }
-          facets = annotationDeclaration.getAnnotation(Facets.class);
-          if (facets != null) {
-            for (com.webcohesion.enunciate.metadata.Facet f : facets.value()) {
-              bucket.add(new Facet(f));
-            }
-          }
+          bucket.addAll(gatherAnnotationFacets(annotationType.asElement(), context));
         }
       }
 
@@ -96,10 +114,56 @@ public class Facet implements Comparable<Facet> {
     return bucket;
   }
 
+  /**
+   * Gather the facets declared on an annotation type, which apply to every declaration annotated with it. The facets are
+   * cached per annotation type for the life of the context.
+   *
+   * @param annotationDeclaration The declaration of the annotation type.
+   * @param context The context (possibly null).
+   * @return The facets declared on the annotation type.
+   */
+  private static Set<Facet> gatherAnnotationFacets(Element annotationDeclaration, EnunciateContext context) {
+    String annotationName = annotationDeclaration instanceof TypeElement ? ((TypeElement) annotationDeclaration).getQualifiedName().toString() : null;
+    ConcurrentMap<String, Set<Facet>> cache = context == null || annotationName == null ? null : context.getAnnotationFacets();
+    Set<Facet> facets = cache == null ? null : cache.get(annotationName);
+    if (facets == null) {
+      FacetSet declared = new FacetSet();
+      gatherDeclaredFacets(annotationDeclaration, declared);
+      facets = Collections.unmodifiableSet(declared);
+      if (cache != null) {
+        cache.put(annotationName, facets);
+      }
+    }
+    return facets;
+  }
+
+  private static void gatherDeclaredFacets(Element declaration, Set<Facet> bucket) {
+    com.webcohesion.enunciate.metadata.Facet facet = declaration.getAnnotation(com.webcohesion.enunciate.metadata.Facet.class);
+    if (facet != null) {
+      bucket.add(new Facet(facet));
+    }
+
+    Facets facets = declaration.getAnnotation(Facets.class);
+    if (facets != null) {
+      for (com.webcohesion.enunciate.metadata.Facet f : facets.value()) {
+        bucket.add(new Facet(f));
+      }
+    }
+  }
+
   public String getName() {
     return name;
   }
 
+  /**
+   * The index of this facet (see {@link #indexOf(String)}).
+   *
+   * @return The index of this facet, or -1 if this facet isn't indexed.
+   */
+  public int getIndex() {
+    return index;
+  }
+
   public int compareTo(Facet o) {
     return this.name.compareTo(o.name);
   }
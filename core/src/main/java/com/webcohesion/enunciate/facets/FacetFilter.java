@@ -18,16 +18,40 @@ package com.webcohesion.enunciate.facets;
 import java.util.*;
 
 /**
+ * Filters items by their facets. The included and excluded facet names are converted to bit sets of facet indexes, so
+ * that each item is accepted or rejected with (at most) two mask tests. Facets that aren't indexed (see
+ * {@link Facet#indexOf(String)}) are compared by name.
+ *
  * @author Ryan Heaton
  */
 public class FacetFilter {
 
   private final Set<String> includes;
   private final Set<String> excludes;
+  private final BitSet includeMask;
+  private final BitSet excludeMask;
+  private final boolean indexed;
 
   public FacetFilter(Set<String> includes, Set<String> excludes) {
-    this.includes = includes;
-    this.excludes = excludes;
+    this.includes = includes == null ? Collections.<String>emptySet() : new HashSet<String>(includes);
+    this.excludes = excludes == null ? Collections.<String>emptySet() : new HashSet<String>(excludes);
+    this.includeMask = new BitSet();
+    this.excludeMask = new BitSet();
+    this.indexed = addToMask(this.includes, this.includeMask) & addToMask(this.excludes, this.excludeMask);
+  }
+
+  private static boolean addToMask(Set<String> facetNames, BitSet mask) {
+    boolean indexed = true;
+    for (String facetName : facetNames) {
+      int index = Facet.indexOf(facetName);
+      if (index < 0) {
+        indexed = false;
+      }
+      else {
+        mask.set(index);
+      }
+    }
+    return indexed;
   }
 
   public boolean accept(HasFacets item) {
@@ -35,15 +59,30 @@ public class FacetFilter {
       return false;
     }
 
-    if ((includes == null || includes.isEmpty()) && (excludes == null || excludes.isEmpty())) {
+    if (this.includes.isEmpty() && this.excludes.isEmpty()) {
       return true;
     }
 
+    Set<Facet> facets = item.getFacets();
+    if (!this.indexed || !FacetSet.isIndexed(facets)) {
+      return acceptByName(facets);
+    }
+
+    BitSet mask = FacetSet.maskOf(facets);
+    if (!this.includeMask.isEmpty() && !this.includeMask.intersects(mask)) {
+      return false;
+    }
+
+    //then remove the items that are explicitly excluded.
+    return !this.excludeMask.intersects(mask);
+  }
+
+  private boolean acceptByName(Set<Facet> facets) {
     boolean accept = true;
-    if (includes != null && !includes.isEmpty()) {
+    if (!this.includes.isEmpty()) {
       boolean included = false;
-      for (Facet facet : item.getFacets()) {
-        if (includes.contains(facet.getName())) {
+      for (Facet facet : facets) {
+        if (this.includes.contains(facet.getName())) {
           included = true;
           break;
         }
@@ -52,12 +91,10 @@ public class FacetFilter {
     }
 
     //then remove the items that are explicitly excluded.
-    if (excludes != null && !excludes.isEmpty()) {
-      for (Facet facet : item.getFacets()) {
-        if (excludes.contains(facet.getName())) {
-          accept = false;
-          break;
-        }
+    for (Facet facet : facets) {
+      if (this.excludes.contains(facet.getName())) {
+        accept = false;
+        break;
       }
     }
 
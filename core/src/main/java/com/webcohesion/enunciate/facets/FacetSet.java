@@ -0,0 +1,161 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.facets;
+
+import java.util.*;
+
+/**
+ * A sorted set of facets that keeps track of the {@link Facet#getIndex() indexes} of its facets in a bit set, so that
+ * a {@link FacetFilter} can test it with a couple of mask operations instead of looking up each facet by name.
+ *
+ * @author Ryan Heaton
+ */
+public class FacetSet extends AbstractSet<Facet> {
+
+  private final TreeSet<Facet> facets = new TreeSet<Facet>();
+  private final BitSet mask = new BitSet();
+  private int unindexed = 0;
+
+  public FacetSet() {
+  }
+
+  public FacetSet(Collection<? extends Facet> facets) {
+    addAll(facets);
+  }
+
+  /**
+   * The bit set of the indexes of the facets in this set. Any item whose facets aren't a {@link FacetSet} has its
+   * mask computed on demand. Facets that aren't indexed aren't in the mask (see {@link #isIndexed(Set)}).
+   *
+   * @param facets The facets.
+   * @return The mask of the facets.
+   */
+  public static BitSet maskOf(Set<Facet> facets) {
+    if (facets instanceof FacetSet) {
+      return ((FacetSet) facets).mask;
+    }
+
+    BitSet mask = new BitSet();
+    if (facets != null) {
+      for (Facet facet : facets) {
+        if (facet.getIndex() >= 0) {
+          mask.set(facet.getIndex());
+        }
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Whether all the specified facets are indexed, i.e. whether their {@link #maskOf(Set) mask} represents them fully.
+   *
+   * @param facets The facets.
+   * @return Whether all the facets are indexed.
+   */
+  public static boolean isIndexed(Set<Facet> facets) {
+    if (facets instanceof FacetSet) {
+      return ((FacetSet) facets).unindexed == 0;
+    }
+
+    if (facets != null) {
+      for (Facet facet : facets) {
+        if (facet.getIndex() < 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean add(Facet facet) {
+    boolean added = this.facets.add(facet);
+    if (added) {
+      setIndexed(facet);
+    }
+    return added;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    boolean removed = this.facets.remove(o);
+    if (removed) {
+      clearIndexed((Facet) o);
+    }
+    return removed;
+  }
+
+  private void setIndexed(Facet facet) {
+    if (facet.getIndex() < 0) {
+      this.unindexed++;
+    }
+    else {
+      this.mask.set(facet.getIndex());
+    }
+  }
+
+  private void clearIndexed(Facet facet) {
+    if (facet.getIndex() < 0) {
+      this.unindexed--;
+    }
+    else {
+      this.mask.clear(facet.getIndex());
+    }
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return this.facets.contains(o);
+  }
+
+  @Override
+  public void clear() {
+    this.facets.clear();
+    this.mask.clear();
+    this.unindexed = 0;
+  }
+
+  @Override
+  public int size() {
+    return this.facets.size();
+  }
+
+  @Override
+  public Iterator<Facet> iterator() {
+    final Iterator<Facet> delegate = this.facets.iterator();
+    return new Iterator<Facet>() {
+
+      private Facet last;
+
+      @Override
+      public boolean hasNext() {
+        return delegate.hasNext();
+      }
+
+      @Override
+      public Facet next() {
+        this.last = delegate.next();
+        return this.last;
+      }
+
+      @Override
+      public void remove() {
+        delegate.remove();
+        clearIndexed(this.last);
+      }
+    };
+  }
+}
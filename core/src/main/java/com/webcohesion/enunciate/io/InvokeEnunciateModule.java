@@ -15,6 +15,7 @@
  */
 package com.webcohesion.enunciate.io;
 
+import com.webcohesion.enunciate.BuildReport;
 import com.webcohesion.enunciate.EnunciateContext;
 import com.webcohesion.enunciate.module.EnunciateModule;
 import rx.Observer;
@@ -25,9 +26,15 @@ import rx.Observer;
 public class InvokeEnunciateModule implements Observer<EnunciateContext> {
 
   private final EnunciateModule module;
+  private final BuildReport buildReport;
 
   public InvokeEnunciateModule(EnunciateModule module) {
+    this(module, null);
+  }
+
+  public InvokeEnunciateModule(EnunciateModule module, BuildReport buildReport) {
     this.module = module;
+    this.buildReport = buildReport;
   }
 
 
@@ -43,6 +50,17 @@ public class InvokeEnunciateModule implements Observer<EnunciateContext> {
 
   @Override
   public void onNext(EnunciateContext enunciateContext) {
-    this.module.call(enunciateContext);
+    if (this.buildReport == null) {
+      this.module.call(enunciateContext);
+    }
+    else {
+      BuildReport.Timer timer = this.buildReport.start(BuildReport.MODULE_PHASE, this.module.getName());
+      try {
+        this.module.call(enunciateContext);
+      }
+      finally {
+        timer.stop();
+      }
+    }
   }
 }
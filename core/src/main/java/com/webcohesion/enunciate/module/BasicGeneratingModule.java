@@ -15,22 +15,33 @@
  */
 package com.webcohesion.enunciate.module;
 
+import com.webcohesion.enunciate.Enunciate;
 import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
 import com.webcohesion.enunciate.javac.decorations.SourcePosition;
+import com.webcohesion.enunciate.util.BuildCache;
+import com.webcohesion.enunciate.util.freemarker.TemplateEngine;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.TemplateException;
 
-import javax.lang.model.element.Element;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Ryan Heaton
  */
 public abstract class BasicGeneratingModule extends BasicEnunicateModule {
 
+  private final ConcurrentMap<URI, String> sourceHashes = new ConcurrentHashMap<URI, String>();
+
   /**
    * Whether all files in the specified directory are newer than all the source files.
    *
@@ -55,8 +66,7 @@ public abstract class BasicGeneratingModule extends BasicEnunicateModule {
   }
 
   public long findSourceTimestamp(DecoratedProcessingEnvironment env, Element apiElement) {
-    SourcePosition sp = env.findSourcePosition(apiElement);
-    URI uri = sp == null ? null : sp.getPath() == null ? null : sp.getPath().getCompilationUnit() == null ? null : sp.getPath().getCompilationUnit().getSourceFile() == null ? null : sp.getPath().getCompilationUnit().getSourceFile().toUri();
+    URI uri = findSourceURI(env, apiElement);
     if (uri != null && "file".equalsIgnoreCase(uri.getScheme())) {
       //it's a file uri.
       return new File(uri.getPath()).lastModified();
@@ -65,6 +75,244 @@ public abstract class BasicGeneratingModule extends BasicEnunicateModule {
     return 0;
   }
 
+  /**
+   * Render a template with the shared template engine, recording its timing and the files it writes in the build report.
+   *
+   * @param templateURL The template.
+   * @param model       The model.
+   * @param wrapper     The object wrapper, or null for the default wrapper.
+   * @param outputFiles The collection to which to add the files written by the template, or null.
+   * @return The output of the template that wasn't directed to a file.
+   */
+  protected String renderTemplate(URL templateURL, Object model, ObjectWrapper wrapper, Collection<File> outputFiles) throws IOException, TemplateException {
+    StringWriter unhandledOutput = new StringWriter();
+    TemplateEngine.getInstance().processTemplate(templateURL, model, wrapper, this.enunciate.getLogger(), this.enunciate.getBuildReport(), unhandledOutput, outputFiles);
+    unhandledOutput.close();
+    return unhandledOutput.toString();
+  }
+
+
+  /**
+   * Load the build cache for the specified output of this module. The cache is kept in the build directory and is
+   * invalidated if the configuration or the set of API elements changes.
+   *
+   * @param name The name of the output (e.g. "client-sources").
+   * @return The build cache, or null if there's no build directory.
+   */
+  protected BuildCache loadBuildCache(String name) {
+    File buildDir = this.enunciate.getBuildDir();
+    if (buildDir == null) {
+      return null;
+    }
+
+    File cacheFile = new File(new File(new File(buildDir, ".cache"), getName()), name + ".properties");
+    return new BuildCache(cacheFile, findSharedInputsHash(), this.enunciate.getLogger());
+  }
+
+  /**
+   * Find the hash of the inputs that are shared by everything this module generates: the configuration, the names of
+   * the API elements, the version of Enunciate, and the jars on the classpath (by size and modification time, since the
+   * types that are only available in binary form can't be hashed by their source).
+   *
+   * @return The hash of the shared inputs.
+   */
+  protected String findSharedInputsHash() {
+    MessageDigest digest = BuildCache.newDigest();
+    BuildCache.update(digest, getName());
+    BuildCache.update(digest, Enunciate.class.getPackage() == null ? null : Enunciate.class.getPackage().getImplementationVersion());
+
+    try {
+      BuildCache.update(digest, this.context.getConfiguration().getConfigFile());
+    }
+    catch (IOException e) {
+      //unable to read the config file; make sure the cache is invalidated.
+      BuildCache.update(digest, String.valueOf(System.currentTimeMillis()));
+    }
+
+    List<File> classpath = this.enunciate.getClasspath();
+    if (classpath != null) {
+      for (File entry : classpath) {
+        BuildCache.update(digest, entry.getAbsolutePath());
+        if (entry.isFile()) {
+          BuildCache.update(digest, entry.length() + ":" + entry.lastModified());
+        }
+      }
+    }
+
+    TreeSet<String> apiElementNames = new TreeSet<String>();
+    for (Element apiElement : this.context.getApiElements()) {
+      apiElementNames.add(apiElement.getKind() + ":" + (apiElement instanceof TypeElement ? ((TypeElement) apiElement).getQualifiedName() : apiElement.toString()));
+    }
+    for (String apiElementName : apiElementNames) {
+      BuildCache.update(digest, apiElementName);
+    }
+
+    return BuildCache.toHex(digest.digest());
+  }
+
+  /**
+   * Find the hash of the source of the specified element, i.e. the content of its compilation unit and the compilation
+   * units of its superclasses and of their packages (the package-level XML/JSON metadata). For a type, the sources of
+   * the types referenced by its fields, methods, their annotations and the annotations of the type itself (e.g. the
+   * subtypes listed by @XmlSeeAlso or @JsonSubTypes), and by those of its superclasses, are included too, since the
+   * output generated for the type usually depends on them (e.g. their names, kinds and XML/JSON metadata).
+   *
+   * @param element The element.
+   * @return The hash of the source of the element.
+   */
+  public String findSourceHash(Element element) {
+    DecoratedProcessingEnvironment env = this.context.getProcessingEnvironment();
+    MessageDigest digest = BuildCache.newDigest();
+    BuildCache.update(digest, findHierarchySourceHash(env, element));
+
+    if (element instanceof TypeElement) {
+      Set<Element> hierarchy = new HashSet<Element>();
+      TreeMap<String, Element> referencedTypes = new TreeMap<String, Element>();
+      Element type = element;
+      while (type instanceof TypeElement && hierarchy.add(type)) {
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+          addReferencedTypes(annotation, referencedTypes);
+        }
+
+        for (Element member : type.getEnclosedElements()) {
+          if (member.getKind() == ElementKind.FIELD || member.getKind() == ElementKind.ENUM_CONSTANT) {
+            addReferencedTypes(member.asType(), referencedTypes);
+          }
+          else if (member.getKind() == ElementKind.METHOD) {
+            ExecutableElement method = (ExecutableElement) member;
+            addReferencedTypes(method.getReturnType(), referencedTypes);
+            for (VariableElement parameter : method.getParameters()) {
+              addReferencedTypes(parameter.asType(), referencedTypes);
+            }
+          }
+          else {
+            continue;
+          }
+
+          for (AnnotationMirror annotation : member.getAnnotationMirrors()) {
+            addReferencedTypes(annotation, referencedTypes);
+          }
+        }
+
+        TypeMirror superclass = ((TypeElement) type).getSuperclass();
+        type = superclass instanceof DeclaredType ? ((DeclaredType) superclass).asElement() : null;
+      }
+
+      for (Map.Entry<String, Element> referencedType : referencedTypes.entrySet()) {
+        if (!hierarchy.contains(referencedType.getValue())) {
+          BuildCache.update(digest, referencedType.getKey());
+          BuildCache.update(digest, findHierarchySourceHash(env, referencedType.getValue()));
+        }
+      }
+    }
+
+    return BuildCache.toHex(digest.digest());
+  }
+
+  private String findHierarchySourceHash(DecoratedProcessingEnvironment env, Element element) {
+    StringBuilder hash = new StringBuilder(findSourceHash(env, element));
+    hash.append(':').append(findSourceHash(env, env.getElementUtils().getPackageOf(element)));
+    if (element instanceof TypeElement) {
+      TypeMirror superclass = ((TypeElement) element).getSuperclass();
+      while (superclass instanceof DeclaredType) {
+        Element superElement = ((DeclaredType) superclass).asElement();
+        hash.append(':').append(findSourceHash(env, superElement));
+        hash.append(':').append(findSourceHash(env, env.getElementUtils().getPackageOf(superElement)));
+        superclass = superElement instanceof TypeElement ? ((TypeElement) superElement).getSuperclass() : null;
+      }
+    }
+    return hash.toString();
+  }
+
+  private void addReferencedTypes(AnnotationMirror annotation, Map<String, Element> referencedTypes) {
+    for (AnnotationValue value : annotation.getElementValues().values()) {
+      addReferencedTypes(value, referencedTypes);
+    }
+  }
+
+  private void addReferencedTypes(AnnotationValue value, Map<String, Element> referencedTypes) {
+    Object unwrapped = value.getValue();
+    if (unwrapped instanceof TypeMirror) {
+      addReferencedTypes((TypeMirror) unwrapped, referencedTypes);
+    }
+    else if (unwrapped instanceof AnnotationMirror) {
+      //e.g. @JsonSubTypes({@JsonSubTypes.Type(Subtype.class)})
+      addReferencedTypes((AnnotationMirror) unwrapped, referencedTypes);
+    }
+    else if (unwrapped instanceof List) {
+      for (Object item : (List<?>) unwrapped) {
+        if (item instanceof AnnotationValue) {
+          addReferencedTypes((AnnotationValue) item, referencedTypes);
+        }
+      }
+    }
+  }
+
+  private void addReferencedTypes(TypeMirror type, Map<String, Element> referencedTypes) {
+    if (type instanceof DeclaredType) {
+      Element element = ((DeclaredType) type).asElement();
+      if (element instanceof TypeElement) {
+        referencedTypes.put(((TypeElement) element).getQualifiedName().toString(), element);
+      }
+      for (TypeMirror typeArgument : ((DeclaredType) type).getTypeArguments()) {
+        addReferencedTypes(typeArgument, referencedTypes);
+      }
+    }
+    else if (type instanceof ArrayType) {
+      addReferencedTypes(((ArrayType) type).getComponentType(), referencedTypes);
+    }
+    else if (type instanceof WildcardType) {
+      addReferencedTypes(((WildcardType) type).getExtendsBound(), referencedTypes);
+      addReferencedTypes(((WildcardType) type).getSuperBound(), referencedTypes);
+    }
+  }
+
+  protected String findSourceHash(DecoratedProcessingEnvironment env, Element element) {
+    if (element == null) {
+      return null;
+    }
+
+    URI uri = findSourceURI(env, element);
+    if (uri == null) {
+      if (element instanceof PackageElement) {
+        //no package-info source (e.g. it's on the sourcepath or in a jar); fall back to the package annotations.
+        StringBuilder hash = new StringBuilder(((PackageElement) element).getQualifiedName());
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+          hash.append('@').append(annotation);
+        }
+        return hash.toString();
+      }
+
+      //no source; fall back to the name of the element.
+      return element instanceof TypeElement ? ((TypeElement) element).getQualifiedName().toString() : String.valueOf(element);
+    }
+
+    String hash = this.sourceHashes.get(uri);
+    if (hash == null) {
+      MessageDigest digest = BuildCache.newDigest();
+      try {
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+          BuildCache.update(digest, new File(uri.getPath()));
+        }
+        else {
+          BuildCache.update(digest, uri.toString());
+        }
+      }
+      catch (IOException e) {
+        //unable to read the source; make sure the element is regenerated.
+        BuildCache.update(digest, String.valueOf(System.currentTimeMillis()));
+      }
+      hash = BuildCache.toHex(digest.digest());
+      this.sourceHashes.put(uri, hash);
+    }
+    return hash;
+  }
+
+  protected URI findSourceURI(DecoratedProcessingEnvironment env, Element apiElement) {
+    SourcePosition sp = env.findSourcePosition(apiElement);
+    return sp == null ? null : sp.getPath() == null ? null : sp.getPath().getCompilationUnit() == null ? null : sp.getPath().getCompilationUnit().getSourceFile() == null ? null : sp.getPath().getCompilationUnit().getSourceFile().toUri();
+  }
+
   protected boolean isUpToDate(long newestSourceTimestamp, File destFile) {
     List<File> destFiles;
     if ((destFile == null) || (!destFile.exists())) {
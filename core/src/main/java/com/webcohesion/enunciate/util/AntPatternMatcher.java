@@ -15,8 +15,7 @@
  */
 package com.webcohesion.enunciate.util;
 
-import com.google.common.base.Predicate;
-import org.reflections.util.FilterBuilder;
+import java.util.regex.Pattern;
 
 /**
  * Ant-style pattern matcher. By default, this matcher matches on FQN, so the path separator is the '.'.
@@ -36,6 +35,7 @@ public class AntPatternMatcher {
   public static final String DEFAULT_PATH_SEPARATOR = ".";
 
   private String pathSeparator = DEFAULT_PATH_SEPARATOR;
+  private Pattern pathSeparatorPattern = Pattern.compile(Pattern.quote(DEFAULT_PATH_SEPARATOR));
 
   public static boolean isValidPattern(String pattern) {
     return INSTANCE.isPattern(pattern);
@@ -49,6 +49,27 @@ public class AntPatternMatcher {
    */
   public void setPathSeparator(String pathSeparator) {
     this.pathSeparator = (pathSeparator != null ? pathSeparator : DEFAULT_PATH_SEPARATOR);
+    this.pathSeparatorPattern = Pattern.compile(Pattern.quote(this.pathSeparator));
+  }
+
+  /**
+   * The path separator.
+   *
+   * @return The path separator.
+   */
+  public String getPathSeparator() {
+    return pathSeparator;
+  }
+
+  /**
+   * Split a path (or a pattern) into its directories, so that it can be matched multiple times without being
+   * re-tokenized (see {@link #match(String, String[], String, String[])}).
+   *
+   * @param path The path.
+   * @return The directories of the path.
+   */
+  public String[] tokenize(String path) {
+    return this.pathSeparatorPattern.split(path);
   }
 
   /**
@@ -79,11 +100,27 @@ public class AntPatternMatcher {
       return false;
     }
 
-    String pathSeparatorSplitPattern = ".".equals(this.pathSeparator) ? "\\." : this.pathSeparator; //escape the special '.' for regexp splitting.
-    pathSeparatorSplitPattern = "\\".equals(pathSeparatorSplitPattern) ? "\\\\" : pathSeparatorSplitPattern; //escape the special '\' for regexp splitting.
-    String[] pattDirs = pattern.split(pathSeparatorSplitPattern);
-    String[] pathDirs = path.split(pathSeparatorSplitPattern);
+    return doMatch(pattern, tokenize(pattern), path, tokenize(path), fullMatch);
+  }
+
+  /**
+   * Match the given path against the given pattern, both of which have already been tokenized.
+   *
+   * @param pattern  The pattern.
+   * @param pattDirs The directories of the pattern (see {@link #tokenize(String)}).
+   * @param path     The path.
+   * @param pathDirs The directories of the path (see {@link #tokenize(String)}).
+   * @return Whether the path matches the pattern.
+   */
+  public boolean match(String pattern, String[] pattDirs, String path, String[] pathDirs) {
+    if (path.startsWith(this.pathSeparator) != pattern.startsWith(this.pathSeparator)) {
+      return false;
+    }
+
+    return doMatch(pattern, pattDirs, path, pathDirs, true);
+  }
 
+  protected boolean doMatch(String pattern, String[] pattDirs, String path, String[] pathDirs, boolean fullMatch) {
     int pattIdxStart = 0;
     int pattIdxEnd = pattDirs.length - 1;
     int pathIdxStart = 0;
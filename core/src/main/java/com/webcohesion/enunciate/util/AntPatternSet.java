@@ -0,0 +1,173 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A set of include (or exclude) patterns, compiled for matching class and package names. Names that aren't patterns
+ * are matched exactly, and patterns of the form "com.example.**" are matched by walking a trie of package segments.
+ * The rest of the patterns are tokenized once and matched with the {@link AntPatternMatcher}. The result for each name
+ * is memoized.
+ *
+ * @author Ryan Heaton
+ */
+public class AntPatternSet {
+
+  private static final String ANY_PACKAGES = ".**";
+  private static final int MAX_MEMOIZED = 50000;
+
+  private final AntPatternMatcher matcher = new AntPatternMatcher();
+  private final Set<String> patterns;
+  private final Set<String> exactNames = new HashSet<String>();
+  private final PrefixNode prefixes = new PrefixNode();
+  private final List<String> wildcardPatterns = new ArrayList<String>();
+  private final List<String[]> wildcardTokens = new ArrayList<String[]>();
+  private final ConcurrentMap<String, Boolean> results = new ConcurrentHashMap<String, Boolean>();
+
+  public AntPatternSet(Collection<String> patterns) {
+    this.patterns = Collections.unmodifiableSet(new LinkedHashSet<String>(patterns));
+    for (String pattern : this.patterns) {
+      if (!this.matcher.isPattern(pattern)) {
+        this.exactNames.add(pattern);
+      }
+      else if (isPackagePrefix(pattern)) {
+        PrefixNode node = this.prefixes;
+        for (String segment : pattern.substring(0, pattern.length() - ANY_PACKAGES.length()).split("\\.")) {
+          node = node.child(segment);
+        }
+        node.terminal = true;
+      }
+      else {
+        this.wildcardPatterns.add(pattern);
+        this.wildcardTokens.add(this.matcher.tokenize(pattern));
+      }
+    }
+  }
+
+  /**
+   * Whether the pattern is of the form "com.example.**", where the package doesn't contain any wildcards.
+   *
+   * @param pattern The pattern.
+   * @return Whether the pattern matches a package and everything in it.
+   */
+  private boolean isPackagePrefix(String pattern) {
+    if (!pattern.endsWith(ANY_PACKAGES)) {
+      return false;
+    }
+
+    String pckg = pattern.substring(0, pattern.length() - ANY_PACKAGES.length());
+    return !pckg.isEmpty() && !this.matcher.isPattern(pckg) && !pckg.startsWith(".") && !pckg.endsWith(".") && !pckg.contains("..");
+  }
+
+  /**
+   * The patterns in this set.
+   *
+   * @return The patterns in this set.
+   */
+  public Set<String> getPatterns() {
+    return patterns;
+  }
+
+  /**
+   * Whether the specified name matches any of the patterns in this set.
+   *
+   * @param name The (fully-qualified) name of the class or package.
+   * @return Whether the name matches any of the patterns in this set.
+   */
+  public boolean matches(String name) {
+    if (name == null) {
+      return false;
+    }
+
+    Boolean result = this.results.get(name);
+    if (result == null) {
+      result = doMatch(name);
+      if (this.results.size() < MAX_MEMOIZED) {
+        this.results.put(name, result);
+      }
+    }
+    return result;
+  }
+
+  protected boolean doMatch(String name) {
+    if (this.exactNames.contains(name) || this.prefixes.matches(name)) {
+      return true;
+    }
+
+    if (!this.wildcardPatterns.isEmpty()) {
+      String[] nameTokens = this.matcher.tokenize(name);
+      for (int i = 0; i < this.wildcardPatterns.size(); i++) {
+        if (this.matcher.match(this.wildcardPatterns.get(i), this.wildcardTokens.get(i), name, nameTokens)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(this.patterns);
+  }
+
+  /**
+   * A node in the trie of package segments.
+   */
+  private static final class PrefixNode {
+
+    private final Map<String, PrefixNode> children = new HashMap<String, PrefixNode>();
+    private boolean terminal = false;
+
+    private PrefixNode child(String segment) {
+      PrefixNode child = this.children.get(segment);
+      if (child == null) {
+        child = new PrefixNode();
+        this.children.put(segment, child);
+      }
+      return child;
+    }
+
+    /**
+     * Whether any of the packages in this trie is (or encloses) the specified name.
+     *
+     * @param name The name.
+     * @return Whether the name is matched.
+     */
+    private boolean matches(String name) {
+      PrefixNode node = this;
+      int start = 0;
+      while (!node.children.isEmpty()) {
+        int end = name.indexOf('.', start);
+        node = node.children.get(end < 0 ? name.substring(start) : name.substring(start, end));
+        if (node == null) {
+          return false;
+        }
+        else if (node.terminal) {
+          return true;
+        }
+        else if (end < 0) {
+          return false;
+        }
+        start = end + 1;
+      }
+      return false;
+    }
+  }
+}
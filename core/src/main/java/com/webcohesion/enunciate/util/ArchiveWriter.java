@@ -0,0 +1,624 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import com.webcohesion.enunciate.EnunciateLogger;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes files to a zip archive. The entries are compressed in parallel on a pool owned by the writer (so that
+ * modules running on the Enunciate executor can't starve it) and written to the archive in order. If the archive
+ * already exists, the compressed data of the entries that haven't changed (i.e. the same name, size and checksum) is
+ * copied from the existing archive instead of being compressed again.<br/>
+ * <br/>
+ * Archives that may need the Zip64 extensions (more than 65535 entries, or more than 4 GB) are streamed through a
+ * {@link ZipOutputStream} instead, without parallel compression or reuse.
+ *
+ * @author Ryan Heaton
+ */
+public class ArchiveWriter {
+
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+  private static final int UTF8_FLAG = 0x0800;
+  private static final int MAX_ENTRIES = 0xFFFF;
+  private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+  private final int compressionLevel;
+  private final int threadCount;
+  private final EnunciateLogger logger;
+  private int reusedCount = 0;
+  private int compressedCount = 0;
+
+  /**
+   * @param compressionLevel The compression level (see {@link Deflater}), or 0 to store the entries without compression.
+   * @param threadCount      The number of threads to use to compress the entries, or less than 2 to compress them serially.
+   * @param logger           The logger.
+   */
+  public ArchiveWriter(int compressionLevel, int threadCount, EnunciateLogger logger) {
+    this.compressionLevel = compressionLevel;
+    this.threadCount = threadCount;
+    this.logger = logger;
+  }
+
+  /**
+   * Zip up the specified files to the specified file.
+   *
+   * @param toFile  The file to zip to.
+   * @param entries The files to zip up, by entry name, in the order they're to be added.
+   * @return Whether there were any files to zip up. If not, the archive will contain a single placeholder file.
+   */
+  public boolean write(File toFile, Map<String, File> entries) throws IOException {
+    List<String> names = new ArrayList<String>(entries.keySet());
+    List<File> files = new ArrayList<File>(entries.values());
+    if (requiresZip64(names, files)) {
+      this.logger.debug("%s may need Zip64 extensions; streaming its %s entries.", toFile, files.size());
+      return stream(toFile, names, files);
+    }
+
+    boolean anyFiles = !files.isEmpty();
+
+    Map<String, PreviousEntry> previous = toFile.exists() ? readPreviousEntries(toFile) : Collections.<String, PreviousEntry>emptyMap();
+    File tempFile = new File(toFile.getParentFile(), toFile.getName() + ".tmp");
+    RandomAccessFile previousArchive = previous.isEmpty() ? null : new RandomAccessFile(toFile, "r");
+    OffsetOutputStream out = new OffsetOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024));
+    List<WrittenEntry> written = new ArrayList<WrittenEntry>(files.size());
+    ExecutorService executor = this.threadCount > 1 && files.size() > 1 ? Executors.newFixedThreadPool(this.threadCount, new ArchiveThreadFactory()) : null;
+    //bound the number of compressed entries held in memory.
+    int window = Math.max(1, this.threadCount) * 4;
+    try {
+      if (anyFiles) {
+        LinkedList<Future<CompressedEntry>> pending = new LinkedList<Future<CompressedEntry>>();
+        for (int i = 0; i < files.size(); i++) {
+          Callable<CompressedEntry> task = new CompressEntry(names.get(i), files.get(i), previous.get(names.get(i)));
+          if (executor == null) {
+            written.add(writeEntry(out, task.call(), previousArchive));
+          }
+          else {
+            pending.add(executor.submit(task));
+            if (pending.size() >= window) {
+              written.add(writeEntry(out, await(pending.removeFirst()), previousArchive));
+            }
+          }
+        }
+
+        while (!pending.isEmpty()) {
+          written.add(writeEntry(out, await(pending.removeFirst()), previousArchive));
+        }
+      }
+      else {
+        written.add(writeEntry(out, compress("README.txt", System.currentTimeMillis(), "Empty zip file".getBytes("utf-8"), null), null));
+      }
+
+      writeCentralDirectory(out, written);
+    }
+    catch (IOException e) {
+      out.close();
+      tempFile.delete();
+      throw e;
+    }
+    catch (RuntimeException e) {
+      out.close();
+      tempFile.delete();
+      throw e;
+    }
+    catch (Exception e) {
+      out.close();
+      tempFile.delete();
+      throw new IOException(e);
+    }
+    finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+
+      if (previousArchive != null) {
+        previousArchive.close();
+      }
+    }
+    out.close();
+
+    if (toFile.exists() && !toFile.delete()) {
+      throw new IOException("Unable to replace " + toFile);
+    }
+    if (!tempFile.renameTo(toFile)) {
+      throw new IOException("Unable to move " + tempFile + " to " + toFile);
+    }
+
+    return anyFiles;
+  }
+
+  /**
+   * Whether an archive of the specified files may need the Zip64 extensions, i.e. whether it may have more than 65535
+   * entries or more than 4 GB of data (allowing for the worst-case expansion of deflated data and for the headers).
+   *
+   * @param names The names of the entries.
+   * @param files The files.
+   * @return Whether the archive may need the Zip64 extensions.
+   */
+  protected boolean requiresZip64(List<String> names, List<File> files) throws IOException {
+    if (files.size() > MAX_ENTRIES) {
+      return true;
+    }
+
+    //end of central directory record.
+    long bound = 22;
+    for (int i = 0; i < files.size(); i++) {
+      long length = files.get(i).length();
+      if (length > Integer.MAX_VALUE) {
+        //too large to be compressed in memory.
+        return true;
+      }
+
+      //deflate adds at most 5 bytes per 16K block; each entry has a local header and a central directory header.
+      bound += length + (length / 16384 + 1) * 5 + 30 + 46 + 2 * names.get(i).getBytes("utf-8").length;
+      if (bound > MAX_SIZE) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean stream(File toFile, List<String> names, List<File> files) throws IOException {
+    File tempFile = new File(toFile.getParentFile(), toFile.getName() + ".tmp");
+    ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024));
+    try {
+      out.setLevel(this.compressionLevel);
+      byte[] buffer = new byte[64 * 1024];
+      for (int i = 0; i < files.size(); i++) {
+        File file = files.get(i);
+        this.logger.debug("Adding entry %s...", names.get(i));
+        ZipEntry entry = new ZipEntry(names.get(i));
+        entry.setTime(file.lastModified());
+        out.putNextEntry(entry);
+        InputStream in = new FileInputStream(file);
+        try {
+          int len;
+          while ((len = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, len);
+          }
+        }
+        finally {
+          in.close();
+        }
+        out.closeEntry();
+        this.compressedCount++;
+      }
+      out.close();
+    }
+    catch (IOException e) {
+      out.close();
+      tempFile.delete();
+      throw e;
+    }
+
+    if (toFile.exists() && !toFile.delete()) {
+      throw new IOException("Unable to replace " + toFile);
+    }
+    if (!tempFile.renameTo(toFile)) {
+      throw new IOException("Unable to move " + tempFile + " to " + toFile);
+    }
+    return !files.isEmpty();
+  }
+
+  /**
+   * The number of entries whose compressed data was copied from the previous archive.
+   *
+   * @return The number of entries whose compressed data was copied from the previous archive.
+   */
+  public int getReusedCount() {
+    return reusedCount;
+  }
+
+  /**
+   * The number of entries that were compressed.
+   *
+   * @return The number of entries that were compressed.
+   */
+  public int getCompressedCount() {
+    return compressedCount;
+  }
+
+  private CompressedEntry await(Future<CompressedEntry> future) throws IOException {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private CompressedEntry compress(String name, long time, byte[] bytes, PreviousEntry previous) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    int method = this.compressionLevel == 0 ? STORED : DEFLATED;
+    if (previous != null && previous.method == method && previous.size == bytes.length && previous.crc == crc.getValue()) {
+      //unchanged; the compressed data will be copied from the previous archive.
+      return new CompressedEntry(name, time, method, crc.getValue(), bytes.length, null, previous);
+    }
+
+    byte[] data;
+    if (method == STORED) {
+      data = bytes;
+    }
+    else {
+      Deflater deflater = new Deflater(this.compressionLevel, true);
+      try {
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 2));
+        byte[] buffer = new byte[8 * 1024];
+        while (!deflater.finished()) {
+          int len = deflater.deflate(buffer);
+          compressed.write(buffer, 0, len);
+        }
+        data = compressed.toByteArray();
+      }
+      finally {
+        deflater.end();
+      }
+    }
+    return new CompressedEntry(name, time, method, crc.getValue(), bytes.length, data, null);
+  }
+
+  private WrittenEntry writeEntry(OffsetOutputStream out, CompressedEntry entry, RandomAccessFile previousArchive) throws IOException {
+    this.logger.debug("Adding entry %s...", entry.name);
+    long compressedSize = entry.data != null ? entry.data.length : entry.previous.compressedSize;
+    WrittenEntry written = new WrittenEntry(entry, compressedSize, out.offset);
+
+    byte[] name = entry.name.getBytes("utf-8");
+    writeInt(out, 0x04034b50);
+    writeShort(out, entry.method == STORED ? 10 : 20);
+    writeShort(out, UTF8_FLAG);
+    writeShort(out, entry.method);
+    writeInt(out, toDosTime(entry.time));
+    writeInt(out, entry.crc);
+    writeInt(out, compressedSize);
+    writeInt(out, entry.size);
+    writeShort(out, name.length);
+    writeShort(out, 0);
+    out.write(name);
+
+    if (entry.data != null) {
+      this.compressedCount++;
+      out.write(entry.data);
+    }
+    else {
+      this.reusedCount++;
+      copy(previousArchive, entry.previous, out);
+    }
+    return written;
+  }
+
+  private void copy(RandomAccessFile archive, PreviousEntry entry, OutputStream out) throws IOException {
+    byte[] lengths = new byte[4];
+    archive.seek(entry.localHeaderOffset + 26);
+    archive.readFully(lengths);
+    archive.seek(entry.localHeaderOffset + 30 + getShort(lengths, 0) + getShort(lengths, 2));
+    byte[] buffer = new byte[64 * 1024];
+    long remaining = entry.compressedSize;
+    while (remaining > 0) {
+      int len = archive.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+      if (len < 0) {
+        throw new EOFException("Unexpected end of archive.");
+      }
+      out.write(buffer, 0, len);
+      remaining -= len;
+    }
+  }
+
+  private void writeCentralDirectory(OffsetOutputStream out, List<WrittenEntry> entries) throws IOException {
+    long start = out.offset;
+    for (WrittenEntry written : entries) {
+      CompressedEntry entry = written.entry;
+      byte[] name = entry.name.getBytes("utf-8");
+      writeInt(out, 0x02014b50);
+      writeShort(out, 20);
+      writeShort(out, entry.method == STORED ? 10 : 20);
+      writeShort(out, UTF8_FLAG);
+      writeShort(out, entry.method);
+      writeInt(out, toDosTime(entry.time));
+      writeInt(out, entry.crc);
+      writeInt(out, written.compressedSize);
+      writeInt(out, entry.size);
+      writeShort(out, name.length);
+      writeShort(out, 0);
+      writeShort(out, 0);
+      writeShort(out, 0);
+      writeShort(out, 0);
+      writeInt(out, 0);
+      writeInt(out, written.localHeaderOffset);
+      out.write(name);
+    }
+    long size = out.offset - start;
+    if (out.offset > MAX_SIZE) {
+      throw new IOException("Archive too large.");
+    }
+
+    writeInt(out, 0x06054b50);
+    writeShort(out, 0);
+    writeShort(out, 0);
+    writeShort(out, entries.size());
+    writeShort(out, entries.size());
+    writeInt(out, size);
+    writeInt(out, start);
+    writeShort(out, 0);
+  }
+
+  /**
+   * Read the entries of an existing archive from its central directory. The entries of an archive that uses the Zip64
+   * extensions aren't read, as their sizes and offsets are only placeholders in the central directory.
+   *
+   * @param archive The archive.
+   * @return The entries by name, or an empty map if the archive can't be read.
+   */
+  protected Map<String, PreviousEntry> readPreviousEntries(File archive) {
+    Map<String, PreviousEntry> entries = new HashMap<String, PreviousEntry>();
+    try {
+      RandomAccessFile in = new RandomAccessFile(archive, "r");
+      try {
+        //find the end of central directory record in the tail of the archive (it's followed by a comment of up to 64K).
+        long length = in.length();
+        byte[] tail = new byte[(int) Math.min(length, 22 + 0xFFFF)];
+        in.seek(length - tail.length);
+        in.readFully(tail);
+        int eocd = -1;
+        for (int position = tail.length - 22; position >= 0; position--) {
+          if (getInt(tail, position) == 0x06054b50L) {
+            eocd = position;
+            break;
+          }
+        }
+        if (eocd < 0) {
+          return entries;
+        }
+
+        int count = getShort(tail, eocd + 10);
+        long size = getInt(tail, eocd + 12);
+        long offset = getInt(tail, eocd + 16);
+        boolean zip64 = eocd >= 20 && getInt(tail, eocd - 20) == 0x07064b50L;
+        if (zip64 || count == MAX_ENTRIES || size == MAX_SIZE || offset == MAX_SIZE || offset + size > length - tail.length + eocd) {
+          this.logger.debug("Not reusing the entries of %s: Zip64 or unrecognized central directory.", archive);
+          return entries;
+        }
+
+        byte[] directory = new byte[(int) size];
+        in.seek(offset);
+        in.readFully(directory);
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+          if (position + 46 > directory.length || getInt(directory, position) != 0x02014b50L) {
+            entries.clear();
+            return entries;
+          }
+          int method = getShort(directory, position + 10);
+          long crc = getInt(directory, position + 16);
+          long compressedSize = getInt(directory, position + 20);
+          long uncompressedSize = getInt(directory, position + 24);
+          int nameLength = getShort(directory, position + 28);
+          int extraLength = getShort(directory, position + 30);
+          int commentLength = getShort(directory, position + 32);
+          long localHeaderOffset = getInt(directory, position + 42);
+          if (position + 46 + nameLength > directory.length) {
+            entries.clear();
+            return entries;
+          }
+          String name = new String(directory, position + 46, nameLength, "utf-8");
+          if (compressedSize != MAX_SIZE && uncompressedSize != MAX_SIZE && localHeaderOffset != MAX_SIZE) {
+            entries.put(name, new PreviousEntry(method, crc, compressedSize, uncompressedSize, localHeaderOffset));
+          }
+          position += 46 + nameLength + extraLength + commentLength;
+        }
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException e) {
+      this.logger.debug("Unable to read the entries of %s: %s", archive, e.getMessage());
+      entries.clear();
+    }
+    return entries;
+  }
+
+  private static long toDosTime(long time) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTimeInMillis(time);
+    int year = calendar.get(Calendar.YEAR);
+    if (year < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return ((long) (year - 1980) << 25)
+      | ((long) (calendar.get(Calendar.MONTH) + 1) << 21)
+      | ((long) calendar.get(Calendar.DAY_OF_MONTH) << 16)
+      | ((long) calendar.get(Calendar.HOUR_OF_DAY) << 11)
+      | ((long) calendar.get(Calendar.MINUTE) << 5)
+      | ((long) calendar.get(Calendar.SECOND) >> 1);
+  }
+
+  private static void writeShort(OutputStream out, int value) throws IOException {
+    out.write(value & 0xFF);
+    out.write((value >> 8) & 0xFF);
+  }
+
+  private static void writeInt(OutputStream out, long value) throws IOException {
+    out.write((int) (value & 0xFF));
+    out.write((int) ((value >> 8) & 0xFF));
+    out.write((int) ((value >> 16) & 0xFF));
+    out.write((int) ((value >> 24) & 0xFF));
+  }
+
+  private static int getShort(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) | ((bytes[offset + 1] & 0xFF) << 8);
+  }
+
+  private static long getInt(byte[] bytes, int offset) {
+    return getShort(bytes, offset) | ((long) getShort(bytes, offset + 2) << 16);
+  }
+
+  private static byte[] readFully(File file) throws IOException {
+    long length = file.length();
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("File too large to zip: " + file);
+    }
+
+    byte[] bytes = new byte[(int) length];
+    InputStream in = new FileInputStream(file);
+    try {
+      int offset = 0;
+      while (offset < bytes.length) {
+        int len = in.read(bytes, offset, bytes.length - offset);
+        if (len < 0) {
+          break;
+        }
+        offset += len;
+      }
+      return offset == bytes.length ? bytes : Arrays.copyOf(bytes, offset);
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private class CompressEntry implements Callable<CompressedEntry> {
+
+    private final String name;
+    private final File file;
+    private final PreviousEntry previous;
+
+    private CompressEntry(String name, File file, PreviousEntry previous) {
+      this.name = name;
+      this.file = file;
+      this.previous = previous;
+    }
+
+    @Override
+    public CompressedEntry call() throws Exception {
+      return compress(this.name, this.file.lastModified(), readFully(this.file), this.previous);
+    }
+  }
+
+  private static final class CompressedEntry {
+
+    private final String name;
+    private final long time;
+    private final int method;
+    private final long crc;
+    private final long size;
+    private final byte[] data;
+    private final PreviousEntry previous;
+
+    private CompressedEntry(String name, long time, int method, long crc, long size, byte[] data, PreviousEntry previous) {
+      this.name = name;
+      this.time = time;
+      this.method = method;
+      this.crc = crc;
+      this.size = size;
+      this.data = data;
+      this.previous = previous;
+    }
+  }
+
+  private static final class WrittenEntry {
+
+    private final CompressedEntry entry;
+    private final long compressedSize;
+    private final long localHeaderOffset;
+
+    private WrittenEntry(CompressedEntry entry, long compressedSize, long localHeaderOffset) {
+      this.entry = entry;
+      this.compressedSize = compressedSize;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+  }
+
+  /**
+   * An entry of an existing archive.
+   */
+  protected static final class PreviousEntry {
+
+    private final int method;
+    private final long crc;
+    private final long compressedSize;
+    private final long size;
+    private final long localHeaderOffset;
+
+    private PreviousEntry(int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+      this.method = method;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+  }
+
+  private static class ArchiveThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+    private final int poolNumber = POOL_NUMBER.getAndIncrement();
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "enunciate-zip-" + poolNumber + "-" + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  private static final class OffsetOutputStream extends FilterOutputStream {
+
+    private long offset = 0;
+
+    private OffsetOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      this.out.write(b);
+      this.offset++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      this.out.write(b, off, len);
+      this.offset += len;
+    }
+  }
+}
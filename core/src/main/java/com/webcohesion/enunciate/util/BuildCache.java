@@ -0,0 +1,311 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import com.webcohesion.enunciate.EnunciateLogger;
+
+import java.io.*;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A persistent cache of the inputs and outputs of a build step, used to regenerate only the outputs whose inputs have
+ * changed since the last build. Each entry is identified by a key (e.g. a template and the type it was applied to) and
+ * records a hash of its inputs and the set of files it produced. The cache as a whole is invalidated if the hash of the
+ * inputs that all the entries share (e.g. the configuration) changes.
+ *
+ * @author Ryan Heaton
+ */
+public class BuildCache {
+
+  private static final String INPUTS_PROPERTY = "inputs";
+  private static final String HASH_PREFIX = "hash.";
+  private static final String OUTPUTS_PREFIX = "outputs.";
+
+  private final File cacheFile;
+  private final String inputsHash;
+  private final EnunciateLogger logger;
+  private final Map<String, Entry> previous = new HashMap<String, Entry>();
+  private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+  private final ConcurrentMap<String, String> urlHashes = new ConcurrentHashMap<String, String>();
+  //truncated to the second, since some file systems only keep the modification time to the second.
+  private final long loaded = (System.currentTimeMillis() / 1000) * 1000;
+
+  /**
+   * Loads the build cache from the specified file.
+   *
+   * @param cacheFile  The file the cache is persisted to.
+   * @param inputsHash The hash of the inputs shared by all the entries. If it doesn't match the hash of the last build,
+   *                   the entries of the last build are discarded.
+   * @param logger     The logger.
+   */
+  public BuildCache(File cacheFile, String inputsHash, EnunciateLogger logger) {
+    this.cacheFile = cacheFile;
+    this.inputsHash = inputsHash;
+    this.logger = logger;
+    load();
+  }
+
+  private void load() {
+    if (this.cacheFile == null || !this.cacheFile.exists()) {
+      this.logger.debug("No build cache found at %s.", this.cacheFile);
+      return;
+    }
+
+    Properties properties = new Properties();
+    try {
+      InputStream in = new FileInputStream(this.cacheFile);
+      try {
+        properties.load(in);
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException e) {
+      this.logger.warn("Unable to read build cache %s: %s", this.cacheFile, e.getMessage());
+      return;
+    }
+
+    boolean stale = !String.valueOf(this.inputsHash).equals(properties.getProperty(INPUTS_PROPERTY));
+    if (stale) {
+      //we still load the entries (without their hashes) so that their outputs can be cleaned up.
+      this.logger.debug("Build cache %s is stale because the shared build inputs have changed.", this.cacheFile);
+    }
+
+    for (String name : properties.stringPropertyNames()) {
+      if (name.startsWith(HASH_PREFIX)) {
+        String key = name.substring(HASH_PREFIX.length());
+        List<File> outputs = new ArrayList<File>();
+        String outputPaths = properties.getProperty(OUTPUTS_PREFIX + key);
+        if (outputPaths != null && !outputPaths.isEmpty()) {
+          for (String outputPath : outputPaths.split(File.pathSeparator)) {
+            outputs.add(new File(outputPath).getAbsoluteFile());
+          }
+        }
+        this.previous.put(key, new Entry(stale ? null : properties.getProperty(name), outputs));
+      }
+    }
+  }
+
+  /**
+   * Whether the entry with the specified key is up-to-date, i.e. its inputs hash matches the last build and all of the
+   * files it produced still exist. If it is up-to-date, the entry is carried over to this build.
+   *
+   * @param key  The key.
+   * @param hash The hash of the inputs of the entry.
+   * @return Whether the entry is up-to-date.
+   */
+  public boolean isUpToDate(String key, String hash) {
+    Entry entry = this.previous.get(key);
+    if (entry == null || entry.hash == null || !entry.hash.equals(hash)) {
+      return false;
+    }
+
+    for (File output : entry.outputs) {
+      if (!output.exists()) {
+        return false;
+      }
+    }
+
+    this.current.put(key, entry);
+    return true;
+  }
+
+  /**
+   * Records the outputs of an entry for this build.
+   *
+   * @param key     The key.
+   * @param hash    The hash of the inputs of the entry.
+   * @param outputs The files produced by the entry.
+   */
+  public void record(String key, String hash, Collection<File> outputs) {
+    List<File> absoluteOutputs = new ArrayList<File>(outputs.size());
+    for (File output : outputs) {
+      absoluteOutputs.add(output.getAbsoluteFile());
+    }
+    this.current.put(key, new Entry(hash, absoluteOutputs));
+  }
+
+  /**
+   * Deletes the files that were produced by the last build but not by this one. Files that have been written since the
+   * cache was loaded (e.g. by some other step of this build) are left alone.
+   *
+   * @return The files that were deleted.
+   */
+  public List<File> deleteStaleOutputs() {
+    Set<File> currentOutputs = new HashSet<File>();
+    for (Entry entry : this.current.values()) {
+      currentOutputs.addAll(entry.outputs);
+    }
+
+    List<File> deleted = new ArrayList<File>();
+    for (Entry entry : this.previous.values()) {
+      for (File output : entry.outputs) {
+        if (!currentOutputs.contains(output) && output.exists() && output.lastModified() < this.loaded && output.delete()) {
+          this.logger.debug("Deleted stale output %s.", output);
+          deleted.add(output);
+        }
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Persists the entries of this build.
+   */
+  public void store() throws IOException {
+    if (this.cacheFile == null) {
+      return;
+    }
+
+    Properties properties = new Properties();
+    properties.setProperty(INPUTS_PROPERTY, String.valueOf(this.inputsHash));
+    for (Map.Entry<String, Entry> entry : this.current.entrySet()) {
+      properties.setProperty(HASH_PREFIX + entry.getKey(), entry.getValue().hash);
+      StringBuilder outputPaths = new StringBuilder();
+      for (File output : entry.getValue().outputs) {
+        if (outputPaths.length() > 0) {
+          outputPaths.append(File.pathSeparator);
+        }
+        outputPaths.append(output.getAbsolutePath());
+      }
+      properties.setProperty(OUTPUTS_PREFIX + entry.getKey(), outputPaths.toString());
+    }
+
+    File parent = this.cacheFile.getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+
+    OutputStream out = new FileOutputStream(this.cacheFile);
+    try {
+      properties.store(out, "Enunciate build cache");
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Hash the content at the specified URL. The hash is computed once per URL for the life of this cache.
+   *
+   * @param url The URL.
+   * @return The hash.
+   */
+  public String hash(URL url) throws IOException {
+    String key = url.toString();
+    String hash = this.urlHashes.get(key);
+    if (hash == null) {
+      MessageDigest digest = newDigest();
+      InputStream in = url.openStream();
+      try {
+        update(digest, in);
+      }
+      finally {
+        in.close();
+      }
+      hash = toHex(digest.digest());
+      this.urlHashes.put(key, hash);
+    }
+    return hash;
+  }
+
+  /**
+   * Create a new digest for computing hashes of build inputs.
+   *
+   * @return The digest.
+   */
+  public static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Update the digest with the contents of the specified file. Files that don't exist don't update the digest.
+   *
+   * @param digest The digest.
+   * @param file   The file.
+   */
+  public static void update(MessageDigest digest, File file) throws IOException {
+    if (file != null && file.isFile()) {
+      InputStream in = new FileInputStream(file);
+      try {
+        update(digest, in);
+      }
+      finally {
+        in.close();
+      }
+    }
+  }
+
+  /**
+   * Update the digest with the specified string.
+   *
+   * @param digest The digest.
+   * @param value  The value.
+   */
+  public static void update(MessageDigest digest, String value) {
+    try {
+      digest.update(String.valueOf(value).getBytes("utf-8"));
+      digest.update((byte) 0);
+    }
+    catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void update(MessageDigest digest, InputStream in) throws IOException {
+    byte[] buffer = new byte[8192];
+    int len;
+    while ((len = in.read(buffer)) >= 0) {
+      digest.update(buffer, 0, len);
+    }
+  }
+
+  /**
+   * Convert a digest to a hex string.
+   *
+   * @param bytes The digest bytes.
+   * @return The hex string.
+   */
+  public static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  private static final class Entry {
+
+    private final String hash;
+    private final List<File> outputs;
+
+    private Entry(String hash, List<File> outputs) {
+      this.hash = hash;
+      this.outputs = outputs;
+    }
+  }
+}
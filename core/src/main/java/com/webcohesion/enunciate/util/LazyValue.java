@@ -0,0 +1,63 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+/**
+ * A value that is computed (thread-safely) on first access, used by the model to defer the parts of an element that
+ * aren't needed to decide whether the element is included in the API.
+ *
+ * @author Ryan Heaton
+ */
+public abstract class LazyValue<T> {
+
+  private volatile boolean loaded = false;
+  private boolean loading = false;
+  private T value;
+
+  /**
+   * Get the value, computing it if it hasn't been computed yet.
+   *
+   * @return The value.
+   */
+  public T get() {
+    if (!this.loaded) {
+      synchronized (this) {
+        if (!this.loaded) {
+          if (this.loading) {
+            throw new IllegalStateException("Circular reference while computing " + this);
+          }
+
+          this.loading = true;
+          try {
+            this.value = load();
+            this.loaded = true;
+          }
+          finally {
+            this.loading = false;
+          }
+        }
+      }
+    }
+    return this.value;
+  }
+
+  /**
+   * Compute the value.
+   *
+   * @return The value.
+   */
+  protected abstract T load();
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares paths by the sort keys of a {@link PathSortStrategy}. The sort key of each path is computed once for the
+ * life of the comparator, so sorting doesn't need to split the paths on each comparison.
+ *
+ * @author Ryan Heaton
+ */
+public class PathSortKeyComparator implements Comparator<String> {
+
+  private final PathSortStrategy strategy;
+  private final Map<String, String> sortKeys = new HashMap<String, String>();
+
+  public PathSortKeyComparator(PathSortStrategy strategy) {
+    this.strategy = strategy == null ? PathSortStrategy.depth_first : strategy;
+  }
+
+  @Override
+  public int compare(String path1, String path2) {
+    if (path1 == path2) {
+      return 0;
+    }
+
+    return sortKey(path1).compareTo(sortKey(path2));
+  }
+
+  private String sortKey(String path) {
+    String sortKey = this.sortKeys.get(path);
+    if (sortKey == null) {
+      sortKey = this.strategy.sortKey(path);
+      this.sortKeys.put(path, sortKey);
+    }
+    return sortKey;
+  }
+}
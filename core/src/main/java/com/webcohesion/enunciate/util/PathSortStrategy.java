@@ -19,6 +19,43 @@ package com.webcohesion.enunciate.util;
  * @author Ryan Heaton
  */
 public enum PathSortStrategy {
-  breadth_first,
-  depth_first
+
+  breadth_first {
+    @Override
+    public String sortKey(String path) {
+      String[] segments = path.split("/");
+      //the number of segments comes first so that shallower paths sort before deeper ones.
+      StringBuilder key = new StringBuilder(path.length() + 2).append((char) segments.length);
+      appendSegments(segments, key);
+      return key.toString();
+    }
+  },
+
+  depth_first {
+    @Override
+    public String sortKey(String path) {
+      String[] segments = path.split("/");
+      StringBuilder key = new StringBuilder(path.length() + 1);
+      appendSegments(segments, key);
+      return key.toString();
+    }
+  };
+
+  /**
+   * A key for the specified path whose natural ordering is the ordering of the path according to this strategy (i.e.
+   * the ordering of the {@link BreadthFirstResourcePathComparator} or the {@link DepthFirstResourcePathComparator}). Keys
+   * are meant to be computed once per path and then compared with {@link String#compareTo(String)}.
+   *
+   * @param path The path.
+   * @return The sort key.
+   */
+  public abstract String sortKey(String path);
+
+  private static void appendSegments(String[] segments, StringBuilder key) {
+    //each segment is terminated with a character that sorts before any character of a path segment, so that comparing
+    //the keys compares the paths segment by segment.
+    for (String segment : segments) {
+      key.append(segment).append('\u0000');
+    }
+  }
 }
@@ -27,11 +27,7 @@ public class PathSummaryComparator implements Comparator<PathSummary> {
     private final Comparator<String> pathComparator;
 
     public PathSummaryComparator(PathSortStrategy strategy) {
-        if (strategy== PathSortStrategy.breadth_first) {
-            pathComparator = new BreadthFirstResourcePathComparator();
-        } else {
-            pathComparator = new DepthFirstResourcePathComparator();
-        }
+        pathComparator = new PathSortKeyComparator(strategy);
     }
 
     @Override
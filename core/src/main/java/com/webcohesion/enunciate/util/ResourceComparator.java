@@ -29,12 +29,7 @@ public class ResourceComparator implements Comparator<Resource> {
   private final Comparator<String> pathComparator;
 
   public ResourceComparator(PathSortStrategy strategy) {
-    if (strategy == PathSortStrategy.breadth_first) {
-      pathComparator = new BreadthFirstResourcePathComparator();
-    }
-    else {
-      pathComparator = new DepthFirstResourcePathComparator();
-    }
+    pathComparator = new PathSortKeyComparator(strategy);
   }
 
   @Override
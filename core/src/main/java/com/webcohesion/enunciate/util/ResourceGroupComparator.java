@@ -27,12 +27,7 @@ public class ResourceGroupComparator implements Comparator<ResourceGroup> {
   private final Comparator<String> pathComparator;
 
   public ResourceGroupComparator(PathSortStrategy strategy) {
-    if (strategy == PathSortStrategy.breadth_first) {
-      pathComparator = new BreadthFirstResourcePathComparator();
-    }
-    else {
-      pathComparator = new DepthFirstResourcePathComparator();
-    }
+    pathComparator = new PathSortKeyComparator(strategy);
   }
 
   @Override
@@ -18,8 +18,12 @@ package com.webcohesion.enunciate.util;
 import org.reflections.util.FilterBuilder;
 
 /**
-* @author Ryan Heaton
-*/
+ * Include filter matching a name exactly.
+ *
+ * @author Ryan Heaton
+ * @deprecated The include and exclude patterns are matched with an {@link AntPatternSet}.
+ */
+@Deprecated
 public final class StringEqualsInclude extends FilterBuilder.Include {
 
   private final String string;
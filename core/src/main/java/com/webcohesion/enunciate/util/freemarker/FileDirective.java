@@ -20,22 +20,41 @@ import freemarker.core.Environment;
 import freemarker.template.*;
 import freemarker.template.utility.DeepUnwrap;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.*;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Ryan Heaton
  */
 public class FileDirective implements TemplateDirectiveModel {
 
+  private static final String OUTPUT_FILES_ATTRIBUTE = FileDirective.class.getName() + "#outputFiles";
+
+  /**
+   * The name of the custom attribute of the processing environment to which the number of bytes written by this directive
+   * are added, if the attribute is an {@link AtomicLong}.
+   */
+  public static final String BYTES_WRITTEN_ATTRIBUTE = FileDirective.class.getName() + "#bytesWritten";
+
   private final File outputDir;
   private final EnunciateLogger logger;
+  private final ContentWriter contentWriter;
 
   public FileDirective(File outputDir, EnunciateLogger logger) {
+    this(outputDir, logger, null);
+  }
+
+  /**
+   * @param outputDir     The output directory.
+   * @param logger        The logger.
+   * @param contentWriter The writer of the rendered files, or null to write each file as it's rendered.
+   */
+  public FileDirective(File outputDir, EnunciateLogger logger, ContentWriter contentWriter) {
     this.outputDir = outputDir;
     this.logger = logger;
+    this.contentWriter = contentWriter;
 
     if (!outputDir.exists()) {
       outputDir.mkdirs();
@@ -73,9 +92,86 @@ public class FileDirective implements TemplateDirectiveModel {
       output.getParentFile().mkdirs();
     }
 
-    PrintWriter writer = new PrintWriter(output, charset);
-    this.logger.debug("Writing %s...", output);
-    body.render(writer);
-    writer.close();
+    long bytes;
+    if (this.contentWriter == null) {
+      PrintWriter writer = new PrintWriter(output, charset);
+      this.logger.debug("Writing %s...", output);
+      body.render(writer);
+      writer.close();
+      bytes = output.length();
+    }
+    else {
+      //the body reads the model, so it's rendered here; only the write is handed off.
+      StringWriter content = new StringWriter();
+      body.render(content);
+      byte[] encoded = content.toString().getBytes(charset);
+      this.logger.debug("Writing %s...", output);
+      this.contentWriter.write(output, encoded);
+      bytes = encoded.length;
+    }
+
+    Object bytesWritten = env.getCustomAttribute(BYTES_WRITTEN_ATTRIBUTE);
+    if (bytesWritten instanceof AtomicLong) {
+      ((AtomicLong) bytesWritten).addAndGet(bytes);
+    }
+
+    Collection<File> outputFiles = getOutputFiles(env);
+    if (outputFiles != null) {
+      outputFiles.add(output);
+    }
+  }
+
+  /**
+   * Set the collection to which the files written by this directive in the specified processing environment are added.
+   *
+   * @param env         The processing environment.
+   * @param outputFiles The collection to which to add the written files.
+   */
+  public static void setOutputFiles(Environment env, Collection<File> outputFiles) {
+    env.setCustomAttribute(OUTPUT_FILES_ATTRIBUTE, new OutputFiles(outputFiles));
+  }
+
+  /**
+   * The collection to which the files written by this directive in the specified processing environment are added.
+   *
+   * @param env The processing environment.
+   * @return The collection to which to add the written files, or null if they aren't recorded.
+   */
+  public static Collection<File> getOutputFiles(Environment env) {
+    Object outputFiles = env.getCustomAttribute(OUTPUT_FILES_ATTRIBUTE);
+    return outputFiles instanceof OutputFiles ? ((OutputFiles) outputFiles).files : null;
+  }
+
+  /**
+   * A copy of this directive that hands the rendered files to the specified writer.
+   *
+   * @param contentWriter The writer of the rendered files.
+   * @return The copy.
+   */
+  public FileDirective withContentWriter(ContentWriter contentWriter) {
+    return new FileDirective(this.outputDir, this.logger, contentWriter);
+  }
+
+  /**
+   * Writes the content of a rendered file.
+   */
+  public interface ContentWriter {
+
+    /**
+     * Write the content of a rendered file.
+     *
+     * @param file    The file.
+     * @param content The encoded content.
+     */
+    void write(File file, byte[] content) throws IOException;
+  }
+
+  private static final class OutputFiles {
+
+    private final Collection<File> files;
+
+    private OutputFiles(Collection<File> files) {
+      this.files = files;
+    }
   }
 }
@@ -0,0 +1,298 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util.freemarker;
+
+import com.webcohesion.enunciate.BuildReport;
+import com.webcohesion.enunciate.EnunciateLogger;
+import freemarker.cache.URLTemplateLoader;
+import freemarker.core.Environment;
+import freemarker.template.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide template engine shared by all the generating modules. Holds one configuration per object wrapper type
+ * and caches the parsed templates by URL so that a template is parsed once per build instead of once per generated file.
+ * Templates loaded from the file system (i.e. user-supplied templates) are re-parsed if they've been modified.
+ *
+ * @author Ryan Heaton
+ */
+public class TemplateEngine {
+
+  private static final TemplateEngine INSTANCE = new TemplateEngine();
+
+  private final ConcurrentMap<Class<?>, Configuration> configurations = new ConcurrentHashMap<Class<?>, Configuration>();
+  private final ConcurrentMap<String, CachedTemplate> templates = new ConcurrentHashMap<String, CachedTemplate>();
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong misses = new AtomicLong(0);
+
+  /**
+   * The shared template engine.
+   *
+   * @return The shared template engine.
+   */
+  public static TemplateEngine getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Processes the specified template with the given model.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param wrapper     The object wrapper to use, or null to use the default wrapper.
+   * @param logger      The logger.
+   * @return The output of the template that wasn't directed to a file.
+   */
+  public String processTemplate(URL templateURL, Object model, ObjectWrapper wrapper, EnunciateLogger logger) throws IOException, TemplateException {
+    return processTemplate(templateURL, model, wrapper, logger, (Collection<File>) null);
+  }
+
+  /**
+   * Processes the specified template with the given model, recording the files written by the template.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param wrapper     The object wrapper to use, or null to use the default wrapper.
+   * @param logger      The logger.
+   * @param outputFiles The collection to which to add the files written by the template (see {@link FileDirective}), or null.
+   * @return The output of the template that wasn't directed to a file.
+   */
+  public String processTemplate(URL templateURL, Object model, ObjectWrapper wrapper, EnunciateLogger logger, Collection<File> outputFiles) throws IOException, TemplateException {
+    StringWriter unhandledOutput = new StringWriter();
+    processTemplate(templateURL, model, wrapper, logger, unhandledOutput, outputFiles);
+    unhandledOutput.close();
+    return unhandledOutput.toString();
+  }
+
+  /**
+   * Processes the specified template with the given model.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param wrapper     The object wrapper to use, or null to use the default wrapper.
+   * @param logger      The logger.
+   * @param out         The writer to which to write the output of the template that wasn't directed to a file.
+   */
+  public void processTemplate(URL templateURL, Object model, ObjectWrapper wrapper, EnunciateLogger logger, Writer out) throws IOException, TemplateException {
+    processTemplate(templateURL, model, wrapper, logger, out, null);
+  }
+
+  /**
+   * Processes the specified template with the given model, recording the files written by the template.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param wrapper     The object wrapper to use, or null to use the default wrapper.
+   * @param logger      The logger.
+   * @param out         The writer to which to write the output of the template that wasn't directed to a file.
+   * @param outputFiles The collection to which to add the files written by the template (see {@link FileDirective}), or null.
+   */
+  public void processTemplate(URL templateURL, Object model, ObjectWrapper wrapper, EnunciateLogger logger, Writer out, Collection<File> outputFiles) throws IOException, TemplateException {
+    process(templateURL, model, wrapper, logger, out, outputFiles, null);
+  }
+
+  private void process(URL templateURL, Object model, ObjectWrapper wrapper, EnunciateLogger logger, Writer out, Collection<File> outputFiles, AtomicLong bytesWritten) throws IOException, TemplateException {
+    Template template = getTemplate(templateURL, wrapper, logger);
+    Environment environment = template.createProcessingEnvironment(model, out, wrapper);
+    if (wrapper != null) {
+      //object wrappers may carry state (e.g. namespace prefixes), so make sure the environment uses this instance.
+      environment.setObjectWrapper(wrapper);
+    }
+    if (outputFiles != null) {
+      FileDirective.setOutputFiles(environment, outputFiles);
+    }
+    if (bytesWritten != null) {
+      environment.setCustomAttribute(FileDirective.BYTES_WRITTEN_ATTRIBUTE, bytesWritten);
+    }
+    environment.process();
+  }
+
+  /**
+   * Processes the specified template with the given model, recording its timing and the files it writes in the build
+   * report.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param wrapper     The object wrapper to use, or null to use the default wrapper.
+   * @param logger      The logger.
+   * @param report      The build report.
+   * @param out         The writer to which to write the output of the template that wasn't directed to a file.
+   * @param outputFiles The collection to which to add the files written by the template (see {@link FileDirective}), or null.
+   */
+  public void processTemplate(URL templateURL, Object model, ObjectWrapper wrapper, EnunciateLogger logger, BuildReport report, Writer out, Collection<File> outputFiles) throws IOException, TemplateException {
+    String templateName = templateURL.getPath().substring(templateURL.getPath().lastIndexOf('/') + 1);
+    Collection<File> written = outputFiles == null ? new ArrayList<File>() : outputFiles;
+    int start = written.size();
+    AtomicLong bytesWritten = new AtomicLong(0);
+    BuildReport.Timer timer = report.start(BuildReport.TEMPLATE_PHASE, templateName);
+    try {
+      process(templateURL, model, wrapper, logger, out, written, bytesWritten);
+    }
+    finally {
+      timer.stop();
+      report.increment(BuildReport.FILES_WRITTEN_COUNTER, written.size() - start);
+      report.increment(BuildReport.BYTES_WRITTEN_COUNTER, bytesWritten.get());
+    }
+  }
+
+  /**
+   * Gets the parsed template at the specified URL, parsing it if it hasn't been parsed yet or if it's been modified.
+   *
+   * @param templateURL The template URL.
+   * @param wrapper     The object wrapper that will be used to process the template, or null for the default wrapper.
+   * @param logger      The logger.
+   * @return The template.
+   */
+  public Template getTemplate(URL templateURL, ObjectWrapper wrapper, EnunciateLogger logger) throws IOException {
+    Configuration configuration = getConfiguration(wrapper);
+    String name = templateURL.toString();
+    String key = (wrapper == null ? "" : wrapper.getClass().getName()) + '|' + name;
+    long lastModified = findLastModified(templateURL);
+
+    CachedTemplate cached = this.templates.get(key);
+    if (cached != null && cached.lastModified == lastModified) {
+      long hitCount = this.hits.incrementAndGet();
+      logger.debug("Template cache hit for %s (%s hits, %s misses).", name, hitCount, this.misses.get());
+      return cached.template;
+    }
+
+    if (cached != null) {
+      //the template has been modified; make sure freemarker doesn't hand us back the stale one.
+      configuration.removeTemplateFromCache(name);
+    }
+
+    Template template = configuration.getTemplate(name);
+    this.templates.put(key, new CachedTemplate(template, lastModified));
+    long missCount = this.misses.incrementAndGet();
+    logger.debug("Template cache miss for %s (%s hits, %s misses).", name, this.hits.get(), missCount);
+    return template;
+  }
+
+  /**
+   * The number of template lookups that were served from the cache.
+   *
+   * @return The number of template lookups that were served from the cache.
+   */
+  public long getHitCount() {
+    return this.hits.get();
+  }
+
+  /**
+   * The number of template lookups that required the template to be parsed.
+   *
+   * @return The number of template lookups that required the template to be parsed.
+   */
+  public long getMissCount() {
+    return this.misses.get();
+  }
+
+  /**
+   * Clears the template cache.
+   */
+  public void clear() {
+    this.templates.clear();
+    this.configurations.clear();
+    this.hits.set(0);
+    this.misses.set(0);
+  }
+
+  protected Configuration getConfiguration(ObjectWrapper wrapper) {
+    Class<?> wrapperType = wrapper == null ? Void.class : wrapper.getClass();
+    Configuration configuration = this.configurations.get(wrapperType);
+    if (configuration == null) {
+      configuration = createConfiguration(wrapper);
+      Configuration existing = this.configurations.putIfAbsent(wrapperType, configuration);
+      if (existing != null) {
+        configuration = existing;
+      }
+    }
+    return configuration;
+  }
+
+  protected Configuration createConfiguration(ObjectWrapper wrapper) {
+    Configuration configuration = new Configuration(Configuration.VERSION_2_3_22);
+
+    configuration.setTemplateLoader(new URLTemplateLoader() {
+      protected URL getURL(String name) {
+        try {
+          return new URL(name);
+        }
+        catch (MalformedURLException e) {
+          return null;
+        }
+      }
+    });
+
+    configuration.setTemplateExceptionHandler(new TemplateExceptionHandler() {
+      public void handleTemplateException(TemplateException templateException, Environment environment, Writer writer) throws TemplateException {
+        throw templateException;
+      }
+    });
+
+    configuration.setLocalizedLookup(false);
+    configuration.setDefaultEncoding("UTF-8");
+    configuration.setURLEscapingCharset("UTF-8");
+    if (wrapper != null) {
+      configuration.setObjectWrapper(wrapper);
+    }
+    return configuration;
+  }
+
+  /**
+   * Finds the last modified timestamp of a template. Only templates on the file system are checked; templates
+   * packaged on the classpath are assumed not to change during the life of the process.
+   *
+   * @param templateURL The template URL.
+   * @return The last modified timestamp, or -1 if not applicable.
+   */
+  protected long findLastModified(URL templateURL) {
+    if ("file".equalsIgnoreCase(templateURL.getProtocol())) {
+      try {
+        return new File(templateURL.toURI()).lastModified();
+      }
+      catch (URISyntaxException e) {
+        return new File(templateURL.getPath()).lastModified();
+      }
+      catch (IllegalArgumentException e) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private static final class CachedTemplate {
+
+    private final Template template;
+    private final long lastModified;
+
+    private CachedTemplate(Template template, long lastModified) {
+      this.template = template;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util.freemarker;
+
+import com.webcohesion.enunciate.util.BuildCache;
+import freemarker.template.TemplateException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A queue of templates to be processed, used for emitting one file per type. The templates are always rendered on the
+ * calling thread, because the model they read is backed by the (non thread-safe) Java compiler. If the queue is
+ * configured with a thread count, the files written by the templates (see {@link FileDirective}) are rendered in memory
+ * and written to disk on a bounded worker pool; otherwise, they're written as they're rendered. If the queue is
+ * configured with a build cache, templates submitted with a cache key are only processed if their inputs have changed
+ * since the last build.
+ *
+ * @author Ryan Heaton
+ */
+public class TemplateProcessingQueue {
+
+  private final TemplateProcessor processor;
+  private final ExecutorService executor;
+  private final BuildCache buildCache;
+  private final List<Future<?>> pending = new ArrayList<Future<?>>();
+  private final Map<File, Future<?>> lastWrites = new HashMap<File, Future<?>>();
+  private final FileDirective.ContentWriter contentWriter = new QueuedContentWriter();
+  private int skipped = 0;
+
+  /**
+   * @param processor   The processor for the templates.
+   * @param threadCount The number of threads to use to write the files, or less than 1 to write them as they're rendered.
+   */
+  public TemplateProcessingQueue(TemplateProcessor processor, int threadCount) {
+    this(processor, threadCount, null);
+  }
+
+  /**
+   * @param processor   The processor for the templates.
+   * @param threadCount The number of threads to use to write the files, or less than 1 to write them as they're rendered.
+   * @param buildCache  The build cache, or null to process all templates.
+   */
+  public TemplateProcessingQueue(TemplateProcessor processor, int threadCount, BuildCache buildCache) {
+    this.processor = processor;
+    this.executor = threadCount < 1 ? null : Executors.newFixedThreadPool(threadCount, new TemplateThreadFactory());
+    this.buildCache = buildCache;
+  }
+
+  /**
+   * Submit a template for processing.
+   *
+   * @param templateURL The template.
+   * @param model       The model.
+   */
+  public void submit(URL templateURL, Map<String, Object> model) throws IOException, TemplateException {
+    submit(templateURL, model, null, null);
+  }
+
+  /**
+   * Submit a template for processing, skipping it if its inputs haven't changed since the last build.
+   *
+   * @param templateURL The template.
+   * @param model       The model.
+   * @param cacheKey    The key identifying the output of this template in the build cache (e.g. the name of the type being
+   *                    rendered), or null if the template is always to be processed.
+   * @param inputsHash  The hash of the inputs to the template other than the template itself (e.g. the source of the type).
+   */
+  public void submit(URL templateURL, Map<String, Object> model, String cacheKey, String inputsHash) throws IOException, TemplateException {
+    String key;
+    String hash;
+    if (this.buildCache != null && cacheKey != null) {
+      key = templateURL.getPath().substring(templateURL.getPath().lastIndexOf('/') + 1) + ":" + cacheKey;
+      hash = inputsHash + ":" + this.buildCache.hash(templateURL);
+      if (this.buildCache.isUpToDate(key, hash)) {
+        this.skipped++;
+        return;
+      }
+    }
+    else {
+      key = null;
+      hash = null;
+    }
+
+    Object fileDirective = model.get("file");
+    if (this.executor != null && fileDirective instanceof FileDirective) {
+      //hand the writes of the files to the worker pool.
+      Map<String, Object> taskModel = new HashMap<String, Object>(model);
+      taskModel.put("file", ((FileDirective) fileDirective).withContentWriter(this.contentWriter));
+      process(templateURL, taskModel, key, hash);
+    }
+    else {
+      process(templateURL, model, key, hash);
+    }
+  }
+
+  private void process(URL templateURL, Map<String, Object> model, String key, String hash) throws IOException, TemplateException {
+    if (key == null) {
+      this.processor.process(templateURL, model, null);
+    }
+    else {
+      List<File> outputFiles = new ArrayList<File>();
+      this.processor.process(templateURL, model, outputFiles);
+      this.buildCache.record(key, hash, outputFiles);
+    }
+  }
+
+  /**
+   * The number of templates that were skipped because they were up-to-date.
+   *
+   * @return The number of templates that were skipped because they were up-to-date.
+   */
+  public int getSkippedCount() {
+    return this.skipped;
+  }
+
+  /**
+   * Wait for all the files of the submitted templates to be written and release the worker pool. If there's a build cache, the outputs
+   * of the last build that weren't produced by this one are deleted and the cache is stored.
+   */
+  public void finish() throws IOException, TemplateException {
+    if (this.executor != null) {
+      try {
+        for (Future<?> future : this.pending) {
+          try {
+            future.get();
+          }
+          catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+              throw (IOException) cause;
+            }
+            else if (cause instanceof TemplateException) {
+              throw (TemplateException) cause;
+            }
+            else if (cause instanceof RuntimeException) {
+              throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error) {
+              throw (Error) cause;
+            }
+            else {
+              throw new IllegalStateException(cause);
+            }
+          }
+          catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+          }
+        }
+      }
+      finally {
+        this.pending.clear();
+        this.lastWrites.clear();
+        this.executor.shutdownNow();
+      }
+    }
+
+    if (this.buildCache != null) {
+      this.buildCache.deleteStaleOutputs();
+      this.buildCache.store();
+    }
+  }
+
+  /**
+   * Release the worker pool without waiting for the pending writes. Callers should close the queue in a finally block,
+   * so that the pool is released even if a template fails before the queue is {@link #finish() finished}.
+   */
+  public void close() {
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Processes a template.
+   */
+  public interface TemplateProcessor {
+
+    /**
+     * Process a template.
+     *
+     * @param templateURL The template.
+     * @param model       The model.
+     * @param outputFiles The collection to which to add the files written by the template, or null if they don't need to be recorded.
+     */
+    void process(URL templateURL, Map<String, Object> model, Collection<File> outputFiles) throws IOException, TemplateException;
+  }
+
+  /**
+   * Writes the rendered files on the worker pool. Writes to the same file are applied in the order they were rendered.
+   */
+  private class QueuedContentWriter implements FileDirective.ContentWriter {
+
+    @Override
+    public void write(final File file, final byte[] content) throws IOException {
+      final Future<?> previous = lastWrites.get(file);
+      Future<?> write = executor.submit(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          if (previous != null) {
+            previous.get();
+          }
+
+          OutputStream out = new FileOutputStream(file);
+          try {
+            out.write(content);
+          }
+          finally {
+            out.close();
+          }
+          return null;
+        }
+      });
+      lastWrites.put(file, write);
+      pending.add(write);
+    }
+  }
+
+  private static class TemplateThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+    private final int poolNumber = POOL_NUMBER.getAndIncrement();
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "enunciate-template-writer-" + poolNumber + "-" + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
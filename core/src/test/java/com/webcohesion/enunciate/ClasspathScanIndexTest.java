@@ -0,0 +1,197 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class ClasspathScanIndexTest {
+
+  @Test
+  public void testUnchangedJars() throws Exception {
+    File dir = createTempDir();
+    File indexFile = new File(dir, ClasspathScanIndex.FILE_NAME);
+    File jar1 = jar(new File(dir, "jar1.jar"), "com/acme/A.java");
+    File jar2 = jar(new File(dir, "jar2.jar"), "com/acme/B.java", "com/acme/C.java");
+
+    ClasspathScanIndex index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    List<ClasspathScanIndex.Entry> entries = index.scan(urls(jar1, jar2), null);
+    assertEquals(0, index.getHitCount());
+    assertEquals(2, index.getMissCount());
+    index.store();
+
+    index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    List<ClasspathScanIndex.Entry> cached = index.scan(urls(jar1, jar2), null);
+    assertEquals(2, index.getHitCount());
+    assertEquals(0, index.getMissCount());
+    assertEquals(sourceFiles(entries), sourceFiles(cached));
+    assertEquals(Arrays.asList(Arrays.asList("com/acme/A.java"), Arrays.asList("com/acme/B.java", "com/acme/C.java")), sourceFiles(cached));
+  }
+
+  @Test
+  public void testChangedJar() throws Exception {
+    File dir = createTempDir();
+    File indexFile = new File(dir, ClasspathScanIndex.FILE_NAME);
+    File jar1 = jar(new File(dir, "jar1.jar"), "com/acme/A.java");
+    File jar2 = jar(new File(dir, "jar2.jar"), "com/acme/B.java");
+
+    ClasspathScanIndex index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    index.scan(urls(jar1, jar2), null);
+    index.store();
+
+    long lastModified = jar2.lastModified();
+    jar(jar2, "com/acme/D.java");
+    jar2.setLastModified(lastModified + 2000);
+
+    index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    List<ClasspathScanIndex.Entry> entries = index.scan(urls(jar1, jar2), null);
+    assertEquals(1, index.getHitCount());
+    assertEquals(1, index.getMissCount());
+    assertEquals(Arrays.asList(Arrays.asList("com/acme/A.java"), Arrays.asList("com/acme/D.java")), sourceFiles(entries));
+  }
+
+  @Test
+  public void testAddedAndRemovedJars() throws Exception {
+    File dir = createTempDir();
+    File indexFile = new File(dir, ClasspathScanIndex.FILE_NAME);
+    File jar1 = jar(new File(dir, "jar1.jar"), "com/acme/A.java");
+    File jar2 = jar(new File(dir, "jar2.jar"), "com/acme/B.java");
+    File jar3 = jar(new File(dir, "jar3.jar"), "com/acme/C.java");
+
+    ClasspathScanIndex index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    index.scan(urls(jar1, jar2), null);
+    index.store();
+
+    //jar2 is removed and jar3 is added.
+    index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    List<ClasspathScanIndex.Entry> entries = index.scan(urls(jar1, jar3), null);
+    assertEquals(1, index.getHitCount());
+    assertEquals(1, index.getMissCount());
+    assertEquals(Arrays.asList(Arrays.asList("com/acme/A.java"), Arrays.asList("com/acme/C.java")), sourceFiles(entries));
+    index.store();
+
+    //the removed jar was dropped from the index.
+    index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    index.scan(urls(jar1, jar2, jar3), null);
+    assertEquals(2, index.getHitCount());
+    assertEquals(1, index.getMissCount());
+  }
+
+  @Test
+  public void testCorruptIndex() throws Exception {
+    File dir = createTempDir();
+    File indexFile = new File(dir, ClasspathScanIndex.FILE_NAME);
+    File jar1 = jar(new File(dir, "jar1.jar"), "com/acme/A.java");
+
+    ClasspathScanIndex index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    index.scan(urls(jar1), null);
+    index.store();
+
+    //truncate the index.
+    byte[] bytes = readFile(indexFile);
+    OutputStream out = new FileOutputStream(indexFile);
+    try {
+      out.write(bytes, 0, bytes.length / 2);
+    }
+    finally {
+      out.close();
+    }
+
+    index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    List<ClasspathScanIndex.Entry> entries = index.scan(urls(jar1), null);
+    assertEquals(0, index.getHitCount());
+    assertEquals(1, index.getMissCount());
+    assertEquals(Arrays.asList(Arrays.asList("com/acme/A.java")), sourceFiles(entries));
+
+    //an index that isn't an index at all.
+    out = new FileOutputStream(indexFile);
+    try {
+      out.write("not an index".getBytes("utf-8"));
+    }
+    finally {
+      out.close();
+    }
+
+    index = new ClasspathScanIndex(indexFile, new EnunciateConsoleLogger());
+    index.scan(urls(jar1), null);
+    assertEquals(0, index.getHitCount());
+    assertEquals(1, index.getMissCount());
+  }
+
+  private List<URL> urls(File... jars) throws IOException {
+    List<URL> urls = new ArrayList<URL>();
+    for (File jar : jars) {
+      urls.add(jar.toURI().toURL());
+    }
+    return urls;
+  }
+
+  private List<List<String>> sourceFiles(List<ClasspathScanIndex.Entry> entries) {
+    List<List<String>> sourceFiles = new ArrayList<List<String>>();
+    for (ClasspathScanIndex.Entry entry : entries) {
+      sourceFiles.add(new ArrayList<String>(entry.getSourceFiles()));
+    }
+    return sourceFiles;
+  }
+
+  private File jar(File toFile, String... sourceFiles) throws IOException {
+    JarOutputStream jarout = new JarOutputStream(new FileOutputStream(toFile));
+    try {
+      for (String sourceFile : sourceFiles) {
+        jarout.putNextEntry(new JarEntry(sourceFile));
+        jarout.write(("//" + sourceFile).getBytes("utf-8"));
+        jarout.closeEntry();
+      }
+    }
+    finally {
+      jarout.close();
+    }
+    return toFile;
+  }
+
+  private byte[] readFile(File file) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    InputStream in = new FileInputStream(file);
+    try {
+      byte[] buffer = new byte[1024];
+      int len;
+      while ((len = in.read(buffer)) > 0) {
+        bytes.write(buffer, 0, len);
+      }
+    }
+    finally {
+      in.close();
+    }
+    return bytes.toByteArray();
+  }
+
+  private File createTempDir() throws IOException {
+    File dir = File.createTempFile("ClasspathScanIndexTest", "");
+    dir.delete();
+    dir.mkdirs();
+    return dir;
+  }
+}
@@ -111,6 +111,28 @@ public class EnunciateTest {
     assertFalse(scannedEntries.isEmpty());
   }
 
+  @Test
+  public void testClasspathScanningWithIndex() throws Exception {
+    File buildDir = createTempDir();
+    List<URL> classpath = buildTestClasspath();
+    Enunciate enunciate = new Enunciate();
+    enunciate.setBuildDir(buildDir);
+    enunciate.setModules(Arrays.asList((EnunciateModule) new TestModule("test", new ArrayList<String>())));
+    Set<String> scannedEntries = enunciate.loadApiReflections(classpath).getStore().get(EnunciateReflectionsScanner.class.getSimpleName()).keySet();
+    assertEquals(4, scannedEntries.size());
+    File indexFile = enunciate.getClasspathScanIndexFile();
+    assertTrue(indexFile.exists());
+
+    //the jars are replayed from the index.
+    assertEquals(scannedEntries, enunciate.loadApiReflections(classpath).getStore().get(EnunciateReflectionsScanner.class.getSimpleName()).keySet());
+
+    //a corrupt index is ignored.
+    OutputStream out = new FileOutputStream(indexFile);
+    out.write("corrupt".getBytes("utf-8"));
+    out.close();
+    assertEquals(scannedEntries, enunciate.loadApiReflections(classpath).getStore().get(EnunciateReflectionsScanner.class.getSimpleName()).keySet());
+  }
+
   private List<URL> buildTestClasspath() throws Exception {
     JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
 
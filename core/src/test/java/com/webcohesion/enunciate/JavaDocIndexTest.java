@@ -0,0 +1,335 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate;
+
+import com.webcohesion.enunciate.javac.javadoc.JavaDocIndex;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocIndexer;
+import org.junit.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.*;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class JavaDocIndexTest {
+
+  private static final String[][] SOURCES = {
+    {
+      "com/acme/one/Value.java",
+      "package com.acme.one;\n" +
+      "\n" +
+      "/** The first value. */\n" +
+      "public class Value {}\n"
+    },
+    {
+      "com/acme/two/Value.java",
+      "package com.acme.two;\n" +
+      "\n" +
+      "/** The second value. */\n" +
+      "public class Value {}\n"
+    },
+    {
+      "com/acme/Api.java",
+      "package com.acme;\n" +
+      "\n" +
+      "import com.acme.one.Value;\n" +
+      "import java.util.*;\n" +
+      "\n" +
+      "/**\n" +
+      " * The api.\n" +
+      " *\n" +
+      " * @param <T> the number.\n" +
+      " */\n" +
+      "public class Api<T extends Number> {\n" +
+      "\n" +
+      "  /** The name. */\n" +
+      "  public String name;\n" +
+      "\n" +
+      "  /** With the first value. */\n" +
+      "  public void set(Value value) {}\n" +
+      "\n" +
+      "  /** With the second value. */\n" +
+      "  public void set(com.acme.two.Value value) {}\n" +
+      "\n" +
+      "  /** With a list and an entry. */\n" +
+      "  public void set(List<String> values, Map.Entry<String, T> entry) {}\n" +
+      "\n" +
+      "  /** With varargs. */\n" +
+      "  public <E extends Comparable<E>> void set(T number, E... others) {}\n" +
+      "\n" +
+      "  /**\n" +
+      "   * With an annotation and\n" +
+      "   *   comments in between.\n" +
+      "   */\n" +
+      "  // a line comment.\n" +
+      "  /* a block comment. */\n" +
+      "  @Deprecated\n" +
+      "  public void set(int[][] values, Nested nested) {}\n" +
+      "\n" +
+      "  /** A private field. */\n" +
+      "  private int hidden;\n" +
+      "\n" +
+      "  public void undocumented() {}\n" +
+      "\n" +
+      "  /**\n" +
+      "   * A nested type.\n" +
+      "   */\n" +
+      "  public static class Nested {\n" +
+      "\n" +
+      "    /** The nested constructor. */\n" +
+      "    public Nested(Api<?> api, String text) {}\n" +
+      "\n" +
+      "    /** A deeper type. */\n" +
+      "    public interface Deeper {\n" +
+      "\n" +
+      "      /** The deeper method. */\n" +
+      "      void go(Nested nested, Deeper deeper, Date date);\n" +
+      "    }\n" +
+      "  }\n" +
+      "\n" +
+      "  /** A kind. */\n" +
+      "  public enum Kind {\n" +
+      "\n" +
+      "    /** The first kind. */\n" +
+      "    FIRST\n" +
+      "  }\n" +
+      "}\n"
+    }
+  };
+
+  @Test
+  public void testOverloadsResolveToDistinctKeys() throws Exception {
+    JavaDocIndex index = buildIndex(writeSourcesJar(SOURCES));
+    assertEquals("With the first value. ", index.lookup("com.acme.Api#set(com.acme.one.Value)"));
+    assertEquals("With the second value. ", index.lookup("com.acme.Api#set(com.acme.two.Value)"));
+    assertEquals("With a list and an entry. ", index.lookup("com.acme.Api#set(java.util.List,java.util.Map.Entry)"));
+    assertEquals("With varargs. ", index.lookup("com.acme.Api#set(java.lang.Number,java.lang.Comparable[])"));
+    assertEquals("The deeper method. ", index.lookup("com.acme.Api.Nested.Deeper#go(com.acme.Api.Nested,com.acme.Api.Nested.Deeper,java.util.Date)"));
+    assertNull(index.lookup("com.acme.Api#set(Value)"));
+  }
+
+  @Test
+  public void testMatchesCompiler() throws Exception {
+    File sourcesJar = writeSourcesJar(SOURCES);
+    final JavaDocIndex index = buildIndex(sourcesJar);
+    final List<String> mismatches = new ArrayList<String>();
+    final Set<String> documented = new TreeSet<String>();
+    compile(sourcesJar, new IndexVerifier(index, mismatches, documented));
+
+    assertTrue(mismatches.toString(), mismatches.isEmpty());
+    assertTrue(documented.contains("com.acme.Api"));
+    assertTrue(documented.contains("com.acme.Api#name"));
+    assertTrue(documented.contains("com.acme.Api#set(int[][],com.acme.Api.Nested)"));
+    assertTrue(documented.contains("com.acme.Api.Nested#<init>(com.acme.Api,java.lang.String)"));
+    assertTrue(documented.contains("com.acme.Api.Kind#FIRST"));
+    assertEquals(16, documented.size());
+  }
+
+  @Test
+  public void testCorruptIndexIsRebuilt() throws Exception {
+    File sourcesJar = writeSourcesJar(SOURCES);
+    File indexFile = new File(sourcesJar.getPath() + JavaDocIndex.FILE_EXTENSION);
+    Enunciate enunciate = new Enunciate();
+
+    //garbage.
+    writeBytes(indexFile, "not an index".getBytes("utf-8"));
+    assertIndexed(enunciate.loadJavaDocIndexes(Arrays.asList(sourcesJar), "utf-8"));
+
+    //truncated.
+    byte[] bytes = readBytes(indexFile);
+    writeBytes(indexFile, Arrays.copyOf(bytes, bytes.length / 2));
+    try {
+      JavaDocIndex.open(indexFile);
+      fail();
+    }
+    catch (IOException e) {
+      //fall through...
+    }
+    assertIndexed(enunciate.loadJavaDocIndexes(Arrays.asList(sourcesJar), "utf-8"));
+
+    //corrupt slots and entries (after the header).
+    bytes = readBytes(indexFile);
+    for (int i = 36; i < bytes.length; i += 3) {
+      bytes[i] = (byte) 0xFF;
+    }
+    writeBytes(indexFile, bytes);
+    JavaDocIndex corrupt = JavaDocIndex.open(indexFile);
+    corrupt.lookup("com.acme.Api#name");
+    corrupt.lookup("com.acme.Api#set(com.acme.one.Value)");
+  }
+
+  @Test
+  public void testStaleIndexIsRebuilt() throws Exception {
+    File sourcesJar = writeSourcesJar(SOURCES);
+    Enunciate enunciate = new Enunciate();
+    assertIndexed(enunciate.loadJavaDocIndexes(Arrays.asList(sourcesJar), "utf-8"));
+
+    String[][] changed = new String[][] {
+      { SOURCES[0][0], SOURCES[0][1].replace("The first value.", "The changed first value.") }
+    };
+    long lastModified = sourcesJar.lastModified();
+    writeSourcesJar(sourcesJar, changed);
+    sourcesJar.setLastModified(lastModified + 10000);
+
+    List<JavaDocIndex> indexes = enunciate.loadJavaDocIndexes(Arrays.asList(sourcesJar), "utf-8");
+    assertEquals(1, indexes.size());
+    assertTrue(indexes.get(0).isCurrent(sourcesJar));
+    assertEquals("The changed first value. ", indexes.get(0).lookup("com.acme.one.Value"));
+    assertNull(indexes.get(0).lookup("com.acme.Api"));
+  }
+
+  private static void assertIndexed(List<JavaDocIndex> indexes) {
+    assertEquals(1, indexes.size());
+    assertEquals("With the second value. ", indexes.get(0).lookup("com.acme.Api#set(com.acme.two.Value)"));
+  }
+
+  private static JavaDocIndex buildIndex(File sourcesJar) throws IOException {
+    File indexFile = new File(sourcesJar.getPath() + JavaDocIndex.FILE_EXTENSION);
+    JavaDocIndex.write(JavaDocIndexer.extract(sourcesJar, "utf-8"), sourcesJar, indexFile);
+    return JavaDocIndex.open(indexFile);
+  }
+
+  private static void compile(File sourcesJar, AbstractProcessor processor) throws IOException {
+    File sourceDir = File.createTempFile("JavaDocIndexTest", "");
+    sourceDir.delete();
+    File outputDir = new File(sourceDir, "classes");
+    outputDir.mkdirs();
+    List<File> sourceFiles = new ArrayList<File>();
+    for (String[] source : SOURCES) {
+      File file = new File(sourceDir, source[0]);
+      file.getParentFile().mkdirs();
+      writeBytes(file, source[1].getBytes("utf-8"));
+      sourceFiles.add(file);
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sourceFiles);
+    JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, Arrays.asList("-d", outputDir.getAbsolutePath(), "-encoding", "utf-8"), null, units);
+    task.setProcessors(Arrays.asList(processor));
+    assertTrue(task.call());
+    fileManager.close();
+  }
+
+  private static File writeSourcesJar(String[][] sources) throws IOException {
+    File jar = File.createTempFile("JavaDocIndexTest", "-sources.jar");
+    writeSourcesJar(jar, sources);
+    return jar;
+  }
+
+  private static void writeSourcesJar(File jar, String[][] sources) throws IOException {
+    JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+    try {
+      for (String[] source : sources) {
+        out.putNextEntry(new JarEntry(source[0]));
+        out.write(source[1].getBytes("utf-8"));
+        out.closeEntry();
+      }
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private static byte[] readBytes(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      int len;
+      while ((len = in.read(buffer)) > 0) {
+        bytes.write(buffer, 0, len);
+      }
+      return bytes.toByteArray();
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private static void writeBytes(File file, byte[] bytes) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(bytes);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Compares the doc comment of each element the compiler finds to the doc comment in the index.
+   */
+  @SupportedAnnotationTypes("*")
+  private static class IndexVerifier extends AbstractProcessor {
+
+    private final JavaDocIndex index;
+    private final List<String> mismatches;
+    private final Set<String> documented;
+
+    private IndexVerifier(JavaDocIndex index, List<String> mismatches, Set<String> documented) {
+      this.index = index;
+      this.mismatches = mismatches;
+      this.documented = documented;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      for (Element element : roundEnv.getRootElements()) {
+        verify(element);
+      }
+      return false;
+    }
+
+    private void verify(Element element) {
+      String expected = this.processingEnv.getElementUtils().getDocComment(element);
+      String key = JavaDocIndex.keyOf(element);
+      if (key != null) {
+        String actual = this.index.lookup(element);
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+          this.mismatches.add(key + ": expected <" + expected + "> but was <" + actual + ">");
+        }
+        else if (expected != null) {
+          this.documented.add(key);
+        }
+      }
+
+      for (Element enclosed : element.getEnclosedElements()) {
+        verify(enclosed);
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import org.junit.Test;
+import org.reflections.util.FilterBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class AntPatternSetTest {
+
+  private static final String[] PATTERNS = {
+    "com.acme.**",
+    "com.acme.api.Exact",
+    "org.example.?ar.*",
+    "org.example.**.model.*",
+    "**.internal.**",
+    "net.*.Service",
+    "edu.school.Student?",
+    "io.sample",
+    "**",
+    "*"
+  };
+
+  private static final String[] NAMES = {
+    "com.acme",
+    "com.acme.Type",
+    "com.acme.api.Exact",
+    "com.acme.api.sub.Deep",
+    "com.acmes.Type",
+    "com.acm",
+    "com.api.Exact",
+    "org.example.bar.Type",
+    "org.example.car.Type",
+    "org.example.ba.Type",
+    "org.example.bar.sub.Type",
+    "org.example.model.Type",
+    "org.example.one.two.model.Type",
+    "org.example.one.model.sub.Type",
+    "org.other.internal",
+    "org.other.internal.Hidden",
+    "internal.Hidden",
+    "org.internals.Type",
+    "net.one.Service",
+    "net.one.two.Service",
+    "net.Service",
+    "edu.school.Student1",
+    "edu.school.Student",
+    "edu.school.Student12",
+    "io.sample",
+    "io.sample.Type",
+    "Type",
+    ""
+  };
+
+  @Test
+  public void testPackages() throws Exception {
+    AntPatternSet set = new AntPatternSet(Arrays.asList("com.acme.**"));
+    assertTrue(set.matches("com.acme"));
+    assertTrue(set.matches("com.acme.Type"));
+    assertTrue(set.matches("com.acme.api.sub.Deep"));
+    assertFalse(set.matches("com.acmes.Type"));
+    assertFalse(set.matches("com"));
+    assertFalse(set.matches(null));
+  }
+
+  @Test
+  public void testWildcards() throws Exception {
+    AntPatternSet set = new AntPatternSet(Arrays.asList("org.example.?ar.*", "**.internal.**"));
+    assertTrue(set.matches("org.example.bar.Type"));
+    assertFalse(set.matches("org.example.ba.Type"));
+    assertFalse(set.matches("org.example.bar.sub.Type"));
+    assertTrue(set.matches("org.other.internal.Hidden"));
+    assertTrue(set.matches("internal.Hidden"));
+    assertFalse(set.matches("org.internals.Type"));
+
+    assertTrue(new AntPatternSet(Arrays.asList("**")).matches("any.name.At.All"));
+    assertFalse(new AntPatternSet(Arrays.asList("*")).matches("not.Top"));
+  }
+
+  @Test
+  public void testExactNames() throws Exception {
+    AntPatternSet set = new AntPatternSet(Arrays.asList("com.acme.api.Exact", "io.sample"));
+    assertTrue(set.matches("com.acme.api.Exact"));
+    assertTrue(set.matches("io.sample"));
+    assertFalse(set.matches("io.sample.Type"));
+    assertFalse(set.matches("com.acme.api.Exact2"));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testSameAsFilterBuilder() throws Exception {
+    //each pattern on its own, and every pair of patterns.
+    List<List<String>> patternSets = new ArrayList<List<String>>();
+    for (int i = 0; i < PATTERNS.length; i++) {
+      patternSets.add(Arrays.asList(PATTERNS[i]));
+      for (int j = i + 1; j < PATTERNS.length; j++) {
+        patternSets.add(Arrays.asList(PATTERNS[i], PATTERNS[j]));
+      }
+    }
+
+    for (List<String> patterns : patternSets) {
+      FilterBuilder filter = new FilterBuilder();
+      for (String pattern : patterns) {
+        filter = filter.add(AntPatternMatcher.isValidPattern(pattern) ? new AntPatternInclude(pattern) : new StringEqualsInclude(pattern));
+      }
+
+      AntPatternSet set = new AntPatternSet(patterns);
+      for (String name : NAMES) {
+        //twice, to check the memoized result, too.
+        assertEquals(patterns + " on '" + name + "'", filter.apply(name), set.matches(name));
+        assertEquals(patterns + " on '" + name + "'", filter.apply(name), set.matches(name));
+      }
+    }
+  }
+}
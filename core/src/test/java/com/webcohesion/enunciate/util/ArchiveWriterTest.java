@@ -0,0 +1,223 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import com.webcohesion.enunciate.EnunciateConsoleLogger;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class ArchiveWriterTest {
+
+  @Test
+  public void testWrite() throws Exception {
+    File dir = createTempDir();
+    Map<String, File> entries = createEntries(dir, 20);
+    File archive = new File(dir, "archive.zip");
+
+    ArchiveWriter writer = new ArchiveWriter(9, 4, new EnunciateConsoleLogger());
+    assertTrue(writer.write(archive, entries));
+    assertEquals(20, writer.getCompressedCount());
+    assertEquals(0, writer.getReusedCount());
+    assertEntries(archive, entries, ZipEntry.DEFLATED);
+    assertFalse(new File(dir, "archive.zip.tmp").exists());
+  }
+
+  @Test
+  public void testReuseUnchangedEntries() throws Exception {
+    File dir = createTempDir();
+    Map<String, File> entries = createEntries(dir, 20);
+    File archive = new File(dir, "archive.zip");
+    new ArchiveWriter(9, 4, new EnunciateConsoleLogger()).write(archive, entries);
+
+    writeFile(entries.get("dir/entry3.txt"), "changed");
+    entries.remove("dir/entry5.txt");
+    entries.put("dir/added.txt", writeFile(new File(dir, "added.txt"), "added"));
+    ArchiveWriter writer = new ArchiveWriter(9, 4, new EnunciateConsoleLogger());
+    writer.write(archive, entries);
+    assertEquals(2, writer.getCompressedCount());
+    assertEquals(18, writer.getReusedCount());
+    assertEntries(archive, entries, ZipEntry.DEFLATED);
+
+    //the entries aren't reused if the compression method changes.
+    writer = new ArchiveWriter(0, 1, new EnunciateConsoleLogger());
+    writer.write(archive, entries);
+    assertEquals(20, writer.getCompressedCount());
+    assertEquals(0, writer.getReusedCount());
+    assertEntries(archive, entries, ZipEntry.STORED);
+  }
+
+  @Test
+  public void testStoreOnly() throws Exception {
+    File dir = createTempDir();
+    Map<String, File> entries = createEntries(dir, 5);
+    File archive = new File(dir, "archive.zip");
+
+    ArchiveWriter writer = new ArchiveWriter(0, 1, new EnunciateConsoleLogger());
+    writer.write(archive, entries);
+    assertEntries(archive, entries, ZipEntry.STORED);
+
+    writer = new ArchiveWriter(0, 1, new EnunciateConsoleLogger());
+    writer.write(archive, entries);
+    assertEquals(5, writer.getReusedCount());
+    assertEntries(archive, entries, ZipEntry.STORED);
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    File archive = new File(createTempDir(), "archive.zip");
+    assertFalse(new ArchiveWriter(9, 1, new EnunciateConsoleLogger()).write(archive, Collections.<String, File>emptyMap()));
+    ZipFile zip = new ZipFile(archive);
+    try {
+      assertNotNull(zip.getEntry("README.txt"));
+    }
+    finally {
+      zip.close();
+    }
+  }
+
+  @Test
+  public void testZip64() throws Exception {
+    File dir = createTempDir();
+    Map<String, File> entries = createEntries(dir, 5);
+    File archive = new File(dir, "archive.zip");
+
+    ArchiveWriter writer = new ArchiveWriter(9, 4, new EnunciateConsoleLogger()) {
+      @Override
+      protected boolean requiresZip64(List<String> names, List<File> files) throws IOException {
+        return true;
+      }
+    };
+    assertTrue(writer.write(archive, entries));
+    assertEquals(5, writer.getCompressedCount());
+    assertEntries(archive, entries, ZipEntry.DEFLATED);
+  }
+
+  @Test
+  public void testNoReuseFromZip64() throws Exception {
+    File dir = createTempDir();
+    Map<String, File> entries = createEntries(dir, 1);
+    File archive = new File(dir, "archive.zip");
+
+    //an archive with enough entries to need the Zip64 extensions.
+    ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(archive)));
+    try {
+      for (Map.Entry<String, File> entry : entries.entrySet()) {
+        out.putNextEntry(new ZipEntry(entry.getKey()));
+        out.write(readFile(entry.getValue()));
+        out.closeEntry();
+      }
+      out.setLevel(0);
+      for (int i = 0; i < 0x10000; i++) {
+        out.putNextEntry(new ZipEntry("filler" + i));
+        out.closeEntry();
+      }
+    }
+    finally {
+      out.close();
+    }
+
+    ArchiveWriter writer = new ArchiveWriter(9, 1, new EnunciateConsoleLogger());
+    assertTrue(writer.readPreviousEntries(archive).isEmpty());
+    writer.write(archive, entries);
+    assertEquals(0, writer.getReusedCount());
+    assertEntries(archive, entries, ZipEntry.DEFLATED);
+  }
+
+  private void assertEntries(File archive, Map<String, File> entries, int method) throws IOException {
+    ZipFile zip = new ZipFile(archive);
+    try {
+      assertEquals(entries.size(), zip.size());
+      List<String> names = new ArrayList<String>();
+      Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+      while (zipEntries.hasMoreElements()) {
+        ZipEntry entry = zipEntries.nextElement();
+        names.add(entry.getName());
+        assertEquals(method, entry.getMethod());
+        InputStream in = zip.getInputStream(entry);
+        try {
+          assertArrayEquals(readFile(entries.get(entry.getName())), readStream(in));
+        }
+        finally {
+          in.close();
+        }
+      }
+      assertEquals(new ArrayList<String>(entries.keySet()), names);
+    }
+    finally {
+      zip.close();
+    }
+  }
+
+  private Map<String, File> createEntries(File dir, int count) throws IOException {
+    Map<String, File> entries = new LinkedHashMap<String, File>();
+    for (int i = 0; i < count; i++) {
+      StringBuilder content = new StringBuilder();
+      for (int j = 0; j < i * 100; j++) {
+        content.append("line ").append(j).append(" of entry ").append(i).append('\n');
+      }
+      entries.put("dir/entry" + i + ".txt", writeFile(new File(dir, "entry" + i + ".txt"), content.toString()));
+    }
+    return entries;
+  }
+
+  private File createTempDir() throws IOException {
+    File dir = File.createTempFile("ArchiveWriterTest", "");
+    dir.delete();
+    dir.mkdirs();
+    return dir;
+  }
+
+  private File writeFile(File file, String content) throws IOException {
+    Writer out = new OutputStreamWriter(new FileOutputStream(file), "utf-8");
+    try {
+      out.write(content);
+    }
+    finally {
+      out.close();
+    }
+    return file;
+  }
+
+  private byte[] readFile(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      return readStream(in);
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private byte[] readStream(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8 * 1024];
+    int len;
+    while ((len = in.read(buffer)) >= 0) {
+      bytes.write(buffer, 0, len);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import com.webcohesion.enunciate.EnunciateConsoleLogger;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class BuildCacheTest {
+
+  @Test
+  public void testUpToDate() throws Exception {
+    File dir = createTempDir();
+    File cacheFile = new File(dir, "cache.properties");
+    File output = writeFile(new File(dir, "Type.java"));
+
+    BuildCache cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    assertFalse(cache.isUpToDate("Type", "hash"));
+    cache.record("Type", "hash", Arrays.asList(output));
+    cache.store();
+
+    cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    assertTrue(cache.isUpToDate("Type", "hash"));
+    cache.store();
+
+    //the up-to-date entry is carried over to the next build.
+    cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    assertTrue(cache.isUpToDate("Type", "hash"));
+    assertTrue(cache.deleteStaleOutputs().isEmpty());
+    assertTrue(output.exists());
+  }
+
+  @Test
+  public void testStaleHash() throws Exception {
+    File dir = createTempDir();
+    File cacheFile = new File(dir, "cache.properties");
+    File output = writeFile(new File(dir, "Type.java"));
+
+    BuildCache cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    cache.record("Type", "hash", Arrays.asList(output));
+    cache.store();
+
+    cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    assertFalse(cache.isUpToDate("Type", "changed"));
+    assertFalse(cache.isUpToDate("Other", "hash"));
+  }
+
+  @Test
+  public void testMissingOutput() throws Exception {
+    File dir = createTempDir();
+    File cacheFile = new File(dir, "cache.properties");
+    File output = writeFile(new File(dir, "Type.java"));
+    File otherOutput = writeFile(new File(dir, "TypeHelper.java"));
+
+    BuildCache cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    cache.record("Type", "hash", Arrays.asList(output, otherOutput));
+    cache.store();
+
+    assertTrue(otherOutput.delete());
+    cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    assertFalse(cache.isUpToDate("Type", "hash"));
+  }
+
+  @Test
+  public void testDeleteStaleOutputs() throws Exception {
+    File dir = createTempDir();
+    File cacheFile = new File(dir, "cache.properties");
+    File kept = writeFile(new File(dir, "Kept.java"));
+    File removed = writeFile(new File(dir, "Removed.java"));
+    File rewritten = writeFile(new File(dir, "Rewritten.java"));
+    long lastBuild = System.currentTimeMillis() - 60000;
+    assertTrue(kept.setLastModified(lastBuild));
+    assertTrue(removed.setLastModified(lastBuild));
+    assertTrue(rewritten.setLastModified(lastBuild));
+
+    BuildCache cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    cache.record("Kept", "hash", Arrays.asList(kept));
+    cache.record("Removed", "hash", Arrays.asList(removed));
+    cache.record("Rewritten", "hash", Arrays.asList(rewritten));
+    cache.store();
+
+    cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    assertTrue(cache.isUpToDate("Kept", "hash"));
+    //"Rewritten" isn't recorded by this build, but some other step of this build writes its file.
+    writeFile(rewritten);
+    assertTrue(rewritten.setLastModified(System.currentTimeMillis() + 1000));
+    List<File> deleted = cache.deleteStaleOutputs();
+    assertEquals(Collections.singletonList(removed.getAbsoluteFile()), deleted);
+    assertFalse(removed.exists());
+    assertTrue(kept.exists());
+    assertTrue(rewritten.exists());
+  }
+
+  @Test
+  public void testSharedInputsChanged() throws Exception {
+    File dir = createTempDir();
+    File cacheFile = new File(dir, "cache.properties");
+    File output = writeFile(new File(dir, "Type.java"));
+    assertTrue(output.setLastModified(System.currentTimeMillis() - 60000));
+
+    BuildCache cache = new BuildCache(cacheFile, "inputs", new EnunciateConsoleLogger());
+    cache.record("Type", "hash", Arrays.asList(output));
+    cache.store();
+
+    cache = new BuildCache(cacheFile, "changed-inputs", new EnunciateConsoleLogger());
+    assertFalse(cache.isUpToDate("Type", "hash"));
+
+    //the outputs of the last build are still known, so they can be cleaned up.
+    assertEquals(Collections.singletonList(output.getAbsoluteFile()), cache.deleteStaleOutputs());
+  }
+
+  private static File createTempDir() throws IOException {
+    File dir = File.createTempFile("BuildCacheTest", "");
+    dir.delete();
+    dir.mkdirs();
+    return dir;
+  }
+
+  private static File writeFile(File file) throws IOException {
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(file.getName().getBytes("utf-8"));
+    }
+    finally {
+      out.close();
+    }
+    return file;
+  }
+}
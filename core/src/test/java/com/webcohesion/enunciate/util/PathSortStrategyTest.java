@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.util;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class PathSortStrategyTest {
+
+  private static final List<String> PATHS = Arrays.asList(
+    "",
+    "/",
+    "a",
+    "/a",
+    "/a/",
+    "/a//",
+    "/a/b",
+    "/a/b/",
+    "/a/b/c",
+    "/a/bc",
+    "/a-b",
+    "/a.b/c",
+    "/ab",
+    "/ab/c",
+    "/b",
+    "/b/a/c/d",
+    "/{id}",
+    "/{id}/items",
+    "/A",
+    "/a/{id}/b"
+  );
+
+  @Test
+  public void testBreadthFirstOrdering() throws Exception {
+    assertSameOrdering(PathSortStrategy.breadth_first, new BreadthFirstResourcePathComparator());
+  }
+
+  @Test
+  public void testDepthFirstOrdering() throws Exception {
+    assertSameOrdering(PathSortStrategy.depth_first, new DepthFirstResourcePathComparator());
+  }
+
+  private void assertSameOrdering(PathSortStrategy strategy, Comparator<String> expected) {
+    for (String path1 : PATHS) {
+      for (String path2 : PATHS) {
+        int expectedComparison = Integer.signum(expected.compare(path1, path2));
+        assertEquals(path1 + " <> " + path2, expectedComparison, Integer.signum(strategy.sortKey(path1).compareTo(strategy.sortKey(path2))));
+        assertEquals(path1 + " <> " + path2, expectedComparison, Integer.signum(new PathSortKeyComparator(strategy).compare(path1, path2)));
+      }
+    }
+
+    List<String> sorted = new ArrayList<String>(PATHS);
+    Collections.sort(sorted, expected);
+    List<String> sortedByKey = new ArrayList<String>(PATHS);
+    Collections.sort(sortedByKey, new PathSortKeyComparator(strategy));
+    assertEquals(sorted, sortedByKey);
+  }
+}
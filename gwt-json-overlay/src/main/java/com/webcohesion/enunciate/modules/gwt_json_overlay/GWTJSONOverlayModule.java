@@ -39,19 +39,12 @@ import com.webcohesion.enunciate.util.AntPatternMatcher;
 import com.webcohesion.enunciate.util.freemarker.ClientPackageForMethod;
 import com.webcohesion.enunciate.util.freemarker.FileDirective;
 import com.webcohesion.enunciate.util.freemarker.IsFacetExcludedMethod;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.core.Environment;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
+import com.webcohesion.enunciate.util.freemarker.TemplateProcessingQueue;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import org.apache.commons.configuration.HierarchicalConfiguration;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.StringWriter;
-import java.io.Writer;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 
@@ -65,6 +58,7 @@ public class GWTJSONOverlayModule extends BasicGeneratingModule implements ApiFe
   JacksonModule jacksonModule;
   Jackson1Module jackson1Module;
   JaxrsModule jaxrsModule;
+  private final GWTJSONOverlayObjectWrapper objectWrapper = new GWTJSONOverlayObjectWrapper();
 
   /**
    * @return "gwt-json-overlay"
@@ -187,24 +181,39 @@ public class GWTJSONOverlayModule extends BasicGeneratingModule implements ApiFe
       try {
         debug("Generating the GWT JSON Overlay...");
 
-        if (jacksonContext != null) {
-          for (TypeDefinition typeDefinition : jacksonContext.getTypeDefinitions()) {
-            if (!typeDefinition.isSimple() && facetFilter.accept(typeDefinition)) {
-              model.put("type", typeDefinition);
-              URL template = typeDefinition.isEnum() ? getTemplateURL("gwt-enum-type.fmt") : getTemplateURL("gwt-type.fmt");
-              processTemplate(template, model);
+        TemplateProcessingQueue queue = new TemplateProcessingQueue(new TemplateProcessingQueue.TemplateProcessor() {
+          @Override
+          public void process(URL templateURL, Map<String, Object> typeModel, Collection<File> outputFiles) throws IOException, TemplateException {
+            processTemplate(templateURL, typeModel, outputFiles);
+          }
+        }, this.enunciate.getExtraThreadCount(), loadBuildCache("overlay-sources"));
+
+        try {
+          if (jacksonContext != null) {
+            for (TypeDefinition typeDefinition : jacksonContext.getTypeDefinitions()) {
+              if (!typeDefinition.isSimple() && facetFilter.accept(typeDefinition)) {
+                model.put("type", typeDefinition);
+                URL template = typeDefinition.isEnum() ? getTemplateURL("gwt-enum-type.fmt") : getTemplateURL("gwt-type.fmt");
+                queue.submit(template, model, typeDefinition.getQualifiedName().toString(), findSourceHash(typeDefinition));
+              }
             }
           }
-        }
 
-        if (jackson1Context != null) {
-          for (com.webcohesion.enunciate.modules.jackson1.model.TypeDefinition typeDefinition : jackson1Context.getTypeDefinitions()) {
-            if (!typeDefinition.isSimple() && facetFilter.accept(typeDefinition)) {
-              model.put("type", typeDefinition);
-              URL template = typeDefinition.isEnum() ? getTemplateURL("gwt-enum-type.fmt") : getTemplateURL("gwt-type.fmt");
-              processTemplate(template, model);
+          if (jackson1Context != null) {
+            for (com.webcohesion.enunciate.modules.jackson1.model.TypeDefinition typeDefinition : jackson1Context.getTypeDefinitions()) {
+              if (!typeDefinition.isSimple() && facetFilter.accept(typeDefinition)) {
+                model.put("type", typeDefinition);
+                URL template = typeDefinition.isEnum() ? getTemplateURL("gwt-enum-type.fmt") : getTemplateURL("gwt-type.fmt");
+                queue.submit(template, model, typeDefinition.getQualifiedName().toString(), findSourceHash(typeDefinition));
+              }
             }
           }
+
+          queue.finish();
+          debug("Skipped %s templates with up-to-date outputs.", queue.getSkippedCount());
+        }
+        finally {
+          queue.close();
         }
       }
       catch (IOException e) {
@@ -235,33 +244,19 @@ public class GWTJSONOverlayModule extends BasicGeneratingModule implements ApiFe
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(Configuration.VERSION_2_3_22);
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler(new TemplateExceptionHandler() {
-      public void handleTemplateException(TemplateException templateException, Environment environment, Writer writer) throws TemplateException {
-        throw templateException;
-      }
-    });
+    return renderTemplate(templateURL, model, this.objectWrapper, null);
+  }
 
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new GWTJSONOverlayObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
-    StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
-    unhandledOutput.close();
-    return unhandledOutput.toString();
+  /**
+   * Processes the specified template with the given model, recording the files written by the template.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param outputFiles The collection to which to add the files written by the template, or null.
+   */
+  public String processTemplate(URL templateURL, Object model, Collection<File> outputFiles) throws IOException, TemplateException {
+    debug("Processing template %s.", templateURL);
+    return renderTemplate(templateURL, model, this.objectWrapper, outputFiles);
   }
 
   protected File packageArtifacts(File sourceDir) {
@@ -15,19 +15,16 @@
  */
 package com.webcohesion.enunciate.modules.idl;
 
+import com.webcohesion.enunciate.BuildReport;
+import com.webcohesion.enunciate.EnunciateLogger;
 import com.webcohesion.enunciate.api.InterfaceDescriptionFile;
 import com.webcohesion.enunciate.facets.FacetFilter;
 import com.webcohesion.enunciate.modules.jaxb.util.PrefixMethod;
 import com.webcohesion.enunciate.util.freemarker.IsFacetExcludedMethod;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.core.Environment;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
+import com.webcohesion.enunciate.util.freemarker.TemplateEngine;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 
 import java.io.*;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
@@ -40,12 +37,18 @@ public abstract class BaseXMLInterfaceDescriptionFile implements InterfaceDescri
   protected final FacetFilter facetFilter;
   protected final Map<String, String> namespacePrefixes;
   protected final String filename;
+  protected final EnunciateLogger logger;
+  protected final BuildReport buildReport;
+  private final IDLObjectWrapper objectWrapper;
   private String contents;
 
-  public BaseXMLInterfaceDescriptionFile(String filename, Map<String, String> namespacePrefixes, FacetFilter facetFilter) {
+  public BaseXMLInterfaceDescriptionFile(String filename, Map<String, String> namespacePrefixes, FacetFilter facetFilter, EnunciateLogger logger, BuildReport buildReport) {
     this.namespacePrefixes = namespacePrefixes;
     this.facetFilter = facetFilter;
     this.filename = filename;
+    this.logger = logger;
+    this.buildReport = buildReport;
+    this.objectWrapper = new IDLObjectWrapper(namespacePrefixes);
   }
 
   @Override
@@ -92,33 +95,14 @@ public abstract class BaseXMLInterfaceDescriptionFile implements InterfaceDescri
    * @param model       The root model.
    */
   protected String processTemplate(URL templateURL, Map<String, Object> model) throws IOException {
-    Configuration configuration = new Configuration(Configuration.VERSION_2_3_22);
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler(new TemplateExceptionHandler() {
-      public void handleTemplateException(TemplateException templateException, Environment environment, Writer writer) throws TemplateException {
-        throw templateException;
-      }
-    });
-
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new IDLObjectWrapper(this.namespacePrefixes));
-    Template template = configuration.getTemplate(templateURL.toString());
     StringWriter output = new StringWriter();
-
     try {
-      template.process(model, output);
+      if (this.buildReport != null) {
+        TemplateEngine.getInstance().processTemplate(templateURL, model, this.objectWrapper, this.logger, this.buildReport, output, null);
+      }
+      else {
+        TemplateEngine.getInstance().processTemplate(templateURL, model, this.objectWrapper, this.logger, output);
+      }
     }
     catch (TemplateException e) {
       throw new RuntimeException(e);
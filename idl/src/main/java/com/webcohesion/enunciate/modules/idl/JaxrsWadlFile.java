@@ -15,6 +15,7 @@
  */
 package com.webcohesion.enunciate.modules.idl;
 
+import com.webcohesion.enunciate.BuildReport;
 import com.webcohesion.enunciate.facets.FacetFilter;
 import com.webcohesion.enunciate.modules.jaxb.model.SchemaInfo;
 import com.webcohesion.enunciate.modules.jaxrs.EnunciateJaxrsContext;
@@ -33,8 +34,8 @@ public class JaxrsWadlFile extends BaseXMLInterfaceDescriptionFile {
   private final String stylesheetUri;
   private final String baseUri;
 
-  public JaxrsWadlFile(EnunciateJaxrsContext jaxrsContext, List<SchemaInfo> schemas, String stylesheetUri, String baseUri, Map<String, String> namespacePrefixes, FacetFilter facetFilter) {
-    super("application.wadl", namespacePrefixes, facetFilter);
+  public JaxrsWadlFile(EnunciateJaxrsContext jaxrsContext, List<SchemaInfo> schemas, String stylesheetUri, String baseUri, Map<String, String> namespacePrefixes, FacetFilter facetFilter, BuildReport buildReport) {
+    super("application.wadl", namespacePrefixes, facetFilter, jaxrsContext.getContext().getLogger(), buildReport);
     this.jaxrsContext = jaxrsContext;
     this.schemas = schemas;
     this.stylesheetUri = stylesheetUri;
@@ -18,6 +18,7 @@ package com.webcohesion.enunciate.modules.jackson.model;
 import com.fasterxml.jackson.annotation.*;
 import com.webcohesion.enunciate.EnunciateException;
 import com.webcohesion.enunciate.facets.Facet;
+import com.webcohesion.enunciate.facets.FacetSet;
 import com.webcohesion.enunciate.facets.HasFacets;
 import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
 import com.webcohesion.enunciate.javac.decorations.element.*;
@@ -49,7 +50,7 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
   private final Value value;
   private final WildcardMember wildcardMember;
   private final LinkedList<javax.lang.model.element.Element> referencedFrom = new LinkedList<javax.lang.model.element.Element>();
-  private final Set<Facet> facets = new TreeSet<Facet>();
+  private final Set<Facet> facets = new FacetSet();
   protected final EnunciateJacksonContext context;
   private final String[] propOrder;
 
@@ -141,30 +142,44 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
    * @return the potential accessors for this type definition.
    */
   protected List<javax.lang.model.element.Element> loadPotentialAccessors(AccessorFilter filter) {
-    List<VariableElement> potentialFields = new ArrayList<VariableElement>();
-    List<PropertyElement> potentialProperties = new ArrayList<PropertyElement>();
+    Map<String, VariableElement> potentialFields = new LinkedHashMap<String, VariableElement>();
+    Map<String, PropertyElement> potentialProperties = new LinkedHashMap<String, PropertyElement>();
     aggregatePotentialAccessors(potentialFields, potentialProperties, this, filter, this.context.isCollapseTypeHierarchy());
 
     List<javax.lang.model.element.Element> accessors = new ArrayList<javax.lang.model.element.Element>();
-    accessors.addAll(potentialFields);
-    accessors.addAll(potentialProperties);
+    accessors.addAll(potentialFields.values());
+    accessors.addAll(potentialProperties.values());
     return accessors;
   }
 
   /**
    * Aggregate the potential accessor into their separate buckets for the given class declaration, recursively including transient superclasses.
+   * The accessors of a class are only aggregated once per context for a given filter; subsequent aggregations starting
+   * from empty buckets (e.g. for each subclass of a common superclass) use the cached accessors.
    *
-   * @param fields     The fields.
-   * @param properties The properties.
+   * @param fields     The fields, by name.
+   * @param properties The properties, by name.
    * @param clazz      The class.
    * @param filter     The filter.
    */
-  protected void aggregatePotentialAccessors(List<VariableElement> fields, List<PropertyElement> properties, DecoratedTypeElement clazz, AccessorFilter filter, boolean inlineAccessorsOfSuperclasses) {
+  protected void aggregatePotentialAccessors(Map<String, VariableElement> fields, Map<String, PropertyElement> properties, DecoratedTypeElement clazz, AccessorFilter filter, boolean inlineAccessorsOfSuperclasses) {
     String fqn = clazz.getQualifiedName().toString();
     if (Object.class.getName().equals(fqn) || Enum.class.getName().equals(fqn)) {
       return;
     }
 
+    AggregatedAccessors.Key cacheKey = null;
+    if (fields.isEmpty() && properties.isEmpty() && !fqn.isEmpty()) {
+      //starting from empty buckets, the aggregation only depends on the class, the filter and whether superclasses are inlined.
+      cacheKey = new AggregatedAccessors.Key(fqn, filter, inlineAccessorsOfSuperclasses);
+      AggregatedAccessors cached = this.context.findAggregatedAccessors(cacheKey);
+      if (cached != null) {
+        fields.putAll(cached.getFields());
+        properties.putAll(cached.getProperties());
+        return;
+      }
+    }
+
     DecoratedTypeElement superDeclaration = clazz.getSuperclass() != null ? (DecoratedTypeElement) this.env.getTypeUtils().asElement(clazz.getSuperclass()) : null;
     if (superDeclaration != null && (this.context.isIgnored(superDeclaration) || inlineAccessorsOfSuperclasses)) {
       inlineAccessorsOfSuperclasses = true;
@@ -173,21 +188,13 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
 
     TypeElement mixin = this.context.lookupMixin(clazz);
 
-    List<VariableElement> fieldElements = new ArrayList<VariableElement>(ElementFilter.fieldsIn(clazz.getEnclosedElements()));
+    Map<String, VariableElement> fieldElements = byName(ElementFilter.fieldsIn(clazz.getEnclosedElements()));
     if (mixin != null) {
       //replace all mixin fields.
-      for (VariableElement mixinField : ElementFilter.fieldsIn(mixin.getEnclosedElements())) {
-        int index = indexOf(fieldElements, mixinField.getSimpleName().toString());
-        if (index >= 0) {
-          fieldElements.set(index, mixinField);
-        }
-        else {
-          fieldElements.add(mixinField);
-        }
-      }
+      fieldElements.putAll(byName(ElementFilter.fieldsIn(mixin.getEnclosedElements())));
     }
 
-    for (VariableElement fieldDeclaration : fieldElements) {
+    for (VariableElement fieldDeclaration : fieldElements.values()) {
       JsonUnwrapped unwrapped = fieldDeclaration.getAnnotation(JsonUnwrapped.class);
       if (unwrapped != null && unwrapped.enabled()) {
         DecoratedTypeElement element;
@@ -225,21 +232,13 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
     }
 
     JacksonPropertySpec propertySpec = new JacksonPropertySpec(this.env);
-    List<PropertyElement> propertyElements = new ArrayList<PropertyElement>(clazz.getProperties(propertySpec));
+    Map<String, PropertyElement> propertyElements = byName(clazz.getProperties(propertySpec));
     if (mixin != null) {
       //replace all mixin properties.
-      for (PropertyElement mixinProperty : ((DecoratedTypeElement)mixin).getProperties(propertySpec)) {
-        int index = indexOf(propertyElements, mixinProperty.getSimpleName().toString());
-        if (index >= 0) {
-          propertyElements.set(index, mixinProperty);
-        }
-        else {
-          propertyElements.add(mixinProperty);
-        }
-      }
+      propertyElements.putAll(byName(((DecoratedTypeElement)mixin).getProperties(propertySpec)));
     }
 
-    for (PropertyElement propertyDeclaration : propertyElements) {
+    for (PropertyElement propertyDeclaration : propertyElements.values()) {
       JsonUnwrapped unwrapped = propertyDeclaration.getAnnotation(JsonUnwrapped.class);
       if (unwrapped != null && unwrapped.enabled()) {
         DecoratedTypeElement element;
@@ -268,23 +267,31 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
 
         aggregatePotentialAccessors(fields, properties, element, filter, inlineAccessorsOfSuperclasses);
       }
-      else if (!filter.accept(propertyDeclaration) || indexOf(fields, propertyDeclaration.getSimpleName().toString()) >= 0) {
+      else if (!filter.accept(propertyDeclaration) || fields.containsKey(propertyDeclaration.getSimpleName().toString())) {
         remove(propertyDeclaration, properties);
       }
       else {
         addOrReplace(propertyDeclaration, properties);
       }
     }
+
+    if (cacheKey != null) {
+      this.context.cacheAggregatedAccessors(cacheKey, new AggregatedAccessors(fields, properties));
+    }
   }
 
-  protected int indexOf(List<? extends Element> accessors, String name) {
-    for (int i = 0; i < accessors.size(); i++) {
-      Element accessor = accessors.get(i);
-      if (accessor.getSimpleName().toString().equals(name)) {
-        return i;
-      }
+  /**
+   * Index the specified members by name, preserving their order. Later members replace earlier members of the same name.
+   *
+   * @param members The members.
+   * @return The members, by name.
+   */
+  protected <M extends Element> Map<String, M> byName(Collection<? extends M> members) {
+    Map<String, M> byName = new LinkedHashMap<String, M>();
+    for (M member : members) {
+      byName.put(member.getSimpleName().toString(), member);
     }
-    return -1;
+    return byName;
   }
 
   /**
@@ -326,9 +333,9 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
    * @param memberDeclaration  The member to add/replace.
    * @param memberDeclarations The other members.
    */
-  protected <M extends javax.lang.model.element.Element> void addOrReplace(M memberDeclaration, List<M> memberDeclarations) {
+  protected <M extends javax.lang.model.element.Element> void addOrReplace(M memberDeclaration, Map<String, M> memberDeclarations) {
     remove(memberDeclaration, memberDeclarations);
-    memberDeclarations.add(memberDeclaration);
+    memberDeclarations.put(memberDeclaration.getSimpleName().toString(), memberDeclaration);
   }
 
   /**
@@ -337,14 +344,8 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
    * @param memberDeclaration  The member to remove.
    * @param memberDeclarations The other members.
    */
-  protected <M extends javax.lang.model.element.Element> void remove(M memberDeclaration, List<M> memberDeclarations) {
-    Iterator<M> it = memberDeclarations.iterator();
-    while (it.hasNext()) {
-      javax.lang.model.element.Element candidate = it.next();
-      if (candidate.getSimpleName().equals(memberDeclaration.getSimpleName())) {
-        it.remove();
-      }
-    }
+  protected <M extends javax.lang.model.element.Element> void remove(M memberDeclaration, Map<String, M> memberDeclarations) {
+    memberDeclarations.remove(memberDeclaration.getSimpleName().toString());
   }
 
   /**
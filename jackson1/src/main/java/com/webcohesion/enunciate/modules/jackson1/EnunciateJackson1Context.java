@@ -60,6 +60,7 @@ import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.namespace.QName;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Ryan Heaton
@@ -77,6 +78,7 @@ public class EnunciateJackson1Context extends EnunciateModuleContext implements
   private final boolean collapseTypeHierarchy;
   private final Map<String, String> mixins;
   private final boolean disableExamples;
+  private final Map<AggregatedAccessors.Key, AggregatedAccessors> aggregatedAccessors = new ConcurrentHashMap<AggregatedAccessors.Key, AggregatedAccessors>();
 
   public EnunciateJackson1Context(EnunciateContext context, boolean honorJaxb, KnownJsonType dateType, boolean collapseTypeHierarchy, Map<String, String> mixins, boolean disableExamples) {
     super(context);
@@ -595,6 +597,26 @@ public class EnunciateJackson1Context extends EnunciateModuleContext implements
     return null;
   }
 
+  /**
+   * Find the potential accessors that have been aggregated for a type.
+   *
+   * @param key The key identifying the type and how its accessors were aggregated.
+   * @return The aggregated accessors, or null if they haven't been aggregated.
+   */
+  public AggregatedAccessors findAggregatedAccessors(AggregatedAccessors.Key key) {
+    return this.aggregatedAccessors.get(key);
+  }
+
+  /**
+   * Cache the potential accessors that have been aggregated for a type.
+   *
+   * @param key       The key identifying the type and how its accessors were aggregated.
+   * @param accessors The aggregated accessors.
+   */
+  public void cacheAggregatedAccessors(AggregatedAccessors.Key key, AggregatedAccessors accessors) {
+    this.aggregatedAccessors.put(key, accessors);
+  }
+
   public boolean isCollapseTypeHierarchy() {
     return collapseTypeHierarchy;
   }
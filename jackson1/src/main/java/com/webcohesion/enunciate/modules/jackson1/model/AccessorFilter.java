@@ -27,6 +27,7 @@ import org.codehaus.jackson.annotate.JsonProperty;
 import javax.lang.model.element.Modifier;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlTransient;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
@@ -205,4 +206,40 @@ public class AccessorFilter {
     return element.getModifiers().contains(Modifier.PUBLIC);
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    AccessorFilter other = (AccessorFilter) o;
+    return this.honorJaxb == other.honorJaxb
+      && this.propertiesToIgnore.equals(other.propertiesToIgnore)
+      && Arrays.equals(getVisibilities(), other.getVisibilities());
+  }
+
+  @Override
+  public int hashCode() {
+    int result = this.honorJaxb ? 1 : 0;
+    result = 31 * result + this.propertiesToIgnore.hashCode();
+    result = 31 * result + Arrays.hashCode(getVisibilities());
+    return result;
+  }
+
+  /**
+   * The settings that determine the visibility of the accessors accepted by this filter.
+   *
+   * @return The settings that determine the visibility of the accessors accepted by this filter.
+   */
+  private Object[] getVisibilities() {
+    if (this.accessType != null) {
+      return new Object[]{this.accessType.fieldVisibility(), this.accessType.getterVisibility(), this.accessType.isGetterVisibility(), this.accessType.setterVisibility()};
+    }
+
+    return new Object[]{this.honorJaxb && this.jaxbAccessorType != null ? this.jaxbAccessorType.value() : null};
+  }
 }
@@ -43,19 +43,14 @@ import com.webcohesion.enunciate.util.freemarker.AnnotationValueMethod;
 import com.webcohesion.enunciate.util.freemarker.ClientPackageForMethod;
 import com.webcohesion.enunciate.util.freemarker.FileDirective;
 import com.webcohesion.enunciate.util.freemarker.IsFacetExcludedMethod;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.core.Environment;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
+import com.webcohesion.enunciate.util.freemarker.TemplateProcessingQueue;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import org.apache.commons.configuration.HierarchicalConfiguration;
 
 import javax.lang.model.element.TypeElement;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import java.io.*;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 
@@ -69,6 +64,7 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
   JacksonModule jacksonModule;
   Jackson1Module jackson1Module;
   JaxrsModule jaxrsModule;
+  private final JavaJSONClientObjectWrapper objectWrapper = new JavaJSONClientObjectWrapper();
 
   /**
    * @return "java-xml"
@@ -193,34 +189,49 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
       try {
         debug("Generating the Java client classes...");
 
-        if (jacksonContext != null) {
-          for (TypeDefinition typeDefinition : jacksonContext.getTypeDefinitions()) {
-            if (facetFilter.accept(typeDefinition)) {
-              if (useServerSide(typeDefinition, matcher)) {
-                copyServerSideType(sourceDir, typeDefinition);
-              }
-              else {
-                model.put("type", typeDefinition);
-                URL template = typeDefinition.isEnum() ? getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
-                processTemplate(template, model);
+        TemplateProcessingQueue queue = new TemplateProcessingQueue(new TemplateProcessingQueue.TemplateProcessor() {
+          @Override
+          public void process(URL templateURL, Map<String, Object> typeModel, Collection<File> outputFiles) throws IOException, TemplateException {
+            processTemplate(templateURL, typeModel, outputFiles);
+          }
+        }, this.enunciate.getExtraThreadCount(), loadBuildCache("client-sources"));
+
+        try {
+          if (jacksonContext != null) {
+            for (TypeDefinition typeDefinition : jacksonContext.getTypeDefinitions()) {
+              if (facetFilter.accept(typeDefinition)) {
+                if (useServerSide(typeDefinition, matcher)) {
+                  copyServerSideType(sourceDir, typeDefinition);
+                }
+                else {
+                  model.put("type", typeDefinition);
+                  URL template = typeDefinition.isEnum() ? getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
+                  queue.submit(template, model, typeDefinition.getQualifiedName().toString(), findSourceHash(typeDefinition));
+                }
               }
             }
           }
-        }
 
-        if (jackson1Context != null) {
-          for (com.webcohesion.enunciate.modules.jackson1.model.TypeDefinition typeDefinition : jackson1Context.getTypeDefinitions()) {
-            if (facetFilter.accept(typeDefinition)) {
-              if (useServerSide(typeDefinition, matcher)) {
-                copyServerSideType(sourceDir, typeDefinition);
-              }
-              else {
-                model.put("type", typeDefinition);
-                URL template = typeDefinition.isEnum() ? getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
-                processTemplate(template, model);
+          if (jackson1Context != null) {
+            for (com.webcohesion.enunciate.modules.jackson1.model.TypeDefinition typeDefinition : jackson1Context.getTypeDefinitions()) {
+              if (facetFilter.accept(typeDefinition)) {
+                if (useServerSide(typeDefinition, matcher)) {
+                  copyServerSideType(sourceDir, typeDefinition);
+                }
+                else {
+                  model.put("type", typeDefinition);
+                  URL template = typeDefinition.isEnum() ? getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
+                  queue.submit(template, model, typeDefinition.getQualifiedName().toString(), findSourceHash(typeDefinition));
+                }
               }
             }
           }
+
+          queue.finish();
+          debug("Skipped %s templates with up-to-date outputs.", queue.getSkippedCount());
+        }
+        finally {
+          queue.close();
         }
       }
       catch (IOException e) {
@@ -262,33 +273,19 @@ public class JavaJSONClientModule extends BasicGeneratingModule implements ApiFe
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(Configuration.VERSION_2_3_22);
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler(new TemplateExceptionHandler() {
-      public void handleTemplateException(TemplateException templateException, Environment environment, Writer writer) throws TemplateException {
-        throw templateException;
-      }
-    });
+    return renderTemplate(templateURL, model, this.objectWrapper, null);
+  }
 
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new JavaJSONClientObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
-    StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
-    unhandledOutput.close();
-    return unhandledOutput.toString();
+  /**
+   * Processes the specified template with the given model, recording the files written by the template.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param outputFiles The collection to which to add the files written by the template, or null.
+   */
+  public String processTemplate(URL templateURL, Object model, Collection<File> outputFiles) throws IOException, TemplateException {
+    debug("Processing template %s.", templateURL);
+    return renderTemplate(templateURL, model, this.objectWrapper, outputFiles);
   }
 
   protected File getServerSideDestFile(File sourceDir, JavaFileObject sourceFile, TypeElement declaration) {
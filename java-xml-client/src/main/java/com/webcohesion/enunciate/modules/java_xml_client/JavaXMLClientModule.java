@@ -43,12 +43,7 @@ import com.webcohesion.enunciate.modules.jaxws.WsdlInfo;
 import com.webcohesion.enunciate.modules.jaxws.model.*;
 import com.webcohesion.enunciate.util.AntPatternMatcher;
 import com.webcohesion.enunciate.util.freemarker.*;
-import freemarker.cache.URLTemplateLoader;
-import freemarker.core.Environment;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import org.apache.commons.configuration.HierarchicalConfiguration;
 
 import javax.lang.model.element.TypeElement;
@@ -56,7 +51,6 @@ import javax.lang.model.type.DeclaredType;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import java.io.*;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 
@@ -70,6 +64,7 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
   JaxbModule jaxbModule;
   JaxwsModule jaxwsModule;
   JaxrsModule jaxrsModule;
+  private final JavaXMLClientObjectWrapper objectWrapper = new JavaXMLClientObjectWrapper();
 
   /**
    * @return "java-xml"
@@ -169,109 +164,124 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
       try {
         debug("Generating the Java client classes...");
 
-        HashMap<String, WebFault> allFaults = new HashMap<String, WebFault>();
-        AntPatternMatcher matcher = new AntPatternMatcher();
-        matcher.setPathSeparator(".");
-
-        if (this.jaxwsModule != null) {
-          Set<String> seeAlsos = new TreeSet<String>();
-          // Process the annotations, the request/response beans, and gather the set of web faults
-          // for each endpoint interface.
-          for (WsdlInfo wsdlInfo : this.jaxwsModule.getJaxwsContext().getWsdls().values()) {
-            for (EndpointInterface ei : wsdlInfo.getEndpointInterfaces()) {
-              if (facetFilter.accept(ei)) {
-                for (WebMethod webMethod : ei.getWebMethods()) {
-                  if (facetFilter.accept(webMethod)) {
-                    for (WebMessage webMessage : webMethod.getMessages()) {
-                      if (webMessage instanceof RequestWrapper) {
-                        model.put("message", webMessage);
-                        processTemplate(getTemplateURL("client-request-bean.fmt"), model);
-                        seeAlsos.add(getBeanName(classnameFor, ((RequestWrapper) webMessage).getRequestBeanName()));
-                      }
-                      else if (webMessage instanceof ResponseWrapper) {
-                        model.put("message", webMessage);
-                        processTemplate(getTemplateURL("client-response-bean.fmt"), model);
-                        seeAlsos.add(getBeanName(classnameFor, ((ResponseWrapper) webMessage).getResponseBeanName()));
-                      }
-                      else if (webMessage instanceof WebFault) {
-                        WebFault fault = (WebFault) webMessage;
-                        allFaults.put(fault.getQualifiedName().toString(), fault);
+        TemplateProcessingQueue queue = new TemplateProcessingQueue(new TemplateProcessingQueue.TemplateProcessor() {
+          @Override
+          public void process(URL templateURL, Map<String, Object> typeModel, Collection<File> outputFiles) throws IOException, TemplateException {
+            processTemplate(templateURL, typeModel, outputFiles);
+          }
+        }, this.enunciate.getExtraThreadCount(), loadBuildCache("client-sources"));
+
+        try {
+          HashMap<String, WebFault> allFaults = new HashMap<String, WebFault>();
+          AntPatternMatcher matcher = new AntPatternMatcher();
+          matcher.setPathSeparator(".");
+
+          if (this.jaxwsModule != null) {
+            Set<String> seeAlsos = new TreeSet<String>();
+            // Process the annotations, the request/response beans, and gather the set of web faults
+            // for each endpoint interface.
+            for (WsdlInfo wsdlInfo : this.jaxwsModule.getJaxwsContext().getWsdls().values()) {
+              for (EndpointInterface ei : wsdlInfo.getEndpointInterfaces()) {
+                if (facetFilter.accept(ei)) {
+                  for (WebMethod webMethod : ei.getWebMethods()) {
+                    if (facetFilter.accept(webMethod)) {
+                      for (WebMessage webMessage : webMethod.getMessages()) {
+                        if (webMessage instanceof RequestWrapper) {
+                          model.put("message", webMessage);
+                          queue.submit(getTemplateURL("client-request-bean.fmt"), model);
+                          seeAlsos.add(getBeanName(classnameFor, ((RequestWrapper) webMessage).getRequestBeanName()));
+                        }
+                        else if (webMessage instanceof ResponseWrapper) {
+                          model.put("message", webMessage);
+                          queue.submit(getTemplateURL("client-response-bean.fmt"), model);
+                          seeAlsos.add(getBeanName(classnameFor, ((ResponseWrapper) webMessage).getResponseBeanName()));
+                        }
+                        else if (webMessage instanceof WebFault) {
+                          WebFault fault = (WebFault) webMessage;
+                          allFaults.put(fault.getQualifiedName().toString(), fault);
+                        }
                       }
                     }
                   }
                 }
               }
             }
-          }
 
-          //gather the annotation information and process the possible beans for each web fault.
-          for (WebFault webFault : allFaults.values()) {
-            boolean implicit = webFault.isImplicitSchemaElement();
-            String faultBean = implicit ? getBeanName(classnameFor, webFault.getImplicitFaultBeanQualifiedName()) : classnameFor.convert(webFault.getExplicitFaultBeanType());
-            seeAlsos.add(faultBean);
+            //gather the annotation information and process the possible beans for each web fault.
+            for (WebFault webFault : allFaults.values()) {
+              boolean implicit = webFault.isImplicitSchemaElement();
+              String faultBean = implicit ? getBeanName(classnameFor, webFault.getImplicitFaultBeanQualifiedName()) : classnameFor.convert(webFault.getExplicitFaultBeanType());
+              seeAlsos.add(faultBean);
 
-            if (implicit) {
-              model.put("fault", webFault);
-              processTemplate(getTemplateURL("client-fault-bean.fmt"), model);
+              if (implicit) {
+                model.put("fault", webFault);
+                queue.submit(getTemplateURL("client-fault-bean.fmt"), model);
+              }
             }
-          }
 
-          model.put("seeAlsoBeans", seeAlsos);
-          model.put("baseUri", this.enunciate.getConfiguration().getApplicationRoot());
-          for (WsdlInfo wsdlInfo : this.jaxwsModule.getJaxwsContext().getWsdls().values()) {
-            if (wsdlInfo.getWsdlFile() == null) {
-              throw new EnunciateException("WSDL " + wsdlInfo.getId() + " doesn't have a filename.");
-            }
+            model.put("seeAlsoBeans", seeAlsos);
+            model.put("baseUri", this.enunciate.getConfiguration().getApplicationRoot());
+            for (WsdlInfo wsdlInfo : this.jaxwsModule.getJaxwsContext().getWsdls().values()) {
+              if (wsdlInfo.getWsdlFile() == null) {
+                throw new EnunciateException("WSDL " + wsdlInfo.getId() + " doesn't have a filename.");
+              }
 
-            for (EndpointInterface ei : wsdlInfo.getEndpointInterfaces()) {
-              if (facetFilter.accept(ei)) {
-                model.put("endpointInterface", ei);
-                model.put("wsdlFileName", wsdlInfo.getFilename());
+              for (EndpointInterface ei : wsdlInfo.getEndpointInterfaces()) {
+                if (facetFilter.accept(ei)) {
+                  model.put("endpointInterface", ei);
+                  model.put("wsdlFileName", wsdlInfo.getFilename());
 
-                processTemplate(getTemplateURL("client-endpoint-interface.fmt"), model);
-                processTemplate(getTemplateURL("client-soap-endpoint-impl.fmt"), model);
+                  queue.submit(getTemplateURL("client-endpoint-interface.fmt"), model);
+                  queue.submit(getTemplateURL("client-soap-endpoint-impl.fmt"), model);
+                }
               }
             }
-          }
 
-          for (WebFault webFault : allFaults.values()) {
-            if (useServerSide(webFault, matcher)) {
-              copyServerSideType(sourceDir, webFault);
-            }
-            else {
-              TypeElement superFault = (TypeElement) ((DeclaredType)webFault.getSuperclass()).asElement();
-              if (superFault != null && allFaults.containsKey(superFault.getQualifiedName().toString()) && allFaults.get(superFault.getQualifiedName().toString()).isImplicitSchemaElement()) {
-                model.put("superFault", allFaults.get(superFault.getQualifiedName().toString()));
+            for (WebFault webFault : allFaults.values()) {
+              if (useServerSide(webFault, matcher)) {
+                copyServerSideType(sourceDir, webFault);
               }
               else {
-                model.remove("superFault");
-              }
+                TypeElement superFault = (TypeElement) ((DeclaredType)webFault.getSuperclass()).asElement();
+                if (superFault != null && allFaults.containsKey(superFault.getQualifiedName().toString()) && allFaults.get(superFault.getQualifiedName().toString()).isImplicitSchemaElement()) {
+                  model.put("superFault", allFaults.get(superFault.getQualifiedName().toString()));
+                }
+                else {
+                  model.remove("superFault");
+                }
 
-              model.put("fault", webFault);
-              processTemplate(getTemplateURL("client-web-fault.fmt"), model);
+                model.put("fault", webFault);
+                queue.submit(getTemplateURL("client-web-fault.fmt"), model);
+              }
             }
           }
-        }
 
-        for (SchemaInfo schemaInfo : this.jaxbModule.getJaxbContext().getSchemas().values()) {
-          for (TypeDefinition typeDefinition : schemaInfo.getTypeDefinitions()) {
-            if (facetFilter.accept(typeDefinition)) {
-              if (useServerSide(typeDefinition, matcher)) {
-                copyServerSideType(sourceDir, typeDefinition);
-              }
-              else {
-                model.put("rootEl", this.jaxbModule.getJaxbContext().findElementDeclaration(typeDefinition));
-                model.put("type", typeDefinition);
-                URL template = typeDefinition.isEnum() ? typeDefinition instanceof QNameEnumTypeDefinition ? getTemplateURL("client-qname-enum-type.fmt") : getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
-                processTemplate(template, model);
+          for (SchemaInfo schemaInfo : this.jaxbModule.getJaxbContext().getSchemas().values()) {
+            for (TypeDefinition typeDefinition : schemaInfo.getTypeDefinitions()) {
+              if (facetFilter.accept(typeDefinition)) {
+                if (useServerSide(typeDefinition, matcher)) {
+                  copyServerSideType(sourceDir, typeDefinition);
+                }
+                else {
+                  model.put("rootEl", this.jaxbModule.getJaxbContext().findElementDeclaration(typeDefinition));
+                  model.put("type", typeDefinition);
+                  URL template = typeDefinition.isEnum() ? typeDefinition instanceof QNameEnumTypeDefinition ? getTemplateURL("client-qname-enum-type.fmt") : getTemplateURL("client-enum-type.fmt") : typeDefinition.isSimple() ? getTemplateURL("client-simple-type.fmt") : getTemplateURL("client-complex-type.fmt");
+                  queue.submit(template, model, typeDefinition.getQualifiedName().toString(), findSourceHash(typeDefinition));
+                }
               }
             }
-          }
 
-          for (Registry registry : schemaInfo.getRegistries()) {
-            model.put("registry", registry);
-            processTemplate(getTemplateURL("client-registry.fmt"), model);
+            for (Registry registry : schemaInfo.getRegistries()) {
+              model.put("registry", registry);
+              queue.submit(getTemplateURL("client-registry.fmt"), model, registry.getQualifiedName().toString(), findSourceHash(registry));
+            }
           }
+
+          queue.finish();
+          debug("Skipped %s templates with up-to-date outputs.", queue.getSkippedCount());
+        }
+        finally {
+          queue.close();
         }
       }
       catch (IOException e) {
@@ -313,33 +323,19 @@ public class JavaXMLClientModule extends BasicGeneratingModule implements ApiFea
    */
   public String processTemplate(URL templateURL, Object model) throws IOException, TemplateException {
     debug("Processing template %s.", templateURL);
-    Configuration configuration = new Configuration(Configuration.VERSION_2_3_22);
-
-    configuration.setTemplateLoader(new URLTemplateLoader() {
-      protected URL getURL(String name) {
-        try {
-          return new URL(name);
-        }
-        catch (MalformedURLException e) {
-          return null;
-        }
-      }
-    });
-
-    configuration.setTemplateExceptionHandler(new TemplateExceptionHandler() {
-      public void handleTemplateException(TemplateException templateException, Environment environment, Writer writer) throws TemplateException {
-        throw templateException;
-      }
-    });
+    return renderTemplate(templateURL, model, this.objectWrapper, null);
+  }
 
-    configuration.setLocalizedLookup(false);
-    configuration.setDefaultEncoding("UTF-8");
-    configuration.setObjectWrapper(new JavaXMLClientObjectWrapper());
-    Template template = configuration.getTemplate(templateURL.toString());
-    StringWriter unhandledOutput = new StringWriter();
-    template.process(model, unhandledOutput);
-    unhandledOutput.close();
-    return unhandledOutput.toString();
+  /**
+   * Processes the specified template with the given model, recording the files written by the template.
+   *
+   * @param templateURL The template URL.
+   * @param model       The root model.
+   * @param outputFiles The collection to which to add the files written by the template, or null.
+   */
+  public String processTemplate(URL templateURL, Object model, Collection<File> outputFiles) throws IOException, TemplateException {
+    debug("Processing template %s.", templateURL);
+    return renderTemplate(templateURL, model, this.objectWrapper, outputFiles);
   }
 
   protected File getServerSideDestFile(File sourceDir, JavaFileObject sourceFile, TypeElement declaration) {
@@ -73,14 +73,7 @@ public class DecoratedElements implements Elements {
       e = ((DecoratedElement) e).getDelegate();
     }
 
-    String docComment;
-    if (e instanceof ElementAdaptor) {
-      docComment = ((ElementAdaptor) e).getDocComment();
-    }
-    else {
-      docComment = delegate.getDocComment(e);
-    }
-
+    String docComment = findDocComment(e);
     if (docComment == null || docComment.trim().isEmpty() || docComment.contains("{@inheritDoc}")) {
       //look for inherited doc comments.
       docComment = findInheritedDocComment(e);
@@ -89,6 +82,25 @@ public class DecoratedElements implements Elements {
     return docComment;
   }
 
+  /**
+   * Find the doc comment of an (undecorated) element: from the source, or for elements that are only available on the
+   * classpath, from the javadoc indexes of the source jars.
+   *
+   * @param e The element.
+   * @return The doc comment.
+   */
+  private String findDocComment(Element e) {
+    if (e instanceof ElementAdaptor) {
+      return ((ElementAdaptor) e).getDocComment();
+    }
+
+    String docComment = delegate.getDocComment(e);
+    if (docComment == null) {
+      docComment = this.env.findIndexedDocComment(e);
+    }
+    return docComment;
+  }
+
   private String findInheritedDocComment(Element e) {
     //algorithm defined per http://docs.oracle.com/javase/6/docs/technotes/tools/solaris/javadoc.html#inheritingcomments
     while (e instanceof DecoratedElement) {
@@ -101,7 +113,7 @@ public class DecoratedElements implements Elements {
       for (TypeMirror iface : interfaces) {
         Element el = iface instanceof DeclaredType ? ((DeclaredType)iface).asElement() : null;
         if (el != null) {
-          String docComment = el instanceof ElementAdaptor ? ((ElementAdaptor)el).getDocComment() : delegate.getDocComment(el);
+          String docComment = findDocComment(el);
           if (docComment != null && !docComment.trim().isEmpty()) {
             return docComment;
           }
@@ -127,7 +139,7 @@ public class DecoratedElements implements Elements {
             List<ExecutableElement> methods = ElementFilter.methodsIn(superType.getEnclosedElements());
             for (ExecutableElement candidate : methods) {
               if (overrides((ExecutableElement) e, candidate, typeElement)) {
-                String docComment = candidate instanceof ElementAdaptor ? ((ElementAdaptor)candidate).getDocComment() : delegate.getDocComment(candidate);
+                String docComment = findDocComment(candidate);
                 if (docComment != null && !docComment.trim().isEmpty()) {
                   return docComment;
                 }
@@ -143,7 +155,7 @@ public class DecoratedElements implements Elements {
             List<ExecutableElement> methods = ElementFilter.methodsIn(superType.getEnclosedElements());
             for (ExecutableElement candidate : methods) {
               if (overrides((ExecutableElement) e, candidate, typeElement)) {
-                String docComment = candidate instanceof ElementAdaptor ? ((ElementAdaptor)candidate).getDocComment() : delegate.getDocComment(candidate);
+                String docComment = findDocComment(candidate);
                 if (docComment != null && !docComment.trim().isEmpty()) {
                   return docComment;
                 }
@@ -21,22 +21,30 @@ import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 import com.webcohesion.enunciate.javac.decorations.adaptors.ElementAdaptor;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedElement;
+import com.webcohesion.enunciate.javac.decorations.type.DecoratedTypeMirror;
+import com.webcohesion.enunciate.javac.javadoc.JavaDoc;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocIndex;
+import com.webcohesion.enunciate.javac.javadoc.JavaDocTagHandler;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Ryan Heaton
  */
+@SuppressWarnings("unchecked")
 public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
 
   private final ProcessingEnvironment delegate;
@@ -45,6 +53,14 @@ public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
   private final List<ElementDecoration> elementDecorations;
   private final List<TypeMirrorDecoration> typeMirrorDecorations;
   private final List<AnnotationMirrorDecoration> annotationMirrorDecorations;
+  private final ConcurrentMap<ElementKey, Element> decoratedElements = new ConcurrentHashMap<ElementKey, Element>();
+  private final ConcurrentMap<JavaDocKey, JavaDoc> parsedJavaDocs = new ConcurrentHashMap<JavaDocKey, JavaDoc>();
+  private final ConcurrentMap<String, Set<String>> supertypeClosures = new ConcurrentHashMap<String, Set<String>>();
+  private final ConcurrentMap<String, TypeMirror> typeMirrors = new ConcurrentHashMap<String, TypeMirror>();
+  private volatile List<JavaDocIndex> javaDocIndexes = Collections.emptyList();
+  private volatile boolean decorationCacheEnabled = true;
+  private Elements elementUtils;
+  private Types typeUtils;
 
   public DecoratedProcessingEnvironment(ProcessingEnvironment delegate, List<ElementDecoration> elementDecorations, List<TypeMirrorDecoration> typeMirrorDecorations, List<AnnotationMirrorDecoration> annotationMirrorDecorations) {
     this.elementDecorations = elementDecorations;
@@ -74,12 +90,22 @@ public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
 
   @Override
   public Elements getElementUtils() {
-    return new DecoratedElements(delegate.getElementUtils(), this);
+    Elements elementUtils = this.elementUtils;
+    if (elementUtils == null) {
+      elementUtils = new DecoratedElements(delegate.getElementUtils(), this);
+      this.elementUtils = elementUtils;
+    }
+    return elementUtils;
   }
 
   @Override
   public Types getTypeUtils() {
-    return new DecoratedTypes(delegate.getTypeUtils(), this);
+    Types typeUtils = this.typeUtils;
+    if (typeUtils == null) {
+      typeUtils = new DecoratedTypes(delegate.getTypeUtils(), this);
+      this.typeUtils = typeUtils;
+    }
+    return typeUtils;
   }
 
   @Override
@@ -100,6 +126,199 @@ public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
     this.properties.put(property, value);
   }
 
+  /**
+   * Whether decorated elements are cached so that each element is decorated only once.
+   *
+   * @return Whether decorated elements are cached.
+   */
+  public boolean isDecorationCacheEnabled() {
+    return decorationCacheEnabled;
+  }
+
+  /**
+   * Whether decorated elements are cached so that each element is decorated only once.
+   *
+   * @param decorationCacheEnabled Whether decorated elements are cached.
+   */
+  public void setDecorationCacheEnabled(boolean decorationCacheEnabled) {
+    this.decorationCacheEnabled = decorationCacheEnabled;
+    if (!decorationCacheEnabled) {
+      clearDecorationCache();
+    }
+  }
+
+  /**
+   * Clear the cache of decorated elements, parsed javadocs, supertype closures and type mirrors.
+   */
+  public void clearDecorationCache() {
+    this.decoratedElements.clear();
+    this.parsedJavaDocs.clear();
+    this.supertypeClosures.clear();
+    this.typeMirrors.clear();
+  }
+
+  /**
+   * Look up a type mirror that was cached (until the decoration cache is cleared). The cached mirror is undecorated, so
+   * callers decorate their own copy.
+   *
+   * @param key The key of the mirror.
+   * @return The undecorated type mirror, or null if none is cached.
+   */
+  public TypeMirror getCachedTypeMirror(String key) {
+    return this.typeMirrors.get(key);
+  }
+
+  /**
+   * Cache a type mirror (until the decoration cache is cleared). Only the undecorated mirror is cached.
+   *
+   * @param key    The key of the mirror.
+   * @param mirror The type mirror.
+   */
+  public void cacheTypeMirror(String key, TypeMirror mirror) {
+    while (mirror instanceof DecoratedTypeMirror) {
+      mirror = ((DecoratedTypeMirror) mirror).getDelegate();
+    }
+
+    if (mirror != null && this.decorationCacheEnabled) {
+      this.typeMirrors.put(key, mirror);
+    }
+  }
+
+  /**
+   * Find the qualified names of all the supertypes of the erasure of the specified type, including the type itself. The
+   * closure of each type is computed once (until the decoration cache is cleared), so that checking whether a type is
+   * assignable to a raw type is a lookup.
+   *
+   * @param type The type.
+   * @return The supertype closure, or null if the type isn't a declared type or if some of its supertypes can't be resolved.
+   */
+  public Set<String> findSupertypeClosure(TypeMirror type) {
+    while (type instanceof DecoratedTypeMirror) {
+      type = ((DecoratedTypeMirror) type).getDelegate();
+    }
+
+    if (type == null || type.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    if (name.isEmpty()) {
+      //local and anonymous classes have no qualified name to index.
+      return null;
+    }
+
+    Set<String> closure = this.supertypeClosures.get(name);
+    if (closure == null) {
+      Set<String> names = new HashSet<String>();
+      names.add(name);
+      Types types = this.delegate.getTypeUtils();
+      for (TypeMirror supertype : types.directSupertypes(types.erasure(type))) {
+        Set<String> supertypeClosure = findSupertypeClosure(supertype);
+        if (supertypeClosure == null) {
+          //an unresolvable supertype; we don't know the whole hierarchy.
+          names = Collections.emptySet();
+          break;
+        }
+        names.addAll(supertypeClosure);
+      }
+      closure = names.isEmpty() ? names : Collections.unmodifiableSet(names);
+      this.supertypeClosures.putIfAbsent(name, closure);
+    }
+
+    return closure.isEmpty() ? null : closure;
+  }
+
+  /**
+   * Parse the specified doc comment. Each doc comment is parsed once per tag handler, so that the elements (and all the
+   * decorations of an element) that share a doc comment share its parse. The cached javadoc is never handed out; each
+   * caller gets its own copy, which it may modify.
+   *
+   * @param docComment The doc comment.
+   * @param tagHandler The tag handler.
+   * @return The javadoc.
+   */
+  public JavaDoc parseJavaDoc(String docComment, JavaDocTagHandler tagHandler) {
+    JavaDocKey key = new JavaDocKey(docComment, tagHandler);
+    JavaDoc parsed = this.parsedJavaDocs.get(key);
+    if (parsed == null) {
+      parsed = new JavaDoc(docComment, tagHandler);
+      this.parsedJavaDocs.putIfAbsent(key, parsed);
+    }
+    return new JavaDoc(parsed);
+  }
+
+  /**
+   * The indexes of the doc comments of the source jars, used to look up the doc comments of the elements that are
+   * only available on the classpath.
+   *
+   * @return The javadoc indexes.
+   */
+  public List<JavaDocIndex> getJavaDocIndexes() {
+    return javaDocIndexes;
+  }
+
+  /**
+   * The indexes of the doc comments of the source jars, used to look up the doc comments of the elements that are
+   * only available on the classpath.
+   *
+   * @param javaDocIndexes The javadoc indexes.
+   */
+  public void setJavaDocIndexes(List<JavaDocIndex> javaDocIndexes) {
+    this.javaDocIndexes = javaDocIndexes == null ? Collections.<JavaDocIndex>emptyList() : new ArrayList<JavaDocIndex>(javaDocIndexes);
+  }
+
+  /**
+   * Look up the doc comment of the specified element in the javadoc indexes.
+   *
+   * @param element The (undecorated) element.
+   * @return The indexed doc comment, or null if the element isn't indexed.
+   */
+  public String findIndexedDocComment(Element element) {
+    List<JavaDocIndex> indexes = this.javaDocIndexes;
+    if (indexes.isEmpty()) {
+      return null;
+    }
+
+    String key = JavaDocIndex.keyOf(element);
+    if (key == null) {
+      return null;
+    }
+
+    for (JavaDocIndex index : indexes) {
+      String docComment = index.lookup(key);
+      if (docComment != null) {
+        return docComment;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Find the cached decoration of the specified element.
+   *
+   * @param element The (undecorated) element.
+   * @return The cached decoration, or null if the element hasn't been decorated or the cache isn't enabled.
+   */
+  public <E extends Element> E findDecoratedElement(E element) {
+    return this.decorationCacheEnabled ? (E) this.decoratedElements.get(new ElementKey(element)) : null;
+  }
+
+  /**
+   * Cache the decoration of the specified element.
+   *
+   * @param element   The (undecorated) element.
+   * @param decorated The decoration.
+   * @return The decoration to use, which is a previously-cached decoration if another thread got there first.
+   */
+  public <E extends Element> E cacheDecoratedElement(E element, E decorated) {
+    if (!this.decorationCacheEnabled || decorated == null) {
+      return decorated;
+    }
+
+    Element existing = this.decoratedElements.putIfAbsent(new ElementKey(element), decorated);
+    return existing == null ? decorated : (E) existing;
+  }
+
   public SourcePosition findSourcePosition(Element element) {
     while (element instanceof DecoratedElement) {
       element = ((DecoratedElement) element).getDelegate();
@@ -134,4 +353,55 @@ public class DecoratedProcessingEnvironment implements ProcessingEnvironment {
   public List<AnnotationMirrorDecoration> getAnnotationMirrorDecorations() {
     return annotationMirrorDecorations;
   }
+
+  /**
+   * Key for a parsed javadoc: the doc comment and the (identity of the) tag handler.
+   */
+  private static final class JavaDocKey {
+
+    private final String docComment;
+    private final JavaDocTagHandler tagHandler;
+
+    private JavaDocKey(String docComment, JavaDocTagHandler tagHandler) {
+      this.docComment = docComment;
+      this.tagHandler = tagHandler;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof JavaDocKey)) {
+        return false;
+      }
+
+      JavaDocKey other = (JavaDocKey) o;
+      return other.tagHandler == this.tagHandler && (this.docComment == null ? other.docComment == null : this.docComment.equals(other.docComment));
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(this.tagHandler) + (this.docComment == null ? 0 : this.docComment.hashCode());
+    }
+  }
+
+  /**
+   * Identity-based key for an element (elements don't necessarily define equality by identity).
+   */
+  private static final class ElementKey {
+
+    private final Element element;
+
+    private ElementKey(Element element) {
+      this.element = element;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof ElementKey && ((ElementKey) o).element == this.element;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(this.element);
+    }
+  }
 }
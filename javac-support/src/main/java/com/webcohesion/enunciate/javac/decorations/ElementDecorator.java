@@ -53,8 +53,12 @@ public class ElementDecorator<E extends Element> extends SimpleElementVisitor6<E
       return element;
     }
 
-    ElementDecorator<E> decorator = new ElementDecorator<E>(env);
-    return element.accept(decorator, null);
+    E decorated = env.findDecoratedElement(element);
+    if (decorated == null) {
+      ElementDecorator<E> decorator = new ElementDecorator<E>(env);
+      decorated = env.cacheDecoratedElement(element, element.accept(decorator, null));
+    }
+    return decorated;
   }
 
   /**
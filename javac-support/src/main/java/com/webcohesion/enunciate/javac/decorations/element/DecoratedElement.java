@@ -28,10 +28,14 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
 import java.lang.annotation.Annotation;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @SuppressWarnings("unchecked")
 public class DecoratedElement<E extends Element> implements Element {
 
+  private static final Object NO_ANNOTATION = new Object();
+
   protected final E delegate;
   protected final DecoratedProcessingEnvironment env;
   private JavaDoc javaDoc;
@@ -40,6 +44,7 @@ public class DecoratedElement<E extends Element> implements Element {
   private List<? extends Element> enclosedElements;
   private List<AnnotationMirror> annotationMirrors;
   private Map<String, AnnotationMirror> annotations = null;
+  private volatile ConcurrentMap<Class<?>, Object> annotationLookups;
 
   public DecoratedElement(E delegate, DecoratedProcessingEnvironment env) {
     this.delegate = delegate;
@@ -53,7 +58,7 @@ public class DecoratedElement<E extends Element> implements Element {
   }
 
   protected JavaDoc constructJavaDoc(String docComment, JavaDocTagHandler tagHandler) {
-    return new JavaDoc(docComment, tagHandler);
+    return this.env.parseJavaDoc(docComment, tagHandler);
   }
 
   /**
@@ -254,7 +259,41 @@ public class DecoratedElement<E extends Element> implements Element {
     return this.annotationMirrors;
   }
 
+  /**
+   * Gets the annotation of the specified type. The result (including the absence of the annotation) is memoized, so
+   * each annotation proxy is only created once per element.
+   *
+   * @param annotationType The annotation type.
+   * @return The annotation, or null if the element isn't annotated with it.
+   */
   public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+    ConcurrentMap<Class<?>, Object> lookups = this.annotationLookups;
+    if (lookups == null) {
+      synchronized (this) {
+        lookups = this.annotationLookups;
+        if (lookups == null) {
+          lookups = new ConcurrentHashMap<Class<?>, Object>(4);
+          this.annotationLookups = lookups;
+        }
+      }
+    }
+
+    Object annotation = lookups.get(annotationType);
+    if (annotation == null) {
+      annotation = findAnnotation(annotationType);
+      lookups.put(annotationType, annotation == null ? NO_ANNOTATION : annotation);
+    }
+
+    return annotation == NO_ANNOTATION ? null : annotationType.cast(annotation);
+  }
+
+  /**
+   * Looks up the annotation of the specified type (see {@link #getAnnotation(Class)}).
+   *
+   * @param annotationType The annotation type.
+   * @return The annotation, or null if the element isn't annotated with it.
+   */
+  protected <A extends Annotation> A findAnnotation(Class<A> annotationType) {
     return this.delegate.getAnnotation(annotationType);
   }
 
@@ -141,8 +141,9 @@ public class DecoratedTypeElement extends DecoratedElement<TypeElement> implemen
   }
 
   @Override
-  public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
-    A annotation = super.getAnnotation(annotationType);
+  protected <A extends Annotation> A findAnnotation(Class<A> annotationType) {
+    //the superclass memoizes its own lookups, so inherited annotations are only resolved once per type.
+    A annotation = super.findAnnotation(annotationType);
 
     if (isClass() && (annotation == null) && (annotationType.getAnnotation(Inherited.class) != null) && (getSuperclass() instanceof DeclaredType)) {
       TypeElement superDecl = (TypeElement) ((DeclaredType) getSuperclass()).asElement();
@@ -20,10 +20,12 @@ import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecoration;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVisitor;
+import java.util.Set;
 
 @SuppressWarnings ( "unchecked" )
 public class DecoratedTypeMirror<T extends TypeMirror> implements TypeMirror {
@@ -81,12 +83,44 @@ public class DecoratedTypeMirror<T extends TypeMirror> implements TypeMirror {
   }
 
   public boolean isInstanceOf(TypeMirror candidate) {
-    return candidate != null &&
-      getKind() != TypeKind.EXECUTABLE &&
-      getKind() != TypeKind.PACKAGE &&
-      candidate.getKind() != TypeKind.EXECUTABLE &&
-      candidate.getKind() != TypeKind.PACKAGE &&
-      this.env.getTypeUtils().isAssignable(this.delegate, candidate);
+    if (candidate == null ||
+      getKind() == TypeKind.EXECUTABLE ||
+      getKind() == TypeKind.PACKAGE ||
+      candidate.getKind() == TypeKind.EXECUTABLE ||
+      candidate.getKind() == TypeKind.PACKAGE) {
+      return false;
+    }
+
+    String rawName = isDeclared() ? findRawTypeName(candidate) : null;
+    if (rawName != null) {
+      //a declared type is assignable to a raw type iff the raw type is one of its supertypes.
+      Set<String> supertypes = this.env.findSupertypeClosure(this.delegate);
+      if (supertypes != null) {
+        return supertypes.contains(rawName);
+      }
+    }
+
+    return this.env.getTypeUtils().isAssignable(this.delegate, candidate);
+  }
+
+  /**
+   * The qualified name of the specified type if it's a raw (or non-generic) top-level or static declared type.
+   *
+   * @param type The type.
+   * @return The qualified name, or null if the type isn't a raw top-level or static declared type.
+   */
+  private static String findRawTypeName(TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    DeclaredType declaredType = (DeclaredType) type;
+    if (!declaredType.getTypeArguments().isEmpty() || declaredType.getEnclosingType().getKind() != TypeKind.NONE) {
+      return null;
+    }
+
+    String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+    return name.isEmpty() ? null : name;
   }
 
   public boolean isAnnotation() {
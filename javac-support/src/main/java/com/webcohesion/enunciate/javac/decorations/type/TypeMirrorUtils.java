@@ -16,6 +16,7 @@
 package com.webcohesion.enunciate.javac.decorations.type;
 
 import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecorator;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Name;
@@ -46,11 +47,23 @@ public class TypeMirrorUtils {
       return (DecoratedTypeMirror) env.getTypeUtils().getPrimitiveType(TypeKind.valueOf(clazz.getName().toUpperCase()));
     }
     else {
+      DecoratedProcessingEnvironment decoratedEnv = env instanceof DecoratedProcessingEnvironment ? (DecoratedProcessingEnvironment) env : null;
+      String key = classMirrorKey(clazz);
+      TypeMirror cached = decoratedEnv == null ? null : decoratedEnv.getCachedTypeMirror(key);
+      if (cached != null) {
+        return (DecoratedTypeMirror) TypeMirrorDecorator.decorate(cached, decoratedEnv);
+      }
+
       TypeElement element = env.getElementUtils().getTypeElement(clazz.getCanonicalName());
       if (element == null) {
         throw new IllegalStateException("Unable to find mirror for " + clazz.getCanonicalName());
       }
-      return (DecoratedTypeMirror) element.asType();
+
+      DecoratedTypeMirror mirror = (DecoratedTypeMirror) element.asType();
+      if (decoratedEnv != null) {
+        decoratedEnv.cacheTypeMirror(key, mirror);
+      }
+      return mirror;
     }
   }
 
@@ -80,7 +93,7 @@ public class TypeMirrorUtils {
     DecoratedDeclaredType collectionType = (DecoratedDeclaredType) env.getProperty(COLLECTION_TYPE_ERASURE_PROPERTY);
     if (collectionType == null) {
       collectionType = (DecoratedDeclaredType) env.getTypeUtils().erasure(collectionType(env));
-      env.setProperty(COLLECTION_TYPE_PROPERTY, collectionType);
+      env.setProperty(COLLECTION_TYPE_ERASURE_PROPERTY, collectionType);
     }
     return collectionType;
   }
@@ -98,7 +111,7 @@ public class TypeMirrorUtils {
     DecoratedDeclaredType listType = (DecoratedDeclaredType) env.getProperty(LIST_TYPE_ERASURE_PROPERTY);
     if (listType == null) {
       listType = (DecoratedDeclaredType) env.getTypeUtils().erasure(listType(env));
-      env.setProperty(LIST_TYPE_PROPERTY, listType);
+      env.setProperty(LIST_TYPE_ERASURE_PROPERTY, listType);
     }
     return listType;
   }
@@ -129,11 +142,23 @@ public class TypeMirrorUtils {
   }
 
   private static DecoratedTypeMirror mirrorOf(String typeName, DecoratedProcessingEnvironment env, boolean inArray) {
-    DecoratedTypeMirror cached = (DecoratedTypeMirror) env.getProperty(mirrorKey(typeName));
+    if (inArray) {
+      //binary names of array components (e.g. "I" or "Ljava.lang.String;") aren't cached as they'd collide with type names.
+      return loadMirror(typeName, env, true);
+    }
+
+    String key = mirrorKey(typeName);
+    TypeMirror cached = env.getCachedTypeMirror(key);
     if (cached != null) {
-      return cached;
+      return (DecoratedTypeMirror) TypeMirrorDecorator.decorate(cached, env);
     }
 
+    DecoratedTypeMirror mirror = loadMirror(typeName, env, false);
+    env.cacheTypeMirror(key, mirror);
+    return mirror;
+  }
+
+  private static DecoratedTypeMirror loadMirror(String typeName, DecoratedProcessingEnvironment env, boolean inArray) {
     if (typeName.startsWith("[")) {
       return (DecoratedTypeMirror) env.getTypeUtils().getArrayType(mirrorOf(typeName.substring(1), env, true));
     }
@@ -143,7 +168,7 @@ public class TypeMirrorUtils {
     else if (inArray) {
       char firstChar = typeName.charAt(0);
       if (firstChar == 'L' && typeName.endsWith(";")) {
-        return mirrorOf(typeName.substring(1, typeName.length() - 2), env, false);
+        return mirrorOf(typeName.substring(1, typeName.length() - 1), env, false);
       }
 
       switch (firstChar) {
@@ -187,6 +212,10 @@ public class TypeMirrorUtils {
     return "com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#MIRROR_OF_" + typeName;
   }
 
+  private static String classMirrorKey(Class<?> clazz) {
+    return "com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils#MIRROR_OF_CLASS_" + clazz.getName();
+  }
+
   public static DecoratedTypeMirror getComponentType(DecoratedTypeMirror typeMirror, DecoratedProcessingEnvironment env) {
     if (typeMirror.isCollection()) {
       List<? extends TypeMirror> itemTypes = ((DeclaredType) typeMirror).getTypeArguments();
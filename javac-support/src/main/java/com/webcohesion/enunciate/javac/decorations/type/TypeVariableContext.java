@@ -15,8 +15,10 @@
  */
 package com.webcohesion.enunciate.javac.decorations.type;
 
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecorator;
+
 import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.type.DeclaredType;
@@ -24,9 +26,17 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * A stack of type parameters and the type arguments they are bound to, used to resolve the type variables of a
+ * signature. Each context indexes its type parameters by name and remembers the types it has resolved, so that a
+ * signature shared by many members of a generic hierarchy is resolved once per context.
+ *
  * @author Ryan Heaton
  */
 public class TypeVariableContext {
@@ -34,6 +44,8 @@ public class TypeVariableContext {
   private final TypeVariableContext stack;
   private final List<? extends TypeParameterElement> params;
   private final List<? extends TypeMirror> variables;
+  private final Map<String, Integer> paramIndexes;
+  private final ConcurrentMap<ResolutionKey, Resolution> resolved = new ConcurrentHashMap<ResolutionKey, Resolution>();
 
   public TypeVariableContext() {
     this(null, new ArrayList<TypeParameterElement>(), new ArrayList<TypeMirror>());
@@ -43,6 +55,11 @@ public class TypeVariableContext {
     this.stack = stack;
     this.params = params;
     this.variables = variables;
+    this.paramIndexes = new HashMap<String, Integer>(params.size() * 2);
+    for (int i = params.size() - 1; i >= 0; i--) {
+      //iterate backwards so that the first parameter with a given name wins.
+      this.paramIndexes.put(params.get(i).getSimpleName().toString(), i);
+    }
   }
 
   public TypeVariableContext push(List<? extends TypeParameterElement> params, List<? extends TypeMirror> variables) {
@@ -50,6 +67,30 @@ public class TypeVariableContext {
   }
 
   public TypeMirror resolveTypeVariables(TypeMirror var, ProcessingEnvironment env) {
+    TypeKind kind = var.getKind();
+    if (kind != TypeKind.TYPEVAR && kind != TypeKind.DECLARED) {
+      //nothing to resolve.
+      return var;
+    }
+
+    ResolutionKey key = new ResolutionKey(var, env);
+    Resolution resolution = this.resolved.get(key);
+    if (resolution == null) {
+      resolution = new Resolution(doResolveTypeVariables(var, env));
+      Resolution existing = this.resolved.putIfAbsent(key, resolution);
+      if (existing != null) {
+        resolution = existing;
+      }
+    }
+
+    if (resolution.env != null) {
+      //decorated mirrors are mutable (e.g. their doc comments), so each caller gets its own decoration.
+      return TypeMirrorDecorator.decorate(resolution.type, resolution.env);
+    }
+    return resolution.type;
+  }
+
+  private TypeMirror doResolveTypeVariables(TypeMirror var, ProcessingEnvironment env) {
     TypeMirror resolved = resolveTypeVariable(var);
 
     if (resolved.getKind() == TypeKind.DECLARED) {
@@ -68,16 +109,8 @@ public class TypeVariableContext {
 
   public TypeMirror resolveTypeVariable(TypeMirror typeVariable) {
     if (typeVariable.getKind() == TypeKind.TYPEVAR) {
-      int argIndex = -1;
-
-      Name name = ((TypeVariable) typeVariable).asElement().getSimpleName();
-      for (int i = 0; i < this.params.size(); i++) {
-        TypeParameterElement elementParam = this.params.get(i);
-        if (elementParam.getSimpleName().equals(name)) {
-          argIndex = i;
-          break;
-        }
-      }
+      Integer index = this.paramIndexes.get(((TypeVariable) typeVariable).asElement().getSimpleName().toString());
+      int argIndex = index == null ? -1 : index;
 
       if (argIndex < 0 || this.variables.size() != this.params.size()) {
         //best we can do is get the upper bound. should this maybe be an illegal state?
@@ -100,4 +133,54 @@ public class TypeVariableContext {
 
     return typeVariable;
   }
+
+  /**
+   * A resolved type, kept undecorated along with the environment of its decoration, if it was decorated.
+   */
+  private static final class Resolution {
+
+    private final TypeMirror type;
+    private final DecoratedProcessingEnvironment env;
+
+    private Resolution(TypeMirror type) {
+      this.env = type instanceof DecoratedTypeMirror ? ((DecoratedTypeMirror) type).env : null;
+      while (type instanceof DecoratedTypeMirror) {
+        type = ((DecoratedTypeMirror) type).getDelegate();
+      }
+      this.type = type;
+    }
+  }
+
+  /**
+   * Key for a resolved type: the identity of the (undecorated) type and of the processing environment the resolution was
+   * made with. Decorations of the same type resolve the same way.
+   */
+  private static final class ResolutionKey {
+
+    private final TypeMirror type;
+    private final ProcessingEnvironment env;
+
+    private ResolutionKey(TypeMirror type, ProcessingEnvironment env) {
+      while (type instanceof DecoratedTypeMirror) {
+        type = ((DecoratedTypeMirror) type).getDelegate();
+      }
+      this.type = type;
+      this.env = env;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ResolutionKey)) {
+        return false;
+      }
+
+      ResolutionKey other = (ResolutionKey) o;
+      return other.type == this.type && other.env == this.env;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(this.type) + System.identityHashCode(this.env);
+    }
+  }
 }
@@ -15,19 +15,16 @@
  */
 package com.webcohesion.enunciate.javac.javadoc;
 
-import java.io.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static java.lang.Math.min;
-
 public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
 
   public static final Pattern INLINE_TAG_PATTERN = Pattern.compile("\\{@([^\\} ]+) ?(.*?)\\}");
   public static final char[] WHITESPACE_CHARS = new char[]{' ', '\t', '\n', 0x0B, '\f', '\r'};
+  private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
   protected String value;
 
@@ -35,75 +32,138 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
     init(docComment, tagHandler);
   }
 
+  /**
+   * Copy the specified javadoc. The tag lists are copied, too, so the copy can be modified independently.
+   *
+   * @param source The javadoc to copy.
+   */
+  public JavaDoc(JavaDoc source) {
+    super(source.size());
+    for (Map.Entry<String, JavaDocTagList> entry : source.entrySet()) {
+      put(entry.getKey(), new JavaDocTagList(entry.getValue()));
+    }
+    this.value = source.value;
+  }
+
   protected void init(String docComment, JavaDocTagHandler tagHandler) {
     if (docComment == null) {
       value = "";
     }
     else {
-      BufferedReader reader = new BufferedReader(new StringReader(docComment));
-      StringWriter currentValue = new StringWriter();
-      PrintWriter out = new PrintWriter(currentValue);
-      String currentTag = null;
-      boolean preformatting = false;
-      try {
-        String line = reader.readLine();
-        while (line != null) {
-          if (!preformatting) {
-            line = line.trim();
-          }
-          if (line.startsWith("@")) { //it's a javadoc block tag.
+      parse(docComment);
+    }
+
+    if (doTagHandling(tagHandler)) {
+      this.value = handleAllTags(this.value, tagHandler);
+      for (Map.Entry<String, JavaDocTagList> entry : entrySet()) {
+        JavaDocTagList tagValues = entry.getValue();
+        for (int i = 0; i < tagValues.size(); i++) {
+          String value = tagValues.get(i);
+          tagValues.set(i, handleAllTags(value, tagHandler));
+        }
+      }
+    }
+  }
 
-            //push and clear our current value.
-            pushValue(currentTag, currentValue.toString());
+  /**
+   * Parse the doc comment into the value and the block tags in a single pass over its characters. Lines are trimmed
+   * except within a &lt;pre&gt; region, and a line starting with '@' starts a new block tag.
+   *
+   * @param docComment The doc comment.
+   */
+  private void parse(String docComment) {
+    char[] chars = docComment.toCharArray();
+    int length = chars.length;
+    StringBuilder currentValue = new StringBuilder(length);
+    String currentTag = null;
+    boolean preformatting = false;
+    int lineStart = 0;
+    while (lineStart < length) {
+      int lineEnd = lineStart;
+      while (lineEnd < length && chars[lineEnd] != '\n' && chars[lineEnd] != '\r') {
+        lineEnd++;
+      }
 
-            int spaceIndex = indexOfFirstWhitespace(line);
+      int nextLine = lineEnd;
+      if (nextLine < length) {
+        nextLine += (chars[nextLine] == '\r' && nextLine + 1 < length && chars[nextLine + 1] == '\n') ? 2 : 1;
+      }
 
-            currentTag = line.substring(1, spaceIndex);
-            String value = "";
-            if ((spaceIndex + 1) < line.length()) {
-              value = line.substring(spaceIndex + 1);
-            }
+      int start = lineStart;
+      int end = lineEnd;
+      if (!preformatting) {
+        while (start < end && chars[start] <= ' ') {
+          start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+          end--;
+        }
+      }
 
-            currentValue = new StringWriter();
-            out = new PrintWriter(currentValue);
-            out.println(value);
-          }
-          else {
-            out.println(line);
-          }
-          preformatting = (line.contains("<pre") || preformatting) && !line.contains("</pre");
+      if (start < end && chars[start] == '@') { //it's a javadoc block tag.
 
-          line = reader.readLine();
+        //push and clear our current value.
+        pushValue(currentTag, currentValue);
+
+        int spaceIndex = start + 1;
+        while (spaceIndex < end && !isWhitespace(chars[spaceIndex])) {
+          spaceIndex++;
         }
 
-        //push the last value.
-        pushValue(currentTag, currentValue.toString());
+        currentTag = new String(chars, start + 1, spaceIndex - start - 1);
+        currentValue.setLength(0);
+        if (spaceIndex + 1 < end) {
+          currentValue.append(chars, spaceIndex + 1, end - spaceIndex - 1);
+        }
       }
-      catch (IOException e) {
-        //fall through.
+      else {
+        currentValue.append(chars, start, end - start);
       }
+      currentValue.append(LINE_SEPARATOR);
+
+      preformatting = (preformatting || contains(chars, start, end, "<pre")) && !contains(chars, start, end, "</pre");
+      lineStart = nextLine;
     }
 
-    if (doTagHandling(tagHandler)) {
-      this.value = handleAllTags(this.value, tagHandler);
-      for (Map.Entry<String, JavaDocTagList> entry : entrySet()) {
-        JavaDocTagList tagValues = entry.getValue();
-        for (int i = 0; i < tagValues.size(); i++) {
-          String value = tagValues.get(i);
-          tagValues.set(i, handleAllTags(value, tagHandler));
-        }
+    //push the last value.
+    pushValue(currentTag, currentValue);
+  }
+
+  private static boolean contains(char[] chars, int start, int end, String token) {
+    int last = end - token.length();
+    for (int i = start; i <= last; i++) {
+      int j = 0;
+      while (j < token.length() && chars[i + j] == token.charAt(j)) {
+        j++;
+      }
+      if (j == token.length()) {
+        return true;
       }
     }
+    return false;
   }
 
-  public static int indexOfFirstWhitespace(String line) {
-    int result = line.length();
+  private static boolean isWhitespace(char ch) {
     for (char ws : WHITESPACE_CHARS) {
-      int spaceIndex = line.indexOf(ws);
-      spaceIndex = spaceIndex == -1 ? result : spaceIndex;
-      result = min(spaceIndex, result);
+      if (ch == ws) {
+        return true;
+      }
     }
-    return result;
+    return false;
+  }
+
+  private static boolean isLineTerminator(char ch) {
+    return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+  }
+
+  public static int indexOfFirstWhitespace(String line) {
+    int length = line.length();
+    for (int i = 0; i < length; i++) {
+      if (isWhitespace(line.charAt(i))) {
+        return i;
+      }
+    }
+    return length;
   }
 
   protected boolean doTagHandling(JavaDocTagHandler tagHandler) {
@@ -111,21 +171,55 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
   }
 
   /**
-   * Handles all the tags with the given handler.
+   * Handles all the tags with the given handler. The inline tags are those matched by {@link #INLINE_TAG_PATTERN}: the
+   * name runs up to the first space or closing brace, and the argument (if any) runs up to the first closing brace on the
+   * same line.
    *
    * @param value The value.
    * @param handler The handler.
    * @return The replacement value.
    */
   protected String handleAllTags(String value, JavaDocTagHandler handler) {
-    //first pass through the inline tags...
-    StringBuilder builder = new StringBuilder();
-
-    Matcher matcher = INLINE_TAG_PATTERN.matcher(value);
-    int lastStart = 0;
-    while (matcher.find()) {
-      builder.append(value.substring(lastStart, matcher.start()));
-      Object replacement = handler.onInlineTag(matcher.group(1), matcher.group(2));
+    int tagStart = value.indexOf("{@");
+    if (tagStart < 0) {
+      return value;
+    }
+
+    int length = value.length();
+    StringBuilder builder = new StringBuilder(length);
+    int lastEnd = 0;
+    while (tagStart >= 0) {
+      int nameStart = tagStart + 2;
+      int nameEnd = nameStart;
+      while (nameEnd < length && value.charAt(nameEnd) != '}' && value.charAt(nameEnd) != ' ') {
+        nameEnd++;
+      }
+
+      int tagEnd = -1;
+      if (nameEnd > nameStart && nameEnd < length) {
+        if (value.charAt(nameEnd) == '}') {
+          tagEnd = nameEnd;
+        }
+        else {
+          for (int i = nameEnd + 1; i < length && !isLineTerminator(value.charAt(i)); i++) {
+            if (value.charAt(i) == '}') {
+              tagEnd = i;
+              break;
+            }
+          }
+        }
+      }
+
+      if (tagEnd < 0) {
+        //not a well-formed inline tag.
+        tagStart = value.indexOf("{@", tagStart + 1);
+        continue;
+      }
+
+      builder.append(value, lastEnd, tagStart);
+      String tagName = value.substring(nameStart, nameEnd);
+      String tagText = tagEnd == nameEnd ? "" : value.substring(nameEnd + 1, tagEnd);
+      Object replacement = handler.onInlineTag(tagName, tagText);
       if (replacement != null) {
         if (replacement instanceof JavaDocTagHandler.TextToBeHandled) {
           replacement = handleAllTags(String.valueOf(replacement), handler);
@@ -133,11 +227,12 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
         builder.append(replacement);
       }
       else {
-        builder.append(value.substring(matcher.start(), matcher.end()));
+        builder.append(value, tagStart, tagEnd + 1);
       }
-      lastStart = matcher.end();
+      lastEnd = tagEnd + 1;
+      tagStart = value.indexOf("{@", lastEnd);
     }
-    builder.append(value.substring(lastStart, value.length()));
+    builder.append(value, lastEnd, length);
 
     return builder.toString();
   }
@@ -148,9 +243,18 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
    * @param tag The tag onto which to push the value.  (null indicates no tag.)
    * @param value The value of the tag.
    */
-  private void pushValue(String tag, String value) {
-    value = value.trim(); //trim the value.
-    
+  private void pushValue(String tag, CharSequence currentValue) {
+    //trim the value.
+    int start = 0;
+    int end = currentValue.length();
+    while (start < end && currentValue.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && currentValue.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    String value = currentValue.subSequence(start, end).toString();
+
     if (tag == null) {
       this.value = value;
     }
@@ -188,6 +292,15 @@ public class JavaDoc extends HashMap<String, JavaDoc.JavaDocTagList> {
       add(firstValue);
     }
 
+    /**
+     * Copy a tag list.
+     *
+     * @param source The tag list to copy.
+     */
+    public JavaDocTagList(JavaDocTagList source) {
+      super(source);
+    }
+
     /**
      * @return The first value in the list.
      */
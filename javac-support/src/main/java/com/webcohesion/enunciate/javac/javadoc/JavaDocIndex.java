@@ -0,0 +1,319 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.javadoc;
+
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, memory-mapped index of the doc comments of the types, fields and methods of a source jar, used to look up
+ * the documentation of elements that are only available on the classpath without having the compiler parse their
+ * source. The index is a hash table of keys (see {@link #keyOf(Element)}) to doc comments, in the form returned by
+ * {@link javax.lang.model.util.Elements#getDocComment(Element)}.
+ *
+ * @author Ryan Heaton
+ */
+public final class JavaDocIndex {
+
+  /**
+   * The extension of the index files.
+   */
+  public static final String FILE_EXTENSION = ".javadoc-index";
+
+  private static final int MAGIC = 0x454A4449;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+  private static final Charset UTF8 = Charset.forName("utf-8");
+
+  private final ByteBuffer buffer;
+  private final long sourceLength;
+  private final long sourceLastModified;
+  private final int size;
+  private final int slotCount;
+
+  private JavaDocIndex(ByteBuffer buffer) throws IOException {
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IOException("Not a javadoc index (or an unsupported version).");
+    }
+
+    this.buffer = buffer;
+    this.sourceLength = buffer.getLong(8);
+    this.sourceLastModified = buffer.getLong(16);
+    this.size = buffer.getInt(24);
+    this.slotCount = buffer.getInt(28);
+    if (buffer.getInt(32) != buffer.capacity() || this.slotCount < 0 || Integer.bitCount(this.slotCount) > 1
+      || this.size < 0 || this.size > this.slotCount || (long) HEADER_SIZE + (this.slotCount * 8L) > buffer.capacity()) {
+      throw new IOException("Corrupt javadoc index.");
+    }
+  }
+
+  /**
+   * Open (map) the specified index file.
+   *
+   * @param file The index file.
+   * @return The index.
+   */
+  public static JavaDocIndex open(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new JavaDocIndex(buffer);
+    }
+    finally {
+      //the mapping remains valid after the file is closed.
+      raf.close();
+    }
+  }
+
+  /**
+   * Whether this index was built from the current state of the specified source jar.
+   *
+   * @param source The source jar.
+   * @return Whether this index was built from the current state of the source jar.
+   */
+  public boolean isCurrent(File source) {
+    return source.length() == this.sourceLength && source.lastModified() == this.sourceLastModified;
+  }
+
+  /**
+   * The number of doc comments in this index.
+   *
+   * @return The number of doc comments in this index.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Look up the doc comment of the specified element.
+   *
+   * @param element The (undecorated) element.
+   * @return The doc comment, or null if the element isn't in this index.
+   */
+  public String lookup(Element element) {
+    String key = keyOf(element);
+    return key == null ? null : lookup(key);
+  }
+
+  /**
+   * Look up the doc comment for the specified key.
+   *
+   * @param key The key.
+   * @return The doc comment, or null if the key isn't in this index.
+   */
+  public String lookup(String key) {
+    if (this.slotCount == 0) {
+      return null;
+    }
+
+    byte[] keyBytes = key.getBytes(UTF8);
+    int hash = key.hashCode();
+    ByteBuffer buffer = this.buffer.duplicate();
+    int mask = this.slotCount - 1;
+    int slot = spread(hash) & mask;
+    for (int probes = 0; probes < this.slotCount; probes++, slot = (slot + 1) & mask) {
+      int slotPosition = HEADER_SIZE + (slot * 8);
+      int offset = buffer.getInt(slotPosition + 4);
+      if (offset == 0) {
+        return null;
+      }
+
+      if (offset < 0 || offset > buffer.capacity() - 4) {
+        //corrupt; treat the element as not indexed.
+        return null;
+      }
+
+      if (buffer.getInt(slotPosition) == hash && keyEquals(buffer, offset, keyBytes)) {
+        int valuePosition = offset + 4 + keyBytes.length;
+        int valueLength = buffer.getInt(valuePosition);
+        if (valueLength < 0 || valueLength > buffer.capacity() - valuePosition - 4) {
+          return null;
+        }
+
+        byte[] value = new byte[valueLength];
+        buffer.position(valuePosition + 4);
+        buffer.get(value);
+        return new String(value, UTF8);
+      }
+    }
+    return null;
+  }
+
+  private static boolean keyEquals(ByteBuffer buffer, int offset, byte[] keyBytes) {
+    if (buffer.getInt(offset) != keyBytes.length || keyBytes.length > buffer.capacity() - offset - 8) {
+      return false;
+    }
+
+    for (int i = 0; i < keyBytes.length; i++) {
+      if (buffer.get(offset + 4 + i) != keyBytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write an index of the specified doc comments.
+   *
+   * @param docComments The doc comments, by key.
+   * @param source      The source jar the doc comments were extracted from.
+   * @param file        The index file to write.
+   */
+  public static void write(Map<String, String> docComments, File source, File file) throws IOException {
+    int slotCount = 0;
+    if (!docComments.isEmpty()) {
+      slotCount = Integer.highestOneBit(docComments.size() * 2 - 1) << 1;
+    }
+
+    //lay out the entries after the slots.
+    int[] slots = new int[slotCount * 2];
+    List<byte[]> entries = new ArrayList<byte[]>(docComments.size());
+    int offset = HEADER_SIZE + (slotCount * 8);
+    for (Map.Entry<String, String> docComment : docComments.entrySet()) {
+      byte[] entry = encodeEntry(docComment.getKey(), docComment.getValue());
+      int hash = docComment.getKey().hashCode();
+      int slot = spread(hash) & (slotCount - 1);
+      while (slots[(slot * 2) + 1] != 0) {
+        slot = (slot + 1) & (slotCount - 1);
+      }
+      slots[slot * 2] = hash;
+      slots[(slot * 2) + 1] = offset;
+      entries.add(entry);
+      offset += entry.length;
+    }
+
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+
+    File tmp = new File(file.getPath() + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(source.length());
+      out.writeLong(source.lastModified());
+      out.writeInt(docComments.size());
+      out.writeInt(slotCount);
+      out.writeInt(offset);
+      for (int value : slots) {
+        out.writeInt(value);
+      }
+      for (byte[] entry : entries) {
+        out.write(entry);
+      }
+    }
+    finally {
+      out.close();
+    }
+
+    if (file.exists() && !file.delete()) {
+      tmp.delete();
+      throw new IOException("Unable to replace " + file + ".");
+    }
+
+    if (!tmp.renameTo(file)) {
+      tmp.delete();
+      throw new IOException("Unable to write " + file + ".");
+    }
+  }
+
+  private static byte[] encodeEntry(String key, String value) throws IOException {
+    byte[] keyBytes = key.getBytes(UTF8);
+    byte[] valueBytes = value.getBytes(UTF8);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + keyBytes.length + valueBytes.length);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(keyBytes.length);
+    out.write(keyBytes);
+    out.writeInt(valueBytes.length);
+    out.write(valueBytes);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * The index key of the specified element: the qualified name of a type, the qualified name of its type and its name
+   * for a field ("com.acme.Person#name"), and additionally the qualified names of the erased parameter types for a method or
+   * constructor ("com.acme.Person#setName(java.lang.String)", "com.acme.Person#&lt;init&gt;()"). A type variable is erased
+   * to its first bound.
+   *
+   * @param element The element.
+   * @return The key, or null if the element isn't indexed.
+   */
+  public static String keyOf(Element element) {
+    switch (element.getKind()) {
+      case CLASS:
+      case INTERFACE:
+      case ENUM:
+      case ANNOTATION_TYPE:
+        String qualifiedName = ((TypeElement) element).getQualifiedName().toString();
+        return qualifiedName.isEmpty() ? null : qualifiedName;
+      case FIELD:
+      case ENUM_CONSTANT:
+        String fieldType = keyOf(element.getEnclosingElement());
+        return fieldType == null ? null : fieldType + '#' + element.getSimpleName();
+      case METHOD:
+      case CONSTRUCTOR:
+        String methodType = keyOf(element.getEnclosingElement());
+        if (methodType == null) {
+          return null;
+        }
+
+        StringBuilder key = new StringBuilder(methodType).append('#').append(element.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = ((ExecutableElement) element).getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+          if (i > 0) {
+            key.append(',');
+          }
+          key.append(erasedTypeName(parameters.get(i).asType()));
+        }
+        return key.append(')').toString();
+      default:
+        return null;
+    }
+  }
+
+  private static String erasedTypeName(TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return erasedTypeName(((ArrayType) type).getComponentType()) + "[]";
+      case DECLARED:
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+      case TYPEVAR:
+        List<? extends TypeMirror> bounds = ((TypeParameterElement) ((TypeVariable) type).asElement()).getBounds();
+        return bounds.isEmpty() ? "java.lang.Object" : erasedTypeName(bounds.get(0));
+      default:
+        return type.toString();
+    }
+  }
+}
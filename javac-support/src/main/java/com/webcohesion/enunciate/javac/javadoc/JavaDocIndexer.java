@@ -0,0 +1,478 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.javadoc;
+
+import com.sun.source.tree.*;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.Trees;
+import com.sun.tools.javac.api.JavacTool;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts the doc comments of the types, fields and methods of a source jar for a {@link JavaDocIndex}. The sources
+ * are only parsed (not attributed), so they don't need their dependencies, and the doc comments are read from the
+ * source text preceding each declaration.
+ *
+ * @author Ryan Heaton
+ */
+public class JavaDocIndexer {
+
+  private static final int BATCH_SIZE = 200;
+
+  private JavaDocIndexer() {}
+
+  /**
+   * Extract the doc comments of the specified source jar.
+   *
+   * @param sourcesJar The source jar.
+   * @param encoding   The encoding of the source files, or null for UTF-8.
+   * @return The doc comments, by key (see {@link JavaDocIndex#keyOf(javax.lang.model.element.Element)}).
+   */
+  public static Map<String, String> extract(File sourcesJar, String encoding) throws IOException {
+    Map<String, String> docComments = new HashMap<String, String>();
+    ZipFile zip = new ZipFile(sourcesJar);
+    try {
+      //the top-level types of the jar, for resolving the parameter types of the methods.
+      Set<String> knownTypes = new HashSet<String>();
+      List<ZipEntry> sourceEntries = new ArrayList<ZipEntry>();
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        if (!entry.isDirectory() && entry.getName().endsWith(".java") && !entry.getName().endsWith("package-info.java")) {
+          String name = entry.getName();
+          knownTypes.add(name.substring(0, name.length() - 5).replace('/', '.'));
+          sourceEntries.add(entry);
+        }
+      }
+
+      List<JavaFileObject> batch = new ArrayList<JavaFileObject>(BATCH_SIZE);
+      for (ZipEntry entry : sourceEntries) {
+        batch.add(new SourceEntry(entry.getName(), read(zip, entry), encoding == null ? "utf-8" : encoding));
+        if (batch.size() == BATCH_SIZE) {
+          extract(batch, knownTypes, docComments);
+          batch.clear();
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        extract(batch, knownTypes, docComments);
+      }
+    }
+    finally {
+      zip.close();
+    }
+    return docComments;
+  }
+
+  private static void extract(List<JavaFileObject> sources, Set<String> knownTypes, Map<String, String> docComments) throws IOException {
+    //parse errors (e.g. newer language features) are ignored; we index whatever can be parsed.
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+    JavacTask task = (JavacTask) JavacTool.create().getTask(null, null, diagnostics, Arrays.asList("-proc:none"), null, sources);
+    SourcePositions positions = Trees.instance(task).getSourcePositions();
+    for (CompilationUnitTree unit : task.parse()) {
+      String source = unit.getSourceFile().getCharContent(true).toString();
+      String packageName = unit.getPackageName() == null ? "" : unit.getPackageName().toString();
+      Scope scope = new Scope(new CompilationUnitScope(packageName, unit.getImports(), knownTypes));
+      for (Tree declaration : unit.getTypeDecls()) {
+        if (declaration instanceof ClassTree) {
+          String simpleName = ((ClassTree) declaration).getSimpleName().toString();
+          scope.types.put(simpleName, packageName.isEmpty() ? simpleName : packageName + '.' + simpleName);
+        }
+      }
+
+      for (Tree declaration : unit.getTypeDecls()) {
+        if (declaration instanceof ClassTree) {
+          String simpleName = ((ClassTree) declaration).getSimpleName().toString();
+          extract((ClassTree) declaration, scope.types.get(simpleName), scope, unit, positions, source, docComments);
+        }
+      }
+    }
+  }
+
+  private static void extract(ClassTree type, String qualifiedName, Scope enclosingScope, CompilationUnitTree unit, SourcePositions positions, String source, Map<String, String> docComments) {
+    put(qualifiedName, type, unit, positions, source, docComments);
+
+    Scope scope = new Scope(enclosingScope, type.getTypeParameters());
+    for (Tree member : type.getMembers()) {
+      if (member instanceof ClassTree) {
+        String simpleName = ((ClassTree) member).getSimpleName().toString();
+        scope.types.put(simpleName, qualifiedName + '.' + simpleName);
+      }
+    }
+
+    for (Tree member : type.getMembers()) {
+      if (member instanceof ClassTree) {
+        ClassTree nested = (ClassTree) member;
+        extract(nested, qualifiedName + '.' + nested.getSimpleName(), scope, unit, positions, source, docComments);
+      }
+      else if (member instanceof MethodTree) {
+        MethodTree method = (MethodTree) member;
+        Scope methodScope = new Scope(scope, method.getTypeParameters());
+        StringBuilder key = new StringBuilder(qualifiedName).append('#').append(method.getName()).append('(');
+        List<? extends VariableTree> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+          if (i > 0) {
+            key.append(',');
+          }
+          key.append(methodScope.resolve(erasedTypeName(String.valueOf(parameters.get(i).getType())), 0));
+        }
+        put(key.append(')').toString(), method, unit, positions, source, docComments);
+      }
+      else if (member instanceof VariableTree) {
+        put(qualifiedName + '#' + ((VariableTree) member).getName(), member, unit, positions, source, docComments);
+      }
+    }
+  }
+
+  private static void put(String key, Tree declaration, CompilationUnitTree unit, SourcePositions positions, String source, Map<String, String> docComments) {
+    long start = positions.getStartPosition(unit, declaration);
+    if (start < 0 || start > source.length()) {
+      return;
+    }
+
+    String docComment = findDocComment(source, (int) start);
+    if (docComment != null) {
+      docComments.put(key, docComment);
+    }
+  }
+
+  /**
+   * Find the doc comment immediately preceding the declaration at the specified position, and strip it the way the
+   * compiler does: the comment delimiters and the leading whitespace and asterisks of each line. As with the compiler,
+   * regular comments between the doc comment and the declaration are ignored.
+   *
+   * @param source The source.
+   * @param start  The start of the declaration (including its modifiers).
+   * @return The doc comment, or null if the declaration isn't preceded by a doc comment.
+   */
+  static String findDocComment(String source, int start) {
+    int end = start;
+    int open;
+    while (true) {
+      while (end > 0 && Character.isWhitespace(source.charAt(end - 1))) {
+        end--;
+      }
+
+      if (end >= 4 && source.startsWith("*/", end - 2)) {
+        open = source.lastIndexOf("/*", end - 3);
+        if (open < 0) {
+          return null;
+        }
+        else if (source.startsWith("/**", open) && open + 3 <= end - 2) {
+          break;
+        }
+
+        //the compiler skips over regular comments between the doc comment and the declaration.
+        end = open;
+        continue;
+      }
+
+      int lineStart = source.lastIndexOf('\n', end - 1) + 1;
+      int lineComment = source.indexOf("//", lineStart);
+      if (lineComment < 0 || lineComment >= end || source.substring(lineStart, lineComment).trim().length() > 0) {
+        return null;
+      }
+      end = lineComment;
+    }
+
+    String body = source.substring(open + 3, end - 2);
+    StringBuilder docComment = new StringBuilder(body.length());
+    String[] lines = body.split("\r\n|\r|\n", -1);
+    for (int i = 0; i < lines.length; i++) {
+      String line = lines[i];
+      int index = 0;
+      if (i == 0) {
+        //the first line: any extra asterisks of the opening delimiter and the whitespace that follows.
+        while (index < line.length() && line.charAt(index) == '*') {
+          index++;
+        }
+        while (index < line.length() && Character.isWhitespace(line.charAt(index))) {
+          index++;
+        }
+        if (index == line.length()) {
+          //nothing on the first line.
+          continue;
+        }
+      }
+      else {
+        //the leading asterisks (and the whitespace before them); lines without asterisks are left as-is.
+        while (index < line.length() && Character.isWhitespace(line.charAt(index))) {
+          index++;
+        }
+        if (index < line.length() && line.charAt(index) == '*') {
+          while (index < line.length() && line.charAt(index) == '*') {
+            index++;
+          }
+        }
+        else if (index < line.length()) {
+          index = 0;
+        }
+      }
+      docComment.append(line, index, line.length());
+      if (i + 1 < lines.length) {
+        docComment.append('\n');
+      }
+    }
+    return docComment.toString();
+  }
+
+  /**
+   * The erasure of a type as written in source code, e.g. "java.util.Map.Entry[]" for
+   * "java.util.Map.Entry&lt;String, @NotNull Object&gt;...". The name isn't resolved.
+   *
+   * @param type The type as written.
+   * @return The erasure of the type as written.
+   */
+  static String erasedTypeName(String type) {
+    StringBuilder erased = new StringBuilder(type.length());
+    int depth = 0;
+    for (int i = 0; i < type.length(); i++) {
+      char ch = type.charAt(i);
+      if (ch == '<') {
+        depth++;
+      }
+      else if (ch == '>') {
+        depth--;
+      }
+      else if (ch == '@' && depth == 0) {
+        //skip a type annotation (and its arguments).
+        i++;
+        while (i < type.length() && (Character.isJavaIdentifierPart(type.charAt(i)) || type.charAt(i) == '.')) {
+          i++;
+        }
+        while (i < type.length() && Character.isWhitespace(type.charAt(i))) {
+          i++;
+        }
+        if (i < type.length() && type.charAt(i) == '(') {
+          int parens = 0;
+          for (; i < type.length(); i++) {
+            if (type.charAt(i) == '(') {
+              parens++;
+            }
+            else if (type.charAt(i) == ')' && --parens == 0) {
+              break;
+            }
+          }
+        }
+        else {
+          i--;
+        }
+      }
+      else if (depth == 0 && !Character.isWhitespace(ch)) {
+        erased.append(ch);
+      }
+    }
+
+    String name = erased.toString();
+    if (name.endsWith("...")) {
+      name = name.substring(0, name.length() - 3) + "[]";
+    }
+    return name;
+  }
+
+  /**
+   * The names in scope at a declaration: the member types of the enclosing types and the type variables of the
+   * enclosing types and method.
+   */
+  private static class Scope {
+
+    private final Scope parent;
+    private final CompilationUnitScope unit;
+    private final Map<String, String> types = new HashMap<String, String>();
+    private final Map<String, String> typeVariables = new HashMap<String, String>();
+
+    private Scope(CompilationUnitScope unit) {
+      this.parent = null;
+      this.unit = unit;
+    }
+
+    private Scope(Scope parent, List<? extends TypeParameterTree> typeParameters) {
+      this.parent = parent;
+      this.unit = parent.unit;
+      for (TypeParameterTree typeParameter : typeParameters) {
+        List<? extends Tree> bounds = typeParameter.getBounds();
+        this.typeVariables.put(typeParameter.getName().toString(), bounds.isEmpty() ? "java.lang.Object" : erasedTypeName(String.valueOf(bounds.get(0))));
+      }
+    }
+
+    /**
+     * Resolve the qualified name of an erased type as written in this scope. Type variables resolve to the erasure of
+     * their first bound.
+     *
+     * @param name  The erased type name.
+     * @param depth The number of type variable bounds followed so far.
+     * @return The qualified name.
+     */
+    String resolve(String name, int depth) {
+      String dimensions = "";
+      int bracket = name.indexOf('[');
+      if (bracket >= 0) {
+        dimensions = name.substring(bracket);
+        name = name.substring(0, bracket);
+      }
+
+      int dot = name.indexOf('.');
+      String first = dot < 0 ? name : name.substring(0, dot);
+      String rest = dot < 0 ? "" : name.substring(dot);
+      for (Scope scope = this; scope != null; scope = scope.parent) {
+        String bound = scope.typeVariables.get(first);
+        if (bound != null && rest.isEmpty()) {
+          //a cyclic bound isn't legal, but we only parse the source.
+          return (depth < 8 ? scope.resolve(bound, depth + 1) : "java.lang.Object") + dimensions;
+        }
+
+        String type = scope.types.get(first);
+        if (type != null) {
+          return type + rest + dimensions;
+        }
+      }
+      return this.unit.resolve(first, rest) + dimensions;
+    }
+  }
+
+  /**
+   * The names in scope in a compilation unit. Without the classpath, the types imported on demand can only be
+   * resolved if they're in the source jar or in the JDK.
+   */
+  private static class CompilationUnitScope {
+
+    private static final Set<String> PRIMITIVES = new HashSet<String>(Arrays.asList("boolean", "byte", "char", "short", "int", "long", "float", "double", "void"));
+
+    private final String packageName;
+    private final Map<String, String> imports = new HashMap<String, String>();
+    private final List<String> onDemandImports = new ArrayList<String>();
+    private final Set<String> knownTypes;
+
+    private CompilationUnitScope(String packageName, List<? extends ImportTree> imports, Set<String> knownTypes) {
+      this.packageName = packageName;
+      this.knownTypes = knownTypes;
+      for (ImportTree importTree : imports) {
+        if (!importTree.isStatic()) {
+          String imported = String.valueOf(importTree.getQualifiedIdentifier());
+          if (imported.endsWith(".*")) {
+            this.onDemandImports.add(imported.substring(0, imported.length() - 2));
+          }
+          else {
+            this.imports.put(imported.substring(imported.lastIndexOf('.') + 1), imported);
+          }
+        }
+      }
+      this.onDemandImports.add("java.lang");
+    }
+
+    String resolve(String first, String rest) {
+      if (first.isEmpty() || (rest.isEmpty() && PRIMITIVES.contains(first))) {
+        return first;
+      }
+
+      String imported = this.imports.get(first);
+      if (imported != null) {
+        return imported + rest;
+      }
+
+      if (!rest.isEmpty() && Character.isLowerCase(first.charAt(0))) {
+        //already qualified by its package.
+        return first + rest;
+      }
+
+      String samePackage = this.packageName.isEmpty() ? first : this.packageName + '.' + first;
+      if (this.knownTypes.contains(samePackage)) {
+        return samePackage + rest;
+      }
+
+      for (String onDemandImport : this.onDemandImports) {
+        String candidate = onDemandImport + '.' + first;
+        if (this.knownTypes.contains(candidate) || isJdkType(candidate)) {
+          return candidate + rest;
+        }
+      }
+
+      //assume a type of the same package that isn't in a file of its own.
+      return samePackage + rest;
+    }
+
+    private static boolean isJdkType(String name) {
+      try {
+        Class.forName(name, false, null);
+        return true;
+      }
+      catch (ClassNotFoundException e) {
+        return false;
+      }
+      catch (LinkageError e) {
+        return false;
+      }
+    }
+  }
+
+  private static byte[] read(ZipFile zip, ZipEntry entry) throws IOException {
+    InputStream in = zip.getInputStream(entry);
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.getSize() > 0 ? (int) entry.getSize() : 8192);
+      byte[] buffer = new byte[8192];
+      int len;
+      while ((len = in.read(buffer)) >= 0) {
+        bytes.write(buffer, 0, len);
+      }
+      return bytes.toByteArray();
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  /**
+   * A source file read from a source jar.
+   */
+  private static class SourceEntry extends SimpleJavaFileObject {
+
+    private final byte[] content;
+    private final String encoding;
+
+    private SourceEntry(String name, byte[] content, String encoding) {
+      super(toURI(name), Kind.SOURCE);
+      this.content = content;
+      this.encoding = encoding;
+    }
+
+    private static URI toURI(String name) {
+      try {
+        return new URI("jar", null, "/" + name, null);
+      }
+      catch (URISyntaxException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
+      return new String(this.content, this.encoding);
+    }
+  }
+}
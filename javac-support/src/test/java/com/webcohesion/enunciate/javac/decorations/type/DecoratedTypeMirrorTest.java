@@ -0,0 +1,191 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.decorations.type;
+
+import com.webcohesion.enunciate.javac.decorations.AnnotationMirrorDecoration;
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.decorations.ElementDecoration;
+import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecoration;
+import org.junit.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.Types;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class DecoratedTypeMirrorTest {
+
+  private static final String SOURCE =
+    "package com.acme;\n" +
+    "interface Named {}\n" +
+    "class Base<T> implements Named {}\n" +
+    "class Broken extends Missing implements Named {}\n" +
+    "public class Widget extends Base<String> implements Comparable<Widget> {\n" +
+    "  public int compareTo(Widget other) { return 0; }\n" +
+    "}\n";
+
+  @Test
+  public void testSupertypeClosure() throws Exception {
+    process(new Processor() {
+      @Override
+      protected void process(DecoratedProcessingEnvironment env) {
+        Set<String> closure = env.findSupertypeClosure(type("com.acme.Widget", env));
+        assertEquals(new HashSet<String>(Arrays.asList("com.acme.Widget", "com.acme.Base", "com.acme.Named", "java.lang.Comparable", "java.lang.Object")), closure);
+        assertSame(closure, env.findSupertypeClosure(type("com.acme.Widget", env)));
+        assertEquals(new HashSet<String>(Arrays.asList("com.acme.Named", "java.lang.Object")), env.findSupertypeClosure(type("com.acme.Named", env)));
+
+        //the hierarchy of a type with an unresolvable supertype isn't known.
+        assertNull(env.findSupertypeClosure(type("com.acme.Broken", env)));
+        assertNull(env.findSupertypeClosure(env.getTypeUtils().getPrimitiveType(TypeKind.INT)));
+        assertNull(env.findSupertypeClosure(env.getTypeUtils().getArrayType(type("com.acme.Widget", env))));
+      }
+    });
+  }
+
+  @Test
+  public void testIsInstanceOf() throws Exception {
+    process(new Processor() {
+      @Override
+      protected void process(DecoratedProcessingEnvironment env) {
+        Types types = env.getTypeUtils();
+        DecoratedTypeMirror widget = type("com.acme.Widget", env);
+
+        //raw types.
+        assertTrue(widget.isInstanceOf("com.acme.Widget"));
+        assertTrue(widget.isInstanceOf("com.acme.Base"));
+        assertTrue(widget.isInstanceOf(Object.class));
+        assertFalse(widget.isInstanceOf(Serializable.class));
+        assertFalse(type("com.acme.Base", env).isInstanceOf("com.acme.Widget"));
+
+        //interfaces.
+        assertTrue(widget.isInstanceOf("com.acme.Named"));
+        assertTrue(widget.isInstanceOf(Comparable.class.getName()));
+        assertFalse(widget.isInstanceOf(Collection.class.getName()));
+
+        //generic types.
+        TypeElement base = env.getElementUtils().getTypeElement("com.acme.Base");
+        assertTrue(widget.isInstanceOf(types.getDeclaredType(base, TypeMirrorUtils.mirrorOf(String.class, env))));
+        assertFalse(widget.isInstanceOf(types.getDeclaredType(base, TypeMirrorUtils.mirrorOf(Integer.class, env))));
+        TypeElement comparable = env.getElementUtils().getTypeElement(Comparable.class.getName());
+        assertTrue(widget.isInstanceOf(types.getDeclaredType(comparable, widget)));
+        assertFalse(widget.isInstanceOf(types.getDeclaredType(comparable, TypeMirrorUtils.mirrorOf(String.class, env))));
+
+        //unresolvable supertypes fall back to the compiler.
+        DecoratedTypeMirror broken = type("com.acme.Broken", env);
+        assertTrue(broken.isInstanceOf("com.acme.Broken"));
+        assertEquals(types.isAssignable(broken, type("com.acme.Named", env)), broken.isInstanceOf("com.acme.Named"));
+        assertFalse(broken.isInstanceOf(Comparable.class.getName()));
+        assertFalse(widget.isInstanceOf("com.acme.Broken"));
+      }
+    });
+  }
+
+  @Test
+  public void testMirrorsAreNotShared() throws Exception {
+    process(new Processor() {
+      @Override
+      protected void process(DecoratedProcessingEnvironment env) {
+        DecoratedTypeMirror first = TypeMirrorUtils.mirrorOf(String.class, env);
+        DecoratedTypeMirror second = TypeMirrorUtils.mirrorOf(String.class, env);
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        first.setDocComment("first doc");
+        assertEquals("", second.getDocComment());
+
+        first = TypeMirrorUtils.mirrorOf("com.acme.Widget", env);
+        second = TypeMirrorUtils.mirrorOf("com.acme.Widget", env);
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        first.setDocComment("first doc");
+        assertEquals("", second.getDocComment());
+
+        env.clearDecorationCache();
+        assertEquals(first, TypeMirrorUtils.mirrorOf("com.acme.Widget", env));
+        assertNull(TypeMirrorUtils.mirrorOf("com.acme.Unknown", env));
+      }
+    });
+  }
+
+  private static DecoratedTypeMirror type(String name, DecoratedProcessingEnvironment env) {
+    return (DecoratedTypeMirror) env.getElementUtils().getTypeElement(name).asType();
+  }
+
+  private static void process(Processor processor) {
+    JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///com/acme/Widget.java"), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return SOURCE;
+      }
+    };
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, new DiagnosticCollector<JavaFileObject>(), Arrays.asList("-proc:only"), null, Arrays.asList(source));
+    task.setProcessors(Arrays.asList(processor));
+    //the compilation fails on the missing supertype, but only after processing.
+    task.call();
+    if (processor.failure != null) {
+      throw processor.failure;
+    }
+    assertTrue(processor.processed);
+  }
+
+  private static abstract class Processor extends AbstractProcessor {
+
+    private boolean processed;
+    private AssertionError failure;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (!roundEnv.processingOver() && !this.processed) {
+        this.processed = true;
+        try {
+          process(new DecoratedProcessingEnvironment(this.processingEnv, Collections.<ElementDecoration>emptyList(), Collections.<TypeMirrorDecoration>emptyList(), Collections.<AnnotationMirrorDecoration>emptyList()));
+        }
+        catch (AssertionError e) {
+          this.failure = e;
+        }
+      }
+      return false;
+    }
+
+    protected abstract void process(DecoratedProcessingEnvironment env);
+  }
+}
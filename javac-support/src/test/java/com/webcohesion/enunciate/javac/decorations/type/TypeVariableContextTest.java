@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.decorations.type;
+
+import com.webcohesion.enunciate.javac.decorations.AnnotationMirrorDecoration;
+import com.webcohesion.enunciate.javac.decorations.DecoratedProcessingEnvironment;
+import com.webcohesion.enunciate.javac.decorations.ElementDecoration;
+import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecoration;
+import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecorator;
+import org.junit.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TypeVariableContextTest {
+
+  private static final String SOURCE =
+    "package com.acme;\n" +
+    "public class Resource<T> {\n" +
+    "  /** @return The first value. */\n" +
+    "  public T first() { return null; }\n" +
+    "  /** @return The second value. */\n" +
+    "  public T second() { return null; }\n" +
+    "}\n";
+
+  @Test
+  public void testResolvedTypesAreNotShared() throws Exception {
+    final Map<String, DecoratedTypeMirror> returnTypes = new LinkedHashMap<String, DecoratedTypeMirror>();
+    process(new Processor() {
+      @Override
+      protected void process(DecoratedProcessingEnvironment env) {
+        TypeElement resource = env.getElementUtils().getTypeElement("com.acme.Resource");
+        TypeMirror string = env.getElementUtils().getTypeElement("java.lang.String").asType();
+        TypeVariableContext context = new TypeVariableContext().push(resource.getTypeParameters(), Arrays.asList(string));
+        for (ExecutableElement method : ElementFilter.methodsIn(resource.getEnclosedElements())) {
+          //the same way the resource methods document their return types.
+          DecoratedTypeMirror returnType = (DecoratedTypeMirror) TypeMirrorDecorator.decorate(context.resolveTypeVariables(method.getReturnType(), env), env);
+          returnType.setDocComment(method.getSimpleName() + " doc");
+          returnTypes.put(method.getSimpleName().toString(), returnType);
+        }
+      }
+    });
+
+    DecoratedTypeMirror first = returnTypes.get("first");
+    DecoratedTypeMirror second = returnTypes.get("second");
+    assertEquals("java.lang.String", first.toString());
+    assertEquals("java.lang.String", second.toString());
+    assertNotSame(first, second);
+    assertEquals("first doc", first.getDocComment());
+    assertEquals("second doc", second.getDocComment());
+  }
+
+  private static void process(Processor processor) {
+    JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///com/acme/Resource.java"), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return SOURCE;
+      }
+    };
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, Arrays.asList("-proc:only"), null, Arrays.asList(source));
+    task.setProcessors(Arrays.asList(processor));
+    assertTrue(task.call());
+    assertTrue(processor.processed);
+  }
+
+  private static abstract class Processor extends AbstractProcessor {
+
+    private boolean processed;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (!roundEnv.processingOver()) {
+        process(new DecoratedProcessingEnvironment(this.processingEnv, Collections.<ElementDecoration>emptyList(), Collections.<TypeMirrorDecoration>emptyList(), Collections.<AnnotationMirrorDecoration>emptyList()));
+        this.processed = true;
+      }
+      return false;
+    }
+
+    protected abstract void process(DecoratedProcessingEnvironment env);
+  }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.javac.javadoc;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pins the output of the single-pass javadoc parser to the output of the line-reader/regex parser it replaced.
+ *
+ * @author Ryan Heaton
+ */
+public class JavaDocTest {
+
+  private static final String[] EDGE_CASES = {
+    "",
+    "   ",
+    "\n\n",
+    "Simple value.",
+    "  First line.  \n  Second line.  ",
+    "Value.\r\nWith windows line endings.\r\n@param a the a\r\n@return something",
+    "Value.\rWith old mac line endings.\r@see Other",
+    "@return only a tag",
+    "@deprecated",
+    "@param\tname tab-separated tag",
+    "@param name the name\n   continued on the next line.\n@param other the other\n@throws IOException if it fails",
+    "Value with {@link Foo} and {@link Foo#bar(String) the bar} and {@code a < b}.",
+    "Unterminated {@link Foo and the rest",
+    "Spans lines {@link Foo\n bar} and {@}.",
+    "Nested {@code {@literal x}} tags.",
+    "Empty {@code} and {@code }.",
+    "Example:\n<pre>\n  @Annotation\n  public void indented() {\n  }\n</pre>\nAfter.",
+    "<pre>starts preformatted\n@notATag inside pre\n   keep   spacing   \n</pre> done\n@since 1.0",
+    "<pre>never closed\n  line\n@tag at column zero",
+    "Trailing whitespace \t\n\u000B\f\n@author someone  \n",
+    "{@inheritDoc}\n@param x {@link X}\n@return {@value #CONSTANT}"
+  };
+
+  private static final String[] FRAGMENTS = {
+    "word", " ", "  ", "\t", "\n", "\r\n", "\r", "\n @param p ", "\n@return ", "\n@see ", "\n  @throws E ",
+    "{@link Foo}", "{@link Foo#bar() bar}", "{@code x}", "{@", "}", "{@}", "{@code ", "<pre>", "</pre>", "<p>", "@",
+    "\u000B", "\f", "{@inheritDoc}", "x{@literal y} z", "{@link\nBar}"
+  };
+
+  private static final JavaDocTagHandler REPLACING_HANDLER = new JavaDocTagHandler() {
+    @Override
+    public String onInlineTag(String tagName, String tagText) {
+      return "code".equals(tagName) ? null : "[" + tagName + ":" + tagText + "]";
+    }
+  };
+
+  private static final JavaDocTagHandler RECURSIVE_HANDLER = new JavaDocTagHandler() {
+    @Override
+    public Object onInlineTag(String tagName, String tagText) {
+      return "literal".equals(tagName) ? "(" + tagText + ")" : new HandledText("<" + tagText + ">");
+    }
+  };
+
+  @Test
+  public void testEdgeCases() throws Exception {
+    for (String comment : EDGE_CASES) {
+      assertSameAsLegacy(comment);
+    }
+    assertSameAsLegacy(null);
+  }
+
+  @Test
+  public void testGeneratedComments() throws Exception {
+    Random random = new Random(8675309L);
+    for (int i = 0; i < 5000; i++) {
+      StringBuilder comment = new StringBuilder();
+      int fragments = random.nextInt(40);
+      for (int j = 0; j < fragments; j++) {
+        comment.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+      }
+      assertSameAsLegacy(comment.toString());
+    }
+  }
+
+  @Test
+  public void testParse() throws Exception {
+    JavaDoc javaDoc = new JavaDoc("The value.\n@param a first\n@param b second\n@return the result", null);
+    assertEquals("The value.", javaDoc.toString());
+    assertEquals(2, javaDoc.get("param").size());
+    assertEquals("a first", javaDoc.get("param").get(0));
+    assertEquals("b second", javaDoc.get("param").get(1));
+    assertEquals("the result", javaDoc.get("return").toString());
+  }
+
+  private static void assertSameAsLegacy(String comment) {
+    assertSameAsLegacy(comment, null);
+    assertSameAsLegacy(comment, REPLACING_HANDLER);
+    assertSameAsLegacy(comment, RECURSIVE_HANDLER);
+  }
+
+  private static void assertSameAsLegacy(String comment, JavaDocTagHandler handler) {
+    JavaDoc expected = new LegacyJavaDoc(comment, handler);
+    JavaDoc actual = new JavaDoc(comment, handler);
+    String message = "Unexpected parse of " + (comment == null ? null : comment.replace("\r", "\\r").replace("\n", "\\n"));
+    assertEquals(message, expected.toString(), actual.toString());
+    assertEquals(message, new HashMap<String, JavaDoc.JavaDocTagList>(expected), new HashMap<String, JavaDoc.JavaDocTagList>(actual));
+  }
+
+  private static class HandledText implements JavaDocTagHandler.TextToBeHandled {
+
+    private final String text;
+
+    private HandledText(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String toString() {
+      return text;
+    }
+  }
+
+  /**
+   * The javadoc parser as it was before it was rewritten as a single pass, kept as the reference for the rewrite.
+   */
+  private static class LegacyJavaDoc extends JavaDoc {
+
+    private LegacyJavaDoc(String docComment, JavaDocTagHandler tagHandler) {
+      super(docComment, tagHandler);
+    }
+
+    @Override
+    protected void init(String docComment, JavaDocTagHandler tagHandler) {
+      if (docComment == null) {
+        value = "";
+      }
+      else {
+        BufferedReader reader = new BufferedReader(new StringReader(docComment));
+        StringWriter currentValue = new StringWriter();
+        PrintWriter out = new PrintWriter(currentValue);
+        String currentTag = null;
+        boolean preformatting = false;
+        try {
+          String line = reader.readLine();
+          while (line != null) {
+            if (!preformatting) {
+              line = line.trim();
+            }
+            if (line.startsWith("@")) {
+              pushValue(currentTag, currentValue.toString());
+
+              int spaceIndex = indexOfFirstWhitespace(line);
+
+              currentTag = line.substring(1, spaceIndex);
+              String value = "";
+              if ((spaceIndex + 1) < line.length()) {
+                value = line.substring(spaceIndex + 1);
+              }
+
+              currentValue = new StringWriter();
+              out = new PrintWriter(currentValue);
+              out.println(value);
+            }
+            else {
+              out.println(line);
+            }
+            preformatting = (line.contains("<pre") || preformatting) && !line.contains("</pre");
+
+            line = reader.readLine();
+          }
+
+          pushValue(currentTag, currentValue.toString());
+        }
+        catch (IOException e) {
+          //fall through.
+        }
+      }
+
+      if (doTagHandling(tagHandler)) {
+        this.value = handleAllTags(this.value, tagHandler);
+        for (Map.Entry<String, JavaDocTagList> entry : entrySet()) {
+          JavaDocTagList tagValues = entry.getValue();
+          for (int i = 0; i < tagValues.size(); i++) {
+            tagValues.set(i, handleAllTags(tagValues.get(i), tagHandler));
+          }
+        }
+      }
+    }
+
+    @Override
+    protected String handleAllTags(String value, JavaDocTagHandler handler) {
+      StringBuilder builder = new StringBuilder();
+
+      Matcher matcher = INLINE_TAG_PATTERN.matcher(value);
+      int lastStart = 0;
+      while (matcher.find()) {
+        builder.append(value.substring(lastStart, matcher.start()));
+        Object replacement = handler.onInlineTag(matcher.group(1), matcher.group(2));
+        if (replacement != null) {
+          if (replacement instanceof JavaDocTagHandler.TextToBeHandled) {
+            replacement = handleAllTags(String.valueOf(replacement), handler);
+          }
+          builder.append(replacement);
+        }
+        else {
+          builder.append(value.substring(matcher.start(), matcher.end()));
+        }
+        lastStart = matcher.end();
+      }
+      builder.append(value.substring(lastStart, value.length()));
+
+      return builder.toString();
+    }
+
+    private void pushValue(String tag, String value) {
+      value = value.trim();
+
+      if (tag == null) {
+        this.value = value;
+      }
+      else {
+        JavaDocTagList tagList = get(tag);
+        if (tagList == null) {
+          put(tag, new JavaDocTagList(value));
+        }
+        else {
+          tagList.add(value);
+        }
+      }
+    }
+  }
+}
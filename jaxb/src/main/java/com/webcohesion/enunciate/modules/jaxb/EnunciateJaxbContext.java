@@ -52,6 +52,7 @@ import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.namespace.QName;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Ryan Heaton
@@ -70,6 +71,7 @@ public class EnunciateJaxbContext extends EnunciateModuleContext implements Synt
   private final Map<String, String> namespacePrefixes;
   private final Map<String, SchemaInfo> schemas;
   private final Map<String, Map<String, XmlSchemaType>> packageSpecifiedTypes;
+  private final Map<AggregatedAccessors.Key, AggregatedAccessors> aggregatedAccessors = new ConcurrentHashMap<AggregatedAccessors.Key, AggregatedAccessors>();
 
   public EnunciateJaxbContext(EnunciateContext context, boolean disableExamples) {
     super(context);
@@ -214,6 +216,26 @@ public class EnunciateJaxbContext extends EnunciateModuleContext implements Synt
     return null;
   }
 
+  /**
+   * Find the potential accessors that have been aggregated for a type.
+   *
+   * @param key The key identifying the type and how its accessors were aggregated.
+   * @return The aggregated accessors, or null if they haven't been aggregated.
+   */
+  public AggregatedAccessors findAggregatedAccessors(AggregatedAccessors.Key key) {
+    return this.aggregatedAccessors.get(key);
+  }
+
+  /**
+   * Cache the potential accessors that have been aggregated for a type.
+   *
+   * @param key       The key identifying the type and how its accessors were aggregated.
+   * @param accessors The aggregated accessors.
+   */
+  public void cacheAggregatedAccessors(AggregatedAccessors.Key key, AggregatedAccessors accessors) {
+    this.aggregatedAccessors.put(key, accessors);
+  }
+
   public ElementDeclaration findElementDeclaration(Element declaredElement) {
     if (declaredElement instanceof TypeElement) {
       return this.elementDeclarations.get(((TypeElement) declaredElement).getQualifiedName().toString());
@@ -17,6 +17,7 @@ package com.webcohesion.enunciate.modules.jaxb;
 
 import com.webcohesion.enunciate.Enunciate;
 import com.webcohesion.enunciate.artifacts.BaseArtifact;
+import com.webcohesion.enunciate.artifacts.RuntimeIndexArtifact;
 import com.webcohesion.enunciate.modules.jaxb.model.Registry;
 import com.webcohesion.enunciate.modules.jaxb.model.RootElementDeclaration;
 import com.webcohesion.enunciate.modules.jaxb.model.SchemaInfo;
@@ -24,13 +25,15 @@ import com.webcohesion.enunciate.modules.jaxb.model.SchemaInfo;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author Ryan Heaton
  */
-public class JaxbContextClassListArtifact extends BaseArtifact {
+public class JaxbContextClassListArtifact extends BaseArtifact implements RuntimeIndexArtifact.Section {
 
   private final EnunciateJaxbContext jaxbContext;
   private final Date created = new Date();
@@ -65,19 +68,28 @@ public class JaxbContextClassListArtifact extends BaseArtifact {
   public void exportTo(File fileOrDirectory, Enunciate enunciate) throws IOException {
     FileWriter out = new FileWriter(fileOrDirectory.isDirectory() ? new File(fileOrDirectory, getName()) : fileOrDirectory);
 
+    for (String contextClass : getEntries()) {
+      out.write(contextClass + "\n");
+    }
+
+    out.flush();
+    out.close();
+  }
+
+  @Override
+  public Collection<String> getEntries() {
+    List<String> contextClasses = new ArrayList<String>();
     for (SchemaInfo schemaInfo : this.jaxbContext.getSchemas().values()) {
       for (Registry registry : schemaInfo.getRegistries()) {
-        out.write(registry.getQualifiedName() + "\n");
+        contextClasses.add(registry.getQualifiedName().toString());
       }
 
       Collection<RootElementDeclaration> elements = schemaInfo.getRootElements();
       for (RootElementDeclaration element : elements) {
-        out.write(element.getQualifiedName() + "\n");
+        contextClasses.add(element.getQualifiedName().toString());
       }
     }
-
-    out.flush();
-    out.close();
+    return contextClasses;
   }
 
   @Override
@@ -17,6 +17,7 @@ package com.webcohesion.enunciate.modules.jaxb;
 
 import com.webcohesion.enunciate.EnunciateContext;
 import com.webcohesion.enunciate.api.ApiRegistry;
+import com.webcohesion.enunciate.artifacts.RuntimeIndexArtifact;
 import com.webcohesion.enunciate.javac.decorations.type.DecoratedTypeMirror;
 import com.webcohesion.enunciate.metadata.Ignore;
 import com.webcohesion.enunciate.module.*;
@@ -127,8 +128,14 @@ public class JaxbModule extends BasicProviderModule implements TypeDetectingModu
         }
     }
 
-    this.enunciate.addArtifact(new JaxbContextClassListArtifact(this.jaxbContext));
-    this.enunciate.addArtifact(new NamespacePropertiesArtifact(this.jaxbContext));
+    JaxbContextClassListArtifact contextClassList = new JaxbContextClassListArtifact(this.jaxbContext);
+    this.enunciate.addArtifact(contextClassList);
+    NamespacePropertiesArtifact namespaceProperties = new NamespacePropertiesArtifact(this.jaxbContext);
+    this.enunciate.addArtifact(namespaceProperties);
+
+    RuntimeIndexArtifact runtimeIndex = RuntimeIndexArtifact.get(this.enunciate);
+    runtimeIndex.addSection("jaxb-context-classes", contextClassList);
+    runtimeIndex.addSection("namespaces", namespaceProperties);
   }
 
   public void addPotentialJaxbElement(Element declaration, LinkedList<Element> contextStack) {
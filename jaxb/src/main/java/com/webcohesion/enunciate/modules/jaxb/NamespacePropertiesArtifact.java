@@ -17,19 +17,18 @@ package com.webcohesion.enunciate.modules.jaxb;
 
 import com.webcohesion.enunciate.Enunciate;
 import com.webcohesion.enunciate.artifacts.BaseArtifact;
+import com.webcohesion.enunciate.artifacts.RuntimeIndexArtifact;
 import com.webcohesion.enunciate.modules.jaxb.model.SchemaInfo;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Date;
-import java.util.Map;
-import java.util.Properties;
+import java.util.*;
 
 /**
  * @author Ryan Heaton
  */
-public class NamespacePropertiesArtifact extends BaseArtifact {
+public class NamespacePropertiesArtifact extends BaseArtifact implements RuntimeIndexArtifact.Section {
 
   private final EnunciateJaxbContext jaxbContext;
   private final Date created = new Date();
@@ -62,6 +61,35 @@ public class NamespacePropertiesArtifact extends BaseArtifact {
 
   @Override
   public void exportTo(File fileOrDirectory, Enunciate enunciate) throws IOException {
+    Properties properties = getProperties();
+    FileOutputStream out = new FileOutputStream(fileOrDirectory.isDirectory() ? new File(fileOrDirectory, getName()) : fileOrDirectory);
+    properties.store(out, "Namespace properties, generated by Enunciate.");
+    out.flush();
+    out.close();
+  }
+
+  /**
+   * The entries of the namespace properties, in the runtime index: each namespace followed by its prefix.
+   *
+   * @return The entries of the namespace properties.
+   */
+  @Override
+  public Collection<String> getEntries() {
+    Properties properties = getProperties();
+    List<String> entries = new ArrayList<String>();
+    for (String ns : properties.stringPropertyNames()) {
+      entries.add(ns);
+      entries.add(properties.getProperty(ns));
+    }
+    return entries;
+  }
+
+  /**
+   * The namespace properties: the prefix of each namespace, and the default namespace (keyed by "{default}").
+   *
+   * @return The namespace properties.
+   */
+  protected Properties getProperties() {
     Properties properties = new Properties();
     for (Map.Entry<String, String> ns2prefix : this.jaxbContext.getNamespacePrefixes().entrySet()) {
       if (ns2prefix.getKey() != null) {
@@ -90,10 +118,7 @@ public class NamespacePropertiesArtifact extends BaseArtifact {
       properties.put("{default}", defaultNs);
     }
 
-    FileOutputStream out = new FileOutputStream(fileOrDirectory.isDirectory() ? new File(fileOrDirectory, getName()) : fileOrDirectory);
-    properties.store(out, "Namespace properties, generated by Enunciate.");
-    out.flush();
-    out.close();
+    return properties;
   }
 
   @Override
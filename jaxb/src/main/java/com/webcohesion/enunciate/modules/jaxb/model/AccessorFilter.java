@@ -136,4 +136,13 @@ public class AccessorFilter {
     return false;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    return o != null && getClass() == o.getClass() && this.accessType == ((AccessorFilter) o).accessType;
+  }
+
+  @Override
+  public int hashCode() {
+    return this.accessType.hashCode();
+  }
 }
@@ -0,0 +1,95 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.modules.jaxb.model;
+
+import com.webcohesion.enunciate.javac.decorations.element.PropertyElement;
+
+import javax.lang.model.element.VariableElement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The potential accessors aggregated for a type, by name and in order. Cached per context so that the accessors of a
+ * common superclass are aggregated once for all of its subclasses.
+ *
+ * @author Ryan Heaton
+ */
+public final class AggregatedAccessors {
+
+  private final Map<String, VariableElement> fields;
+  private final Map<String, PropertyElement> properties;
+
+  public AggregatedAccessors(Map<String, VariableElement> fields, Map<String, PropertyElement> properties) {
+    this.fields = Collections.unmodifiableMap(new LinkedHashMap<String, VariableElement>(fields));
+    this.properties = Collections.unmodifiableMap(new LinkedHashMap<String, PropertyElement>(properties));
+  }
+
+  /**
+   * The potential fields, by name.
+   *
+   * @return The potential fields, by name.
+   */
+  public Map<String, VariableElement> getFields() {
+    return fields;
+  }
+
+  /**
+   * The potential properties, by name.
+   *
+   * @return The potential properties, by name.
+   */
+  public Map<String, PropertyElement> getProperties() {
+    return properties;
+  }
+
+  /**
+   * Key for the aggregated accessors of a type: the type, the filter that was applied, and whether the accessors of
+   * superclasses were inlined.
+   */
+  public static final class Key {
+
+    private final String typeName;
+    private final AccessorFilter filter;
+    private final boolean inlineAccessorsOfSuperclasses;
+
+    public Key(String typeName, AccessorFilter filter, boolean inlineAccessorsOfSuperclasses) {
+      this.typeName = typeName;
+      this.filter = filter;
+      this.inlineAccessorsOfSuperclasses = inlineAccessorsOfSuperclasses;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+
+      Key other = (Key) o;
+      return this.inlineAccessorsOfSuperclasses == other.inlineAccessorsOfSuperclasses
+        && this.typeName.equals(other.typeName)
+        && this.filter.equals(other.filter);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = this.typeName.hashCode();
+      result = 31 * result + this.filter.hashCode();
+      result = 31 * result + (this.inlineAccessorsOfSuperclasses ? 1 : 0);
+      return result;
+    }
+  }
+}
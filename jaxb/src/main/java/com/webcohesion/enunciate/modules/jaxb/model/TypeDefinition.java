@@ -17,6 +17,7 @@ package com.webcohesion.enunciate.modules.jaxb.model;
 
 import com.webcohesion.enunciate.EnunciateException;
 import com.webcohesion.enunciate.facets.Facet;
+import com.webcohesion.enunciate.facets.FacetSet;
 import com.webcohesion.enunciate.facets.HasFacets;
 import com.webcohesion.enunciate.javac.decorations.Annotations;
 import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecorator;
@@ -59,7 +60,7 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
   private final TypeMirror anyAttributeQNameEnumRef;
   private final AnyElement anyElement;
   private final LinkedList<javax.lang.model.element.Element> referencedFrom = new LinkedList<javax.lang.model.element.Element>();
-  private final Set<Facet> facets = new TreeSet<Facet>();
+  private final Set<Facet> facets = new FacetSet();
   protected final EnunciateJaxbContext context;
 
   protected TypeDefinition(TypeElement delegate, EnunciateJaxbContext context) {
@@ -186,25 +187,40 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
    * @return the potential accessors for this type definition.
    */
   protected List<javax.lang.model.element.Element> loadPotentialAccessors(AccessorFilter filter) {
-    List<VariableElement> potentialFields = new ArrayList<VariableElement>();
-    List<PropertyElement> potentialProperties = new ArrayList<PropertyElement>();
+    Map<String, VariableElement> potentialFields = new LinkedHashMap<String, VariableElement>();
+    Map<String, PropertyElement> potentialProperties = new LinkedHashMap<String, PropertyElement>();
     aggregatePotentialAccessors(potentialFields, potentialProperties, this, filter, false);
 
     List<javax.lang.model.element.Element> accessors = new ArrayList<javax.lang.model.element.Element>();
-    accessors.addAll(potentialFields);
-    accessors.addAll(potentialProperties);
+    accessors.addAll(potentialFields.values());
+    accessors.addAll(potentialProperties.values());
     return accessors;
   }
 
   /**
    * Aggregate the potential accessor into their separate buckets for the given class declaration, recursively including transient superclasses.
+   * The accessors of a class are only aggregated once per context for a given filter; subsequent aggregations starting
+   * from empty buckets (e.g. for each subclass of a common transient superclass) use the cached accessors.
    *
-   * @param fields     The fields.
-   * @param properties The properties.
+   * @param fields     The fields, by name.
+   * @param properties The properties, by name.
    * @param clazz      The class.
    * @param filter     The filter.
    */
-  protected void aggregatePotentialAccessors(List<VariableElement> fields, List<PropertyElement> properties, DecoratedTypeElement clazz, AccessorFilter filter, boolean inlineAccessorsOfSuperclasses) {
+  protected void aggregatePotentialAccessors(Map<String, VariableElement> fields, Map<String, PropertyElement> properties, DecoratedTypeElement clazz, AccessorFilter filter, boolean inlineAccessorsOfSuperclasses) {
+    String fqn = clazz.getQualifiedName().toString();
+    AggregatedAccessors.Key cacheKey = null;
+    if (fields.isEmpty() && properties.isEmpty() && !fqn.isEmpty()) {
+      //starting from empty buckets, the aggregation only depends on the class, the filter and whether superclasses are inlined.
+      cacheKey = new AggregatedAccessors.Key(fqn, filter, inlineAccessorsOfSuperclasses);
+      AggregatedAccessors cached = this.context.findAggregatedAccessors(cacheKey);
+      if (cached != null) {
+        fields.putAll(cached.getFields());
+        properties.putAll(cached.getProperties());
+        return;
+      }
+    }
+
     DecoratedTypeElement superDeclaration = clazz.getSuperclass() != null ? (DecoratedTypeElement) this.env.getTypeUtils().asElement(clazz.getSuperclass()) : null;
     if (superDeclaration != null && (isXmlTransient(superDeclaration) || inlineAccessorsOfSuperclasses)) {
       aggregatePotentialAccessors(fields, properties, superDeclaration, filter, true);
@@ -227,6 +243,10 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
         addOrReplace(propertyDeclaration, properties);
       }
     }
+
+    if (cacheKey != null) {
+      this.context.cacheAggregatedAccessors(cacheKey, new AggregatedAccessors(fields, properties));
+    }
   }
 
   /**
@@ -264,9 +284,9 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
    * @param memberDeclaration  The member to add/replace.
    * @param memberDeclarations The other members.
    */
-  protected <M extends javax.lang.model.element.Element> void addOrReplace(M memberDeclaration, List<M> memberDeclarations) {
+  protected <M extends javax.lang.model.element.Element> void addOrReplace(M memberDeclaration, Map<String, M> memberDeclarations) {
     remove(memberDeclaration, memberDeclarations);
-    memberDeclarations.add(memberDeclaration);
+    memberDeclarations.put(memberDeclaration.getSimpleName().toString(), memberDeclaration);
   }
 
   /**
@@ -275,14 +295,8 @@ public abstract class TypeDefinition extends DecoratedTypeElement implements Has
    * @param memberDeclaration  The member to remove.
    * @param memberDeclarations The other members.
    */
-  protected <M extends javax.lang.model.element.Element> void remove(M memberDeclaration, List<M> memberDeclarations) {
-    Iterator<M> it = memberDeclarations.iterator();
-    while (it.hasNext()) {
-      javax.lang.model.element.Element candidate = it.next();
-      if (candidate.getSimpleName().equals(memberDeclaration.getSimpleName())) {
-        it.remove();
-      }
-    }
+  protected <M extends javax.lang.model.element.Element> void remove(M memberDeclaration, Map<String, M> memberDeclarations) {
+    memberDeclarations.remove(memberDeclaration.getSimpleName().toString());
   }
 
   /**
@@ -18,6 +18,7 @@ package com.webcohesion.enunciate.modules.jaxrs;
 import com.webcohesion.enunciate.EnunciateContext;
 import com.webcohesion.enunciate.EnunciateException;
 import com.webcohesion.enunciate.api.ApiRegistry;
+import com.webcohesion.enunciate.artifacts.RuntimeIndexArtifact;
 import com.webcohesion.enunciate.module.*;
 import com.webcohesion.enunciate.modules.jaxrs.model.*;
 import com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType;
@@ -177,12 +178,16 @@ public class JaxrsModule extends BasicProviderModule implements TypeDetectingMod
     jaxrsContext.setPathSortStrategy(getPathSortStrategy());
 
     if (jaxrsContext.getRootResources().size() > 0) {
-      this.enunciate.addArtifact(new JaxrsRootResourceClassListArtifact(this.jaxrsContext));
+      JaxrsRootResourceClassListArtifact resourceClassList = new JaxrsRootResourceClassListArtifact(this.jaxrsContext);
+      this.enunciate.addArtifact(resourceClassList);
+      RuntimeIndexArtifact.get(this.enunciate).addSection("jaxrs-resource-classes", resourceClassList);
       this.apiRegistry.getResourceApis().add(jaxrsContext);
     }
 
     if (this.jaxrsContext.getProviders().size() > 0) {
-      this.enunciate.addArtifact(new JaxrsProviderClassListArtifact(this.jaxrsContext));
+      JaxrsProviderClassListArtifact providerClassList = new JaxrsProviderClassListArtifact(this.jaxrsContext);
+      this.enunciate.addArtifact(providerClassList);
+      RuntimeIndexArtifact.get(this.enunciate).addSection("jaxrs-provider-classes", providerClassList);
     }
   }
 
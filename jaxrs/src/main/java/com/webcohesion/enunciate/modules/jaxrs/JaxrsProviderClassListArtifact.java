@@ -17,19 +17,21 @@ package com.webcohesion.enunciate.modules.jaxrs;
 
 import com.webcohesion.enunciate.Enunciate;
 import com.webcohesion.enunciate.artifacts.BaseArtifact;
+import com.webcohesion.enunciate.artifacts.RuntimeIndexArtifact;
 
 import javax.lang.model.element.TypeElement;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
  * @author Ryan Heaton
  */
-public class JaxrsProviderClassListArtifact extends BaseArtifact {
+public class JaxrsProviderClassListArtifact extends BaseArtifact implements RuntimeIndexArtifact.Section {
 
   private final EnunciateJaxrsContext jaxrsContext;
   private final Date created = new Date();
@@ -64,17 +66,23 @@ public class JaxrsProviderClassListArtifact extends BaseArtifact {
   public void exportTo(File fileOrDirectory, Enunciate enunciate) throws IOException {
     FileWriter out = new FileWriter(fileOrDirectory.isDirectory() ? new File(fileOrDirectory, getName()) : fileOrDirectory);
 
-    Set<String> written = new HashSet<String>();
-    for (TypeElement provider : this.jaxrsContext.getProviders()) {
-      if (written.add(provider.getQualifiedName().toString())) {
-        out.write(provider.getQualifiedName() + "\n");
-      }
+    for (String providerClass : getEntries()) {
+      out.write(providerClass + "\n");
     }
 
     out.flush();
     out.close();
   }
 
+  @Override
+  public Collection<String> getEntries() {
+    Set<String> providerClasses = new LinkedHashSet<String>();
+    for (TypeElement provider : this.jaxrsContext.getProviders()) {
+      providerClasses.add(provider.getQualifiedName().toString());
+    }
+    return providerClasses;
+  }
+
   @Override
   public long getSize() {
     return -1;
@@ -17,19 +17,21 @@ package com.webcohesion.enunciate.modules.jaxrs;
 
 import com.webcohesion.enunciate.Enunciate;
 import com.webcohesion.enunciate.artifacts.BaseArtifact;
+import com.webcohesion.enunciate.artifacts.RuntimeIndexArtifact;
 import com.webcohesion.enunciate.modules.jaxrs.model.RootResource;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
  * @author Ryan Heaton
  */
-public class JaxrsRootResourceClassListArtifact extends BaseArtifact {
+public class JaxrsRootResourceClassListArtifact extends BaseArtifact implements RuntimeIndexArtifact.Section {
 
   private final EnunciateJaxrsContext jaxrsContext;
   private final Date created = new Date();
@@ -64,17 +66,23 @@ public class JaxrsRootResourceClassListArtifact extends BaseArtifact {
   public void exportTo(File fileOrDirectory, Enunciate enunciate) throws IOException {
     FileWriter out = new FileWriter(fileOrDirectory.isDirectory() ? new File(fileOrDirectory, getName()) : fileOrDirectory);
 
-    Set<String> written = new HashSet<String>();
-    for (RootResource resource : this.jaxrsContext.getRootResources()) {
-      if (written.add(resource.getQualifiedName().toString())) {
-        out.write(resource.getQualifiedName() + "\n");
-      }
+    for (String resourceClass : getEntries()) {
+      out.write(resourceClass + "\n");
     }
 
     out.flush();
     out.close();
   }
 
+  @Override
+  public Collection<String> getEntries() {
+    Set<String> resourceClasses = new LinkedHashSet<String>();
+    for (RootResource resource : this.jaxrsContext.getRootResources()) {
+      resourceClasses.add(resource.getQualifiedName().toString());
+    }
+    return resourceClasses;
+  }
+
   @Override
   public long getSize() {
     return -1;
@@ -16,12 +16,14 @@
 package com.webcohesion.enunciate.modules.jaxrs.model;
 
 import com.webcohesion.enunciate.facets.Facet;
+import com.webcohesion.enunciate.facets.FacetSet;
 import com.webcohesion.enunciate.facets.HasFacets;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedTypeElement;
 import com.webcohesion.enunciate.javac.decorations.element.PropertyElement;
 import com.webcohesion.enunciate.javac.decorations.type.TypeVariableContext;
 import com.webcohesion.enunciate.modules.jaxrs.EnunciateJaxrsContext;
 import com.webcohesion.enunciate.modules.jaxrs.model.util.JaxrsUtil;
+import com.webcohesion.enunciate.util.LazyValue;
 
 import javax.annotation.security.RolesAllowed;
 import javax.lang.model.element.*;
@@ -45,12 +47,13 @@ public abstract class Resource extends DecoratedTypeElement implements HasFacets
   private final EnunciateJaxrsContext context;
   private final String path;
   private final List<PathSegment> pathComponents;
+  private final LazyValue<List<PathSegment>> fullPathComponents;
   private final Set<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType> consumesMime;
   private final Set<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType> producesMime;
   private final Set<ResourceParameter> resourceParameters;
   private final List<ResourceMethod> resourceMethods;
   private final List<SubResourceLocator> resourceLocators;
-  private final Set<Facet> facets = new TreeSet<Facet>();
+  private final Set<Facet> facets = new FacetSet();
 
   protected Resource(TypeElement delegate, String path, EnunciateJaxrsContext context) {
     super(delegate, context.getContext().getProcessingEnvironment());
@@ -62,6 +65,12 @@ public abstract class Resource extends DecoratedTypeElement implements HasFacets
     }
     this.path = path;
     this.pathComponents =  extractPathComponents(path);
+    this.fullPathComponents = new LazyValue<List<PathSegment>>() {
+      @Override
+      protected List<PathSegment> load() {
+        return loadFullPathComponents();
+      }
+    };
 
     Set<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType> consumes = new TreeSet<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType>();
     Consumes consumesInfo = delegate.getAnnotation(Consumes.class);
@@ -328,7 +337,7 @@ public abstract class Resource extends DecoratedTypeElement implements HasFacets
         }
       }
     }
-    return components;
+    return Collections.unmodifiableList(components);
   }
 
   /**
@@ -341,18 +350,27 @@ public abstract class Resource extends DecoratedTypeElement implements HasFacets
   }
 
   /**
-   * The path components for this resource.
+   * The path components for this resource, including the components of its parents.
    *
    * @return The path components for this resource.
    */
   public List<PathSegment> getPathComponents() {
+    return this.fullPathComponents.get();
+  }
+
+  /**
+   * Loads the path components of this resource, including the components of its parents.
+   *
+   * @return The path components.
+   */
+  protected List<PathSegment> loadFullPathComponents() {
     List<PathSegment> components = new ArrayList<PathSegment>();
     Resource parent = getParent();
     if (parent != null) {
       components.addAll(parent.getPathComponents());
     }
     components.addAll(this.pathComponents);
-    return components;
+    return Collections.unmodifiableList(components);
   }
 
   /**
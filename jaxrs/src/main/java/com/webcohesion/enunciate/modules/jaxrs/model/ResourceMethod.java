@@ -17,6 +17,7 @@ package com.webcohesion.enunciate.modules.jaxrs.model;
 
 import com.webcohesion.enunciate.EnunciateException;
 import com.webcohesion.enunciate.facets.Facet;
+import com.webcohesion.enunciate.facets.FacetSet;
 import com.webcohesion.enunciate.facets.HasFacets;
 import com.webcohesion.enunciate.javac.decorations.Annotations;
 import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecorator;
@@ -30,6 +31,7 @@ import com.webcohesion.enunciate.metadata.rs.ResponseHeader;
 import com.webcohesion.enunciate.modules.jaxrs.EnunciateJaxrsContext;
 import com.webcohesion.enunciate.modules.jaxrs.model.util.JaxrsUtil;
 import com.webcohesion.enunciate.util.AnnotationUtils;
+import com.webcohesion.enunciate.util.LazyValue;
 import com.webcohesion.enunciate.util.TypeHintUtils;
 import io.swagger.annotations.*;
 
@@ -58,22 +60,21 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
   private final EnunciateJaxrsContext context;
   private final String subpath;
   private final String label;
-  private final String customParameterName;
   private final Set<String> httpMethods;
   private final Set<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType> consumesMediaTypes;
   private final Set<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType> producesMediaTypes;
   private final Resource parent;
-  private final Set<ResourceParameter> resourceParameters;
-  private final ResourceEntityParameter entityParameter;
+  private final LazyValue<Signature> signature;
   private final Map<String, Object> metaData = new HashMap<String, Object>();
   private final List<? extends ResponseCode> statusCodes;
   private final List<? extends ResponseCode> warnings;
   private final Map<String, String> responseHeaders;
-  private final ResourceRepresentationMetadata representationMetadata;
-  private final Set<Facet> facets = new TreeSet<Facet>();
+  private final Set<Facet> facets = new FacetSet();
   private final List<PathSegment> pathComponents;
+  private final LazyValue<List<PathSegment>> fullPathComponents;
+  private final LazyValue<String> fullpath;
 
-  public ResourceMethod(ExecutableElement delegate, Resource parent, TypeVariableContext variableContext, EnunciateJaxrsContext context) {
+  public ResourceMethod(final ExecutableElement delegate, final Resource parent, final TypeVariableContext variableContext, final EnunciateJaxrsContext context) {
     super(delegate, context.getContext().getProcessingEnvironment());
     this.context = context;
 
@@ -83,10 +84,6 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
       throw new IllegalStateException("A resource method must specify an HTTP method by using a request method designator annotation.");
     }
 
-    this.httpMethods = httpMethods;
-    this.consumesMediaTypes = loadConsumes(delegate, parent);
-    this.producesMediaTypes = loadProduces(delegate, parent);
-
     String label = null;
     ResourceLabel resourceLabel = delegate.getAnnotation(ResourceLabel.class);
     if (resourceLabel != null) {
@@ -102,13 +99,46 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
       subpath = pathInfo.value();
     }
 
-    List<PathSegment> pathComponents = extractPathComponents(subpath);
+    //the signature (parameters, entity and output) is only analyzed on demand; the rest is cheap to read up front.
+    this.httpMethods = httpMethods;
+    this.subpath = subpath;
+    this.label = label;
+    this.parent = parent;
+    this.pathComponents = extractPathComponents(subpath);
+    this.fullPathComponents = new LazyValue<List<PathSegment>>() {
+      @Override
+      protected List<PathSegment> load() {
+        return loadFullPathComponents();
+      }
+    };
+    this.fullpath = new LazyValue<String>() {
+      @Override
+      protected String load() {
+        return loadFullpath();
+      }
+    };
+    this.facets.addAll(Facet.gatherFacets(delegate, context.getContext()));
+    this.facets.addAll(parent.getFacets());
+
+    this.consumesMediaTypes = loadConsumes(delegate, parent);
+    this.producesMediaTypes = loadProduces(delegate, parent);
+    this.statusCodes = loadStatusCodes(parent);
+    this.warnings = loadWarnings(parent);
+    this.responseHeaders = loadResponseHeaders(parent);
+    this.signature = new LazyValue<Signature>() {
+      @Override
+      protected Signature load() {
+        return loadSignature(parent, variableContext, context);
+      }
+    };
+  }
 
+  protected Signature loadSignature(Resource parent, TypeVariableContext variableContext, EnunciateJaxrsContext context) {
     String customParameterName = null;
     ResourceEntityParameter entityParameter;
     Set<ResourceParameter> resourceParameters;
     ResourceRepresentationMetadata outputPayload;
-    ResourceMethodSignature signatureOverride = delegate.getAnnotation(ResourceMethodSignature.class);
+    ResourceMethodSignature signatureOverride = getAnnotation(ResourceMethodSignature.class);
     if (signatureOverride == null) {
       entityParameter = null;
       resourceParameters = new TreeSet<ResourceParameter>();
@@ -140,20 +170,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
     }
 
     resourceParameters.addAll(loadExtraParameters(parent, context));
-
-    this.entityParameter = entityParameter;
-    this.resourceParameters = resourceParameters;
-    this.subpath = subpath;
-    this.label = label;
-    this.customParameterName = customParameterName;
-    this.parent = parent;
-    this.statusCodes = loadStatusCodes(parent);
-    this.warnings = loadWarnings(parent);
-    this.representationMetadata = outputPayload;
-    this.facets.addAll(Facet.gatherFacets(delegate, context.getContext()));
-    this.facets.addAll(parent.getFacets());
-    this.pathComponents = pathComponents;
-    this.responseHeaders = loadResponseHeaders(parent);
+    return new Signature(entityParameter, resourceParameters, customParameterName, outputPayload);
   }
 
   protected Set<String> loadHttpMethods(ExecutableElement delegate) {
@@ -707,18 +724,27 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
   }
 
   /**
-   * Get the path components for this resource method.
+   * Get the path components for this resource method, including the components of its parents.
    *
    * @return The path components.
    */
   public List<PathSegment> getPathComponents() {
+    return this.fullPathComponents.get();
+  }
+
+  /**
+   * Loads the path components of this resource method, including the components of its parents.
+   *
+   * @return The path components.
+   */
+  protected List<PathSegment> loadFullPathComponents() {
     List<PathSegment> components = new ArrayList<PathSegment>();
     Resource parent = getParent();
     if (parent != null) {
       components.addAll(parent.getPathComponents());
     }
     components.addAll(this.pathComponents);
-    return components;
+    return Collections.unmodifiableList(components);
   }
 
   /**
@@ -727,12 +753,22 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return the full URI path to this resource method.
    */
   public String getFullpath() {
+    return this.fullpath.get();
+  }
+
+  /**
+   * Loads the full URI path to this resource method. The path is interned since it's used as a key for grouping and
+   * sorting the resource methods.
+   *
+   * @return the full URI path to this resource method.
+   */
+  protected String loadFullpath() {
     StringBuilder builder = new StringBuilder();
     for (PathSegment component : getPathComponents()) {
       builder.append('/').append(component.getValue());
     }
 
-    return builder.toString();
+    return builder.toString().intern();
   }
 
   /**
@@ -793,7 +829,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return the name of the custom parameter
    */
   public String getCustomParameterName() {
-    return customParameterName;
+    return this.signature.get().customParameterName;
   }
 
   /**
@@ -811,7 +847,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return The MIME types that are consumed by this method.
    */
   public Set<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType> getConsumesMediaTypes() {
-    return consumesMediaTypes;
+    return this.consumesMediaTypes;
   }
 
   /**
@@ -820,7 +856,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return The MIME types that are produced by this method.
    */
   public Set<com.webcohesion.enunciate.modules.jaxrs.model.util.MediaType> getProducesMediaTypes() {
-    return producesMediaTypes;
+    return this.producesMediaTypes;
   }
 
   /**
@@ -829,7 +865,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return The list of resource parameters that this method requires to be invoked.
    */
   public Set<ResourceParameter> getResourceParameters() {
-    TreeSet<ResourceParameter> resourceParams = new TreeSet<ResourceParameter>(this.resourceParameters);
+    TreeSet<ResourceParameter> resourceParams = new TreeSet<ResourceParameter>(this.signature.get().resourceParameters);
     resourceParams.addAll(getParent().getResourceParameters());
     return resourceParams;
   }
@@ -840,7 +876,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return The entity parameter, or null if none.
    */
   public ResourceEntityParameter getEntityParameter() {
-    return entityParameter;
+    return this.signature.get().entityParameter;
   }
 
   /**
@@ -849,7 +885,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return The output payload for this resource.
    */
   public ResourceRepresentationMetadata getRepresentationMetadata() {
-    return this.representationMetadata;
+    return this.signature.get().representationMetadata;
   }
 
   /**
@@ -895,7 +931,7 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
    * @return The response headers that are expected on this resource method.
    */
   public Map<String, String> getResponseHeaders() {
-    return responseHeaders;
+    return this.responseHeaders;
   }
 
   /**
@@ -926,4 +962,22 @@ public class ResourceMethod extends DecoratedExecutableElement implements HasFac
     return roles;
   }
 
+  /**
+   * The parameters and output of a resource method, which are loaded together on demand.
+   */
+  protected static final class Signature {
+
+    private final ResourceEntityParameter entityParameter;
+    private final Set<ResourceParameter> resourceParameters;
+    private final String customParameterName;
+    private final ResourceRepresentationMetadata representationMetadata;
+
+    protected Signature(ResourceEntityParameter entityParameter, Set<ResourceParameter> resourceParameters, String customParameterName, ResourceRepresentationMetadata representationMetadata) {
+      this.entityParameter = entityParameter;
+      this.resourceParameters = resourceParameters;
+      this.customParameterName = customParameterName;
+      this.representationMetadata = representationMetadata;
+    }
+  }
+
 }
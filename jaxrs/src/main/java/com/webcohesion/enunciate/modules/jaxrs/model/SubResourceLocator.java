@@ -18,6 +18,7 @@ package com.webcohesion.enunciate.modules.jaxrs.model;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedExecutableElement;
 import com.webcohesion.enunciate.javac.decorations.type.TypeMirrorUtils;
 import com.webcohesion.enunciate.modules.jaxrs.EnunciateJaxrsContext;
+import com.webcohesion.enunciate.util.LazyValue;
 
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
@@ -38,6 +39,7 @@ public class SubResourceLocator extends DecoratedExecutableElement implements Pa
 
   private final Path path;
   private final List<PathSegment> pathComponents;
+  private final LazyValue<List<PathSegment>> fullPathComponents;
   private final SubResource resource;
   private final Resource parent;
   private final List<ResourceParameter> resourceParameters;
@@ -54,6 +56,12 @@ public class SubResourceLocator extends DecoratedExecutableElement implements Pa
       throw new IllegalArgumentException("A subresource locator must specify a path with the @javax.ws.rs.Path annotation.");
     }
     this.pathComponents = extractPathComponents(this.path.value());
+    this.fullPathComponents = new LazyValue<List<PathSegment>>() {
+      @Override
+      protected List<PathSegment> load() {
+        return loadFullPathComponents();
+      }
+    };
 
     SubResource resource;
     TypeMirror returnType = delegate.getReturnType();
@@ -115,13 +123,22 @@ public class SubResourceLocator extends DecoratedExecutableElement implements Pa
 
   @Override
   public List<PathSegment> getPathComponents() {
+    return this.fullPathComponents.get();
+  }
+
+  /**
+   * Loads the path components of this subresource locator, including the components of its parents.
+   *
+   * @return The path components.
+   */
+  protected List<PathSegment> loadFullPathComponents() {
     List<PathSegment> components = new ArrayList<PathSegment>();
     Resource parent = getParent();
     if (parent != null) {
       components.addAll(parent.getPathComponents());
     }
     components.addAll(this.pathComponents);
-    return components;
+    return Collections.unmodifiableList(components);
   }
 
   @Override
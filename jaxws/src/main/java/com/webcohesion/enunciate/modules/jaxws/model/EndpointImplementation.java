@@ -17,6 +17,7 @@ package com.webcohesion.enunciate.modules.jaxws.model;
 
 
 import com.webcohesion.enunciate.facets.Facet;
+import com.webcohesion.enunciate.facets.FacetSet;
 import com.webcohesion.enunciate.facets.HasFacets;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedTypeElement;
 import com.webcohesion.enunciate.metadata.ClientName;
@@ -25,7 +26,6 @@ import com.webcohesion.enunciate.modules.jaxws.EnunciateJaxwsContext;
 import javax.annotation.Resource;
 import javax.lang.model.element.TypeElement;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * A class specified as a web service endpoint implementation.  Remember an endpoint implementation could
@@ -36,7 +36,7 @@ import java.util.TreeSet;
 public class EndpointImplementation extends DecoratedTypeElement implements HasFacets {
 
   private final EndpointInterface endpointInterface;
-  private final Set<Facet> facets = new TreeSet<Facet>();
+  private final Set<Facet> facets = new FacetSet();
   private final EnunciateJaxwsContext context;
   private String path;
 
@@ -16,14 +16,12 @@
 package com.webcohesion.enunciate.rt;
 
 import javax.ws.rs.core.Application;
-import java.io.BufferedReader;
+import javax.ws.rs.ext.ContextResolver;
+import javax.xml.bind.JAXBContext;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Logger;
 
 /**
@@ -38,22 +36,14 @@ public class EnunciateApplication extends Application {
   public Set<Class<?>> getClasses() {
     Set<Class<?>> classes = new HashSet<Class<?>>();
     ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+    EnunciateRuntimeIndex index = EnunciateRuntimeIndex.load(classloader);
 
     try {
-      Enumeration<URL> contextClassLists = classloader.getResources("/jaxrs-resource-classes.list");
-      while (contextClassLists.hasMoreElements()) {
-        URL contextClassList = contextClassLists.nextElement();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(contextClassList.openStream(), "utf-8"));
-        String contextClass = reader.readLine();
-        while (contextClass != null) {
-          try {
-            classes.add(classloader.loadClass(contextClass));
-          }
-          catch (Throwable e) {
-            onUnknownResourceClass(contextClass, e);
-          }
-          contextClass = reader.readLine();
-        }
+      List<String> resourceClasses = EnunciateRuntimeIndex.readEntries(index, EnunciateRuntimeIndex.JAXRS_RESOURCE_CLASSES, "/jaxrs-resource-classes.list", classloader);
+      Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+      classes.addAll(EnunciateRuntimeIndex.loadClasses(resourceClasses, classloader, failures));
+      for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+        onUnknownResourceClass(failure.getKey(), failure.getValue());
       }
     }
     catch (IOException e) {
@@ -61,22 +51,13 @@ public class EnunciateApplication extends Application {
     }
 
     try {
-      Enumeration<URL> contextClassLists = classloader.getResources("/jaxrs-provider-classes.list");
-      while (contextClassLists.hasMoreElements()) {
-        URL contextClassList = contextClassLists.nextElement();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(contextClassList.openStream(), "utf-8"));
-        String contextClass = reader.readLine();
-        while (contextClass != null) {
-          if (!JAXB_CONTEXT_RESOLVER_CLASSNAME.equals(contextClass)) { //we'll attempt to load the jaxb context resolver as a singleton, in case we don't have jaxb-impl on the classpath.
-            try {
-              classes.add(classloader.loadClass(contextClass));
-            }
-            catch (Throwable e) {
-              onUnknownProviderClass(contextClass, e);
-            }
-          }
-          contextClass = reader.readLine();
-        }
+      List<String> providerClasses = new ArrayList<String>(EnunciateRuntimeIndex.readEntries(index, EnunciateRuntimeIndex.JAXRS_PROVIDER_CLASSES, "/jaxrs-provider-classes.list", classloader));
+      //we'll attempt to load the jaxb context resolver as a singleton, in case we don't have jaxb-impl on the classpath.
+      providerClasses.removeAll(Collections.singleton(JAXB_CONTEXT_RESOLVER_CLASSNAME));
+      Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+      classes.addAll(EnunciateRuntimeIndex.loadClasses(providerClasses, classloader, failures));
+      for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+        onUnknownProviderClass(failure.getKey(), failure.getValue());
       }
     }
     catch (IOException e) {
@@ -87,12 +68,25 @@ public class EnunciateApplication extends Application {
   }
 
   @Override
+  @SuppressWarnings ( "unchecked" )
   public Set<Object> getSingletons() {
     ClassLoader classloader = Thread.currentThread().getContextClassLoader();
     HashSet<Object> singletons = new HashSet<Object>();
 
     try {
-      singletons.add(classloader.loadClass(JAXB_CONTEXT_RESOLVER_CLASSNAME).newInstance());
+      final ContextResolver<JAXBContext> jaxbContextResolver = (ContextResolver<JAXBContext>) classloader.loadClass(JAXB_CONTEXT_RESOLVER_CLASSNAME).newInstance();
+      singletons.add(jaxbContextResolver);
+
+      //marshallers and unmarshallers of the context are reused instead of being created for each request.
+      //the context is resolved on first use so that startup doesn't wait for it to be built.
+      EnunciateJaxbPool pool = new EnunciateJaxbPool(new FutureTask<JAXBContext>(new Callable<JAXBContext>() {
+        @Override
+        public JAXBContext call() throws Exception {
+          return jaxbContextResolver.getContext(null);
+        }
+      }));
+      singletons.add(new EnunciateMarshallerResolver(pool));
+      singletons.add(new EnunciateUnmarshallerResolver(pool));
     }
     catch (Throwable e) {
       LOG.info(JAXB_CONTEXT_RESOLVER_CLASSNAME + " cannot be instantiated (" + e.getMessage() + ").");
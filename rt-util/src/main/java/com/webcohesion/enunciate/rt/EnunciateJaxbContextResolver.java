@@ -19,20 +19,23 @@ import javax.ws.rs.ext.ContextResolver;
 import javax.ws.rs.ext.Provider;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.List;
-import java.util.Properties;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Logger;
 
 /**
  * A JAX-RS context resolver for an instance of JAXBContext that attempts to use metadata exported at build-time
  * by Enunciate to provide pretty namespace prefixes and a JAXB context that is aware of all the classes annotated
- * with @XmlRootElement in the project.
+ * with @XmlRootElement in the project. The context is built in the background as soon as the first resolver of a
+ * classloader is created, and is shared by the other resolvers of that classloader; callers of {@link #getContext(Class)}
+ * wait for it to finish.
  *
  * @author Ryan Heaton
  */
@@ -41,60 +44,169 @@ public class EnunciateJaxbContextResolver implements ContextResolver<JAXBContext
 
   private static Logger LOG = Logger.getLogger(EnunciateJaxbContextResolver.class.getName());
 
-  private final JAXBContext context;
+  /**
+   * The contexts shared by the resolvers of each classloader, so that the resolvers that are discovered separately by the
+   * container (including the ones backing the marshaller and unmarshaller resolvers) only build one context.
+   */
+  private static final Map<ClassLoader, WeakReference<FutureTask<JAXBContext>>> SHARED_CONTEXTS = new WeakHashMap<ClassLoader, WeakReference<FutureTask<JAXBContext>>>();
+
+  private final FutureTask<JAXBContext> context;
 
   public EnunciateJaxbContextResolver() {
-    this.context = buildJaxbContext();
+    if (getClass() == EnunciateJaxbContextResolver.class) {
+      this.context = sharedContextFuture();
+    }
+    else {
+      //subclasses may build a different context, so they don't share it.
+      this.context = startBuilding(new Callable<JAXBContext>() {
+        @Override
+        public JAXBContext call() throws Exception {
+          return buildJaxbContext();
+        }
+      }, Thread.currentThread().getContextClassLoader());
+    }
+  }
+
+  /**
+   * The context shared by the resolvers of the current context classloader, which is started if it hasn't been already.
+   *
+   * @return The future shared context.
+   */
+  static FutureTask<JAXBContext> sharedContextFuture() {
+    ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+    synchronized (SHARED_CONTEXTS) {
+      WeakReference<FutureTask<JAXBContext>> ref = SHARED_CONTEXTS.get(classloader);
+      FutureTask<JAXBContext> context = ref == null ? null : ref.get();
+      if (context == null) {
+        context = startBuilding(new Callable<JAXBContext>() {
+          @Override
+          public JAXBContext call() throws Exception {
+            return buildEnunciateJaxbContext();
+          }
+        }, classloader);
+        SHARED_CONTEXTS.put(classloader, new WeakReference<FutureTask<JAXBContext>>(context));
+      }
+      return context;
+    }
+  }
+
+  private static FutureTask<JAXBContext> startBuilding(final Callable<JAXBContext> build, ClassLoader classloader) {
+    FutureTask<JAXBContext> context = new FutureTask<JAXBContext>(new Callable<JAXBContext>() {
+      @Override
+      public JAXBContext call() throws Exception {
+        try {
+          return build.call();
+        }
+        catch (Throwable e) {
+          LOG.warning("Unable to build the JAXB context (" + e.getMessage() + ")");
+          return null;
+        }
+      }
+    });
+
+    Thread builder = new Thread(context, "enunciate-jaxb-context");
+    builder.setDaemon(true);
+    builder.setContextClassLoader(classloader);
+    builder.start();
+    return context;
   }
 
   @Override
   public JAXBContext getContext(Class<?> type) {
+    try {
+      return this.context.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    catch (ExecutionException e) {
+      //not reached: failures are logged by the builder.
+      return null;
+    }
+  }
+
+  /**
+   * The JAXB context, which may still be being built.
+   *
+   * @return The future JAXB context. The context is null if there's no build-time metadata.
+   */
+  public Future<JAXBContext> getContextFuture() {
     return this.context;
   }
 
+  /**
+   * Build the JAXB context. Subclasses that override this build their own context instead of using the shared one.
+   *
+   * @return The JAXB context, or null if there's no build-time metadata.
+   */
   protected JAXBContext buildJaxbContext() {
-    List<Class<?>> contextClasses = new ArrayList<Class<?>>();
+    return buildEnunciateJaxbContext();
+  }
+
+  private static JAXBContext buildEnunciateJaxbContext() {
     ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+    EnunciateRuntimeIndex index = EnunciateRuntimeIndex.load(classloader);
 
-    boolean hasContextClasses = false;
-    boolean hasNamespacePrefixes = false;
+    //an index only has the JAXB sections if the JAXB module contributed to it.
+    boolean hasContextClasses = index != null && index.hasSection(EnunciateRuntimeIndex.JAXB_CONTEXT_CLASSES);
+    boolean hasNamespacePrefixes = index != null && index.hasSection(EnunciateRuntimeIndex.NAMESPACES);
 
+    List<Class<?>> contextClasses = new ArrayList<Class<?>>();
     try {
-      Enumeration<URL> contextClassLists = classloader.getResources("/jaxb-context-classes.list");
-      while (contextClassLists.hasMoreElements()) {
-        hasContextClasses = true;
-        URL contextClassList = contextClassLists.nextElement();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(contextClassList.openStream(), "utf-8"));
-        String contextClass = reader.readLine();
-        while (contextClass != null) {
-          try {
-            contextClasses.add(classloader.loadClass(contextClass));
-          }
-          catch (Throwable e) {
-            LOG.warning("Unable to load JAXB context class " + contextClass + " (" + e.getMessage() + ")");
-          }
-          contextClass = reader.readLine();
-        }
+      List<String> contextClassNames = EnunciateRuntimeIndex.readEntries(index, EnunciateRuntimeIndex.JAXB_CONTEXT_CLASSES, "/jaxb-context-classes.list", classloader);
+      hasContextClasses |= !contextClassNames.isEmpty();
+      Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+      contextClasses = EnunciateRuntimeIndex.loadClasses(contextClassNames, classloader, failures);
+      for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+        LOG.warning("Unable to load JAXB context class " + failure.getKey() + " (" + failure.getValue().getMessage() + ")");
       }
     }
     catch (IOException e) {
       LOG.warning("Unable to read all JAXB context classes (" + e.getMessage() + ")");
     }
 
-    Properties namespacePrefixes = new Properties();
+    Map<String, String> namespacePrefixes = new HashMap<String, String>();
     String defaultNs = null;
+    if (index != null) {
+      List<String> namespaces = index.getSection(EnunciateRuntimeIndex.NAMESPACES);
+      for (int i = 0; i + 1 < namespaces.size(); i += 2) {
+        if ("{default}".equals(namespaces.get(i))) {
+          if (defaultNs == null) {
+            defaultNs = namespaces.get(i + 1);
+          }
+        }
+        else {
+          namespacePrefixes.put(namespaces.get(i), namespaces.get(i + 1));
+        }
+      }
+    }
+
+    //jars built with older versions of Enunciate only have the namespace properties.
     try {
       Enumeration<URL> namespacePropertiesList = classloader.getResources("/namespaces.properties");
       while (namespacePropertiesList.hasMoreElements()) {
-        hasNamespacePrefixes = true;
         URL namespaceProperties = namespacePropertiesList.nextElement();
+        if (index != null && index.isIndexed(namespaceProperties, "/namespaces.properties")) {
+          continue;
+        }
+
+        hasNamespacePrefixes = true;
         Properties props = new Properties();
-        props.load(namespaceProperties.openStream());
+        InputStream in = namespaceProperties.openStream();
+        try {
+          props.load(in);
+        }
+        finally {
+          in.close();
+        }
         Object defaultNamespace = props.remove("{default}");
         if (defaultNamespace != null && defaultNs == null) {
           defaultNs = defaultNamespace.toString();
         }
-        namespacePrefixes.putAll(props);
+        for (String ns : props.stringPropertyNames()) {
+          namespacePrefixes.put(ns, props.getProperty(ns));
+        }
       }
     }
     catch (IOException e) {
@@ -17,31 +17,63 @@ package com.webcohesion.enunciate.rt;
 
 import com.sun.xml.bind.marshaller.NamespacePrefixMapper;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
- * A namespace prefix mapper.
+ * A namespace prefix mapper. The preferred prefixes of the known namespaces are computed up front (for both values of
+ * <code>requirePrefix</code>) and held in a map that isn't modified after construction, so each lookup during
+ * marshalling is a single unsynchronized map read.
  *
  * @author Ryan Heaton
  */
 public class EnunciateJaxbNamespacePrefixMapper extends NamespacePrefixMapper {
 
   private final String defaultNs;
-  private final Properties ns2prefix;
+  private final Map<String, String[]> preferredPrefixes;
 
   public EnunciateJaxbNamespacePrefixMapper(String defaultNs, Properties ns2prefix) {
+    this(defaultNs, toMap(ns2prefix));
+  }
+
+  /**
+   * @param defaultNs The default namespace, or null if there is none.
+   * @param ns2prefix The prefixes, by namespace.
+   */
+  public EnunciateJaxbNamespacePrefixMapper(String defaultNs, Map<String, String> ns2prefix) {
     this.defaultNs = defaultNs;
-    this.ns2prefix = new Properties();
+
+    int size = (ns2prefix == null ? 0 : ns2prefix.size()) + 1;
+    Map<String, String[]> preferredPrefixes = new HashMap<String, String[]>((int) (size / 0.75f) + 1);
     if (ns2prefix != null) {
-      this.ns2prefix.putAll(ns2prefix);
+      for (Map.Entry<String, String> entry : ns2prefix.entrySet()) {
+        String prefix = entry.getValue();
+        preferredPrefixes.put(entry.getKey(), new String[]{entry.getKey().equals(defaultNs) ? "" : prefix, prefix});
+      }
+    }
+
+    if (defaultNs != null && !preferredPrefixes.containsKey(defaultNs)) {
+      //null: the suggestion is used if a prefix is required.
+      preferredPrefixes.put(defaultNs, new String[]{"", null});
     }
+
+    this.preferredPrefixes = preferredPrefixes;
   }
 
   public String getPreferredPrefix(String nsuri, String suggestion, boolean requirePrefix) {
-    String prefix = this.ns2prefix.containsKey(nsuri) ? this.ns2prefix.getProperty(nsuri) : suggestion;
-    if (!requirePrefix && nsuri.equals(this.defaultNs)) {
-      prefix = "";
+    String[] prefixes = this.preferredPrefixes.get(nsuri);
+    String prefix = prefixes == null ? null : prefixes[requirePrefix ? 1 : 0];
+    return prefix == null ? suggestion : prefix;
+  }
+
+  private static Map<String, String> toMap(Properties properties) {
+    Map<String, String> map = new HashMap<String, String>();
+    if (properties != null) {
+      for (String name : properties.stringPropertyNames()) {
+        map.put(name, properties.getProperty(name));
+      }
     }
-    return prefix;
+    return map;
   }
-}
\ No newline at end of file
+}
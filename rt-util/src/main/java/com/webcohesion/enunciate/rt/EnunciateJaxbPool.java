@@ -0,0 +1,476 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pools of marshallers and unmarshallers for a JAXB context. Marshallers and unmarshallers aren't thread-safe, so each
+ * one is only ever used by one thread at a time: they can either be borrowed from (and returned to) a bounded pool, or
+ * obtained as a pooled instance that borrows from the pool for each call. The pools are striped by thread to limit
+ * contention.
+ * Borrowed instances are reset to their initial configuration each time they're handed out, and the instances backing a
+ * pooled marshaller or unmarshaller have the settings applied for a call undone before they go back to the pool (an
+ * instance whose settings can't be undone is discarded). The JAXB context may be
+ * supplied as a future, so the pool can be set up before the context is built.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateJaxbPool {
+
+  public static final int DEFAULT_STRIPES = 8;
+  public static final int DEFAULT_STRIPE_SIZE = 8;
+
+  private final Future<? extends JAXBContext> context;
+  private final BlockingQueue<Marshaller>[] marshallers;
+  private final BlockingQueue<Unmarshaller>[] unmarshallers;
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong misses = new AtomicLong(0);
+  private final AtomicLong creationTime = new AtomicLong(0);
+
+  public EnunciateJaxbPool(JAXBContext context) {
+    this(context, DEFAULT_STRIPES, DEFAULT_STRIPE_SIZE);
+  }
+
+  /**
+   * @param context    The JAXB context.
+   * @param stripes    The number of stripes of each pool.
+   * @param stripeSize The maximum number of idle instances in each stripe.
+   */
+  public EnunciateJaxbPool(JAXBContext context, int stripes, int stripeSize) {
+    this(completed(context), stripes, stripeSize);
+  }
+
+  /**
+   * @param context The future JAXB context. If the future is a {@link RunnableFuture} that hasn't been run, it's run on
+   *                first use of the pool.
+   */
+  public EnunciateJaxbPool(Future<? extends JAXBContext> context) {
+    this(context, DEFAULT_STRIPES, DEFAULT_STRIPE_SIZE);
+  }
+
+  /**
+   * @param context    The future JAXB context. If the future is a {@link RunnableFuture} that hasn't been run, it's run on
+   *                   first use of the pool.
+   * @param stripes    The number of stripes of each pool.
+   * @param stripeSize The maximum number of idle instances in each stripe.
+   */
+  @SuppressWarnings ( "unchecked" )
+  public EnunciateJaxbPool(Future<? extends JAXBContext> context, int stripes, int stripeSize) {
+    if (context == null) {
+      throw new NullPointerException();
+    }
+
+    if (stripes < 1 || stripeSize < 1) {
+      throw new IllegalArgumentException("Pool stripes and stripe size must be positive.");
+    }
+
+    this.context = context;
+    this.marshallers = new BlockingQueue[stripes];
+    this.unmarshallers = new BlockingQueue[stripes];
+    for (int i = 0; i < stripes; i++) {
+      this.marshallers[i] = new ArrayBlockingQueue<Marshaller>(stripeSize);
+      this.unmarshallers[i] = new ArrayBlockingQueue<Unmarshaller>(stripeSize);
+    }
+  }
+
+  /**
+   * The JAXB context of the pool, waiting for it to be built if needed.
+   *
+   * @return The JAXB context of the pool, or null if there is none.
+   */
+  public JAXBContext getContext() throws JAXBException {
+    if (this.context instanceof RunnableFuture && !this.context.isDone()) {
+      ((RunnableFuture<?>) this.context).run();
+    }
+
+    try {
+      return this.context.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new JAXBException(e);
+    }
+    catch (ExecutionException e) {
+      throw new JAXBException(e.getCause());
+    }
+  }
+
+  /**
+   * Borrow a marshaller from the pool. The marshaller should be {@link #release(Marshaller) released} when it's no longer
+   * in use.
+   *
+   * @return The marshaller.
+   */
+  public Marshaller acquireMarshaller() throws JAXBException {
+    Marshaller marshaller = stripe(this.marshallers).poll();
+    if (marshaller == null) {
+      return createMarshaller();
+    }
+
+    this.hits.incrementAndGet();
+    reset(marshaller);
+    return marshaller;
+  }
+
+  /**
+   * Return a marshaller to the pool. If the pool is full, the marshaller is discarded. Only the standard settings are
+   * reset when the marshaller is handed out again, so any other settings (e.g. the schema location or vendor properties)
+   * must be undone before the marshaller is returned.
+   *
+   * @param marshaller The marshaller.
+   */
+  public void release(Marshaller marshaller) {
+    if (marshaller != null) {
+      stripe(this.marshallers).offer(marshaller);
+    }
+  }
+
+  /**
+   * Borrow an unmarshaller from the pool. The unmarshaller should be {@link #release(Unmarshaller) released} when it's no
+   * longer in use.
+   *
+   * @return The unmarshaller.
+   */
+  public Unmarshaller acquireUnmarshaller() throws JAXBException {
+    Unmarshaller unmarshaller = stripe(this.unmarshallers).poll();
+    if (unmarshaller == null) {
+      return createUnmarshaller();
+    }
+
+    this.hits.incrementAndGet();
+    reset(unmarshaller);
+    return unmarshaller;
+  }
+
+  /**
+   * Return an unmarshaller to the pool. If the pool is full, the unmarshaller is discarded. Only the standard settings are
+   * reset when the unmarshaller is handed out again, so any other settings (e.g. adapters or vendor properties) must be
+   * undone before the unmarshaller is returned.
+   *
+   * @param unmarshaller The unmarshaller.
+   */
+  public void release(Unmarshaller unmarshaller) {
+    if (unmarshaller != null) {
+      stripe(this.unmarshallers).offer(unmarshaller);
+    }
+  }
+
+  /**
+   * A marshaller backed by the pool, for callers that can't return a marshaller when they're done with it (e.g. JAX-RS
+   * message body writers). Each call borrows a marshaller from the pool, applies the configuration that was set on the
+   * pooled marshaller, and returns the marshaller to the pool. Like any marshaller, it must only be used by one thread
+   * at a time.
+   *
+   * @return A marshaller backed by the pool.
+   */
+  public Marshaller getPooledMarshaller() {
+    return (Marshaller) Proxy.newProxyInstance(Marshaller.class.getClassLoader(), new Class[]{Marshaller.class}, new PooledInstance<Marshaller>() {
+      @Override
+      protected Marshaller acquire() throws JAXBException {
+        return acquireMarshaller();
+      }
+
+      @Override
+      protected void release(Marshaller marshaller) {
+        EnunciateJaxbPool.this.release(marshaller);
+      }
+    });
+  }
+
+  /**
+   * An unmarshaller backed by the pool, for callers that can't return an unmarshaller when they're done with it (e.g.
+   * JAX-RS message body readers). Each call borrows an unmarshaller from the pool, applies the configuration that was
+   * set on the pooled unmarshaller, and returns the unmarshaller to the pool. Like any unmarshaller, it must only be used
+   * by one thread at a time.
+   *
+   * @return An unmarshaller backed by the pool.
+   */
+  public Unmarshaller getPooledUnmarshaller() {
+    return (Unmarshaller) Proxy.newProxyInstance(Unmarshaller.class.getClassLoader(), new Class[]{Unmarshaller.class}, new PooledInstance<Unmarshaller>() {
+      @Override
+      protected Unmarshaller acquire() throws JAXBException {
+        return acquireUnmarshaller();
+      }
+
+      @Override
+      protected void release(Unmarshaller unmarshaller) {
+        EnunciateJaxbPool.this.release(unmarshaller);
+      }
+    });
+  }
+
+  /**
+   * The number of times a marshaller or unmarshaller was handed out without being created.
+   *
+   * @return The number of pool hits.
+   */
+  public long getHits() {
+    return this.hits.get();
+  }
+
+  /**
+   * The number of times a marshaller or unmarshaller had to be created.
+   *
+   * @return The number of pool misses.
+   */
+  public long getMisses() {
+    return this.misses.get();
+  }
+
+  /**
+   * The total time spent creating marshallers and unmarshallers, in nanoseconds.
+   *
+   * @return The total creation time, in nanoseconds.
+   */
+  public long getCreationTimeNanos() {
+    return this.creationTime.get();
+  }
+
+  protected Marshaller createMarshaller() throws JAXBException {
+    long start = System.nanoTime();
+    Marshaller marshaller = getRequiredContext().createMarshaller();
+    this.creationTime.addAndGet(System.nanoTime() - start);
+    this.misses.incrementAndGet();
+    return marshaller;
+  }
+
+  protected Unmarshaller createUnmarshaller() throws JAXBException {
+    long start = System.nanoTime();
+    Unmarshaller unmarshaller = getRequiredContext().createUnmarshaller();
+    this.creationTime.addAndGet(System.nanoTime() - start);
+    this.misses.incrementAndGet();
+    return unmarshaller;
+  }
+
+  /**
+   * Reset a marshaller that is being reused to its initial configuration (the configuration that is applied by the JAXB
+   * context, e.g. the namespace prefix mapper, is left as-is).
+   *
+   * @param marshaller The marshaller.
+   */
+  protected void reset(Marshaller marshaller) throws JAXBException {
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+    marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+    marshaller.setSchema(null);
+    marshaller.setEventHandler(null);
+    marshaller.setListener(null);
+    marshaller.setAttachmentMarshaller(null);
+  }
+
+  /**
+   * Reset an unmarshaller that is being reused to its initial configuration.
+   *
+   * @param unmarshaller The unmarshaller.
+   */
+  protected void reset(Unmarshaller unmarshaller) throws JAXBException {
+    unmarshaller.setSchema(null);
+    unmarshaller.setEventHandler(null);
+    unmarshaller.setListener(null);
+    unmarshaller.setAttachmentUnmarshaller(null);
+  }
+
+  private JAXBContext getRequiredContext() throws JAXBException {
+    JAXBContext context = getContext();
+    if (context == null) {
+      throw new JAXBException("No JAXB context.");
+    }
+    return context;
+  }
+
+  private static FutureTask<JAXBContext> completed(final JAXBContext context) {
+    if (context == null) {
+      throw new NullPointerException();
+    }
+
+    FutureTask<JAXBContext> future = new FutureTask<JAXBContext>(new Callable<JAXBContext>() {
+      @Override
+      public JAXBContext call() throws Exception {
+        return context;
+      }
+    });
+    future.run();
+    return future;
+  }
+
+  private <T> BlockingQueue<T> stripe(BlockingQueue<T>[] stripes) {
+    return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+  }
+
+  /**
+   * The invocation handler for a marshaller or unmarshaller backed by the pool. The configuration is recorded so it can be
+   * applied to each instance that is borrowed, and undone before the instance is returned.
+   */
+  private abstract class PooledInstance<T> implements InvocationHandler {
+
+    private final Map<Object, Object[]> configuration = new LinkedHashMap<Object, Object[]>();
+
+    protected abstract T acquire() throws JAXBException;
+
+    protected abstract void release(T instance);
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        if ("equals".equals(method.getName())) {
+          return proxy == args[0];
+        }
+        else if ("hashCode".equals(method.getName())) {
+          return System.identityHashCode(proxy);
+        }
+        else {
+          return "Pooled" + proxy.getClass().getInterfaces()[0].getSimpleName() + "{" + EnunciateJaxbPool.this + "}";
+        }
+      }
+
+      T instance = acquire();
+      List<Object[]> defaults = new ArrayList<Object[]>();
+      boolean release = true;
+      try {
+        for (Object[] setting : this.configuration.values()) {
+          release &= apply(instance, (Method) setting[0], (Object[]) setting[1], defaults);
+        }
+
+        Object result;
+        if (method.getName().startsWith("set")) {
+          release &= apply(instance, method, args, defaults);
+          //the setting is only recorded once the instance has accepted it.
+          this.configuration.put(settingKey(method, args), new Object[]{method, args});
+          result = null;
+        }
+        else {
+          result = method.invoke(instance, args);
+          if ("getUnmarshallerHandler".equals(method.getName()) || "getNode".equals(method.getName())) {
+            //the result is bound to the instance, so it can't be reused.
+            release = false;
+          }
+        }
+        return result;
+      }
+      catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      finally {
+        if (release && restore(instance, defaults)) {
+          release(instance);
+        }
+      }
+    }
+
+    /**
+     * Apply a setting to an instance, capturing the default value so it can be restored before the instance goes back to
+     * the pool.
+     *
+     * @return Whether the default value could be captured.
+     */
+    private boolean apply(T instance, Method setter, Object[] args, List<Object[]> defaults) throws Exception {
+      Object[] undo = null;
+      try {
+        undo = defaultOf(instance, setter, args);
+      }
+      catch (Exception e) {
+        //fall through: the instance won't be reused.
+      }
+
+      setter.invoke(instance, args);
+      if (undo != null) {
+        defaults.add(undo);
+      }
+      return undo != null;
+    }
+
+    /**
+     * The setting that restores the current value of whatever the given setter sets.
+     *
+     * @return The setter and its arguments, or null if the current value can't be read.
+     */
+    private Object[] defaultOf(T instance, Method setter, Object[] args) throws Exception {
+      Class<?> type = setter.getDeclaringClass();
+      if ("setProperty".equals(setter.getName())) {
+        return new Object[]{setter, new Object[]{args[0], type.getMethod("getProperty", String.class).invoke(instance, args[0])}};
+      }
+      else if ("setAdapter".equals(setter.getName())) {
+        Class<?> adapterType = args.length == 1 ? args[0].getClass() : (Class<?>) args[0];
+        Object adapter = type.getMethod("getAdapter", Class.class).invoke(instance, adapterType);
+        return new Object[]{type.getMethod("setAdapter", Class.class, XmlAdapter.class), new Object[]{adapterType, adapter}};
+      }
+      else if (args != null && args.length == 1) {
+        String name = setter.getName().substring(3);
+        for (String getter : new String[]{"get" + name, "is" + name}) {
+          try {
+            return new Object[]{setter, new Object[]{type.getMethod(getter).invoke(instance)}};
+          }
+          catch (NoSuchMethodException e) {
+            //fall through
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Restore the defaults of an instance, in the reverse order they were captured.
+     *
+     * @return Whether the defaults were restored, i.e. whether the instance can be reused.
+     */
+    private boolean restore(T instance, List<Object[]> defaults) {
+      for (int i = defaults.size() - 1; i >= 0; i--) {
+        Object[] undo = defaults.get(i);
+        try {
+          ((Method) undo[0]).invoke(instance, (Object[]) undo[1]);
+        }
+        catch (Exception e) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private Object settingKey(Method method, Object[] args) {
+      if ("setProperty".equals(method.getName())) {
+        return Arrays.asList(method.getName(), args[0]);
+      }
+      else if ("setAdapter".equals(method.getName())) {
+        //setAdapter(adapter) is the same as setAdapter(adapter.getClass(), adapter).
+        return Arrays.asList(method.getName(), args.length == 1 ? args[0].getClass() : args[0]);
+      }
+      else {
+        return method.getName();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "EnunciateJaxbPool{hits=" + getHits() + ", misses=" + getMisses() + ", creationTimeNanos=" + getCreationTimeNanos() + '}';
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import java.util.logging.Logger;
+
+/**
+ * A JAX-RS context resolver for marshallers of the JAXB context provided by the {@link EnunciateJaxbContextResolver}.
+ * The marshallers borrow their instances from an {@link EnunciateJaxbPool} for each call.
+ *
+ * @author Ryan Heaton
+ */
+@Provider
+public class EnunciateMarshallerResolver implements ContextResolver<Marshaller> {
+
+  private static Logger LOG = Logger.getLogger(EnunciateMarshallerResolver.class.getName());
+
+  private final EnunciateJaxbPool pool;
+
+  public EnunciateMarshallerResolver() {
+    this(new EnunciateJaxbPool(EnunciateJaxbContextResolver.sharedContextFuture()));
+  }
+
+  /**
+   * @param pool The pool from which to obtain the marshallers.
+   */
+  public EnunciateMarshallerResolver(EnunciateJaxbPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public Marshaller getContext(Class<?> type) {
+    try {
+      //no JAXB context, no marshallers.
+      return this.pool.getContext() == null ? null : this.pool.getPooledMarshaller();
+    }
+    catch (JAXBException e) {
+      LOG.warning("Unable to create marshaller (" + e.getMessage() + ")");
+      return null;
+    }
+  }
+
+  /**
+   * The pool from which the marshallers are obtained.
+   *
+   * @return The pool from which the marshallers are obtained.
+   */
+  public EnunciateJaxbPool getPool() {
+    return pool;
+  }
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * The runtime metadata exported by Enunciate at build-time: the binary index (enunciate-runtime.index) and the plain
+ * text lists (e.g. jaxrs-resource-classes.list, namespaces.properties) that were exported by older versions of
+ * Enunciate. The lists are only read from the classpath roots that don't have an index, so a classpath can combine jars
+ * built with either without reading the metadata of the newer jars twice.
+ *
+ * @author Ryan Heaton
+ */
+public class EnunciateRuntimeIndex {
+
+  private static Logger LOG = Logger.getLogger(EnunciateRuntimeIndex.class.getName());
+
+  public static final String INDEX_RESOURCE = "enunciate-runtime.index";
+  public static final String JAXRS_RESOURCE_CLASSES = "jaxrs-resource-classes";
+  public static final String JAXRS_PROVIDER_CLASSES = "jaxrs-provider-classes";
+  public static final String JAXB_CONTEXT_CLASSES = "jaxb-context-classes";
+  public static final String NAMESPACES = "namespaces";
+
+  //must be kept in sync with com.webcohesion.enunciate.artifacts.RuntimeIndexArtifact.
+  private static final int MAGIC = 0x454E5249;
+  private static final int VERSION = 1;
+
+  private final Map<String, List<String>> sections;
+  private final Set<String> roots;
+
+  private EnunciateRuntimeIndex(Map<String, List<String>> sections, Set<String> roots) {
+    this.sections = sections;
+    this.roots = roots;
+  }
+
+  /**
+   * Load the runtime index from the specified classloader. The sections of all the indexes on the classpath are merged.
+   * An index that can't be read is skipped (and the lists of its classpath root are read instead).
+   *
+   * @param classloader The classloader.
+   * @return The runtime index, or null if there's no (readable) index on the classpath.
+   */
+  public static EnunciateRuntimeIndex load(ClassLoader classloader) {
+    Enumeration<URL> indexes;
+    try {
+      indexes = classloader.getResources(INDEX_RESOURCE);
+    }
+    catch (IOException e) {
+      LOG.warning("Unable to find the Enunciate runtime indexes (" + e.getMessage() + ")");
+      return null;
+    }
+
+    Map<String, List<String>> sections = new HashMap<String, List<String>>();
+    Set<String> roots = new HashSet<String>();
+    while (indexes.hasMoreElements()) {
+      URL index = indexes.nextElement();
+      Map<String, List<String>> indexSections;
+      try {
+        indexSections = read(index);
+      }
+      catch (IOException e) {
+        LOG.warning("Unable to read the Enunciate runtime index " + index + " (" + e.getMessage() + ")");
+        continue;
+      }
+
+      if (indexSections != null) {
+        for (Map.Entry<String, List<String>> section : indexSections.entrySet()) {
+          List<String> entries = sections.get(section.getKey());
+          if (entries == null) {
+            sections.put(section.getKey(), section.getValue());
+          }
+          else {
+            entries.addAll(section.getValue());
+          }
+        }
+        roots.add(rootOf(index, INDEX_RESOURCE));
+      }
+    }
+
+    return roots.isEmpty() ? null : new EnunciateRuntimeIndex(sections, roots);
+  }
+
+  private static Map<String, List<String>> read(URL index) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(index.openStream()));
+    try {
+      if (in.readInt() != MAGIC) {
+        LOG.warning(index + " isn't an Enunciate runtime index.");
+        return null;
+      }
+
+      int version = in.readInt();
+      if (version != VERSION) {
+        LOG.warning(index + " has an unsupported version (" + version + ").");
+        return null;
+      }
+
+      Map<String, List<String>> sections = new HashMap<String, List<String>>();
+      int sectionCount = in.readInt();
+      for (int i = 0; i < sectionCount; i++) {
+        String name = in.readUTF();
+        int entryCount = in.readInt();
+        List<String> entries = sections.get(name);
+        if (entries == null) {
+          entries = new ArrayList<String>(entryCount);
+          sections.put(name, entries);
+        }
+        for (int j = 0; j < entryCount; j++) {
+          entries.add(in.readUTF());
+        }
+      }
+      return sections;
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  /**
+   * The classpath root of a resource, i.e. its URL without the resource name.
+   *
+   * @param resource The URL of the resource.
+   * @param name     The name the resource was looked up with.
+   * @return The classpath root of the resource.
+   */
+  private static String rootOf(URL resource, String name) {
+    String url = resource.toString();
+    while (name.startsWith("/")) {
+      name = name.substring(1);
+    }
+    return url.endsWith(name) ? url.substring(0, url.length() - name.length()) : url;
+  }
+
+  /**
+   * Whether the specified resource is in a classpath root that has an index, i.e. whether its metadata is already
+   * in the index.
+   *
+   * @param resource The URL of the resource.
+   * @param name     The name the resource was looked up with.
+   * @return Whether the resource is in a classpath root that has an index.
+   */
+  public boolean isIndexed(URL resource, String name) {
+    return this.roots.contains(rootOf(resource, name));
+  }
+
+  /**
+   * Whether the index has the specified section (possibly empty), i.e. whether the section was exported at build-time.
+   *
+   * @param name The name of the section.
+   * @return Whether the index has the section.
+   */
+  public boolean hasSection(String name) {
+    return this.sections.containsKey(name);
+  }
+
+  /**
+   * The entries of the specified section.
+   *
+   * @param name The name of the section.
+   * @return The entries of the section (possibly empty).
+   */
+  public List<String> getSection(String name) {
+    List<String> entries = this.sections.get(name);
+    return entries == null ? Collections.<String>emptyList() : Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * The names of the specified section of the runtime metadata: the entries of the section of the index (if there is
+   * one), merged with the entries of the specified list resources of the classpath roots that don't have an index.
+   *
+   * @param index        The index, or null if there's no index.
+   * @param section      The section of the index.
+   * @param listResource The list resource.
+   * @param classloader  The classloader.
+   * @return The entries, without duplicates.
+   */
+  public static List<String> readEntries(EnunciateRuntimeIndex index, String section, String listResource, ClassLoader classloader) throws IOException {
+    Set<String> entries = new LinkedHashSet<String>();
+    if (index != null) {
+      entries.addAll(index.getSection(section));
+    }
+
+    Enumeration<URL> lists = classloader.getResources(listResource);
+    while (lists.hasMoreElements()) {
+      URL list = lists.nextElement();
+      if (index != null && index.isIndexed(list, listResource)) {
+        //the index of the same jar (or directory) already has the entries.
+        continue;
+      }
+
+      BufferedReader reader = new BufferedReader(new InputStreamReader(list.openStream(), "utf-8"));
+      try {
+        String entry = reader.readLine();
+        while (entry != null) {
+          entries.add(entry);
+          entry = reader.readLine();
+        }
+      }
+      finally {
+        reader.close();
+      }
+    }
+    return new ArrayList<String>(entries);
+  }
+
+  /**
+   * Load the specified classes, in parallel.
+   *
+   * @param classNames  The names of the classes.
+   * @param classloader The classloader.
+   * @param failures    The map to which to add the classes that couldn't be loaded, and why.
+   * @return The classes that were loaded, in the order of their names.
+   */
+  public static List<Class<?>> loadClasses(List<String> classNames, final ClassLoader classloader, Map<String, Throwable> failures) {
+    List<Class<?>> classes = new ArrayList<Class<?>>(classNames.size());
+    int threads = Math.min(Runtime.getRuntime().availableProcessors(), classNames.size() / 16);
+    if (threads < 2) {
+      for (String className : classNames) {
+        try {
+          classes.add(classloader.loadClass(className));
+        }
+        catch (Throwable e) {
+          failures.put(className, e);
+        }
+      }
+      return classes;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new LoaderThreadFactory(classloader));
+    try {
+      List<Future<Class<?>>> loaded = new ArrayList<Future<Class<?>>>(classNames.size());
+      for (final String className : classNames) {
+        loaded.add(executor.submit(new Callable<Class<?>>() {
+          @Override
+          public Class<?> call() throws Exception {
+            return classloader.loadClass(className);
+          }
+        }));
+      }
+
+      for (int i = 0; i < classNames.size(); i++) {
+        try {
+          classes.add(loaded.get(i).get());
+        }
+        catch (ExecutionException e) {
+          failures.put(classNames.get(i), e.getCause());
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          failures.put(classNames.get(i), e);
+        }
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    return classes;
+  }
+
+  private static class LoaderThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+    private final int poolNumber = POOL_NUMBER.getAndIncrement();
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+    private final ClassLoader classloader;
+
+    private LoaderThreadFactory(ClassLoader classloader) {
+      this.classloader = classloader;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "enunciate-class-loader-" + poolNumber + "-" + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      thread.setContextClassLoader(this.classloader);
+      return thread;
+    }
+  }
+}
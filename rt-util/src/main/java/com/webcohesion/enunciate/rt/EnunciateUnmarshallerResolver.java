@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import java.util.logging.Logger;
+
+/**
+ * A JAX-RS context resolver for unmarshallers of the JAXB context provided by the {@link EnunciateJaxbContextResolver}.
+ * The unmarshallers borrow their instances from an {@link EnunciateJaxbPool} for each call.
+ *
+ * @author Ryan Heaton
+ */
+@Provider
+public class EnunciateUnmarshallerResolver implements ContextResolver<Unmarshaller> {
+
+  private static Logger LOG = Logger.getLogger(EnunciateUnmarshallerResolver.class.getName());
+
+  private final EnunciateJaxbPool pool;
+
+  public EnunciateUnmarshallerResolver() {
+    this(new EnunciateJaxbPool(EnunciateJaxbContextResolver.sharedContextFuture()));
+  }
+
+  /**
+   * @param pool The pool from which to obtain the unmarshallers.
+   */
+  public EnunciateUnmarshallerResolver(EnunciateJaxbPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public Unmarshaller getContext(Class<?> type) {
+    try {
+      //no JAXB context, no unmarshallers.
+      return this.pool.getContext() == null ? null : this.pool.getPooledUnmarshaller();
+    }
+    catch (JAXBException e) {
+      LOG.warning("Unable to create unmarshaller (" + e.getMessage() + ")");
+      return null;
+    }
+  }
+
+  /**
+   * The pool from which the unmarshallers are obtained.
+   *
+   * @return The pool from which the unmarshallers are obtained.
+   */
+  public EnunciateJaxbPool getPool() {
+    return pool;
+  }
+}
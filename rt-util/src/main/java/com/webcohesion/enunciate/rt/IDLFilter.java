@@ -17,97 +17,296 @@ package com.webcohesion.enunciate.rt;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
 import javax.xml.stream.*;
 import javax.xml.stream.events.*;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Serves the IDL files (WSDL, WADL, schemas) of the application, rewriting the base address that was assumed when they
+ * were generated to the base address of the request. Each IDL is parsed once into a template that is split at the
+ * assumed base address, and the rewritten IDL is cached per base address, so the IDL is only re-rendered when it's
+ * requested at a new base address. Cached IDLs are served with an ETag and a Last-Modified date so clients that poll
+ * them can make conditional requests.
+ *
  * @author Ryan Heaton
  */
 public class IDLFilter implements Filter {
 
+  public static final String CACHE_SIZE_PARAM = "idl-cache-size";
+  public static final int DEFAULT_CACHE_SIZE = 64;
+
+  //characters that would need to be escaped if they were spliced into the IDL.
+  private static final String SPECIAL_CHARACTERS = "&<>\"'";
+
   private ServletContext servletContext = null;
   private XMLInputFactory inputFactory;
   private XMLOutputFactory outputFactory;
+  private final ConcurrentMap<String, IDLTemplate> templates = new ConcurrentHashMap<String, IDLTemplate>();
+  private Map<String, RenderedIDL> renderedIDLs = new RenderedIDLCache(DEFAULT_CACHE_SIZE);
 
   public void init(FilterConfig filterConfig) throws ServletException {
     this.inputFactory = XMLInputFactory.newInstance();
     this.outputFactory = XMLOutputFactory.newInstance();
 
     this.servletContext = filterConfig.getServletContext();
+
+    int cacheSize = DEFAULT_CACHE_SIZE;
+    String cacheSizeParam = filterConfig.getInitParameter(CACHE_SIZE_PARAM);
+    if (cacheSizeParam != null) {
+      try {
+        cacheSize = Integer.parseInt(cacheSizeParam.trim());
+      }
+      catch (NumberFormatException e) {
+        throw new ServletException("Invalid " + CACHE_SIZE_PARAM + ": " + cacheSizeParam);
+      }
+    }
+    this.templates.clear();
+    this.renderedIDLs = new RenderedIDLCache(cacheSize);
   }
 
   public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain) throws IOException, ServletException {
     HttpServletRequest request = (HttpServletRequest) servletRequest;
     RequestURIParts parts = parseParts(request);
     if (parts != null) {
-      String realBaseAddress = parts.getBaseAddress();
-      String idlPath = parts.getFilePath();
-      InputStream idl = this.servletContext.getResourceAsStream(idlPath);
+      RenderedIDL idl = getRenderedIDL(parts.getFilePath(), parts.getBaseAddress());
       if (idl != null) {
-        servletResponse.setContentType("text/xml");
-        String assumedBaseAddress = this.servletContext.getInitParameter("assumed-base-uri");
-        try {
-          XMLEventReader eventReader = this.inputFactory.createXMLEventReader(idl);
-          XMLEventWriter eventWriter = this.outputFactory.createXMLEventWriter(servletResponse.getWriter());
-          while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            if (event.isProcessingInstruction()) {
-              String target = ((ProcessingInstruction) event).getTarget();
-              if ("enunciate-assumed-base-uri".equals(target)) {
-                assumedBaseAddress = ((ProcessingInstruction) event).getData();
-                if (assumedBaseAddress.endsWith("/")) {
-                  assumedBaseAddress = assumedBaseAddress.substring(0, assumedBaseAddress.length() - 1);
-                }
-              }
-              continue;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        response.setHeader("ETag", idl.getETag());
+        response.setDateHeader("Last-Modified", idl.getLastModified());
+        if (isNotModified(request, idl)) {
+          response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+          return;
+        }
+
+        response.setContentType("text/xml");
+        response.setCharacterEncoding(idl.getEncoding());
+        response.setContentLength(idl.getContent().length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(idl.getContent());
+        out.flush();
+        return;
+      }
+    }
+
+    chain.doFilter(servletRequest, servletResponse);
+  }
+
+  /**
+   * Get the IDL at the specified path, rewritten for the specified base address.
+   *
+   * @param idlPath     The path to the IDL.
+   * @param baseAddress The base address.
+   * @return The rendered IDL, or null if there's no IDL at the specified path.
+   */
+  protected RenderedIDL getRenderedIDL(String idlPath, String baseAddress) throws ServletException {
+    String key = idlPath + ' ' + baseAddress;
+    RenderedIDL idl;
+    synchronized (this.renderedIDLs) {
+      idl = this.renderedIDLs.get(key);
+    }
+
+    if (idl == null) {
+      IDLTemplate template;
+      if (isSpliceable(baseAddress)) {
+        template = this.templates.get(idlPath);
+        if (template == null) {
+          template = loadTemplate(idlPath, null);
+          if (template == null) {
+            return null;
+          }
+          this.templates.put(idlPath, template);
+        }
+      }
+      else {
+        //the base address would need to be escaped, so we let the xml writer do it.
+        template = loadTemplate(idlPath, baseAddress);
+        if (template == null) {
+          return null;
+        }
+      }
+
+      idl = template.render(baseAddress);
+      synchronized (this.renderedIDLs) {
+        this.renderedIDLs.put(key, idl);
+      }
+    }
+
+    return idl;
+  }
+
+  /**
+   * Whether the specified base address can be spliced into an IDL template as-is.
+   *
+   * @param baseAddress The base address.
+   * @return Whether the specified base address can be spliced into an IDL template as-is.
+   */
+  protected boolean isSpliceable(String baseAddress) {
+    for (int i = 0; i < baseAddress.length(); i++) {
+      if (SPECIAL_CHARACTERS.indexOf(baseAddress.charAt(i)) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Load the template for the IDL at the specified path.
+   *
+   * @param idlPath     The path to the IDL.
+   * @param baseAddress The base address to substitute for the assumed base address, or null to split the template at the
+   *                    assumed base address.
+   * @return The template, or null if there's no IDL at the specified path.
+   */
+  protected IDLTemplate loadTemplate(String idlPath, String baseAddress) throws ServletException {
+    InputStream idl = this.servletContext.getResourceAsStream(idlPath);
+    if (idl == null) {
+      return null;
+    }
+
+    //the template is split at a marker that is substituted for the assumed base address.
+    String marker = baseAddress == null ? "enunciate-base-address-" + UUID.randomUUID() : null;
+    String substitution = marker == null ? baseAddress : marker;
+    String assumedBaseAddress = this.servletContext.getInitParameter("assumed-base-uri");
+    String encoding = "UTF-8";
+    StringWriter writer = new StringWriter();
+    try {
+      try {
+        XMLEventReader eventReader = this.inputFactory.createXMLEventReader(idl);
+        XMLEventWriter eventWriter = this.outputFactory.createXMLEventWriter(writer);
+        while (eventReader.hasNext()) {
+          XMLEvent event = eventReader.nextEvent();
+          if (event.isStartDocument()) {
+            StartDocument startDocument = (StartDocument) event;
+            if (startDocument.encodingSet()) {
+              encoding = startDocument.getCharacterEncodingScheme();
             }
-            else if (event.getEventType() == XMLStreamConstants.CDATA || event.getEventType() == XMLStreamConstants.CHARACTERS) {
-              String data = ((Characters) event).getData();
-              if (assumedBaseAddress != null && data.contains(assumedBaseAddress)) {
-                data = data.replace(assumedBaseAddress, realBaseAddress);
-                event = new DelegatingCharacters(((Characters) event), data);
+          }
+          else if (event.isProcessingInstruction()) {
+            String target = ((ProcessingInstruction) event).getTarget();
+            if ("enunciate-assumed-base-uri".equals(target)) {
+              assumedBaseAddress = ((ProcessingInstruction) event).getData();
+              if (assumedBaseAddress.endsWith("/")) {
+                assumedBaseAddress = assumedBaseAddress.substring(0, assumedBaseAddress.length() - 1);
               }
             }
-            else if (event.getEventType() == XMLStreamConstants.START_ELEMENT) {
-              List<Attribute> attributes = new ArrayList<Attribute>();
-              Iterator attributesIt = ((StartElement) event).getAttributes();
-              while (attributesIt.hasNext()) {
-                Attribute attribute = (Attribute) attributesIt.next();
-                String value = attribute.getValue();
-                if (assumedBaseAddress != null && value.contains(assumedBaseAddress)) {
-                  value = value.replace(assumedBaseAddress, realBaseAddress);
-                  attribute = new DelegatingAttribute(attribute, value);
-                  event = new DelegatingStartElement(((StartElement) event), attributes);
-                }
-                attributes.add(attribute);
+            continue;
+          }
+          else if (event.getEventType() == XMLStreamConstants.CDATA || event.getEventType() == XMLStreamConstants.CHARACTERS) {
+            String data = ((Characters) event).getData();
+            if (assumedBaseAddress != null && data.contains(assumedBaseAddress)) {
+              data = data.replace(assumedBaseAddress, substitution);
+              event = new DelegatingCharacters(((Characters) event), data);
+            }
+          }
+          else if (event.getEventType() == XMLStreamConstants.START_ELEMENT) {
+            List<Attribute> attributes = new ArrayList<Attribute>();
+            Iterator attributesIt = ((StartElement) event).getAttributes();
+            while (attributesIt.hasNext()) {
+              Attribute attribute = (Attribute) attributesIt.next();
+              String value = attribute.getValue();
+              if (assumedBaseAddress != null && value.contains(assumedBaseAddress)) {
+                value = value.replace(assumedBaseAddress, substitution);
+                attribute = new DelegatingAttribute(attribute, value);
+                event = new DelegatingStartElement(((StartElement) event), attributes);
               }
+              attributes.add(attribute);
             }
-
-            eventWriter.add(event);
           }
 
-          eventReader.close();
-          eventWriter.flush();
-          eventWriter.close();
-          return;
+          eventWriter.add(event);
+        }
+
+        eventReader.close();
+        eventWriter.flush();
+        eventWriter.close();
+      }
+      finally {
+        idl.close();
+      }
+    }
+    catch (XMLStreamException e) {
+      throw new ServletException(e);
+    }
+    catch (IOException e) {
+      throw new ServletException(e);
+    }
+
+    String content = writer.toString();
+    String[] segments = marker == null ? new String[]{content} : content.split(marker, -1);
+    return new IDLTemplate(segments, encoding, getLastModified(idlPath));
+  }
+
+  /**
+   * The last-modified date of the IDL at the specified path, to the second.
+   *
+   * @param idlPath The path to the IDL.
+   * @return The last-modified date.
+   */
+  protected long getLastModified(String idlPath) {
+    long lastModified = 0;
+    try {
+      URL resource = this.servletContext.getResource(idlPath);
+      if (resource != null) {
+        lastModified = resource.openConnection().getLastModified();
+      }
+    }
+    catch (IOException e) {
+      //fall through.
+    }
+
+    if (lastModified <= 0) {
+      //the IDLs don't change while the application is running, so the time we loaded it will do.
+      lastModified = System.currentTimeMillis();
+    }
+
+    return (lastModified / 1000) * 1000;
+  }
+
+  /**
+   * Whether the client already has the current version of the specified IDL, per the conditional headers of the request.
+   *
+   * @param request The request.
+   * @param idl     The IDL.
+   * @return Whether the client already has the current version of the IDL.
+   */
+  protected boolean isNotModified(HttpServletRequest request, RenderedIDL idl) {
+    String ifNoneMatch = request.getHeader("If-None-Match");
+    if (ifNoneMatch != null) {
+      for (String etag : ifNoneMatch.split(",")) {
+        etag = etag.trim();
+        if (etag.startsWith("W/")) {
+          etag = etag.substring(2);
         }
-        catch (XMLStreamException e) {
-          throw new ServletException(e);
+
+        if ("*".equals(etag) || idl.getETag().equals(etag)) {
+          return true;
         }
       }
+      return false;
     }
 
-    chain.doFilter(servletRequest, servletResponse);
+    long ifModifiedSince;
+    try {
+      ifModifiedSince = request.getDateHeader("If-Modified-Since");
+    }
+    catch (IllegalArgumentException e) {
+      return false;
+    }
+    return ifModifiedSince > 0 && idl.getLastModified() <= ifModifiedSince;
   }
 
   protected RequestURIParts parseParts(HttpServletRequest request) {
@@ -139,6 +338,106 @@ public class IDLFilter implements Filter {
   public void destroy() {
   }
 
+  /**
+   * An IDL, split at the base address.
+   */
+  protected static class IDLTemplate {
+
+    private final String[] segments;
+    private final String encoding;
+    private final long lastModified;
+
+    public IDLTemplate(String[] segments, String encoding, long lastModified) {
+      this.segments = segments;
+      this.encoding = encoding;
+      this.lastModified = lastModified;
+    }
+
+    /**
+     * Render this template for the specified base address.
+     *
+     * @param baseAddress The base address.
+     * @return The rendered IDL.
+     */
+    public RenderedIDL render(String baseAddress) throws ServletException {
+      StringBuilder content = new StringBuilder(this.segments[0]);
+      for (int i = 1; i < this.segments.length; i++) {
+        content.append(baseAddress).append(this.segments[i]);
+      }
+
+      try {
+        byte[] bytes = content.toString().getBytes(this.encoding);
+        return new RenderedIDL(bytes, this.encoding, '"' + toHex(MessageDigest.getInstance("MD5").digest(bytes)) + '"', this.lastModified);
+      }
+      catch (IOException e) {
+        throw new ServletException(e);
+      }
+      catch (NoSuchAlgorithmException e) {
+        throw new ServletException(e);
+      }
+    }
+
+    private static String toHex(byte[] bytes) {
+      StringBuilder hex = new StringBuilder(bytes.length * 2);
+      for (byte b : bytes) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    }
+  }
+
+  /**
+   * An IDL, rendered for a base address.
+   */
+  protected static class RenderedIDL {
+
+    private final byte[] content;
+    private final String encoding;
+    private final String etag;
+    private final long lastModified;
+
+    public RenderedIDL(byte[] content, String encoding, String etag, long lastModified) {
+      this.content = content;
+      this.encoding = encoding;
+      this.etag = etag;
+      this.lastModified = lastModified;
+    }
+
+    public byte[] getContent() {
+      return content;
+    }
+
+    public String getEncoding() {
+      return encoding;
+    }
+
+    public String getETag() {
+      return etag;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+  }
+
+  /**
+   * The least-recently-used cache of rendered IDLs.
+   */
+  private static class RenderedIDLCache extends LinkedHashMap<String, RenderedIDL> {
+
+    private final int maxSize;
+
+    private RenderedIDLCache(int maxSize) {
+      super(16, 0.75F, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, RenderedIDL> eldest) {
+      return size() > this.maxSize;
+    }
+  }
+
   public static class RequestURIParts {
 
     private final String baseAddress;
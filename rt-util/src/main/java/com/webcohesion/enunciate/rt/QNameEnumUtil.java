@@ -23,9 +23,10 @@ import javax.xml.bind.annotation.XmlSchema;
 import javax.xml.namespace.QName;
 import java.lang.reflect.Field;
 import java.net.URI;
-import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -42,7 +43,7 @@ public class QNameEnumUtil {
   private static final AtomicBoolean WRITE_RELATIVE_URIS = new AtomicBoolean(false);
   private static final QName UNKNOWN_QNAME_ENUM = new QName("enunciate:qname-enum", "UNKNOWN");
   private static final QName EXCLUDED_QNAME_ENUM = new QName("enunciate:qname-enum", "EXCLUDED");
-  private static final Map<Class<? extends Enum>, Map<? extends Enum, QName>> QNAME_CACHE = new ConcurrentHashMap<Class<? extends Enum>, Map<? extends Enum, QName>>();
+  private static final ConcurrentMap<Class<?>, QNameEnumTable> QNAME_CACHE = new ConcurrentHashMap<Class<?>, QNameEnumTable>();
 
   /**
    * Set the default base uri for resolving qname URIs.
@@ -98,28 +99,13 @@ public class QNameEnumUtil {
       throw new IllegalArgumentException(String.format("Class %s isn't a QName enum.", clazz.getName()));
     }
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap(clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.QNAME) {
+    QNameEnumTable table = getTable(clazz);
+    if (table.base != XmlQNameEnum.BaseType.QNAME) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted from a URI (not QName).");
     }
 
-    Q defaultValue = null;
-    for (Map.Entry<? extends Enum, QName> qNameEntry : qNameMap.entrySet()) {
-      if (qNameEntry.getValue().equals(qname)) {
-        return (Q) qNameEntry.getKey();
-      }
-      else if (defaultValue == null && UNKNOWN_QNAME_ENUM.equals(qNameEntry.getValue())) {
-        defaultValue = (Q) qNameEntry.getKey();
-      }
-    }
-
-    return defaultValue;
+    Enum value = table.enumsByQName.get(qname);
+    return (Q) (value == null ? table.unknownValue : value);
   }
 
   /**
@@ -141,18 +127,12 @@ public class QNameEnumUtil {
     }
     Class<Enum> clazz = e.getDeclaringClass();
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap(clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.QNAME) {
+    QNameEnumTable table = getTable(clazz);
+    if (table.base != XmlQNameEnum.BaseType.QNAME) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted from a URI (not QName).");
     }
 
-    QName result = qNameMap.get(e);
+    QName result = table.qNames[e.ordinal()];
     if (result == null) {
       throw new IllegalStateException("Unable to find " + e.getDeclaringClass().getName() + "." + e + " as a QName enum value.");
     }
@@ -203,29 +183,13 @@ public class QNameEnumUtil {
       throw new IllegalArgumentException(String.format("Class %s isn't a QName enum.", clazz.getName()));
     }
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap(clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.URI) {
+    QNameEnumTable table = getTable(clazz);
+    if (table.base != XmlQNameEnum.BaseType.URI) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted to a QName (not URI).");
     }
 
-    Q defaultValue = null;
-    for (Map.Entry<? extends Enum, QName> qNameEntry : qNameMap.entrySet()) {
-      String uri = qNameEntry.getValue().getNamespaceURI() + qNameEntry.getValue().getLocalPart();
-      if (uri.equals(uriValue)) {
-        return (Q) qNameEntry.getKey();
-      }
-      else if (defaultValue == null && UNKNOWN_QNAME_ENUM.equals(qNameEntry.getValue())) {
-        defaultValue = (Q) qNameEntry.getKey();
-      }
-    }
-
-    return defaultValue;
+    Enum value = table.enumsByURI.get(uriValue);
+    return (Q) (value == null ? table.unknownValue : value);
   }
 
   /**
@@ -261,18 +225,12 @@ public class QNameEnumUtil {
     }
     Class<? extends Enum<?>> clazz = e.getDeclaringClass();
 
-    XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
-    if (enumInfo.base() != XmlQNameEnum.BaseType.URI) {
+    QNameEnumTable table = getTable(clazz);
+    if (table.base != XmlQNameEnum.BaseType.URI) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " is supposed to be converted to a QName (not URI).");
     }
 
-    Map<? extends Enum, QName> qNameMap = QNAME_CACHE.get(clazz);
-    if (qNameMap == null) {
-      qNameMap = createQNameMap((Class<? extends Enum>) clazz);
-      QNAME_CACHE.put(clazz, qNameMap);
-    }
-
-    QName result = qNameMap.get(e);
+    QName result = table.qNames[e.ordinal()];
     if (result == null) {
       throw new IllegalStateException("Unable to find " + e.getDeclaringClass().getName() + "." + e + " as a QName enum value.");
     }
@@ -290,9 +248,25 @@ public class QNameEnumUtil {
     }
   }
 
-  private static <Q extends Enum<Q>> Map<? extends Enum, QName> createQNameMap(Class<Q> clazz) {
-    EnumMap<Q, QName> enumQNameEnumMap = new EnumMap<Q, QName>(clazz);
+  /**
+   * Get the conversion table for the specified QName enum class, creating it if needed.
+   *
+   * @param clazz The enum class.
+   * @return The conversion table.
+   */
+  private static QNameEnumTable getTable(Class<?> clazz) {
+    QNameEnumTable table = QNAME_CACHE.get(clazz);
+    if (table == null) {
+      table = createTable((Class<? extends Enum>) clazz);
+      QNameEnumTable existing = QNAME_CACHE.putIfAbsent(clazz, table);
+      if (existing != null) {
+        table = existing;
+      }
+    }
+    return table;
+  }
 
+  private static QNameEnumTable createTable(Class<? extends Enum> clazz) {
     XmlQNameEnum enumInfo = clazz.getAnnotation(XmlQNameEnum.class);
     if (enumInfo == null) {
       throw new IllegalArgumentException("Class " + clazz.getName() + " isn't a QName enum.");
@@ -307,12 +281,14 @@ public class QNameEnumUtil {
       }
     }
 
+    Enum[] values = clazz.getEnumConstants();
+    QName[] qNames = new QName[values.length];
     Field[] fields = clazz.getDeclaredFields();
-    for (Q e : clazz.getEnumConstants()) {
+    for (Enum e : values) {
       for (Field field : fields) {
         if (field.isEnumConstant() && field.getName().equals(e.name())) {
           if (field.getAnnotation(XmlUnknownQNameEnumValue.class) != null) {
-            enumQNameEnumMap.put(e, UNKNOWN_QNAME_ENUM);
+            qNames[e.ordinal()] = UNKNOWN_QNAME_ENUM;
             break;
           }
 
@@ -321,7 +297,7 @@ public class QNameEnumUtil {
           String localPart = field.getName();
           if (enumValueInfo != null) {
             if (enumValueInfo.exclude()) {
-              enumQNameEnumMap.put(e, EXCLUDED_QNAME_ENUM);
+              qNames[e.ordinal()] = EXCLUDED_QNAME_ENUM;
               break;
             }
             else {
@@ -334,11 +310,56 @@ public class QNameEnumUtil {
             }
           }
 
-          enumQNameEnumMap.put(e, new QName(ns, localPart));
+          qNames[e.ordinal()] = new QName(ns, localPart);
+        }
+      }
+    }
+
+    return new QNameEnumTable(enumInfo.base(), values, qNames);
+  }
+
+  /**
+   * The conversion table of a QName enum class.
+   */
+  private static final class QNameEnumTable {
+
+    private final XmlQNameEnum.BaseType base;
+    private final QName[] qNames;
+    private final Map<QName, Enum> enumsByQName;
+    private final Map<String, Enum> enumsByURI;
+    private final Enum unknownValue;
+
+    private QNameEnumTable(XmlQNameEnum.BaseType base, Enum[] values, QName[] qNames) {
+      this.base = base;
+      this.qNames = qNames;
+
+      Map<QName, Enum> enumsByQName = new HashMap<QName, Enum>();
+      Map<String, Enum> enumsByURI = new HashMap<String, Enum>();
+      Enum unknownValue = null;
+      for (Enum value : values) {
+        QName qName = qNames[value.ordinal()];
+        if (qName == null) {
+          continue;
+        }
+
+        //the first value wins, in declaration order.
+        if (!enumsByQName.containsKey(qName)) {
+          enumsByQName.put(qName, value);
+        }
+
+        String uri = qName.getNamespaceURI() + qName.getLocalPart();
+        if (!enumsByURI.containsKey(uri)) {
+          enumsByURI.put(uri, value);
+        }
+
+        if (unknownValue == null && UNKNOWN_QNAME_ENUM.equals(qName)) {
+          unknownValue = value;
         }
       }
+      this.enumsByQName = enumsByQName;
+      this.enumsByURI = enumsByURI;
+      this.unknownValue = unknownValue;
     }
-    return enumQNameEnumMap;
   }
 
 }
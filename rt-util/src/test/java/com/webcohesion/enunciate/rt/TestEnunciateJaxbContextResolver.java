@@ -0,0 +1,73 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import junit.framework.TestCase;
+
+import javax.xml.bind.JAXBContext;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.Future;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestEnunciateJaxbContextResolver extends TestCase {
+
+  /**
+   * tests that the resolvers of a classloader share one context.
+   */
+  public void testSharedContext() throws Exception {
+    File dir = File.createTempFile("TestEnunciateJaxbContextResolver", "");
+    dir.delete();
+    dir.mkdirs();
+    DataOutputStream index = new DataOutputStream(new FileOutputStream(new File(dir, EnunciateRuntimeIndex.INDEX_RESOURCE)));
+    try {
+      index.writeInt(0x454E5249);
+      index.writeInt(1);
+      index.writeInt(1);
+      index.writeUTF(EnunciateRuntimeIndex.JAXB_CONTEXT_CLASSES);
+      index.writeInt(1);
+      index.writeUTF(TestEnunciateJaxbPool.Pooled.class.getName());
+    }
+    finally {
+      index.close();
+    }
+
+    ClassLoader original = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader()));
+    try {
+      Future<JAXBContext> context = new EnunciateJaxbContextResolver().getContextFuture();
+      assertSame(context, new EnunciateJaxbContextResolver().getContextFuture());
+      assertNotNull(context.get());
+      assertSame(context.get(), new EnunciateMarshallerResolver().getPool().getContext());
+      assertSame(context.get(), new EnunciateUnmarshallerResolver().getPool().getContext());
+
+      //subclasses build their own context.
+      Future<JAXBContext> subclassContext = new EnunciateJaxbContextResolver() {}.getContextFuture();
+      assertNotSame(context, subclassContext);
+      assertNotSame(context.get(), subclassContext.get());
+    }
+    finally {
+      Thread.currentThread().setContextClassLoader(original);
+    }
+
+    assertNotSame(new EnunciateJaxbContextResolver().getContextFuture(), new EnunciateJaxbContextResolver() {}.getContextFuture());
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import junit.framework.TestCase;
+
+import java.util.Properties;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestEnunciateJaxbNamespacePrefixMapper extends TestCase {
+
+  /**
+   * tests the preferred prefixes.
+   */
+  public void testPreferredPrefix() throws Exception {
+    Properties ns2prefix = new Properties();
+    ns2prefix.setProperty("urn:a", "a");
+    ns2prefix.setProperty("urn:b", "b");
+    EnunciateJaxbNamespacePrefixMapper mapper = new EnunciateJaxbNamespacePrefixMapper("urn:a", ns2prefix);
+    assertEquals("", mapper.getPreferredPrefix("urn:a", "ns1", false));
+    assertEquals("a", mapper.getPreferredPrefix("urn:a", "ns1", true));
+    assertEquals("b", mapper.getPreferredPrefix("urn:b", "ns1", false));
+    assertEquals("b", mapper.getPreferredPrefix("urn:b", "ns1", true));
+    assertEquals("ns1", mapper.getPreferredPrefix("urn:c", "ns1", false));
+    assertEquals("ns1", mapper.getPreferredPrefix("urn:c", "ns1", true));
+
+    //a default namespace without a prefix.
+    mapper = new EnunciateJaxbNamespacePrefixMapper("urn:c", ns2prefix);
+    assertEquals("", mapper.getPreferredPrefix("urn:c", "ns1", false));
+    assertEquals("ns1", mapper.getPreferredPrefix("urn:c", "ns1", true));
+    assertEquals("a", mapper.getPreferredPrefix("urn:a", "ns1", false));
+
+    mapper = new EnunciateJaxbNamespacePrefixMapper(null, (Properties) null);
+    assertEquals("ns1", mapper.getPreferredPrefix("urn:a", "ns1", false));
+  }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import junit.framework.TestCase;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.PropertyException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestEnunciateJaxbPool extends TestCase {
+
+  /**
+   * tests borrowing and returning marshallers.
+   */
+  public void testAcquireRelease() throws Exception {
+    EnunciateJaxbPool pool = new EnunciateJaxbPool(JAXBContext.newInstance(Pooled.class), 1, 1);
+    Marshaller marshaller = pool.acquireMarshaller();
+    assertEquals(0, pool.getHits());
+    assertEquals(1, pool.getMisses());
+
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    pool.release(marshaller);
+    assertSame(marshaller, pool.acquireMarshaller());
+    assertEquals(Boolean.FALSE, marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    assertEquals(1, pool.getHits());
+
+    //the pool is full, so the second marshaller is discarded.
+    Marshaller other = pool.acquireMarshaller();
+    pool.release(marshaller);
+    pool.release(other);
+    assertSame(marshaller, pool.acquireMarshaller());
+    assertNotSame(other, pool.acquireMarshaller());
+
+    Unmarshaller unmarshaller = pool.acquireUnmarshaller();
+    pool.release(unmarshaller);
+    assertSame(unmarshaller, pool.acquireUnmarshaller());
+  }
+
+  /**
+   * tests the marshallers that borrow from the pool for each call.
+   */
+  public void testPooledMarshallers() throws Exception {
+    EnunciateJaxbPool pool = new EnunciateJaxbPool(JAXBContext.newInstance(Pooled.class), 1, 1);
+    Marshaller marshaller = pool.getPooledMarshaller();
+    assertEquals(0, pool.getMisses());
+
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    assertEquals(Boolean.TRUE, marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    assertEquals(1, pool.getMisses());
+    assertEquals(1, pool.getHits());
+
+    //the configuration doesn't leak to the other users of the pool.
+    Marshaller borrowed = pool.acquireMarshaller();
+    assertEquals(Boolean.FALSE, borrowed.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    assertEquals(Boolean.TRUE, marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    pool.release(borrowed);
+
+    try {
+      marshaller.setProperty("urn:unknown", Boolean.TRUE);
+      fail();
+    }
+    catch (PropertyException e) {
+      //fall through
+    }
+
+    StringWriter xml = new StringWriter();
+    marshaller.marshal(new Pooled(), xml);
+    assertTrue(xml.toString().contains("<pooled"));
+
+    Unmarshaller unmarshaller = pool.getPooledUnmarshaller();
+    assertTrue(unmarshaller.unmarshal(new StringReader(xml.toString())) instanceof Pooled);
+    assertTrue(unmarshaller.unmarshal(new StringReader(xml.toString())) instanceof Pooled);
+    assertEquals(3, pool.getMisses());
+    assertEquals(unmarshaller, unmarshaller);
+    assertFalse(unmarshaller.equals(pool.getPooledUnmarshaller()));
+    assertTrue(pool.getCreationTimeNanos() > 0);
+  }
+
+  /**
+   * tests that the settings of a pooled marshaller are undone before its instance goes back to the pool.
+   */
+  public void testPooledSettingsDontLeak() throws Exception {
+    EnunciateJaxbPool pool = new EnunciateJaxbPool(JAXBContext.newInstance(Pooled.class), 1, 1);
+    Marshaller marshaller = pool.getPooledMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_SCHEMA_LOCATION, "urn:pooled pooled.xsd");
+    StringWriter xml = new StringWriter();
+    marshaller.marshal(new Pooled(), xml);
+    assertTrue(xml.toString().contains("pooled.xsd"));
+
+    //the schema location can't be set back to null, so the instances it was applied to are discarded.
+    xml = new StringWriter();
+    pool.getPooledMarshaller().marshal(new Pooled(), xml);
+    assertFalse(xml.toString().contains("pooled.xsd"));
+
+    Marshaller borrowed = pool.acquireMarshaller();
+    assertNull(borrowed.getProperty(Marshaller.JAXB_SCHEMA_LOCATION));
+    pool.release(borrowed);
+
+    xml = new StringWriter();
+    marshaller.marshal(new Pooled(), xml);
+    assertTrue(xml.toString().contains("pooled.xsd"));
+
+    //settings that can be undone don't cost the instance.
+    marshaller = pool.getPooledMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+    long misses = pool.getMisses();
+    marshaller.marshal(new Pooled(), new StringWriter());
+    borrowed = pool.acquireMarshaller();
+    assertEquals(Boolean.FALSE, borrowed.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+    assertEquals(misses, pool.getMisses());
+  }
+
+  /**
+   * tests a pool whose context is built on first use.
+   */
+  public void testFutureContext() throws Exception {
+    final int[] builds = new int[1];
+    FutureTask<JAXBContext> context = new FutureTask<JAXBContext>(new Callable<JAXBContext>() {
+      @Override
+      public JAXBContext call() throws Exception {
+        builds[0]++;
+        return JAXBContext.newInstance(Pooled.class);
+      }
+    });
+    EnunciateJaxbPool pool = new EnunciateJaxbPool(context);
+    assertEquals(0, builds[0]);
+    Marshaller marshaller = pool.getPooledMarshaller();
+    Unmarshaller unmarshaller = pool.getPooledUnmarshaller();
+    assertEquals(0, builds[0]);
+    assertEquals(Boolean.FALSE, marshaller.getProperty(Marshaller.JAXB_FRAGMENT));
+    assertNull(unmarshaller.getSchema());
+    assertSame(context.get(), pool.getContext());
+    assertEquals(1, builds[0]);
+
+    FutureTask<JAXBContext> noContext = new FutureTask<JAXBContext>(new Callable<JAXBContext>() {
+      @Override
+      public JAXBContext call() throws Exception {
+        return null;
+      }
+    });
+    assertNull(new EnunciateJaxbPool(noContext).getContext());
+  }
+
+  @XmlRootElement
+  public static class Pooled {
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import junit.framework.TestCase;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestEnunciateMarshallerResolver extends TestCase {
+
+  /**
+   * tests marshalling and unmarshalling through the resolvers.
+   */
+  public void testResolvers() throws Exception {
+    EnunciateJaxbPool pool = new EnunciateJaxbPool(JAXBContext.newInstance(TestEnunciateJaxbPool.Pooled.class));
+    final EnunciateMarshallerResolver marshallers = new EnunciateMarshallerResolver(pool);
+    final EnunciateUnmarshallerResolver unmarshallers = new EnunciateUnmarshallerResolver(pool);
+
+    Marshaller marshaller = marshallers.getContext(TestEnunciateJaxbPool.Pooled.class);
+    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+    StringWriter xml = new StringWriter();
+    marshaller.marshal(new TestEnunciateJaxbPool.Pooled(), xml);
+    assertTrue(xml.toString().startsWith("<pooled"));
+
+    //each resolved marshaller has its own configuration.
+    xml = new StringWriter();
+    marshallers.getContext(TestEnunciateJaxbPool.Pooled.class).marshal(new TestEnunciateJaxbPool.Pooled(), xml);
+    assertTrue(xml.toString().startsWith("<?xml"));
+
+    Unmarshaller unmarshaller = unmarshallers.getContext(TestEnunciateJaxbPool.Pooled.class);
+    assertTrue(unmarshaller.unmarshal(new StringReader(xml.toString())) instanceof TestEnunciateJaxbPool.Pooled);
+    assertEquals(2, pool.getMisses());
+    assertEquals(2, pool.getHits());
+
+    List<FutureTask<Object>> requests = new ArrayList<FutureTask<Object>>();
+    for (int i = 0; i < 8; i++) {
+      FutureTask<Object> request = new FutureTask<Object>(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          Object result = null;
+          for (int i = 0; i < 100; i++) {
+            StringWriter xml = new StringWriter();
+            marshallers.getContext(TestEnunciateJaxbPool.Pooled.class).marshal(new TestEnunciateJaxbPool.Pooled(), xml);
+            result = unmarshallers.getContext(TestEnunciateJaxbPool.Pooled.class).unmarshal(new StringReader(xml.toString()));
+          }
+          return result;
+        }
+      });
+      requests.add(request);
+      new Thread(request).start();
+    }
+
+    for (FutureTask<Object> request : requests) {
+      assertTrue(request.get() instanceof TestEnunciateJaxbPool.Pooled);
+    }
+
+    //the marshallers are reused.
+    assertTrue(pool.getHits() > pool.getMisses());
+  }
+
+  /**
+   * tests the resolvers when there's no JAXB context.
+   */
+  public void testNoContext() throws Exception {
+    EnunciateJaxbPool pool = new EnunciateJaxbPool(new FutureTask<JAXBContext>(new Callable<JAXBContext>() {
+      @Override
+      public JAXBContext call() throws Exception {
+        return null;
+      }
+    }));
+    assertNull(new EnunciateMarshallerResolver(pool).getContext(TestEnunciateJaxbPool.Pooled.class));
+    assertNull(new EnunciateUnmarshallerResolver(pool).getContext(TestEnunciateJaxbPool.Pooled.class));
+    assertEquals(0, pool.getMisses());
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2006-2016 Web Cohesion (info@webcohesion.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webcohesion.enunciate.rt;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+
+/**
+ * @author Ryan Heaton
+ */
+public class TestEnunciateRuntimeIndex extends TestCase {
+
+  /**
+   * tests merging an index with the lists exported by older versions of Enunciate.
+   */
+  public void testMergeWithLegacyLists() throws Exception {
+    File indexed = createTempDir();
+    DataOutputStream index = new DataOutputStream(new FileOutputStream(new File(indexed, EnunciateRuntimeIndex.INDEX_RESOURCE)));
+    try {
+      index.writeInt(0x454E5249);
+      index.writeInt(1);
+      index.writeInt(2);
+      index.writeUTF(EnunciateRuntimeIndex.JAXRS_RESOURCE_CLASSES);
+      index.writeInt(2);
+      index.writeUTF("com.acme.First");
+      index.writeUTF("com.acme.Second");
+      index.writeUTF(EnunciateRuntimeIndex.NAMESPACES);
+      index.writeInt(0);
+    }
+    finally {
+      index.close();
+    }
+    //the lists next to an index are already in the index, so they're not read.
+    writeList(new File(indexed, "jaxrs-resource-classes.list"), "com.acme.First\ncom.acme.Unread\n");
+
+    File legacy = createTempDir();
+    writeList(new File(legacy, "jaxrs-resource-classes.list"), "com.acme.Second\ncom.legacy.Third\n");
+
+    ClassLoader classloader = new URLClassLoader(new URL[]{indexed.toURI().toURL(), legacy.toURI().toURL()}, null);
+    EnunciateRuntimeIndex runtimeIndex = EnunciateRuntimeIndex.load(classloader);
+    assertNotNull(runtimeIndex);
+    assertTrue(runtimeIndex.hasSection(EnunciateRuntimeIndex.NAMESPACES));
+    assertFalse(runtimeIndex.hasSection(EnunciateRuntimeIndex.JAXB_CONTEXT_CLASSES));
+    assertEquals(Arrays.asList("com.acme.First", "com.acme.Second", "com.legacy.Third"), EnunciateRuntimeIndex.readEntries(runtimeIndex, EnunciateRuntimeIndex.JAXRS_RESOURCE_CLASSES, "jaxrs-resource-classes.list", classloader));
+    assertEquals(Arrays.asList("com.acme.First", "com.acme.Unread", "com.acme.Second", "com.legacy.Third"), EnunciateRuntimeIndex.readEntries(null, EnunciateRuntimeIndex.JAXRS_RESOURCE_CLASSES, "jaxrs-resource-classes.list", classloader));
+    assertNull(EnunciateRuntimeIndex.load(new URLClassLoader(new URL[]{legacy.toURI().toURL()}, null)));
+  }
+
+  /**
+   * tests that an index that can't be read is skipped without discarding the others.
+   */
+  public void testCorruptIndex() throws Exception {
+    File corrupt = createTempDir();
+    DataOutputStream index = new DataOutputStream(new FileOutputStream(new File(corrupt, EnunciateRuntimeIndex.INDEX_RESOURCE)));
+    try {
+      //truncated after the section count.
+      index.writeInt(0x454E5249);
+      index.writeInt(1);
+      index.writeInt(1);
+    }
+    finally {
+      index.close();
+    }
+    writeList(new File(corrupt, "jaxrs-resource-classes.list"), "com.corrupt.First\n");
+
+    File indexed = createTempDir();
+    index = new DataOutputStream(new FileOutputStream(new File(indexed, EnunciateRuntimeIndex.INDEX_RESOURCE)));
+    try {
+      index.writeInt(0x454E5249);
+      index.writeInt(1);
+      index.writeInt(1);
+      index.writeUTF(EnunciateRuntimeIndex.JAXRS_RESOURCE_CLASSES);
+      index.writeInt(1);
+      index.writeUTF("com.acme.First");
+    }
+    finally {
+      index.close();
+    }
+
+    ClassLoader classloader = new URLClassLoader(new URL[]{corrupt.toURI().toURL(), indexed.toURI().toURL()}, null);
+    EnunciateRuntimeIndex runtimeIndex = EnunciateRuntimeIndex.load(classloader);
+    assertNotNull(runtimeIndex);
+    //the lists of the corrupt index are read instead.
+    assertEquals(Arrays.asList("com.acme.First", "com.corrupt.First"), EnunciateRuntimeIndex.readEntries(runtimeIndex, EnunciateRuntimeIndex.JAXRS_RESOURCE_CLASSES, "jaxrs-resource-classes.list", classloader));
+  }
+
+  private File createTempDir() throws IOException {
+    File dir = File.createTempFile("TestEnunciateRuntimeIndex", "");
+    dir.delete();
+    dir.mkdirs();
+    return dir;
+  }
+
+  private void writeList(File file, String entries) throws IOException {
+    Writer list = new OutputStreamWriter(new FileOutputStream(file), "utf-8");
+    try {
+      list.write(entries);
+    }
+    finally {
+      list.close();
+    }
+  }
+}
@@ -20,13 +20,12 @@ import junit.framework.TestCase;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * @author Ryan Heaton
@@ -48,25 +47,80 @@ public class TestIDLFilter extends TestCase {
     when(req.getRequestURL()).thenReturn(new StringBuffer("http://myhost.com/mycontext/something/test.wsdl"));
     when(req.getContextPath()).thenReturn("/mycontext");
     when(context.getResourceAsStream("/something/test.wsdl")).thenReturn(getClass().getResourceAsStream("test.wsdl"));
-    StringWriter writer = new StringWriter();
-    when(res.getWriter()).thenReturn(new PrintWriter(writer));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    when(res.getOutputStream()).thenReturn(new TestServletOutputStream(out));
 
     filter.init(filterConfig);
     filter.doFilter(req, res, chain);
-    String actual = writer.toString();
+    String actual = out.toString("utf-8");
     assertFalse(actual.contains("http://localhost:8080/base"));
+    assertTrue(actual.contains("http://myhost.com/mycontext/ShapeServiceService"));
 
     reset(req, context, res);
     when(req.getRequestURL()).thenReturn(new StringBuffer("http://myhost.com/mycontext/something/test.wsdl"));
     when(req.getContextPath()).thenReturn("");
     when(context.getResourceAsStream("/mycontext/something/test.wsdl")).thenReturn(getClass().getResourceAsStream("test.wsdl"));
-    writer = new StringWriter();
-    when(res.getWriter()).thenReturn(new PrintWriter(writer));
+    out = new ByteArrayOutputStream();
+    when(res.getOutputStream()).thenReturn(new TestServletOutputStream(out));
 
     filter.init(filterConfig);
     filter.doFilter(req, res, chain);
-    actual = writer.toString();
+    actual = out.toString("utf-8");
     assertFalse(actual.contains("http://localhost:8080/base"));
+    assertTrue(actual.contains("http://myhost.com/ShapeServiceService"));
+  }
+
+  /**
+   * tests that the rendered idl is cached and that conditional requests are honored.
+   */
+  public void testCaching() throws Exception {
+    ServletContext context = mock(ServletContext.class);
+    FilterConfig filterConfig = mock(FilterConfig.class);
+    when(filterConfig.getServletContext()).thenReturn(context);
+    HttpServletRequest req = mock(HttpServletRequest.class);
+    HttpServletResponse res = mock(HttpServletResponse.class);
+    FilterChain chain = mock(FilterChain.class);
+    IDLFilter filter = new IDLFilter();
+
+    when(req.getRequestURL()).thenReturn(new StringBuffer("http://myhost.com/mycontext/something/test.wsdl"));
+    when(req.getContextPath()).thenReturn("/mycontext");
+    when(context.getResourceAsStream("/something/test.wsdl")).thenReturn(getClass().getResourceAsStream("test.wsdl"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    when(res.getOutputStream()).thenReturn(new TestServletOutputStream(out));
+
+    filter.init(filterConfig);
+    filter.doFilter(req, res, chain);
+    String first = out.toString("utf-8");
+    assertTrue(first.contains("http://myhost.com/mycontext/ShapeServiceService"));
+
+    //the second request is served from the cache; the resource stream has already been consumed.
+    out.reset();
+    filter.doFilter(req, res, chain);
+    assertEquals(first, out.toString("utf-8"));
+    verify(context, times(1)).getResourceAsStream("/something/test.wsdl");
+
+    //a conditional request with the etag of the idl isn't sent the idl again.
+    IDLFilter.RenderedIDL idl = filter.getRenderedIDL("/something/test.wsdl", "http://myhost.com/mycontext");
+    when(req.getHeader("If-None-Match")).thenReturn(idl.getETag());
+    out.reset();
+    filter.doFilter(req, res, chain);
+    assertEquals(0, out.size());
+    verify(res).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    verify(chain, never()).doFilter(req, res);
+  }
+
+  private static class TestServletOutputStream extends ServletOutputStream {
+
+    private final OutputStream out;
+
+    private TestServletOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      this.out.write(b);
+    }
   }
 
 }
@@ -188,6 +188,12 @@ public class ConfigMojo extends AbstractMojo {
   @Parameter ( defaultValue = "false", property = "enunciate.disable.sourcepath" )
   protected boolean disableSourcepath = false;
 
+  /**
+   * A flag used to record the counts of the types, resources and services of the API in the build report.
+   */
+  @Parameter ( defaultValue = "false", property = "enunciate.report.apiCounts" )
+  protected boolean reportApiCounts = false;
+
   /**
    * The list of dependencies on which Enunciate should attempt to lookup their sources for inclusion in the source path.
    * By default, dependencies with the same groupId as the current project will be included.
@@ -221,6 +227,7 @@ public class ConfigMojo extends AbstractMojo {
 
     //set the build dir.
     enunciate.setBuildDir(this.buildDir);
+    enunciate.setApiCountsReported(this.reportApiCounts);
 
     //load the config.
     EnunciateConfiguration config = enunciate.getConfiguration();
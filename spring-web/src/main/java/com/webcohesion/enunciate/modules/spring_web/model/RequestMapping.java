@@ -16,6 +16,7 @@
 package com.webcohesion.enunciate.modules.spring_web.model;
 
 import com.webcohesion.enunciate.facets.Facet;
+import com.webcohesion.enunciate.facets.FacetSet;
 import com.webcohesion.enunciate.facets.HasFacets;
 import com.webcohesion.enunciate.javac.decorations.TypeMirrorDecorator;
 import com.webcohesion.enunciate.javac.decorations.element.DecoratedExecutableElement;
@@ -28,6 +29,7 @@ import com.webcohesion.enunciate.metadata.rs.RequestHeader;
 import com.webcohesion.enunciate.metadata.rs.*;
 import com.webcohesion.enunciate.modules.spring_web.EnunciateSpringWebContext;
 import com.webcohesion.enunciate.util.AnnotationUtils;
+import com.webcohesion.enunciate.util.LazyValue;
 import com.webcohesion.enunciate.util.TypeHintUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -59,16 +61,11 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
   private final Set<String> consumesMediaTypes;
   private final Set<String> producesMediaTypes;
   private final SpringController parent;
-  private final Set<RequestParameter> requestParameters;
-  private final ResourceEntityParameter entityParameter;
+  private final LazyValue<Details> details;
   private final Map<String, Object> metaData = new HashMap<String, Object>();
-  private final List<? extends ResponseCode> statusCodes;
-  private final List<? extends ResponseCode> warnings;
-  private final Map<String, String> responseHeaders = new HashMap<String, String>();
-  private final ResourceRepresentationMetadata representationMetadata;
-  private final Set<Facet> facets = new TreeSet<Facet>();
+  private final Set<Facet> facets = new FacetSet();
 
-  public RequestMapping(List<PathSegment> pathSegments, RequestMethod[] methods, String[] consumesInfo, String[] producesInfo, ExecutableElement delegate, SpringController parent, TypeVariableContext variableContext, EnunciateSpringWebContext context) {
+  public RequestMapping(List<PathSegment> pathSegments, RequestMethod[] methods, String[] consumesInfo, String[] producesInfo, ExecutableElement delegate, final SpringController parent, final TypeVariableContext variableContext, final EnunciateSpringWebContext context) {
     super(delegate, context.getContext().getProcessingEnvironment());
     this.context = context;
     this.pathSegments = pathSegments;
@@ -148,12 +145,26 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
       }
     }
 
+    //only the "header" of the mapping (http methods, path, facets) is built up front; the rest is loaded on demand.
+    this.label = label;
+    this.parent = parent;
+    this.facets.addAll(Facet.gatherFacets(delegate, context.getContext()));
+    this.facets.addAll(parent.getFacets());
+    this.details = new LazyValue<Details>() {
+      @Override
+      protected Details load() {
+        return loadDetails(parent, variableContext, context);
+      }
+    };
+  }
 
+  protected Details loadDetails(SpringController parent, TypeVariableContext variableContext, EnunciateSpringWebContext context) {
     ResourceEntityParameter entityParameter = null;
     ResourceRepresentationMetadata outputPayload = null;
     Set<RequestParameter> requestParameters = new TreeSet<RequestParameter>();
     ArrayList<ResponseCode> statusCodes = new ArrayList<ResponseCode>();
     ArrayList<ResponseCode> warnings = new ArrayList<ResponseCode>();
+    Map<String, String> headers = new HashMap<String, String>();
 
     Set<SpringControllerAdvice> advice = this.context.getAdvice();
     for (SpringControllerAdvice controllerAdvice : advice) {
@@ -164,7 +175,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
         requestParameters.addAll(mappingAdvice.getRequestParameters());
         statusCodes.addAll(mappingAdvice.getStatusCodes());
         warnings.addAll(mappingAdvice.getWarnings());
-        this.responseHeaders.putAll(mappingAdvice.getResponseHeaders());
+        headers.putAll(mappingAdvice.getResponseHeaders());
       }
     }
 
@@ -433,14 +444,14 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
     ResponseHeaders responseHeaders = getAnnotation(ResponseHeaders.class);
     if (responseHeaders != null) {
       for (ResponseHeader header : responseHeaders.value()) {
-        this.responseHeaders.put(header.name(), header.description());
+        headers.put(header.name(), header.description());
       }
     }
 
     List<ResponseHeaders> inheritedResponseHeaders = AnnotationUtils.getAnnotations(ResponseHeaders.class, parent);
     for (ResponseHeaders inheritedResponseHeader : inheritedResponseHeaders) {
       for (ResponseHeader header : inheritedResponseHeader.value()) {
-        this.responseHeaders.put(header.name(), header.description());
+        headers.put(header.name(), header.description());
       }
     }
 
@@ -450,7 +461,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
         int firstspace = doclet.indexOf(' ');
         String header = firstspace > 0 ? doclet.substring(0, firstspace) : doclet;
         String doc = ((firstspace > 0) && (firstspace + 1 < doclet.length())) ? doclet.substring(firstspace + 1) : "";
-        this.responseHeaders.put(header, doc);
+        headers.put(header, doc);
       }
     }
 
@@ -460,19 +471,11 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
         int firstspace = doclet.indexOf(' ');
         String header = firstspace > 0 ? doclet.substring(0, firstspace) : doclet;
         String doc = ((firstspace > 0) && (firstspace + 1 < doclet.length())) ? doclet.substring(firstspace + 1) : "";
-        this.responseHeaders.put(header, doc);
+        headers.put(header, doc);
       }
     }
 
-    this.entityParameter = entityParameter;
-    this.requestParameters = requestParameters;
-    this.label = label;
-    this.parent = parent;
-    this.statusCodes = statusCodes;
-    this.warnings = warnings;
-    this.representationMetadata = outputPayload;
-    this.facets.addAll(Facet.gatherFacets(delegate, context.getContext()));
-    this.facets.addAll(parent.getFacets());
+    return new Details(entityParameter, requestParameters, outputPayload, statusCodes, warnings, headers);
   }
 
   protected static HashMap<String, String> parseParamComments(String tagName, JavaDoc jd) {
@@ -600,7 +603,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
    * @return The list of resource parameters that this method requires to be invoked.
    */
   public Set<RequestParameter> getRequestParameters() {
-    return this.requestParameters;
+    return this.details.get().requestParameters;
   }
 
   /**
@@ -609,7 +612,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
    * @return The entity parameter, or null if none.
    */
   public ResourceEntityParameter getEntityParameter() {
-    return entityParameter;
+    return this.details.get().entityParameter;
   }
 
   /**
@@ -618,7 +621,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
    * @return The output payload for this resource.
    */
   public ResourceRepresentationMetadata getRepresentationMetadata() {
-    return this.representationMetadata;
+    return this.details.get().representationMetadata;
   }
 
   /**
@@ -627,7 +630,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
    * @return The potential status codes.
    */
   public List<? extends ResponseCode> getStatusCodes() {
-    return this.statusCodes;
+    return this.details.get().statusCodes;
   }
 
   /**
@@ -636,7 +639,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
    * @return The potential warnings.
    */
   public List<? extends ResponseCode> getWarnings() {
-    return this.warnings;
+    return this.details.get().warnings;
   }
 
   /**
@@ -664,7 +667,7 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
    * @return The response headers that are expected on this resource method.
    */
   public Map<String, String> getResponseHeaders() {
-    return responseHeaders;
+    return this.details.get().responseHeaders;
   }
 
   /**
@@ -695,4 +698,26 @@ public class RequestMapping extends DecoratedExecutableElement implements HasFac
     return roles;
   }
 
+  /**
+   * The details of a request mapping that are loaded on demand.
+   */
+  protected static final class Details {
+
+    private final ResourceEntityParameter entityParameter;
+    private final Set<RequestParameter> requestParameters;
+    private final ResourceRepresentationMetadata representationMetadata;
+    private final List<? extends ResponseCode> statusCodes;
+    private final List<? extends ResponseCode> warnings;
+    private final Map<String, String> responseHeaders;
+
+    protected Details(ResourceEntityParameter entityParameter, Set<RequestParameter> requestParameters, ResourceRepresentationMetadata representationMetadata, List<? extends ResponseCode> statusCodes, List<? extends ResponseCode> warnings, Map<String, String> responseHeaders) {
+      this.entityParameter = entityParameter;
+      this.requestParameters = requestParameters;
+      this.representationMetadata = representationMetadata;
+      this.statusCodes = statusCodes;
+      this.warnings = warnings;
+      this.responseHeaders = responseHeaders;
+    }
+  }
+
 }